@@ -0,0 +1,197 @@
+/**
+ * Copyright (c) 2010-2020 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.binding.astro.internal.calc;
+
+import java.time.ZonedDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.Calendar;
+import java.util.GregorianCalendar;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.DoubleFunction;
+import java.util.function.Function;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+import org.eclipse.jdt.annotation.Nullable;
+import org.openhab.binding.astro.internal.model.Planet;
+import org.openhab.binding.astro.internal.model.Position;
+import org.openhab.binding.astro.internal.util.DateTimeUtils;
+
+/**
+ * Caches the calculated planet data of one location.
+ * <p>
+ * The daily data (rise, set, phases, ...) is calculated once per day. The azimuth and elevation are calculated at a
+ * resolution of one minute and interpolated in between. The positions are calculated in blocks of one hour, when they
+ * are first requested. Close to the zenith or nadir the azimuth changes too fast for interpolation, there the position
+ * is calculated exactly.
+ *
+ * @author Gerhard Riegler - Initial contribution
+ */
+@NonNullByDefault
+public class EphemerisCache<T extends Planet> {
+    private static final int MAX_DAYS = 8;
+    private static final int MAX_BLOCKS = 48;
+    private static final long MILLIS_PER_MINUTE = 60 * 1000;
+    private static final int MINUTES_PER_BLOCK = 60;
+    private static final long MILLIS_PER_BLOCK = MINUTES_PER_BLOCK * MILLIS_PER_MINUTE;
+    // Interpolation limits, the position is calculated exactly beyond them
+    private static final double MAX_INTERPOLATED_ELEVATION = 80;
+    private static final double MAX_INTERPOLATED_AZIMUTH_STEP = 0.25;
+
+    private final Function<Calendar, T> dailyCalculation;
+    private final Function<T, @Nullable Calendar> expiry;
+    private final DoubleFunction<Position> positionCalculation;
+
+    private final Map<ZonedDateTime, Daily<T>> days = new LinkedHashMap<ZonedDateTime, Daily<T>>(16, 0.75f, true) {
+        private static final long serialVersionUID = 1L;
+
+        @Override
+        protected boolean removeEldestEntry(Map.@Nullable Entry<ZonedDateTime, Daily<T>> eldest) {
+            return size() > MAX_DAYS;
+        }
+    };
+
+    // azimuth and elevation of each minute, including the first minute of the next block
+    private final Map<Long, double[]> blocks = new LinkedHashMap<Long, double[]>(16, 0.75f, true) {
+        private static final long serialVersionUID = 1L;
+
+        @Override
+        protected boolean removeEldestEntry(Map.@Nullable Entry<Long, double[]> eldest) {
+            return size() > MAX_BLOCKS;
+        }
+    };
+
+    private static class Daily<T> {
+        private final T planet;
+        private final @Nullable Calendar expiry;
+
+        public Daily(T planet, @Nullable Calendar expiry) {
+            this.planet = planet;
+            this.expiry = expiry;
+        }
+    }
+
+    /**
+     * Constructor
+     *
+     * @param dailyCalculation calculates the daily data for the given date
+     * @param positionCalculation calculates the position for the given julian date
+     */
+    public EphemerisCache(Function<Calendar, T> dailyCalculation, DoubleFunction<Position> positionCalculation) {
+        this(dailyCalculation, planet -> null, positionCalculation);
+    }
+
+    /**
+     * Constructor
+     *
+     * @param dailyCalculation calculates the daily data for the given date
+     * @param expiry returns the time, after which the daily data must be calculated again during the same day, or
+     *            {@code null}
+     * @param positionCalculation calculates the position for the given julian date
+     */
+    public EphemerisCache(Function<Calendar, T> dailyCalculation, Function<T, @Nullable Calendar> expiry,
+            DoubleFunction<Position> positionCalculation) {
+        this.dailyCalculation = dailyCalculation;
+        this.expiry = expiry;
+        this.positionCalculation = positionCalculation;
+    }
+
+    /**
+     * Returns the daily data of the day of the given date. The same instance is returned for the whole day, unless
+     * the data has expired.
+     */
+    public synchronized T getDaily(ZonedDateTime date) {
+        ZonedDateTime day = date.truncatedTo(ChronoUnit.DAYS);
+        Daily<T> daily = days.get(day);
+        if (daily != null) {
+            Calendar dailyExpiry = daily.expiry;
+            if (dailyExpiry == null || date.toInstant().toEpochMilli() < dailyExpiry.getTimeInMillis()) {
+                return daily.planet;
+            }
+        }
+        T planet = dailyCalculation.apply(GregorianCalendar.from(date));
+        Calendar planetExpiry = expiry.apply(planet);
+        if (planetExpiry != null && planetExpiry.getTimeInMillis() <= date.toInstant().toEpochMilli()) {
+            // already expired, keep it for the rest of the day
+            planetExpiry = null;
+        }
+        days.put(day, new Daily<>(planet, planetExpiry));
+        return planet;
+    }
+
+    /**
+     * Returns the azimuth and elevation at the given date, interpolated between the positions of the surrounding
+     * minutes. The position is calculated exactly if the elevation of one of these positions is above 80 degrees (or
+     * below -80 degrees), or if their azimuths differ by more than 0.25 degrees. The shade length is not set.
+     */
+    public Position getPosition(ZonedDateTime date) {
+        long millis = date.toInstant().toEpochMilli();
+        long block = Math.floorDiv(millis, MILLIS_PER_BLOCK);
+        long offset = millis - block * MILLIS_PER_BLOCK;
+        int minute = (int) (offset / MILLIS_PER_MINUTE);
+        double fraction = (double) (offset - minute * MILLIS_PER_MINUTE) / MILLIS_PER_MINUTE;
+
+        double[] values = getBlock(block);
+        int index = minute * 2;
+        double azimuthStep = angleDelta(values[index], values[index + 2]);
+        if (Math.abs(values[index + 1]) > MAX_INTERPOLATED_ELEVATION
+                || Math.abs(values[index + 3]) > MAX_INTERPOLATED_ELEVATION
+                || Math.abs(azimuthStep) > MAX_INTERPOLATED_AZIMUTH_STEP) {
+            Position position = positionCalculation.apply(toJulianDate(millis));
+            return new Position(position.getAzimuthAsDouble(), position.getElevationAsDouble(), 0);
+        }
+        double azimuth = normalizeAngle(values[index] + azimuthStep * fraction);
+        double elevation = values[index + 1] + (values[index + 3] - values[index + 1]) * fraction;
+        return new Position(azimuth, elevation, 0);
+    }
+
+    private synchronized double[] getBlock(long block) {
+        double[] values = blocks.get(block);
+        if (values == null) {
+            values = new double[(MINUTES_PER_BLOCK + 1) * 2];
+            long start = block * MILLIS_PER_BLOCK;
+            for (int minute = 0; minute <= MINUTES_PER_BLOCK; minute++) {
+                Position position = positionCalculation.apply(toJulianDate(start + minute * MILLIS_PER_MINUTE));
+                values[minute * 2] = position.getAzimuthAsDouble();
+                values[minute * 2 + 1] = position.getElevationAsDouble();
+            }
+            blocks.put(block, values);
+        }
+        return values;
+    }
+
+    private static double toJulianDate(long millis) {
+        return (double) millis / DateTimeUtils.MILLISECONDS_PER_DAY - 0.5 + DateTimeUtils.J1970;
+    }
+
+    /**
+     * Returns the difference between two angles in degrees on the shorter arc, in the range of -180 to 180.
+     */
+    private static double angleDelta(double from, double to) {
+        double delta = to - from;
+        if (delta > 180) {
+            delta -= 360;
+        } else if (delta < -180) {
+            delta += 360;
+        }
+        return delta;
+    }
+
+    /**
+     * Returns the angle in degrees in the range of 0 to 360.
+     */
+    private static double normalizeAngle(double angle) {
+        double normalized = angle % 360;
+        return normalized < 0 ? normalized + 360 : normalized;
+    }
+}
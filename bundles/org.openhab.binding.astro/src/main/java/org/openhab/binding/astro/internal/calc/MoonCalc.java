@@ -656,6 +656,46 @@ public class MoonCalc {
      * Sets the azimuth, elevation and zodiac in the moon object.
      */
     private void setAzimuthElevationZodiac(double julianDate, double latitude, double longitude, Moon moon) {
+        double[] azElLon = getAzimuthElevationLongitude(julianDate, latitude, longitude);
+
+        Position position = moon.getPosition();
+        position.setAzimuth(azElLon[0]);
+        position.setElevation(getApparentElevation(azElLon[1]));
+
+        // zodiac
+        double idxd = Math.floor(azElLon[2] * SunCalc.RAD2DEG / 30);
+        int idx = 0;
+        if (idxd < 0) {
+            idx = (int) (Math.ceil(idxd));
+        } else {
+            idx = (int) (Math.floor(idxd));
+        }
+
+        if (idx >= 0 || idx <= ZodiacSign.values().length) {
+            moon.setZodiac(new Zodiac(ZodiacSign.values()[idx]));
+        }
+    }
+
+    /**
+     * Calculates the moon position (azimuth and elevation) at the specified julian date. The elevation is not corrected
+     * by the atmospheric refraction, see {@link #getApparentElevation(double)}.
+     */
+    public Position getPosition(double julianDate, double latitude, double longitude) {
+        double[] azElLon = getAzimuthElevationLongitude(julianDate, latitude, longitude);
+        return new Position(azElLon[0], azElLon[1], 0);
+    }
+
+    /**
+     * Returns the elevation in degrees corrected by the atmospheric refraction.
+     */
+    public double getApparentElevation(double elevation) {
+        return elevation + refraction(elevation * SunCalc.DEG2RAD);
+    }
+
+    /**
+     * Calculates the azimuth and elevation (without refraction) in degrees and the ecliptic longitude of the moon.
+     */
+    private double[] getAzimuthElevationLongitude(double julianDate, double latitude, double longitude) {
         double lat = latitude * SunCalc.DEG2RAD;
         double lon = longitude * SunCalc.DEG2RAD;
 
@@ -696,22 +736,7 @@ public class MoonCalc {
         double raDecTopo[] = geoEqu2TopoEqu(raDec, distance, lat, lmst);
         double azAlt[] = equ2AzAlt(raDecTopo[0], raDecTopo[1], lat, lmst);
 
-        Position position = moon.getPosition();
-        position.setAzimuth(azAlt[0] * SunCalc.RAD2DEG);
-        position.setElevation(azAlt[1] * SunCalc.RAD2DEG + refraction(azAlt[1]));
-
-        // zodiac
-        double idxd = Math.floor(moonLon * SunCalc.RAD2DEG / 30);
-        int idx = 0;
-        if (idxd < 0) {
-            idx = (int) (Math.ceil(idxd));
-        } else {
-            idx = (int) (Math.floor(idxd));
-        }
-
-        if (idx >= 0 || idx <= ZodiacSign.values().length) {
-            moon.setZodiac(new Zodiac(ZodiacSign.values()[idx]));
-        }
+        return new double[] { azAlt[0] * SunCalc.RAD2DEG, azAlt[1] * SunCalc.RAD2DEG, moonLon };
     }
 
     private double mod2Pi(double x) {
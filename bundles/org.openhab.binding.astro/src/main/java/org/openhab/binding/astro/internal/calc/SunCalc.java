@@ -64,27 +64,34 @@ public class SunCalc {
      * Calculates the sun position (azimuth and elevation).
      */
     public void setPositionalInfo(Calendar calendar, double latitude, double longitude, Double altitude, Sun sun) {
+        Position calculated = getPosition(DateTimeUtils.dateToJulianDate(calendar), latitude, longitude);
+        double elevation = calculated.getElevationAsDouble();
+
+        Position position = sun.getPosition();
+        position.setAzimuth(calculated.getAzimuthAsDouble());
+        position.setElevation(elevation);
+        position.setShadeLength(calculated.getShadeLength());
+
+        setRadiationInfo(calendar, elevation, altitude, sun);
+    }
+
+    /**
+     * Calculates the sun position (azimuth, elevation and shade length) at the specified julian date.
+     */
+    public Position getPosition(double julianDate, double latitude, double longitude) {
         double lw = -longitude * DEG2RAD;
         double phi = latitude * DEG2RAD;
 
-        double j = DateTimeUtils.dateToJulianDate(calendar);
-        double m = getSolarMeanAnomaly(j);
+        double m = getSolarMeanAnomaly(julianDate);
         double c = getEquationOfCenter(m);
         double lsun = getEclipticLongitude(m, c);
         double d = getSunDeclination(lsun);
         double a = getRightAscension(lsun);
-        double th = getSiderealTime(j, lw);
+        double th = getSiderealTime(julianDate, lw);
 
         double azimuth = getAzimuth(th, a, phi, d) / DEG2RAD;
         double elevation = getElevation(th, a, phi, d) / DEG2RAD;
-        double shadeLength = getShadeLength(elevation);
-
-        Position position = sun.getPosition();
-        position.setAzimuth(azimuth + 180);
-        position.setElevation(elevation);
-        position.setShadeLength(shadeLength);
-
-        setRadiationInfo(calendar, elevation, altitude, sun);
+        return new Position(azimuth + 180, elevation, getShadeLength(elevation));
     }
 
     /**
@@ -252,10 +259,18 @@ public class SunCalc {
         SeasonCalc seasonCalc = new SeasonCalc();
         sun.setSeason(seasonCalc.getSeason(calendar, latitude, useMeteorologicalSeason));
 
-        // phase
+        setPhase(Calendar.getInstance(), sun);
+
+        return sun;
+    }
+
+    /**
+     * Sets the sun phase at the specified time, if it is within one of the ranges of the sun.
+     */
+    public void setPhase(Calendar calendar, Sun sun) {
         for (Entry<SunPhaseName, Range> rangeEntry : sun.getAllRanges().entrySet()) {
             SunPhaseName entryPhase = rangeEntry.getKey();
-            if (rangeEntry.getValue().matches(Calendar.getInstance())) {
+            if (rangeEntry.getValue().matches(calendar)) {
                 if (entryPhase == SunPhaseName.MORNING_NIGHT || entryPhase == SunPhaseName.EVENING_NIGHT) {
                     sun.getPhase().setName(SunPhaseName.NIGHT);
                 } else {
@@ -263,8 +278,6 @@ public class SunCalc {
                 }
             }
         }
-
-        return sun;
     }
 
     /**
@@ -323,7 +336,10 @@ public class SunCalc {
         return Math.asin(Math.sin(phi) * Math.sin(d) + Math.cos(phi) * Math.cos(d) * Math.cos(th - a));
     }
 
-    private double getShadeLength(double elevation) {
+    /**
+     * Calculates the shade length of an object with a height of 1 at the specified sun elevation.
+     */
+    public double getShadeLength(double elevation) {
         return 1 / Math.tan(elevation * DEG2RAD);
     }
 
@@ -17,7 +17,6 @@ import static org.openhab.binding.astro.internal.AstroBindingConstants.THING_TYP
 import java.time.ZonedDateTime;
 import java.util.Arrays;
 import java.util.Calendar;
-import java.util.GregorianCalendar;
 import java.util.HashSet;
 import java.util.Set;
 
@@ -27,12 +26,14 @@ import org.eclipse.smarthome.core.i18n.TimeZoneProvider;
 import org.eclipse.smarthome.core.scheduler.CronScheduler;
 import org.eclipse.smarthome.core.thing.Thing;
 import org.eclipse.smarthome.core.thing.ThingTypeUID;
+import org.openhab.binding.astro.internal.calc.EphemerisCache;
 import org.openhab.binding.astro.internal.calc.MoonCalc;
 import org.openhab.binding.astro.internal.job.DailyJobMoon;
 import org.openhab.binding.astro.internal.job.Job;
 import org.openhab.binding.astro.internal.model.Moon;
 import org.openhab.binding.astro.internal.model.Planet;
 import org.openhab.binding.astro.internal.model.Position;
+import org.openhab.binding.astro.internal.util.DateTimeUtils;
 
 /**
  * The MoonHandler is responsible for updating calculated moon data.
@@ -49,6 +50,7 @@ public class MoonHandler extends AstroThingHandler {
             "phase#ageDegree", "phase#illumination", "position#azimuth", "position#elevation", "zodiac#sign" };
     private final MoonCalc moonCalc = new MoonCalc();
     private @Nullable Moon moon;
+    private @Nullable EphemerisCache<Moon> ephemeris;
 
     /**
      * Constructor
@@ -57,13 +59,20 @@ public class MoonHandler extends AstroThingHandler {
         super(thing, scheduler, timeZoneProvider);
     }
 
+    @Override
+    public void initialize() {
+        resetEphemeris();
+        super.initialize();
+    }
+
     @Override
     public void publishPositionalInfo() {
-        moon = getMoonAt(ZonedDateTime.now());
+        Moon localMoon = getMoonAt(ZonedDateTime.now());
         Double latitude = thingConfig.latitude;
         Double longitude = thingConfig.longitude;
         moonCalc.setPositionalInfo(Calendar.getInstance(), latitude != null ? latitude : 0,
-                longitude != null ? longitude : 0, moon);
+                longitude != null ? longitude : 0, localMoon);
+        moon = localMoon;
         publishPlanet();
     }
 
@@ -76,6 +85,7 @@ public class MoonHandler extends AstroThingHandler {
     public void dispose() {
         super.dispose();
         moon = null;
+        resetEphemeris();
     }
 
     @Override
@@ -88,21 +98,40 @@ public class MoonHandler extends AstroThingHandler {
         return new DailyJobMoon(thing.getUID().getAsString(), this);
     }
 
+    /**
+     * Returns the cached moon data of the day of the given date.
+     */
     private Moon getMoonAt(ZonedDateTime date) {
-        Double latitude = thingConfig.latitude;
-        Double longitude = thingConfig.longitude;
-        return moonCalc.getMoonInfo(GregorianCalendar.from(date), latitude != null ? latitude : 0,
-                longitude != null ? longitude : 0);
+        return getEphemeris().getDaily(date);
+    }
+
+    private synchronized EphemerisCache<Moon> getEphemeris() {
+        EphemerisCache<Moon> localEphemeris = ephemeris;
+        if (localEphemeris == null) {
+            Double configLatitude = thingConfig.latitude;
+            Double configLongitude = thingConfig.longitude;
+            double latitude = configLatitude != null ? configLatitude : 0;
+            double longitude = configLongitude != null ? configLongitude : 0;
+            // the next apogee and perigee depend on the time of the calculation
+            localEphemeris = new EphemerisCache<>(calendar -> moonCalc.getMoonInfo(calendar, latitude, longitude),
+                    localMoon -> DateTimeUtils.getNext(localMoon.getApogee().getDate(),
+                            localMoon.getPerigee().getDate()),
+                    julianDate -> moonCalc.getPosition(julianDate, latitude, longitude));
+            ephemeris = localEphemeris;
+        }
+        return localEphemeris;
+    }
+
+    private synchronized void resetEphemeris() {
+        ephemeris = null;
     }
 
     @Override
     protected @Nullable Position getPositionAt(ZonedDateTime date) {
-        Moon localMoon = getMoonAt(date);
-        Double latitude = thingConfig.latitude;
-        Double longitude = thingConfig.longitude;
-        moonCalc.setPositionalInfo(GregorianCalendar.from(date), latitude != null ? latitude : 0,
-                longitude != null ? longitude : 0, localMoon);
-        return localMoon.getPosition();
+        // the refraction is not interpolated, it changes abruptly near the horizon
+        Position position = getEphemeris().getPosition(date);
+        position.setElevation(moonCalc.getApparentElevation(position.getElevationAsDouble()));
+        return position;
     }
 
 }
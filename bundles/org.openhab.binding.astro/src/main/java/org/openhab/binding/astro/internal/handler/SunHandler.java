@@ -17,7 +17,6 @@ import static org.openhab.binding.astro.internal.AstroBindingConstants.THING_TYP
 import java.time.ZonedDateTime;
 import java.util.Arrays;
 import java.util.Calendar;
-import java.util.GregorianCalendar;
 import java.util.HashSet;
 import java.util.Set;
 
@@ -27,6 +26,7 @@ import org.eclipse.smarthome.core.i18n.TimeZoneProvider;
 import org.eclipse.smarthome.core.scheduler.CronScheduler;
 import org.eclipse.smarthome.core.thing.Thing;
 import org.eclipse.smarthome.core.thing.ThingTypeUID;
+import org.openhab.binding.astro.internal.calc.EphemerisCache;
 import org.openhab.binding.astro.internal.calc.SunCalc;
 import org.openhab.binding.astro.internal.job.DailyJobSun;
 import org.openhab.binding.astro.internal.job.Job;
@@ -51,6 +51,7 @@ public class SunHandler extends AstroThingHandler {
             "radiation#direct", "radiation#diffuse", "radiation#total" };
     private final SunCalc sunCalc = new SunCalc();
     private @Nullable Sun sun;
+    private @Nullable EphemerisCache<Sun> ephemeris;
 
     /**
      * Constructor
@@ -59,14 +60,23 @@ public class SunHandler extends AstroThingHandler {
         super(thing, scheduler, timeZoneProvider);
     }
 
+    @Override
+    public void initialize() {
+        resetEphemeris();
+        super.initialize();
+    }
+
     @Override
     public void publishPositionalInfo() {
-        sun = getSunAt(ZonedDateTime.now());
+        Calendar now = Calendar.getInstance();
+        Sun localSun = getSunAt(ZonedDateTime.now());
         Double latitude = thingConfig.latitude;
         Double longitude = thingConfig.longitude;
         Double altitude = thingConfig.altitude;
-        sunCalc.setPositionalInfo(Calendar.getInstance(), latitude != null ? latitude : 0,
-                longitude != null ? longitude : 0, altitude != null ? altitude : 0, sun);
+        sunCalc.setPositionalInfo(now, latitude != null ? latitude : 0, longitude != null ? longitude : 0,
+                altitude != null ? altitude : 0, localSun);
+        sunCalc.setPhase(now, localSun);
+        sun = localSun;
         publishPlanet();
     }
 
@@ -79,6 +89,7 @@ public class SunHandler extends AstroThingHandler {
     public void dispose() {
         super.dispose();
         sun = null;
+        resetEphemeris();
     }
 
     @Override
@@ -91,13 +102,33 @@ public class SunHandler extends AstroThingHandler {
         return new DailyJobSun(thing.getUID().getAsString(), this);
     }
 
+    /**
+     * Returns the cached sun data of the day of the given date.
+     */
     private Sun getSunAt(ZonedDateTime date) {
-        Double latitude = thingConfig.latitude;
-        Double longitude = thingConfig.longitude;
-        Double altitude = thingConfig.altitude;
-        return sunCalc.getSunInfo(GregorianCalendar.from(date), latitude != null ? latitude : 0,
-                longitude != null ? longitude : 0, altitude != null ? altitude : 0,
-                thingConfig.useMeteorologicalSeason);
+        return getEphemeris().getDaily(date);
+    }
+
+    private synchronized EphemerisCache<Sun> getEphemeris() {
+        EphemerisCache<Sun> localEphemeris = ephemeris;
+        if (localEphemeris == null) {
+            Double configLatitude = thingConfig.latitude;
+            Double configLongitude = thingConfig.longitude;
+            Double configAltitude = thingConfig.altitude;
+            double latitude = configLatitude != null ? configLatitude : 0;
+            double longitude = configLongitude != null ? configLongitude : 0;
+            double altitude = configAltitude != null ? configAltitude : 0;
+            boolean useMeteorologicalSeason = thingConfig.useMeteorologicalSeason;
+            localEphemeris = new EphemerisCache<>(
+                    calendar -> sunCalc.getSunInfo(calendar, latitude, longitude, altitude, useMeteorologicalSeason),
+                    julianDate -> sunCalc.getPosition(julianDate, latitude, longitude));
+            ephemeris = localEphemeris;
+        }
+        return localEphemeris;
+    }
+
+    private synchronized void resetEphemeris() {
+        ephemeris = null;
     }
 
     public @Nullable ZonedDateTime getEventTime(SunPhaseName sunPhase, ZonedDateTime date, boolean begin) {
@@ -108,13 +139,9 @@ public class SunHandler extends AstroThingHandler {
 
     @Override
     protected @Nullable Position getPositionAt(ZonedDateTime date) {
-        Sun localSun = getSunAt(date);
-        Double latitude = thingConfig.latitude;
-        Double longitude = thingConfig.longitude;
-        Double altitude = thingConfig.altitude;
-        sunCalc.setPositionalInfo(GregorianCalendar.from(date), latitude != null ? latitude : 0,
-                longitude != null ? longitude : 0, altitude != null ? altitude : 0, localSun);
-        return localSun.getPosition();
+        Position position = getEphemeris().getPosition(date);
+        position.setShadeLength(sunCalc.getShadeLength(position.getElevationAsDouble()));
+        return position;
     }
 
 }
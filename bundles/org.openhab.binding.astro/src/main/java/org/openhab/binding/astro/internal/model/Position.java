@@ -48,6 +48,10 @@ public class Position {
         return new QuantityType<>(azimuth, SmartHomeUnits.DEGREE_ANGLE);
     }
 
+    public double getAzimuthAsDouble() {
+        return azimuth;
+    }
+
     /**
      * Sets the azimuth.
      */
@@ -0,0 +1,175 @@
+/**
+ * Copyright (c) 2010-2020 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.binding.astro.benchmark;
+
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import java.util.Calendar;
+import java.util.GregorianCalendar;
+import java.util.concurrent.TimeUnit;
+
+import org.openhab.binding.astro.internal.calc.EphemerisCache;
+import org.openhab.binding.astro.internal.calc.MoonCalc;
+import org.openhab.binding.astro.internal.calc.SunCalc;
+import org.openhab.binding.astro.internal.model.Moon;
+import org.openhab.binding.astro.internal.model.Position;
+import org.openhab.binding.astro.internal.model.Sun;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.CommandLineOptionException;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Benchmarks the positional job and the azimuth/elevation actions of the sun and moon handlers, comparing the
+ * {@link EphemerisCache} against calculating the daily and positional data for every call.
+ *
+ * @author Gerhard Riegler - Initial contribution
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class EphemerisCacheBenchmark {
+
+    private static final double LATITUDE = 52.367607;
+    private static final double LONGITUDE = 4.8978293;
+    private static final double ALTITUDE = 0.0;
+    private static final ZonedDateTime START = ZonedDateTime.of(2020, 6, 20, 0, 0, 0, 0,
+            ZoneId.of("Europe/Amsterdam"));
+    // a rule planning the shutters of a day, a position every 5 minutes
+    private static final int DATES = 24 * 12;
+
+    @Param({ "sun", "moon" })
+    public String planet;
+
+    private final SunCalc sunCalc = new SunCalc();
+    private final MoonCalc moonCalc = new MoonCalc();
+    private ZonedDateTime[] dates = new ZonedDateTime[DATES];
+    private int index;
+    private EphemerisCache<Sun> sunCache = newSunCache();
+    private EphemerisCache<Moon> moonCache = newMoonCache();
+
+    @Setup
+    public void setUp() {
+        for (int i = 0; i < DATES; i++) {
+            dates[i] = START.plusMinutes(5 * i).plusSeconds(17);
+        }
+        sunCache = newSunCache();
+        moonCache = newMoonCache();
+    }
+
+    private EphemerisCache<Sun> newSunCache() {
+        return new EphemerisCache<>(calendar -> sunCalc.getSunInfo(calendar, LATITUDE, LONGITUDE, ALTITUDE, false),
+                julianDate -> sunCalc.getPosition(julianDate, LATITUDE, LONGITUDE));
+    }
+
+    private EphemerisCache<Moon> newMoonCache() {
+        return new EphemerisCache<>(calendar -> moonCalc.getMoonInfo(calendar, LATITUDE, LONGITUDE),
+                julianDate -> moonCalc.getPosition(julianDate, LATITUDE, LONGITUDE));
+    }
+
+    private ZonedDateTime nextDate() {
+        index = (index + 1) % DATES;
+        return dates[index];
+    }
+
+    /**
+     * Calculates the daily data and the position for every date, as the actions did before the cache
+     */
+    @Benchmark
+    public Position actionCalculated() {
+        ZonedDateTime date = nextDate();
+        Calendar calendar = GregorianCalendar.from(date);
+        if ("sun".equals(planet)) {
+            Sun sun = sunCalc.getSunInfo(calendar, LATITUDE, LONGITUDE, ALTITUDE, false);
+            sunCalc.setPositionalInfo(calendar, LATITUDE, LONGITUDE, ALTITUDE, sun);
+            return sun.getPosition();
+        } else {
+            Moon moon = moonCalc.getMoonInfo(calendar, LATITUDE, LONGITUDE);
+            moonCalc.setPositionalInfo(calendar, LATITUDE, LONGITUDE, moon);
+            return moon.getPosition();
+        }
+    }
+
+    @Benchmark
+    public Position actionCached() {
+        ZonedDateTime date = nextDate();
+        if ("sun".equals(planet)) {
+            Position position = sunCache.getPosition(date);
+            position.setShadeLength(sunCalc.getShadeLength(position.getElevationAsDouble()));
+            return position;
+        } else {
+            Position position = moonCache.getPosition(date);
+            position.setElevation(moonCalc.getApparentElevation(position.getElevationAsDouble()));
+            return position;
+        }
+    }
+
+    /**
+     * Calculates the daily data for every run of the positional job, as the handlers did before the cache
+     */
+    @Benchmark
+    public Object positionalJobCalculated() {
+        ZonedDateTime date = nextDate();
+        Calendar calendar = GregorianCalendar.from(date);
+        if ("sun".equals(planet)) {
+            Sun sun = sunCalc.getSunInfo(calendar, LATITUDE, LONGITUDE, ALTITUDE, false);
+            sunCalc.setPositionalInfo(calendar, LATITUDE, LONGITUDE, ALTITUDE, sun);
+            return sun;
+        } else {
+            Moon moon = moonCalc.getMoonInfo(calendar, LATITUDE, LONGITUDE);
+            moonCalc.setPositionalInfo(calendar, LATITUDE, LONGITUDE, moon);
+            return moon;
+        }
+    }
+
+    @Benchmark
+    public Object positionalJobCached() {
+        ZonedDateTime date = nextDate();
+        Calendar calendar = GregorianCalendar.from(date);
+        if ("sun".equals(planet)) {
+            Sun sun = sunCache.getDaily(date);
+            sunCalc.setPositionalInfo(calendar, LATITUDE, LONGITUDE, ALTITUDE, sun);
+            sunCalc.setPhase(calendar, sun);
+            return sun;
+        } else {
+            Moon moon = moonCache.getDaily(date);
+            moonCalc.setPositionalInfo(calendar, LATITUDE, LONGITUDE, moon);
+            return moon;
+        }
+    }
+
+    public static void main(String[] args) throws RunnerException, CommandLineOptionException {
+        CommandLineOptions commandLineOptions = new CommandLineOptions(args);
+        OptionsBuilder builder = new OptionsBuilder();
+        if (commandLineOptions.getIncludes().isEmpty()) {
+            builder.include(EphemerisCacheBenchmark.class.getName());
+        }
+        new Runner(builder.parent(commandLineOptions).addProfiler(GCProfiler.class).build()).run();
+    }
+}
@@ -0,0 +1,152 @@
+/**
+ * Copyright (c) 2010-2020 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.binding.astro.internal.calc;
+
+import static org.junit.Assert.*;
+
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import java.util.GregorianCalendar;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.openhab.binding.astro.internal.model.Moon;
+import org.openhab.binding.astro.internal.model.Position;
+import org.openhab.binding.astro.internal.model.Sun;
+import org.openhab.binding.astro.internal.util.DateTimeUtils;
+
+/**
+ * Tests the {@link EphemerisCache} for Amsterdam city: the interpolated positions must match the calculated ones and
+ * the daily data must be calculated once per day. The positions are also tested for Singapore, where the sun passes
+ * close to the zenith.
+ *
+ * @author Gerhard Riegler - Initial contribution
+ */
+public class EphemerisCacheTest {
+
+    private static final ZoneId ZONE = ZoneId.of("Europe/Amsterdam");
+    private static final ZonedDateTime FEB_27_2019 = ZonedDateTime.of(2019, 2, 27, 0, 0, 0, 0, ZONE);
+    private static final double AMSTERDAM_LATITUDE = 52.367607;
+    private static final double AMSTERDAM_LONGITUDE = 4.8978293;
+    private static final double AMSTERDAM_ALTITUDE = 0.0;
+    private static final double SINGAPORE_LATITUDE = 1.352083;
+    private static final double SINGAPORE_LONGITUDE = 103.819836;
+    private static final double ACCURACY_IN_DEGREES = 0.003;
+
+    private SunCalc sunCalc;
+    private MoonCalc moonCalc;
+    private int sunCalculations;
+    private EphemerisCache<Sun> sunCache;
+    private EphemerisCache<Moon> moonCache;
+
+    @Before
+    public void init() {
+        sunCalc = new SunCalc();
+        moonCalc = new MoonCalc();
+        sunCalculations = 0;
+        sunCache = new EphemerisCache<>(calendar -> {
+            sunCalculations++;
+            return sunCalc.getSunInfo(calendar, AMSTERDAM_LATITUDE, AMSTERDAM_LONGITUDE, AMSTERDAM_ALTITUDE, false);
+        }, julianDate -> sunCalc.getPosition(julianDate, AMSTERDAM_LATITUDE, AMSTERDAM_LONGITUDE));
+        moonCache = new EphemerisCache<>(
+                calendar -> moonCalc.getMoonInfo(calendar, AMSTERDAM_LATITUDE, AMSTERDAM_LONGITUDE),
+                julianDate -> moonCalc.getPosition(julianDate, AMSTERDAM_LATITUDE, AMSTERDAM_LONGITUDE));
+    }
+
+    @Test
+    public void testSunPositionMatchesCalculation() {
+        // every 7 seconds over the day, including north where the azimuth wraps around
+        for (ZonedDateTime date = FEB_27_2019; date.isBefore(FEB_27_2019.plusDays(1)); date = date.plusSeconds(7)) {
+            Position expected = sunCalc.getPosition(toJulianDate(date), AMSTERDAM_LATITUDE, AMSTERDAM_LONGITUDE);
+            Position actual = sunCache.getPosition(date);
+            assertAngleEquals(expected.getAzimuthAsDouble(), actual.getAzimuthAsDouble());
+            assertEquals(expected.getElevationAsDouble(), actual.getElevationAsDouble(), ACCURACY_IN_DEGREES);
+        }
+    }
+
+    @Test
+    public void testMoonPositionMatchesCalculation() {
+        for (ZonedDateTime date = FEB_27_2019; date.isBefore(FEB_27_2019.plusDays(1)); date = date.plusSeconds(7)) {
+            Position expected = moonCalc.getPosition(toJulianDate(date), AMSTERDAM_LATITUDE, AMSTERDAM_LONGITUDE);
+            Position actual = moonCache.getPosition(date);
+            assertAngleEquals(expected.getAzimuthAsDouble(), actual.getAzimuthAsDouble());
+            assertEquals(expected.getElevationAsDouble(), actual.getElevationAsDouble(), ACCURACY_IN_DEGREES);
+        }
+    }
+
+    @Test
+    public void testSunPositionNearZenithMatchesCalculation() {
+        // the sun passes the meridian at an elevation of 89.8 degrees, the azimuth turns by 180 degrees within minutes
+        ZonedDateTime mar24 = ZonedDateTime.of(2019, 3, 24, 0, 0, 0, 0, ZoneId.of("Asia/Singapore"));
+        EphemerisCache<Sun> cache = new EphemerisCache<>(calendar -> new Sun(),
+                julianDate -> sunCalc.getPosition(julianDate, SINGAPORE_LATITUDE, SINGAPORE_LONGITUDE));
+        double maxElevation = 0;
+        for (ZonedDateTime date = mar24; date.isBefore(mar24.plusDays(1)); date = date.plusSeconds(7)) {
+            Position expected = sunCalc.getPosition(toJulianDate(date), SINGAPORE_LATITUDE, SINGAPORE_LONGITUDE);
+            Position actual = cache.getPosition(date);
+            assertAngleEquals(expected.getAzimuthAsDouble(), actual.getAzimuthAsDouble());
+            assertEquals(expected.getElevationAsDouble(), actual.getElevationAsDouble(), ACCURACY_IN_DEGREES);
+            maxElevation = Math.max(maxElevation, actual.getElevationAsDouble());
+        }
+        assertTrue(maxElevation > 89.5);
+    }
+
+    @Test
+    public void testPositionAtFullMinute() {
+        ZonedDateTime date = FEB_27_2019.withHour(13).withMinute(37);
+        Position expected = sunCalc.getPosition(toJulianDate(date), AMSTERDAM_LATITUDE, AMSTERDAM_LONGITUDE);
+        Position actual = sunCache.getPosition(date);
+        assertEquals(expected.getAzimuthAsDouble(), actual.getAzimuthAsDouble(), 1e-9);
+        assertEquals(expected.getElevationAsDouble(), actual.getElevationAsDouble(), 1e-9);
+    }
+
+    @Test
+    public void testDailyDataIsCalculatedOncePerDay() {
+        Sun morning = sunCache.getDaily(FEB_27_2019.withHour(6));
+        Sun evening = sunCache.getDaily(FEB_27_2019.withHour(22));
+        assertSame(morning, evening);
+        assertEquals(1, sunCalculations);
+
+        Sun nextDay = sunCache.getDaily(FEB_27_2019.plusDays(1).withHour(6));
+        assertNotSame(morning, nextDay);
+        assertEquals(2, sunCalculations);
+
+        assertSame(morning, sunCache.getDaily(FEB_27_2019.withHour(12)));
+        assertEquals(2, sunCalculations);
+    }
+
+    @Test
+    public void testDailyDataIsCalculatedAgainWhenExpired() {
+        ZonedDateTime expiry = FEB_27_2019.withHour(12);
+        EphemerisCache<Sun> cache = new EphemerisCache<>(calendar -> {
+            sunCalculations++;
+            return new Sun();
+        }, sun -> GregorianCalendar.from(expiry), julianDate -> new Position());
+
+        Sun morning = cache.getDaily(FEB_27_2019.withHour(6));
+        assertSame(morning, cache.getDaily(FEB_27_2019.withHour(11)));
+        Sun afternoon = cache.getDaily(FEB_27_2019.withHour(13));
+        assertNotSame(morning, afternoon);
+        assertSame(afternoon, cache.getDaily(FEB_27_2019.withHour(14)));
+        assertEquals(2, sunCalculations);
+    }
+
+    private static double toJulianDate(ZonedDateTime date) {
+        return DateTimeUtils.dateToJulianDate(GregorianCalendar.from(date));
+    }
+
+    private static void assertAngleEquals(double expected, double actual) {
+        double delta = Math.abs(expected - actual) % 360;
+        assertTrue("expected " + expected + " but was " + actual, Math.min(delta, 360 - delta) < ACCURACY_IN_DEGREES);
+    }
+}
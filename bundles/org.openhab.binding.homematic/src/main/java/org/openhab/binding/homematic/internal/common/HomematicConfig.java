@@ -58,6 +58,7 @@ public class HomematicConfig {
     private long discoveryTimeToLive = -1;
     private boolean unpairOnDeletion = false;
     private boolean factoryResetOnDeletion = false;
+    private int metadataLoadingThreads = 1;
 
     private HmGatewayInfo gatewayInfo;
 
@@ -269,6 +270,20 @@ public class HomematicConfig {
         this.factoryResetOnDeletion = factoryResetOnDeletion;
     }
 
+    /**
+     * Returns the number of devices whose metadata is loaded from the gateway in parallel.
+     */
+    public int getMetadataLoadingThreads() {
+        return Math.max(1, metadataLoadingThreads);
+    }
+
+    /**
+     * Sets the number of devices whose metadata is loaded from the gateway in parallel.
+     */
+    public void setMetadataLoadingThreads(int metadataLoadingThreads) {
+        this.metadataLoadingThreads = metadataLoadingThreads;
+    }
+
     /**
      * Returns the TclRegaScript url.
      */
@@ -404,7 +419,7 @@ public class HomematicConfig {
                 .append("rfPort", getRfPort()).append("wiredPort", getWiredPort()).append("hmIpPort", getHmIpPort())
                 .append("cuxdPort", getCuxdPort()).append("groupPort", getGroupPort()).append("timeout", timeout)
                 .append("discoveryTimeToLive", discoveryTimeToLive).append("installModeDuration", installModeDuration)
-                .append("socketMaxAlive", socketMaxAlive);
+                .append("socketMaxAlive", socketMaxAlive).append("metadataLoadingThreads", metadataLoadingThreads);
         return tsb.toString();
     }
 }
@@ -14,6 +14,7 @@ package org.openhab.binding.homematic.internal.communicator;
 
 import static org.openhab.binding.homematic.internal.misc.HomematicConstants.*;
 
+import java.io.File;
 import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Collection;
@@ -23,14 +24,20 @@ import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
+import java.util.Queue;
 import java.util.Set;
 import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.ScheduledFuture;
 import java.util.concurrent.TimeUnit;
 
 import org.apache.commons.lang.StringUtils;
 import org.eclipse.jetty.client.HttpClient;
+import org.eclipse.smarthome.config.core.ConfigConstants;
 import org.eclipse.smarthome.core.common.ThreadPoolManager;
 import org.openhab.binding.homematic.internal.common.HomematicConfig;
 import org.openhab.binding.homematic.internal.communicator.client.BinRpcClient;
@@ -90,6 +97,7 @@ public abstract class AbstractHomematicGateway implements RpcEventListener, Home
     public static final double DEFAULT_DISABLE_DELAY = 2.0;
     private static final long CONNECTION_TRACKER_INTERVAL_SECONDS = 15;
     private static final String GATEWAY_POOL_NAME = "homematicGateway";
+    private static final String PARAMSET_CACHE_FOLDER = "homematic";
 
     private final Map<TransferMode, RpcClient<?>> rpcClients = new HashMap<>();
     private final Map<TransferMode, RpcServer> rpcServers = new HashMap<>();
@@ -106,7 +114,8 @@ public abstract class AbstractHomematicGateway implements RpcEventListener, Home
     private final Map<String, HmDevice> devices = Collections.synchronizedMap(new HashMap<>());
     private final Map<HmInterface, TransferMode> availableInterfaces = new TreeMap<>();
     private static List<VirtualDatapointHandler> virtualDatapointHandlers = new ArrayList<>();
-    private boolean cancelLoadAllMetadata;
+    private final ParamsetDescriptionCache paramsetDescriptionCache;
+    private volatile boolean cancelLoadAllMetadata;
     private boolean initialized;
     private boolean newDeviceEventsEnabled;
     private ScheduledFuture<?> enableNewDeviceFuture;
@@ -139,6 +148,8 @@ public abstract class AbstractHomematicGateway implements RpcEventListener, Home
         this.config = config;
         this.gatewayAdapter = gatewayAdapter;
         this.httpClient = httpClient;
+        this.paramsetDescriptionCache = new ParamsetDescriptionCache(new File(
+                new File(ConfigConstants.getUserDataFolder(), PARAMSET_CACHE_FOLDER), id + ".paramsets"));
     }
 
     @Override
@@ -371,59 +382,92 @@ public abstract class AbstractHomematicGateway implements RpcEventListener, Home
         // load all device descriptions
         List<HmDevice> deviceDescriptions = getDeviceDescriptions();
 
-        // loading datapoints for all channels
-        Set<String> loadedDevices = new HashSet<>();
-        Map<String, Collection<HmDatapoint>> datapointsByChannelIdCache = new HashMap<>();
-        for (HmDevice device : deviceDescriptions) {
-            if (!cancelLoadAllMetadata) {
-                try {
-                    logger.trace("Loading metadata for device '{}' of type '{}'", device.getAddress(),
-                            device.getType());
-                    if (device.isGatewayExtras()) {
-                        loadChannelValues(device.getChannel(HmChannel.CHANNEL_NUMBER_VARIABLE));
-                        loadChannelValues(device.getChannel(HmChannel.CHANNEL_NUMBER_SCRIPT));
+        // the metadata of known device types and firmwares is loaded from the cache
+        if (paramsetDescriptionCache.size() == 0) {
+            paramsetDescriptionCache.load();
+        }
+        paramsetDescriptionCache.retainDevices(deviceDescriptions);
+
+        // loading datapoints for all devices, independent devices are loaded in parallel
+        Set<String> loadedDevices = ConcurrentHashMap.newKeySet();
+        Queue<HmDevice> pendingDevices = new ConcurrentLinkedQueue<>(deviceDescriptions);
+        Runnable loader = () -> {
+            HmDevice device;
+            while (!cancelLoadAllMetadata && (device = pendingDevices.poll()) != null) {
+                loadDeviceMetadata(device, loadedDevices);
+            }
+        };
+        int threads = Math.min(config.getMetadataLoadingThreads(), deviceDescriptions.size());
+        List<Future<?>> loaderFutures = new ArrayList<>();
+        for (int i = 1; i < threads; i++) {
+            loaderFutures.add(scheduler.submit(loader));
+        }
+        // the calling thread loads as well, so loading proceeds even if the pool is busy
+        loader.run();
+        for (Future<?> loaderFuture : loaderFutures) {
+            try {
+                loaderFuture.get();
+            } catch (InterruptedException ex) {
+                cancelLoadAllMetadata = true;
+                Thread.currentThread().interrupt();
+            } catch (ExecutionException ex) {
+                logger.warn("Loading metadata from gateway '{}' failed: {}", id, ex.getMessage(), ex);
+            }
+        }
+        paramsetDescriptionCache.save();
+
+        if (!cancelLoadAllMetadata) {
+            devices.keySet().retainAll(loadedDevices);
+        }
+        initialized = true;
+    }
+
+    /**
+     * Loads the datapoints of all channels of the device, from the cache if possible.
+     */
+    private void loadDeviceMetadata(HmDevice device, Set<String> loadedDevices) {
+        try {
+            logger.trace("Loading metadata for device '{}' of type '{}'", device.getAddress(), device.getType());
+            if (device.isGatewayExtras()) {
+                loadChannelValues(device.getChannel(HmChannel.CHANNEL_NUMBER_VARIABLE));
+                loadChannelValues(device.getChannel(HmChannel.CHANNEL_NUMBER_SCRIPT));
+            } else {
+                for (HmChannel channel : device.getChannels()) {
+                    logger.trace("  Loading channel {}", channel);
+                    // speed up metadata generation a little bit for equal channels in the gateway devices
+                    if ((DEVICE_TYPE_VIRTUAL.equals(device.getType())
+                            || DEVICE_TYPE_VIRTUAL_WIRED.equals(device.getType())) && channel.getNumber() > 1) {
+                        HmChannel previousChannel = device.getChannel(channel.getNumber() - 1);
+                        cloneAllDatapointsIntoChannel(channel, previousChannel.getDatapoints());
                     } else {
-                        for (HmChannel channel : device.getChannels()) {
-                            logger.trace("  Loading channel {}", channel);
-                            // speed up metadata generation a little bit for equal channels in the gateway devices
-                            if ((DEVICE_TYPE_VIRTUAL.equals(device.getType())
-                                    || DEVICE_TYPE_VIRTUAL_WIRED.equals(device.getType())) && channel.getNumber() > 1) {
-                                HmChannel previousChannel = device.getChannel(channel.getNumber() - 1);
-                                cloneAllDatapointsIntoChannel(channel, previousChannel.getDatapoints());
-                            } else {
-                                String channelId = String.format("%s:%s:%s", channel.getDevice().getType(),
-                                        channel.getDevice().getFirmware(), channel.getNumber());
-                                Collection<HmDatapoint> cachedDatapoints = datapointsByChannelIdCache.get(channelId);
-                                if (cachedDatapoints != null) {
-                                    // clone all datapoints
-                                    cloneAllDatapointsIntoChannel(channel, cachedDatapoints);
-                                } else {
-                                    logger.trace("    Loading datapoints into channel {}", channel);
-                                    addChannelDatapoints(channel, HmParamsetType.MASTER);
-                                    addChannelDatapoints(channel, HmParamsetType.VALUES);
-
-                                    // Make sure to only cache non-reconfigurable channels. For reconfigurable channels,
-                                    // the data point set might change depending on the selected mode.
-                                    if (!channel.isReconfigurable()) {
-                                        datapointsByChannelIdCache.put(channelId, channel.getDatapoints());
-                                    }
-                                }
+                        Collection<HmDatapoint> cachedDatapoints = paramsetDescriptionCache.get(channel);
+                        if (cachedDatapoints != null) {
+                            // clone all datapoints
+                            cloneAllDatapointsIntoChannel(channel, cachedDatapoints);
+                        } else {
+                            logger.trace("    Loading datapoints into channel {}", channel);
+                            addChannelDatapoints(channel, HmParamsetType.MASTER);
+                            addChannelDatapoints(channel, HmParamsetType.VALUES);
+
+                            // Make sure to only cache non-reconfigurable channels. For reconfigurable channels,
+                            // the data point set might change depending on the selected mode.
+                            if (!channel.isReconfigurable()) {
+                                paramsetDescriptionCache.put(channel);
                             }
                         }
                     }
-                    prepareDevice(device);
-                    loadedDevices.add(device.getAddress());
-                    gatewayAdapter.onDeviceLoaded(device);
-                } catch (IOException ex) {
-                    logger.warn("Can't load device with address '{}' from gateway '{}': {}", device.getAddress(), id,
-                            ex.getMessage());
                 }
             }
+            // the type generation is not thread-safe, only the metadata is loaded in parallel
+            synchronized (loadedDevices) {
+                prepareDevice(device);
+                loadedDevices.add(device.getAddress());
+                gatewayAdapter.onDeviceLoaded(device);
+            }
+        } catch (IOException ex) {
+            logger.warn("Can't load device with address '{}' from gateway '{}': {}", device.getAddress(), id,
+                    ex.getMessage());
         }
-        if (!cancelLoadAllMetadata) {
-            devices.keySet().retainAll(loadedDevices);
-        }
-        initialized = true;
     }
 
     /**
@@ -0,0 +1,307 @@
+/**
+ * Copyright (c) 2010-2020 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.binding.homematic.internal.communicator;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.openhab.binding.homematic.internal.model.HmChannel;
+import org.openhab.binding.homematic.internal.model.HmDatapoint;
+import org.openhab.binding.homematic.internal.model.HmDevice;
+import org.openhab.binding.homematic.internal.model.HmParamsetType;
+import org.openhab.binding.homematic.internal.model.HmValueType;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Cache for the datapoint metadata of channels, loaded from the paramset descriptions of the gateway.
+ * <p>
+ * The metadata only depends on the device type and the firmware, so channels are identified by interface, device type,
+ * firmware and channel number. The cache is stored in a file, so the paramset descriptions need not be loaded again
+ * from the gateway at startup. Only devices with an unknown type or an updated firmware are loaded from the gateway.
+ *
+ * @author Gerhard Riegler - Initial contribution
+ */
+public class ParamsetDescriptionCache {
+    private final Logger logger = LoggerFactory.getLogger(ParamsetDescriptionCache.class);
+
+    private static final int FORMAT_VERSION = 1;
+
+    private static final byte TYPE_NULL = 0;
+    private static final byte TYPE_INTEGER = 1;
+    private static final byte TYPE_LONG = 2;
+    private static final byte TYPE_DOUBLE = 3;
+    private static final byte TYPE_BOOLEAN = 4;
+    private static final byte TYPE_STRING = 5;
+
+    private final File file;
+    private final Map<String, List<HmDatapoint>> datapointsByChannelId = new ConcurrentHashMap<>();
+    private volatile boolean modified;
+
+    public ParamsetDescriptionCache(File file) {
+        this.file = file;
+    }
+
+    /**
+     * Returns the id of the channel in the cache.
+     */
+    public static String getChannelId(HmChannel channel) {
+        return getDeviceTypeId(channel.getDevice()) + channel.getNumber();
+    }
+
+    private static String getDeviceTypeId(HmDevice device) {
+        return String.format("%s:%s:%s:", device.getHmInterface(), device.getType(), device.getFirmware());
+    }
+
+    /**
+     * Returns the cached datapoints of the channel, or null if the channel is not cached. The datapoints must be
+     * cloned before they are added to a channel.
+     */
+    public Collection<HmDatapoint> get(HmChannel channel) {
+        return datapointsByChannelId.get(getChannelId(channel));
+    }
+
+    /**
+     * Caches the datapoints of the channel, except virtual datapoints.
+     */
+    public void put(HmChannel channel) {
+        List<HmDatapoint> datapoints = new ArrayList<>();
+        for (HmDatapoint dp : channel.getDatapoints()) {
+            if (!dp.isVirtual()) {
+                HmDatapoint cachedDp = dp.clone();
+                cachedDp.setChannel(null);
+                cachedDp.setValue(null);
+                datapoints.add(cachedDp);
+            }
+        }
+        datapointsByChannelId.put(getChannelId(channel), datapoints);
+        modified = true;
+    }
+
+    /**
+     * Removes all channels of device types and firmwares which are not used by the given devices anymore.
+     */
+    public void retainDevices(Collection<HmDevice> devices) {
+        Set<String> deviceTypeIds = new HashSet<>();
+        for (HmDevice device : devices) {
+            deviceTypeIds.add(getDeviceTypeId(device));
+        }
+        modified |= datapointsByChannelId.keySet().removeIf(
+                channelId -> !deviceTypeIds.contains(channelId.substring(0, channelId.lastIndexOf(':') + 1)));
+    }
+
+    /**
+     * Returns the number of cached channels.
+     */
+    public int size() {
+        return datapointsByChannelId.size();
+    }
+
+    /**
+     * Removes all cached channels, the file is deleted with the next {@link #save()}.
+     */
+    public void clear() {
+        datapointsByChannelId.clear();
+        modified = true;
+    }
+
+    /**
+     * Loads the cache from the file. An unreadable file is ignored, the metadata is loaded from the gateway then.
+     */
+    public void load() {
+        datapointsByChannelId.clear();
+        modified = false;
+        if (!file.exists()) {
+            return;
+        }
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(file)))) {
+            if (in.readInt() != FORMAT_VERSION) {
+                logger.debug("Ignoring paramset description cache '{}' of another version", file);
+                return;
+            }
+            int channelCount = in.readInt();
+            for (int i = 0; i < channelCount; i++) {
+                String channelId = in.readUTF();
+                int datapointCount = in.readInt();
+                List<HmDatapoint> datapoints = new ArrayList<>(datapointCount);
+                for (int j = 0; j < datapointCount; j++) {
+                    datapoints.add(readDatapoint(in));
+                }
+                datapointsByChannelId.put(channelId, datapoints);
+            }
+            logger.debug("Loaded metadata of {} channels from '{}'", channelCount, file);
+        } catch (IOException | RuntimeException ex) {
+            logger.info("Can't read paramset description cache '{}', loading all metadata from the gateway: {}", file,
+                    ex.getMessage());
+            datapointsByChannelId.clear();
+        }
+    }
+
+    /**
+     * Saves the cache to the file, if it has been modified since it was loaded.
+     */
+    public void save() {
+        if (!modified) {
+            return;
+        }
+        modified = false;
+        try {
+            if (datapointsByChannelId.isEmpty()) {
+                Files.deleteIfExists(file.toPath());
+                return;
+            }
+            File folder = file.getParentFile();
+            if (folder != null && !folder.exists() && !folder.mkdirs()) {
+                throw new IOException("Can't create folder " + folder);
+            }
+            // Write to a temporary file first, so a crash does not leave a truncated cache behind
+            File tempFile = new File(file.getPath() + ".tmp");
+            try (DataOutputStream out = new DataOutputStream(
+                    new BufferedOutputStream(new FileOutputStream(tempFile)))) {
+                Map<String, List<HmDatapoint>> snapshot = new HashMap<>(datapointsByChannelId);
+                out.writeInt(FORMAT_VERSION);
+                out.writeInt(snapshot.size());
+                for (Map.Entry<String, List<HmDatapoint>> entry : snapshot.entrySet()) {
+                    out.writeUTF(entry.getKey());
+                    out.writeInt(entry.getValue().size());
+                    for (HmDatapoint dp : entry.getValue()) {
+                        writeDatapoint(out, dp);
+                    }
+                }
+            }
+            Files.move(tempFile.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING);
+            logger.debug("Saved metadata of {} channels to '{}'", datapointsByChannelId.size(), file);
+        } catch (IOException ex) {
+            logger.warn("Can't write paramset description cache '{}': {}", file, ex.getMessage());
+        }
+    }
+
+    private void writeDatapoint(DataOutputStream out, HmDatapoint dp) throws IOException {
+        writeString(out, dp.getName());
+        writeString(out, dp.getDescription());
+        writeString(out, dp.getType() == null ? null : dp.getType().name());
+        writeString(out, dp.getParamsetType() == null ? null : dp.getParamsetType().name());
+        writeValue(out, dp.getMinValue());
+        writeValue(out, dp.getMaxValue());
+        writeValue(out, dp.getStep());
+        String[] options = dp.getOptions();
+        out.writeInt(options == null ? -1 : options.length);
+        if (options != null) {
+            for (String option : options) {
+                writeString(out, option);
+            }
+        }
+        out.writeBoolean(dp.isReadOnly());
+        out.writeBoolean(dp.isReadable());
+        out.writeBoolean(dp.isTrigger());
+        writeString(out, dp.getInfo());
+        writeString(out, dp.getUnit());
+        writeValue(out, dp.getDefaultValue());
+    }
+
+    private HmDatapoint readDatapoint(DataInputStream in) throws IOException {
+        HmDatapoint dp = new HmDatapoint();
+        dp.setName(readString(in));
+        dp.setDescription(readString(in));
+        String type = readString(in);
+        dp.setType(type == null ? null : HmValueType.valueOf(type));
+        String paramsetType = readString(in);
+        dp.setParamsetType(paramsetType == null ? null : HmParamsetType.valueOf(paramsetType));
+        dp.setMinValue((Number) readValue(in));
+        dp.setMaxValue((Number) readValue(in));
+        dp.setStep((Number) readValue(in));
+        int optionCount = in.readInt();
+        if (optionCount >= 0) {
+            String[] options = new String[optionCount];
+            for (int i = 0; i < optionCount; i++) {
+                options[i] = readString(in);
+            }
+            dp.setOptions(options);
+        }
+        dp.setReadOnly(in.readBoolean());
+        dp.setReadable(in.readBoolean());
+        dp.setTrigger(in.readBoolean());
+        dp.setInfo(readString(in));
+        dp.setUnit(readString(in));
+        dp.setDefaultValue(readValue(in));
+        return dp;
+    }
+
+    private void writeString(DataOutputStream out, String value) throws IOException {
+        out.writeBoolean(value != null);
+        if (value != null) {
+            out.writeUTF(value);
+        }
+    }
+
+    private String readString(DataInputStream in) throws IOException {
+        return in.readBoolean() ? in.readUTF() : null;
+    }
+
+    private void writeValue(DataOutputStream out, Object value) throws IOException {
+        if (value == null) {
+            out.writeByte(TYPE_NULL);
+        } else if (value instanceof Integer) {
+            out.writeByte(TYPE_INTEGER);
+            out.writeInt((Integer) value);
+        } else if (value instanceof Long) {
+            out.writeByte(TYPE_LONG);
+            out.writeLong((Long) value);
+        } else if (value instanceof Number) {
+            out.writeByte(TYPE_DOUBLE);
+            out.writeDouble(((Number) value).doubleValue());
+        } else if (value instanceof Boolean) {
+            out.writeByte(TYPE_BOOLEAN);
+            out.writeBoolean((Boolean) value);
+        } else {
+            out.writeByte(TYPE_STRING);
+            out.writeUTF(value.toString());
+        }
+    }
+
+    private Object readValue(DataInputStream in) throws IOException {
+        byte type = in.readByte();
+        switch (type) {
+            case TYPE_NULL:
+                return null;
+            case TYPE_INTEGER:
+                return in.readInt();
+            case TYPE_LONG:
+                return in.readLong();
+            case TYPE_DOUBLE:
+                return in.readDouble();
+            case TYPE_BOOLEAN:
+                return in.readBoolean();
+            case TYPE_STRING:
+                return in.readUTF();
+            default:
+                throw new IOException("Unknown value type " + type);
+        }
+    }
+}
@@ -17,7 +17,11 @@ import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.UnsupportedEncodingException;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Set;
 import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Semaphore;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.TimeoutException;
 
@@ -41,16 +45,24 @@ import org.xml.sax.SAXException;
 
 /**
  * Client implementation for sending messages via XML-RPC to the Homematic server.
+ * <p>
+ * Requests are sent one after another. If more than one metadata loading thread is configured, the metadata requests
+ * of the devices are sent in parallel instead, up to the configured number of threads.
  *
  * @author Gerhard Riegler - Initial contribution
  */
 public class XmlRpcClient extends RpcClient<String> {
+    private static final Set<String> METADATA_METHODS = new HashSet<>(
+            Arrays.asList("getDeviceDescription", "getParamsetDescription", "getParamset"));
+
     private final Logger logger = LoggerFactory.getLogger(XmlRpcClient.class);
     private HttpClient httpClient;
+    private final Semaphore metadataRequests;
 
     public XmlRpcClient(HomematicConfig config, HttpClient httpClient) throws IOException {
         super(config);
         this.httpClient = httpClient;
+        this.metadataRequests = new Semaphore(config.getMetadataLoadingThreads());
     }
 
     @Override
@@ -71,7 +83,26 @@ public class XmlRpcClient extends RpcClient<String> {
     }
 
     @Override
-    protected synchronized Object[] sendMessage(int port, RpcRequest<String> request) throws IOException {
+    protected Object[] sendMessage(int port, RpcRequest<String> request) throws IOException {
+        if (config.getMetadataLoadingThreads() > 1 && METADATA_METHODS.contains(request.getMethodName())) {
+            try {
+                metadataRequests.acquire();
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+                throw new IOException(ex);
+            }
+            try {
+                return sendMessageWithRetry(port, request);
+            } finally {
+                metadataRequests.release();
+            }
+        }
+        synchronized (this) {
+            return sendMessageWithRetry(port, request);
+        }
+    }
+
+    private Object[] sendMessageWithRetry(int port, RpcRequest<String> request) throws IOException {
         if (logger.isTraceEnabled()) {
             logger.trace("Client XmlRpcRequest (port {}):\n{}", port, request);
         }
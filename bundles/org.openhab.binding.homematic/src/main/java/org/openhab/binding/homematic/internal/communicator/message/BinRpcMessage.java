@@ -19,6 +19,7 @@ import java.io.UnsupportedEncodingException;
 import java.math.BigDecimal;
 import java.math.BigInteger;
 import java.math.RoundingMode;
+import java.nio.ByteBuffer;
 import java.text.ParseException;
 import java.util.ArrayList;
 import java.util.Arrays;
@@ -29,7 +30,6 @@ import java.util.List;
 import java.util.Map;
 import java.util.TreeMap;
 
-import org.apache.commons.lang.ArrayUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -84,24 +84,58 @@ public class BinRpcMessage implements RpcRequest<byte[]>, RpcResponse {
         if (length != 4) {
             throw new EOFException("Only " + length + " bytes received reading message length");
         }
-        int datasize = (new BigInteger(ArrayUtils.subarray(sig, 4, 8))).intValue();
-        byte payload[] = new byte[datasize];
+        int datasize = getMessageLength(ByteBuffer.wrap(sig)) - 8;
+        // read the payload directly after the header, the message is decoded from this single array
+        byte message[] = new byte[8 + datasize];
+        System.arraycopy(sig, 0, message, 0, 8);
         int offset = 0;
         int currentLength;
 
-        while (offset < datasize && (currentLength = is.read(payload, offset, datasize - offset)) != -1) {
+        while (offset < datasize && (currentLength = is.read(message, 8 + offset, datasize - offset)) != -1) {
             offset += currentLength;
         }
         if (offset != datasize) {
             throw new EOFException("Only " + offset + " bytes received while reading message payload, expected "
                     + datasize + " bytes");
         }
-        byte[] message = ArrayUtils.addAll(sig, payload);
+        decodeMessage(ByteBuffer.wrap(message), methodHeader);
+    }
+
+    /**
+     * Decodes a BIN-RPC message from the given buffer. The message is read from the position to the limit of the
+     * buffer, and the buffer is not referenced by the decoded message afterwards.
+     */
+    public BinRpcMessage(ByteBuffer message, boolean methodHeader, String encoding) throws IOException {
+        this.encoding = encoding;
+        if (message.remaining() < 8) {
+            throw new EOFException("Only " + message.remaining() + " bytes received");
+        }
+        validateBinXSignature(message);
         decodeMessage(message, methodHeader);
     }
 
+    /**
+     * Returns the total length of the message, including the 8 byte header, starting at the position of the given
+     * buffer. Requires the first 8 bytes of the message to be available.
+     */
+    public static int getMessageLength(ByteBuffer header) throws IOException {
+        int datasize = header.getInt(header.position() + 4);
+        if (datasize < 0) {
+            throw new IOException("Invalid BIN-RPC message length " + datasize);
+        }
+        return 8 + datasize;
+    }
+
     private void validateBinXSignature(byte[] sig) throws UnsupportedEncodingException {
-        if (sig[0] != 'B' || sig[1] != 'i' || sig[2] != 'n') {
+        validateBinXSignature(ByteBuffer.wrap(sig));
+    }
+
+    /**
+     * Validates the signature of the message starting at the position of the given buffer.
+     */
+    public static void validateBinXSignature(ByteBuffer sig) throws UnsupportedEncodingException {
+        int start = sig.position();
+        if (sig.get(start) != 'B' || sig.get(start + 1) != 'i' || sig.get(start + 2) != 'n') {
             throw new UnsupportedEncodingException("No BinX signature");
         }
     }
@@ -115,33 +149,29 @@ public class BinRpcMessage implements RpcRequest<byte[]>, RpcResponse {
             throw new EOFException("Only " + message.length + " bytes received");
         }
         validateBinXSignature(message);
-        decodeMessage(message, methodHeader);
+        decodeMessage(ByteBuffer.wrap(message), methodHeader);
     }
 
-    private void decodeMessage(byte[] message, boolean methodHeader) throws IOException {
-        binRpcData = message;
-
-        offset = 8;
+    private void decodeMessage(ByteBuffer message, boolean methodHeader) throws IOException {
+        message.position(message.position() + 8);
 
         if (methodHeader) {
-            methodName = readString();
-            readInt();
+            methodName = readString(message);
+            readInt(message);
         }
-        generateResponseData();
+        messageData = readRpcValues(message);
     }
 
     public void setType(TYPE type) {
         binRpcData[3] = type == TYPE.RESPONSE ? (byte) 1 : (byte) 0;
     }
 
-    private void generateResponseData() throws IOException {
-        offset = 8 + (methodName != null ? methodName.length() + 8 : 0);
+    private Object[] readRpcValues(ByteBuffer message) throws IOException {
         List<Object> values = new ArrayList<>();
-        while (offset < binRpcData.length) {
-            values.add(readRpcValue());
+        while (message.hasRemaining()) {
+            values.add(readRpcValue(message));
         }
-        messageData = values.toArray();
-        values.clear();
+        return values.toArray();
     }
 
     private void createHeader() {
@@ -197,56 +227,62 @@ public class BinRpcMessage implements RpcRequest<byte[]>, RpcResponse {
     }
 
     // read rpc values
-    private int readInt() {
-        byte bi[] = new byte[4];
-        System.arraycopy(binRpcData, offset, bi, 0, 4);
-        offset += 4;
-        return (new BigInteger(bi)).intValue();
+    private int readInt(ByteBuffer message) {
+        return message.getInt();
     }
 
-    private String readString() throws UnsupportedEncodingException {
-        int len = readInt();
-        offset += len;
-        return new String(binRpcData, offset - len, len, encoding);
+    private String readString(ByteBuffer message) throws UnsupportedEncodingException {
+        int len = readInt(message);
+        if (message.hasArray()) {
+            int start = message.arrayOffset() + message.position();
+            message.position(message.position() + len);
+            return new String(message.array(), start, len, encoding);
+        }
+        byte string[] = new byte[len];
+        message.get(string);
+        return new String(string, encoding);
     }
 
-    private Object readRpcValue() throws IOException {
-        int type = readInt();
+    private Object readRpcValue(ByteBuffer message) throws IOException {
+        int type = readInt(message);
         switch (type) {
             case 1:
-                return new Integer(readInt());
+                return Integer.valueOf(readInt(message));
             case 2:
-                return binRpcData[offset++] != 0 ? Boolean.TRUE : Boolean.FALSE;
+                return message.get() != 0 ? Boolean.TRUE : Boolean.FALSE;
             case 3:
-                return readString();
+                return readString(message);
             case 4:
-                int mantissa = readInt();
-                int exponent = readInt();
+                int mantissa = readInt(message);
+                int exponent = readInt(message);
                 BigDecimal bd = new BigDecimal((double) mantissa / (double) (1 << 30) * Math.pow(2, exponent));
                 return bd.setScale(6, RoundingMode.HALF_DOWN).doubleValue();
             case 5:
-                return new Date(readInt() * 1000);
+                return new Date(readInt(message) * 1000);
             case 0x100:
-                // Array
-                int numElements = readInt();
-                Collection<Object> array = new ArrayList<>();
-                while (numElements-- > 0) {
-                    array.add(readRpcValue());
+                // Array, elements are read directly into the resulting array
+                int numElements = readInt(message);
+                if (numElements < 0 || numElements > message.remaining()) {
+                    throw new IOException("Invalid array size " + numElements);
                 }
-                return array.toArray();
+                Object array[] = new Object[numElements];
+                for (int i = 0; i < numElements; i++) {
+                    array[i] = readRpcValue(message);
+                }
+                return array;
             case 0x101:
                 // Struct
-                numElements = readInt();
+                numElements = readInt(message);
                 Map<String, Object> struct = new TreeMap<>();
                 while (numElements-- > 0) {
-                    String name = readString();
-                    struct.put(name, readRpcValue());
+                    String name = readString(message);
+                    struct.put(name, readRpcValue(message));
                 }
                 return struct;
 
             default:
-                for (int i = 0; i < binRpcData.length; i++) {
-                    logger.info("{} {}", Integer.toHexString(binRpcData[i]), (char) binRpcData[i]);
+                for (int i = 0; i < message.limit(); i++) {
+                    logger.info("{} {}", Integer.toHexString(message.get(i)), (char) message.get(i));
                 }
                 throw new IOException("Unknown data type " + type);
         }
@@ -370,9 +406,14 @@ public class BinRpcMessage implements RpcRequest<byte[]>, RpcResponse {
     @Override
     public String toString() {
         try {
-            trimBinRpcData();
-            generateResponseData();
-            return RpcUtils.dumpRpcMessage(methodName, messageData);
+            Object[] data = messageData;
+            if (data == null) {
+                // created message, decode the arguments added so far
+                ByteBuffer message = ByteBuffer.wrap(binRpcData, 0, offset);
+                message.position(8 + (methodName != null ? methodName.length() + 8 : 0));
+                data = readRpcValues(message);
+            }
+            return RpcUtils.dumpRpcMessage(methodName, data);
         } catch (Exception e) {
             throw new RuntimeException(e.getMessage(), e);
         }
@@ -0,0 +1,64 @@
+/**
+ * Copyright (c) 2010-2020 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.binding.homematic.internal.communicator.server;
+
+import java.nio.ByteBuffer;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Pool of buffers for receiving BIN-RPC messages. Events are small, so most messages fit into a pooled buffer, larger
+ * messages get a buffer of their own which is not pooled.
+ *
+ * @author Gerhard Riegler - Initial contribution
+ */
+public class BinRpcBufferPool {
+    private static final int BUFFER_SIZE = 8192;
+    private static final int MAX_POOLED_BUFFERS = 16;
+
+    private final Queue<ByteBuffer> buffers = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger pooledBuffers = new AtomicInteger();
+
+    /**
+     * Returns a buffer with the position at zero and the limit at the given size.
+     */
+    public ByteBuffer acquire(int size) {
+        if (size > BUFFER_SIZE) {
+            return ByteBuffer.allocate(size);
+        }
+        ByteBuffer buffer = buffers.poll();
+        if (buffer == null) {
+            buffer = ByteBuffer.allocate(BUFFER_SIZE);
+        } else {
+            pooledBuffers.decrementAndGet();
+        }
+        buffer.clear();
+        buffer.limit(size);
+        return buffer;
+    }
+
+    /**
+     * Returns the buffer to the pool, the buffer must not be used by the caller afterwards.
+     */
+    public void release(ByteBuffer buffer) {
+        if (buffer.capacity() != BUFFER_SIZE) {
+            return;
+        }
+        if (pooledBuffers.incrementAndGet() > MAX_POOLED_BUFFERS) {
+            pooledBuffers.decrementAndGet();
+            return;
+        }
+        buffers.add(buffer);
+    }
+}
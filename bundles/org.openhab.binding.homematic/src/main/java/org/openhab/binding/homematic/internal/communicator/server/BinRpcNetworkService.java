@@ -14,30 +14,43 @@ package org.openhab.binding.homematic.internal.communicator.server;
 
 import java.io.IOException;
 import java.net.InetSocketAddress;
-import java.net.ServerSocket;
-import java.net.Socket;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.util.Iterator;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
 
-import org.eclipse.smarthome.core.common.ThreadPoolManager;
 import org.openhab.binding.homematic.internal.common.HomematicConfig;
 import org.openhab.binding.homematic.internal.communicator.message.BinRpcMessage;
 import org.openhab.binding.homematic.internal.communicator.message.RpcRequest;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
 /**
- * Waits for a message from the Homematic gateway and starts the RpcCallbackHandler to handle the message.
+ * Waits for messages from the Homematic gateway and starts the RpcCallbackHandler to handle the messages.
+ *
+ * All connections are served by a single selector thread, which only reads and writes the messages. Decoding and
+ * handling of the method calls is done in the RPC thread pool.
  *
  * @author Gerhard Riegler - Initial contribution
  */
 public class BinRpcNetworkService implements Runnable {
+    private final Logger logger = LoggerFactory.getLogger(BinRpcNetworkService.class);
+
     private static final byte BIN_EMPTY_STRING[] = { 'B', 'i', 'n', 1, 0, 0, 0, 8, 0, 0, 0, 3, 0, 0, 0, 0 };
     private static final byte BIN_EMPTY_ARRAY[] = { 'B', 'i', 'n', 1, 0, 0, 0, 8, 0, 0, 1, 0, 0, 0, 0, 0 };
     private static final byte BIN_EMPTY_EVENT_LIST[] = { 'B', 'i', 'n', 1, 0, 0, 0, 21, 0, 0, 1, 0, 0, 0, 0, 1, 0, 0, 0,
             3, 0, 0, 0, 5, 'e', 'v', 'e', 'n', 't' };
 
-    private static final String RPC_POOL_NAME = "homematicRpc";
-    private ServerSocket serverSocket;
-    private boolean accept = true;
+    private Selector selector;
+    private ServerSocketChannel serverChannel;
+    private volatile boolean accept = true;
     private HomematicConfig config;
     private RpcResponseHandler<byte[]> rpcResponseHandler;
+    private final BinRpcBufferPool bufferPool = new BinRpcBufferPool();
+    private final Queue<Runnable> selectorTasks = new ConcurrentLinkedQueue<>();
 
     /**
      * Creates the socket for listening to events from the Homematic gateway.
@@ -45,9 +58,17 @@ public class BinRpcNetworkService implements Runnable {
     public BinRpcNetworkService(RpcEventListener listener, HomematicConfig config) throws IOException {
         this.config = config;
 
-        serverSocket = new ServerSocket();
-        serverSocket.setReuseAddress(true);
-        serverSocket.bind(new InetSocketAddress(config.getBindAddress(), config.getBinCallbackPort()));
+        selector = Selector.open();
+        try {
+            serverChannel = ServerSocketChannel.open();
+            serverChannel.socket().setReuseAddress(true);
+            serverChannel.bind(new InetSocketAddress(config.getBindAddress(), config.getBinCallbackPort()));
+            serverChannel.configureBlocking(false);
+            serverChannel.register(selector, SelectionKey.OP_ACCEPT);
+        } catch (IOException ex) {
+            closeQuietly();
+            throw ex;
+        }
 
         this.rpcResponseHandler = new RpcResponseHandler<byte[]>(listener) {
 
@@ -78,15 +99,82 @@ public class BinRpcNetworkService implements Runnable {
      */
     @Override
     public void run() {
-        while (accept) {
+        try {
+            while (accept) {
+                selector.select();
+                Runnable task;
+                while ((task = selectorTasks.poll()) != null) {
+                    task.run();
+                }
+                Iterator<SelectionKey> keys = selector.selectedKeys().iterator();
+                while (keys.hasNext()) {
+                    SelectionKey key = keys.next();
+                    keys.remove();
+                    if (!key.isValid()) {
+                        continue;
+                    }
+                    if (key.isAcceptable()) {
+                        acceptConnection();
+                    } else {
+                        BinRpcResponseHandler handler = (BinRpcResponseHandler) key.attachment();
+                        if (key.isReadable()) {
+                            handler.read();
+                        } else if (key.isWritable()) {
+                            handler.write();
+                        }
+                    }
+                }
+            }
+        } catch (IOException | RuntimeException ex) {
+            if (accept) {
+                logger.warn("BIN-RPC server stopped: {}", ex.getMessage(), ex);
+            }
+        } finally {
+            closeQuietly();
+        }
+    }
+
+    private void acceptConnection() {
+        try {
+            SocketChannel channel = serverChannel.accept();
+            if (channel != null) {
+                channel.configureBlocking(false);
+                SelectionKey key = channel.register(selector, SelectionKey.OP_READ);
+                key.attach(new BinRpcResponseHandler(this, key, rpcResponseHandler, config));
+            }
+        } catch (IOException ex) {
+            // ignore
+        }
+    }
+
+    /**
+     * Runs the task on the selector thread, all changes of the selection keys are made there.
+     */
+    void executeOnSelector(Runnable task) {
+        selectorTasks.add(task);
+        selector.wakeup();
+    }
+
+    BinRpcBufferPool getBufferPool() {
+        return bufferPool;
+    }
+
+    private void closeQuietly() {
+        for (SelectionKey key : selector.keys()) {
             try {
-                Socket cs = serverSocket.accept();
-                BinRpcResponseHandler rpcHandler = new BinRpcResponseHandler(cs, rpcResponseHandler, config);
-                ThreadPoolManager.getPool(RPC_POOL_NAME).execute(rpcHandler);
-            } catch (IOException ex) {
+                key.channel().close();
+            } catch (IOException ioe) {
                 // ignore
             }
         }
+        try {
+            if (serverChannel != null) {
+                serverChannel.close();
+            }
+            selector.close();
+        } catch (IOException ioe) {
+            // ignore
+        }
     }
 
     /**
@@ -94,10 +182,6 @@ public class BinRpcNetworkService implements Runnable {
      */
     public void shutdown() {
         accept = false;
-        try {
-            serverSocket.close();
-        } catch (IOException ioe) {
-            // ignore
-        }
+        selector.wakeup();
     }
 }
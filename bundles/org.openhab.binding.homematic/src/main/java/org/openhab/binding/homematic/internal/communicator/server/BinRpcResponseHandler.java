@@ -14,61 +14,158 @@ package org.openhab.binding.homematic.internal.communicator.server;
 
 import java.io.EOFException;
 import java.io.IOException;
-import java.net.Socket;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.SocketChannel;
 
+import org.eclipse.smarthome.core.common.ThreadPoolManager;
 import org.openhab.binding.homematic.internal.common.HomematicConfig;
 import org.openhab.binding.homematic.internal.communicator.message.BinRpcMessage;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 /**
- * Reads a BIN-RPC message from the socket and handles the method call.
+ * Reads BIN-RPC messages from a connection and handles the method calls.
+ *
+ * Reading and writing is done on the selector thread of the {@link BinRpcNetworkService} without blocking. When a
+ * message is complete, reading is suspended and the message is handled in the RPC thread pool. Reading resumes after
+ * the response has been written, so the messages of a connection are handled one after another.
  *
  * @author Gerhard Riegler - Initial contribution
  */
 public class BinRpcResponseHandler implements Runnable {
     private final Logger logger = LoggerFactory.getLogger(BinRpcResponseHandler.class);
 
-    private Socket socket;
+    private static final String RPC_POOL_NAME = "homematicRpc";
+
+    private BinRpcNetworkService networkService;
+    private SelectionKey key;
+    private SocketChannel channel;
     private RpcResponseHandler<byte[]> rpcResponseHandler;
     private HomematicConfig config;
     private long created;
 
-    public BinRpcResponseHandler(Socket socket, RpcResponseHandler<byte[]> rpcResponseHandler, HomematicConfig config) {
-        this.socket = socket;
+    private final ByteBuffer header = ByteBuffer.allocate(8);
+    private ByteBuffer message;
+    private ByteBuffer response;
+
+    public BinRpcResponseHandler(BinRpcNetworkService networkService, SelectionKey key,
+            RpcResponseHandler<byte[]> rpcResponseHandler, HomematicConfig config) {
+        this.networkService = networkService;
+        this.key = key;
+        this.channel = (SocketChannel) key.channel();
         this.rpcResponseHandler = rpcResponseHandler;
         this.config = config;
         this.created = System.currentTimeMillis();
     }
 
     /**
-     * Reads the event from the Homematic gateway and handles the method call.
+     * Reads the available data of the message, called on the selector thread.
      */
-    @Override
-    public void run() {
+    void read() {
         try {
-            boolean isMaxAliveReached;
-            do {
-                BinRpcMessage message = new BinRpcMessage(socket.getInputStream(), true, config.getEncoding());
-                logger.trace("Event BinRpcMessage: {}", message);
-                byte[] returnValue = rpcResponseHandler.handleMethodCall(message.getMethodName(),
-                        message.getResponseData());
-                if (returnValue != null) {
-                    socket.getOutputStream().write(returnValue);
+            if (message == null) {
+                if (channel.read(header) < 0) {
+                    close();
+                    return;
                 }
-                isMaxAliveReached = System.currentTimeMillis() - created > (config.getSocketMaxAlive() * 1000);
-            } while (!isMaxAliveReached);
+                if (header.hasRemaining()) {
+                    return;
+                }
+                header.flip();
+                BinRpcMessage.validateBinXSignature(header);
+                message = networkService.getBufferPool().acquire(BinRpcMessage.getMessageLength(header));
+                message.put(header);
+                header.clear();
+            }
+            if (channel.read(message) < 0) {
+                if (message.position() > 8) {
+                    logger.debug("Connection closed after {} of {} bytes of BIN-RPC message", message.position(),
+                            message.limit());
+                }
+                close();
+                return;
+            }
+            if (!message.hasRemaining()) {
+                key.interestOps(0);
+                message.flip();
+                ThreadPoolManager.getPool(RPC_POOL_NAME).execute(this);
+            }
+        } catch (IOException ex) {
+            logger.debug("Error reading BIN-RPC message: {}", ex.getMessage());
+            close();
+        }
+    }
+
+    /**
+     * Writes the pending response, called on the selector thread.
+     */
+    void write() {
+        try {
+            channel.write(response);
+            if (!response.hasRemaining()) {
+                response = null;
+                messageHandled();
+            }
+        } catch (IOException ex) {
+            logger.debug("Error writing BIN-RPC response: {}", ex.getMessage());
+            close();
+        }
+    }
 
+    /**
+     * Decodes the received message and handles the method call, called in the RPC thread pool.
+     */
+    @Override
+    public void run() {
+        try {
+            BinRpcMessage rpcMessage;
+            try {
+                rpcMessage = new BinRpcMessage(message, true, config.getEncoding());
+            } finally {
+                networkService.getBufferPool().release(message);
+                message = null;
+            }
+            logger.trace("Event BinRpcMessage: {}", rpcMessage);
+            byte[] returnValue = rpcResponseHandler.handleMethodCall(rpcMessage.getMethodName(),
+                    rpcMessage.getResponseData());
+            if (returnValue != null) {
+                response = ByteBuffer.wrap(returnValue);
+                networkService.executeOnSelector(() -> {
+                    if (key.isValid()) {
+                        key.interestOps(SelectionKey.OP_WRITE);
+                    }
+                });
+            } else {
+                networkService.executeOnSelector(this::messageHandled);
+            }
         } catch (EOFException eof) {
-            // ignore
+            networkService.executeOnSelector(this::close);
         } catch (Exception e) {
             logger.warn("{}", e.getMessage(), e);
-        } finally {
-            try {
-                socket.close();
-            } catch (IOException ioe) {
-                // ignore
-            }
+            networkService.executeOnSelector(this::close);
+        }
+    }
+
+    private void messageHandled() {
+        boolean isMaxAliveReached = System.currentTimeMillis() - created > (config.getSocketMaxAlive() * 1000);
+        if (isMaxAliveReached) {
+            close();
+        } else if (key.isValid()) {
+            key.interestOps(SelectionKey.OP_READ);
+        }
+    }
+
+    private void close() {
+        key.cancel();
+        try {
+            channel.close();
+        } catch (IOException ioe) {
+            // ignore
+        }
+        if (message != null) {
+            networkService.getBufferPool().release(message);
+            message = null;
         }
     }
 }
@@ -0,0 +1,134 @@
+/**
+ * Copyright (c) 2010-2020 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.binding.homematic.internal.communicator;
+
+import static org.hamcrest.CoreMatchers.*;
+import static org.hamcrest.MatcherAssert.assertThat;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.openhab.binding.homematic.internal.model.HmChannel;
+import org.openhab.binding.homematic.internal.model.HmDatapoint;
+import org.openhab.binding.homematic.internal.model.HmDevice;
+import org.openhab.binding.homematic.internal.model.HmInterface;
+import org.openhab.binding.homematic.internal.model.HmParamsetType;
+import org.openhab.binding.homematic.internal.model.HmValueType;
+
+/**
+ * Tests for {@link ParamsetDescriptionCache}.
+ *
+ * @author Gerhard Riegler - Initial contribution
+ */
+public class ParamsetDescriptionCacheTest {
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private HmChannel createChannel(String type, String firmware) {
+        HmDevice device = new HmDevice("ABC0000001", HmInterface.RF, type, "ccu", null, firmware);
+        HmChannel channel = new HmChannel(type, 1);
+        device.addChannel(channel);
+
+        HmDatapoint level = new HmDatapoint("LEVEL", "Level", HmValueType.FLOAT, 0.5, false, HmParamsetType.VALUES);
+        level.setMinValue(0.0);
+        level.setMaxValue(1.0);
+        level.setUnit("100%");
+        level.setDefaultValue(0.0);
+        channel.addDatapoint(level);
+
+        HmDatapoint mode = new HmDatapoint("MODE", "Mode", HmValueType.ENUM, 1, false, HmParamsetType.MASTER);
+        mode.setOptions(new String[] { "OFF", "ON" });
+        mode.setMinValue(0);
+        mode.setMaxValue(1);
+        mode.setDefaultValue(1);
+        channel.addDatapoint(mode);
+
+        HmDatapoint virtual = new HmDatapoint("VIRTUAL", "Virtual", HmValueType.BOOL, true, false,
+                HmParamsetType.VALUES);
+        virtual.setVirtual(true);
+        channel.addDatapoint(virtual);
+        return channel;
+    }
+
+    @Test
+    public void saveAndLoad() throws IOException {
+        File file = new File(folder.getRoot(), "homematic/test.paramsets");
+        HmChannel channel = createChannel("HM-LC-Dim1T-Pl", "2.9");
+
+        ParamsetDescriptionCache cache = new ParamsetDescriptionCache(file);
+        cache.put(channel);
+        cache.save();
+        assertThat(file.exists(), is(true));
+
+        ParamsetDescriptionCache loadedCache = new ParamsetDescriptionCache(file);
+        loadedCache.load();
+        Collection<HmDatapoint> datapoints = loadedCache.get(channel);
+        assertThat(datapoints.size(), is(2));
+        for (HmDatapoint dp : datapoints) {
+            HmDatapoint original = channel.getDatapoint(dp.getParamsetType(), dp.getName());
+            assertThat(dp.getValue(), is(nullValue()));
+            assertThat(dp.getType(), is(original.getType()));
+            assertThat(dp.getMinValue(), is(original.getMinValue()));
+            assertThat(dp.getMaxValue(), is(original.getMaxValue()));
+            assertThat(dp.getDefaultValue(), is(original.getDefaultValue()));
+            assertThat(dp.getUnit(), is(original.getUnit()));
+            assertThat(dp.getOptions(), is(original.getOptions()));
+            assertThat(dp.getDescription(), is(original.getDescription()));
+        }
+
+        // other firmwares are not cached
+        assertThat(loadedCache.get(createChannel("HM-LC-Dim1T-Pl", "3.0")), is(nullValue()));
+    }
+
+    @Test
+    public void retainDevices() throws IOException {
+        File file = new File(folder.getRoot(), "test.paramsets");
+        HmChannel oldFirmware = createChannel("HM-LC-Dim1T-Pl", "2.9");
+        HmChannel newFirmware = createChannel("HM-LC-Dim1T-Pl", "3.0");
+        HmChannel other = createChannel("HM-Sec-SC", "1.0");
+
+        ParamsetDescriptionCache cache = new ParamsetDescriptionCache(file);
+        cache.put(oldFirmware);
+        cache.put(newFirmware);
+        cache.put(other);
+        cache.retainDevices(Arrays.asList(newFirmware.getDevice(), other.getDevice()));
+
+        assertThat(cache.size(), is(2));
+        assertThat(cache.get(oldFirmware), is(nullValue()));
+        assertThat(cache.get(newFirmware), is(notNullValue()));
+        assertThat(cache.get(other), is(notNullValue()));
+        cache.save();
+        assertThat(file.exists(), is(true));
+
+        cache.retainDevices(Collections.emptyList());
+        cache.save();
+        assertThat(file.exists(), is(false));
+    }
+
+    @Test
+    public void ignoreCorruptFile() throws IOException {
+        File file = folder.newFile("corrupt.paramsets");
+        Files.write(file.toPath(), new byte[] { 0, 0, 0, 1, 0, 0, 0, 5, 1 });
+
+        ParamsetDescriptionCache cache = new ParamsetDescriptionCache(file);
+        cache.load();
+        assertThat(cache.size(), is(0));
+    }
+}
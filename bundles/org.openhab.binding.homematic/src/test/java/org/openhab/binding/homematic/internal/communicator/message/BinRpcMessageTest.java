@@ -0,0 +1,77 @@
+/**
+ * Copyright (c) 2010-2020 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.binding.homematic.internal.communicator.message;
+
+import static org.hamcrest.CoreMatchers.*;
+import static org.hamcrest.MatcherAssert.assertThat;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.UnsupportedEncodingException;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+import org.junit.Test;
+
+/**
+ * @author Gerhard Riegler - Initial contribution
+ */
+public class BinRpcMessageTest {
+    private static final String ENCODING = "ISO-8859-1";
+
+    private byte[] createEvent() {
+        BinRpcMessage request = new BinRpcMessage("event", ENCODING);
+        request.addArg("BidCos-RF");
+        request.addArg("LEQ0001234:1");
+        request.addArg(Integer.valueOf(42));
+        request.addArg(Boolean.TRUE);
+        request.addArg(Arrays.asList("a", "b"));
+        return request.createMessage();
+    }
+
+    private void assertEvent(BinRpcMessage message) {
+        assertThat(message.getMethodName(), is("event"));
+        Object[] data = message.getResponseData();
+        assertThat(data.length, is(5));
+        assertThat(data[0], is("BidCos-RF"));
+        assertThat(data[1], is("LEQ0001234:1"));
+        assertThat(data[2], is(42));
+        assertThat(data[3], is(true));
+        assertThat((Object[]) data[4], is(new Object[] { "a", "b" }));
+    }
+
+    @Test
+    public void decodesMessageFromStream() throws IOException {
+        assertEvent(new BinRpcMessage(new ByteArrayInputStream(createEvent()), true, ENCODING));
+    }
+
+    @Test
+    public void decodesMessageFromBufferPosition() throws IOException {
+        byte[] event = createEvent();
+        ByteBuffer buffer = ByteBuffer.allocate(event.length + 10);
+        buffer.position(3);
+        buffer.put(event);
+        buffer.flip();
+        buffer.position(3);
+
+        assertThat(BinRpcMessage.getMessageLength(buffer), is(event.length));
+        assertEvent(new BinRpcMessage(buffer, true, ENCODING));
+    }
+
+    @Test(expected = UnsupportedEncodingException.class)
+    public void rejectsMissingSignature() throws IOException {
+        byte[] event = createEvent();
+        event[0] = 'X';
+        new BinRpcMessage(ByteBuffer.wrap(event), true, ENCODING);
+    }
+}
@@ -38,6 +38,9 @@ public class LifxHandlerFactory extends BaseThingHandlerFactory {
 
     private @NonNullByDefault({}) LifxChannelFactory channelFactory;
 
+    // Shared by all lights, so there is only one socket and receiving thread for all lights
+    private final LifxTransport transport = new LifxTransport();
+
     @Override
     public boolean supportsThingType(ThingTypeUID thingTypeUID) {
         return SUPPORTED_THING_TYPES.contains(thingTypeUID);
@@ -51,7 +54,7 @@ public class LifxHandlerFactory extends BaseThingHandlerFactory {
     @Override
     protected @Nullable ThingHandler createHandler(Thing thing) {
         if (supportsThingType(thing.getThingTypeUID())) {
-            return new LifxLightHandler(thing, channelFactory);
+            return new LifxLightHandler(thing, channelFactory, transport);
         }
 
         return null;
@@ -12,22 +12,16 @@
  */
 package org.openhab.binding.lifx.internal;
 
-import static org.openhab.binding.lifx.internal.LifxBindingConstants.PACKET_INTERVAL;
 import static org.openhab.binding.lifx.internal.fields.MACAddress.BROADCAST_ADDRESS;
 import static org.openhab.binding.lifx.internal.util.LifxMessageUtil.randomSourceId;
-import static org.openhab.binding.lifx.internal.util.LifxSelectorUtil.*;
 
 import java.io.IOException;
 import java.net.InetSocketAddress;
-import java.nio.channels.SelectionKey;
-import java.nio.channels.Selector;
 import java.util.List;
 import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.concurrent.ScheduledExecutorService;
-import java.util.concurrent.ScheduledFuture;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.locks.ReentrantLock;
-import java.util.function.BiFunction;
 import java.util.function.Supplier;
 
 import org.eclipse.jdt.annotation.NonNullByDefault;
@@ -38,8 +32,6 @@ import org.openhab.binding.lifx.internal.listener.LifxResponsePacketListener;
 import org.openhab.binding.lifx.internal.protocol.GetServiceRequest;
 import org.openhab.binding.lifx.internal.protocol.Packet;
 import org.openhab.binding.lifx.internal.protocol.StateServiceResponse;
-import org.openhab.binding.lifx.internal.util.LifxNetworkUtil;
-import org.openhab.binding.lifx.internal.util.LifxSelectorUtil;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -56,6 +48,7 @@ public class LifxLightCommunicationHandler {
     private final String logId;
     private final CurrentLightState currentLightState;
     private final ScheduledExecutorService scheduler;
+    private final LifxTransport transport;
 
     private final ReentrantLock lock = new ReentrantLock();
     private final long sourceId = randomSourceId();
@@ -63,18 +56,11 @@ public class LifxLightCommunicationHandler {
 
     private int service;
     private int unicastPort;
-    private final int broadcastPort = LifxNetworkUtil.getNewBroadcastPort();
 
-    private @Nullable ScheduledFuture<?> networkJob;
-
-    private @Nullable MACAddress macAddress;
-    private @Nullable InetSocketAddress host;
+    private volatile @Nullable MACAddress macAddress;
+    private volatile @Nullable InetSocketAddress host;
     private boolean broadcastEnabled;
-
-    private @Nullable Selector selector;
-    private @Nullable SelectionKey broadcastKey;
-    private @Nullable SelectionKey unicastKey;
-    private @Nullable LifxSelectorContext selectorContext;
+    private boolean started;
 
     public LifxLightCommunicationHandler(LifxLightContext context) {
         this.logId = context.getLogId();
@@ -82,6 +68,7 @@ public class LifxLightCommunicationHandler {
         this.host = context.getConfiguration().getHost();
         this.currentLightState = context.getCurrentLightState();
         this.scheduler = context.getScheduler();
+        this.transport = context.getTransport();
         this.broadcastEnabled = context.getConfiguration().getHost() == null;
     }
 
@@ -102,51 +89,33 @@ public class LifxLightCommunicationHandler {
             logger.debug("{} : Starting communication handler", logId);
             logger.debug("{} : Using '{}' as source identifier", logId, Long.toString(sourceId, 16));
 
-            ScheduledFuture<?> localNetworkJob = networkJob;
-            if (localNetworkJob == null || localNetworkJob.isCancelled()) {
-                networkJob = scheduler.scheduleWithFixedDelay(this::receiveAndHandlePackets, 0, PACKET_INTERVAL,
-                        TimeUnit.MILLISECONDS);
-            }
-
             currentLightState.setOffline();
 
-            Selector localSelector = Selector.open();
-            selector = localSelector;
-
-            if (isBroadcastEnabled()) {
-                broadcastKey = openBroadcastChannel(selector, logId, broadcastPort);
-                selectorContext = new LifxSelectorContext(localSelector, sourceId, sequenceNumberSupplier, logId, host,
-                        macAddress, broadcastKey, unicastKey);
-                broadcastPacket(new GetServiceRequest());
-            } else {
-                unicastKey = openUnicastChannel(selector, logId, host);
-                selectorContext = new LifxSelectorContext(localSelector, sourceId, sequenceNumberSupplier, logId, host,
-                        macAddress, broadcastKey, unicastKey);
-                sendPacket(new GetServiceRequest());
-            }
+            transport.register(sourceId, this::handlePacket, scheduler);
+            started = true;
         } catch (IOException e) {
             logger.error("{} while starting LIFX communication handler for light '{}' : {}",
                     e.getClass().getSimpleName(), logId, e.getMessage(), e);
+            return;
         } finally {
             lock.unlock();
         }
+
+        if (isBroadcastEnabled()) {
+            broadcastPacket(new GetServiceRequest());
+        } else {
+            sendPacket(new GetServiceRequest());
+        }
     }
 
     public void stop() {
         try {
             lock.lock();
 
-            ScheduledFuture<?> localNetworkJob = networkJob;
-            if (localNetworkJob != null && !localNetworkJob.isCancelled()) {
-                localNetworkJob.cancel(true);
-                networkJob = null;
+            if (started) {
+                transport.unregister(sourceId);
+                started = false;
             }
-
-            closeSelector(selector, logId);
-            selector = null;
-            broadcastKey = null;
-            unicastKey = null;
-            selectorContext = null;
         } finally {
             lock.unlock();
         }
@@ -160,25 +129,16 @@ public class LifxLightCommunicationHandler {
         return macAddress;
     }
 
-    public void receiveAndHandlePackets() {
+    private void handlePacket(Packet packet, InetSocketAddress address) {
         try {
             lock.lock();
-            Selector localSelector = selector;
-            if (localSelector == null || !localSelector.isOpen()) {
-                logger.debug("{} : Unable to receive and handle packets with null or closed selector", logId);
-            } else {
-                LifxSelectorUtil.receiveAndHandlePackets(localSelector, logId,
-                        (packet, address) -> handlePacket(packet, address));
-            }
-        } catch (Exception e) {
-            logger.error("{} while receiving a packet from the light ({}): {}", e.getClass().getSimpleName(), logId,
-                    e.getMessage());
+            handlePacketLocked(packet, address);
         } finally {
             lock.unlock();
         }
     }
 
-    private void handlePacket(Packet packet, InetSocketAddress address) {
+    private void handlePacketLocked(Packet packet, InetSocketAddress address) {
         boolean packetFromConfiguredMAC = macAddress != null && (packet.getTarget().equals(macAddress));
         boolean packetFromConfiguredHost = host != null && (address.equals(host));
         boolean broadcastPacket = packet.getTarget().equals(BROADCAST_ADDRESS);
@@ -195,11 +155,6 @@ public class LifxLightCommunicationHandler {
                 if (packetFromConfiguredHost && macAddress == null) {
                     macAddress = discoveredAddress;
                     currentLightState.setOnline(discoveredAddress);
-
-                    LifxSelectorContext context = selectorContext;
-                    if (context != null) {
-                        context.setMACAddress(macAddress);
-                    }
                     return;
                 } else if (macAddress != null && macAddress.equals(discoveredAddress)) {
                     boolean newHost = host == null || !address.equals(host);
@@ -215,23 +170,6 @@ public class LifxLightCommunicationHandler {
                             currentLightState.setOfflineByCommunicationError();
                         } else {
                             this.host = new InetSocketAddress(address.getAddress(), unicastPort);
-
-                            try {
-                                cancelKey(unicastKey, logId);
-                                unicastKey = openUnicastChannel(selector, logId, host);
-
-                                LifxSelectorContext context = selectorContext;
-                                if (context != null) {
-                                    context.setHost(host);
-                                    context.setUnicastKey(unicastKey);
-                                }
-                            } catch (IOException e) {
-                                logger.warn("{} while opening the unicast channel of the light ({}): {}",
-                                        e.getClass().getSimpleName(), logId, e.getMessage());
-                                currentLightState.setOfflineByCommunicationError();
-                                return;
-                            }
-
                             currentLightState.setOnline();
                         }
                     }
@@ -250,34 +188,33 @@ public class LifxLightCommunicationHandler {
     }
 
     public void broadcastPacket(Packet packet) {
-        wrappedPacketSend((s, p) -> LifxSelectorUtil.broadcastPacket(s, p), packet);
+        packet.setSource(sourceId);
+        packet.setSequence(sequenceNumberSupplier.get());
+        handleSendResult(transport.broadcastPacket(packet, logId));
     }
 
     public void sendPacket(Packet packet) {
-        if (host != null) {
-            wrappedPacketSend((s, p) -> LifxSelectorUtil.sendPacket(s, p), packet);
+        InetSocketAddress localHost = host;
+        if (localHost != null) {
+            packet.setSource(sourceId);
+            packet.setTarget(macAddress);
+            packet.setSequence(sequenceNumberSupplier.get());
+            handleSendResult(transport.sendPacket(packet, localHost, logId));
         }
     }
 
     public void resendPacket(Packet packet) {
-        if (host != null) {
-            wrappedPacketSend((s, p) -> LifxSelectorUtil.resendPacket(s, p), packet);
+        InetSocketAddress localHost = host;
+        if (localHost != null) {
+            packet.setSource(sourceId);
+            packet.setTarget(macAddress);
+            handleSendResult(transport.sendPacket(packet, localHost, logId));
         }
     }
 
-    private void wrappedPacketSend(BiFunction<LifxSelectorContext, Packet, Boolean> function, Packet packet) {
-        LifxSelectorContext localSelectorContext = selectorContext;
-        if (localSelectorContext != null) {
-            boolean result = false;
-            try {
-                lock.lock();
-                result = function.apply(localSelectorContext, packet);
-            } finally {
-                lock.unlock();
-                if (!result) {
-                    currentLightState.setOfflineByCommunicationError();
-                }
-            }
+    private void handleSendResult(boolean result) {
+        if (!result) {
+            currentLightState.setOfflineByCommunicationError();
         }
     }
 }
@@ -0,0 +1,407 @@
+/**
+ * Copyright (c) 2010-2020 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.binding.lifx.internal;
+
+import static org.openhab.binding.lifx.internal.util.LifxNetworkUtil.isRemoteAddress;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.StandardProtocolFamily;
+import java.net.StandardSocketOptions;
+import java.nio.ByteBuffer;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.DatagramChannel;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.BiConsumer;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+import org.eclipse.jdt.annotation.Nullable;
+import org.openhab.binding.lifx.internal.protocol.Packet;
+import org.openhab.binding.lifx.internal.util.LifxNetworkUtil;
+import org.openhab.binding.lifx.internal.util.LifxSelectorUtil;
+import org.openhab.binding.lifx.internal.util.LifxThrottlingUtil;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * The {@link LifxTransport} is used by all lights for communicating with the LIFX LAN protocol. It uses a single UDP
+ * socket for unicast and broadcast packets and a single thread for receiving packets.
+ * <p>
+ * Received packets are dispatched to the packet consumer registered for the source identifier of the packet. Packets
+ * without source identifier are dispatched to all consumers. The consumers are called by the executor given on
+ * registration, one packet after another, so a slow or failing consumer does not delay the other lights or stop the
+ * receiving thread. Sending packets is throttled with the
+ * {@link LifxThrottlingUtil}, so the packet interval of lights is also respected between lights and the discovery.
+ * <p>
+ * The socket and thread only exist while packet consumers are registered.
+ *
+ * @author Wouter Born - Initial contribution
+ */
+@NonNullByDefault
+public class LifxTransport {
+
+    private static final String THREAD_NAME = "OH-binding-lifx-transport";
+    private static final int MIN_BUFFER_SIZE = 1500;
+    private static final int MAX_QUEUED_PACKETS = 100;
+    private static final int MAX_PACKETS_PER_DRAIN = 16;
+
+    private final Logger logger = LoggerFactory.getLogger(LifxTransport.class);
+
+    private final Map<Long, PacketDispatcher> dispatchers = new ConcurrentHashMap<>();
+
+    // Packets which could not be sent immediately because the socket send buffer was full
+    private final Queue<PendingPacket> pendingPackets = new ConcurrentLinkedQueue<>();
+
+    private volatile @Nullable Selector selector;
+    private volatile @Nullable DatagramChannel channel;
+
+    private static class PendingPacket {
+        private final ByteBuffer bytes;
+        private final InetSocketAddress address;
+
+        public PendingPacket(ByteBuffer bytes, InetSocketAddress address) {
+            this.bytes = bytes;
+            this.address = address;
+        }
+    }
+
+    private static class ReceivedPacket {
+        private final Packet packet;
+        private final InetSocketAddress address;
+
+        public ReceivedPacket(Packet packet, InetSocketAddress address) {
+            this.packet = packet;
+            this.address = address;
+        }
+    }
+
+    /**
+     * Queues the received packets of a consumer and passes them to the consumer in a drain loop running in the executor
+     * of the consumer. At most one drain loop is active per consumer.
+     */
+    private class PacketDispatcher {
+        private final long sourceId;
+        private final BiConsumer<Packet, InetSocketAddress> consumer;
+        private final Executor executor;
+        private final Queue<ReceivedPacket> packets = new LinkedBlockingQueue<>(MAX_QUEUED_PACKETS);
+        private final AtomicBoolean draining = new AtomicBoolean();
+
+        public PacketDispatcher(long sourceId, BiConsumer<Packet, InetSocketAddress> consumer, Executor executor) {
+            this.sourceId = sourceId;
+            this.consumer = consumer;
+            this.executor = executor;
+        }
+
+        public void dispatch(Packet packet, InetSocketAddress address) {
+            if (!packets.offer(new ReceivedPacket(packet, address))) {
+                logger.trace("Dropping packet type '{}' from '{}' for source '{}', too many packets are queued",
+                        packet.getClass().getSimpleName(), address, Long.toString(sourceId, 16));
+                return;
+            }
+            maybeStartDrain();
+        }
+
+        private void maybeStartDrain() {
+            if (packets.isEmpty() || !draining.compareAndSet(false, true)) {
+                return;
+            }
+            try {
+                executor.execute(this::drain);
+            } catch (RejectedExecutionException e) {
+                draining.set(false);
+                logger.debug("Could not pass received packets to consumer for source '{}': {}",
+                        Long.toString(sourceId, 16), e.getMessage());
+            }
+        }
+
+        private void drain() {
+            try {
+                ReceivedPacket received;
+                for (int handled = 0; handled < MAX_PACKETS_PER_DRAIN
+                        && (received = packets.poll()) != null; handled++) {
+                    try {
+                        consumer.accept(received.packet, received.address);
+                    } catch (RuntimeException e) {
+                        logger.warn("{} while handling packet type '{}' from '{}': {}", e.getClass().getSimpleName(),
+                                received.packet.getClass().getSimpleName(), received.address, e.getMessage(), e);
+                    }
+                }
+            } finally {
+                draining.set(false);
+            }
+            // Continue in new drain loop to give other consumers a chance to use the thread
+            maybeStartDrain();
+        }
+    }
+
+    /**
+     * Registers the consumer of packets with the given source identifier. The consumer is called by the given
+     * executor, with one packet at a time.
+     *
+     * @param sourceId the source identifier used for sending packets
+     * @param consumer the consumer of received packets
+     * @param executor the executor calling the consumer
+     * @throws IOException if the socket could not be opened
+     */
+    public synchronized void register(long sourceId, BiConsumer<Packet, InetSocketAddress> consumer,
+            Executor executor) throws IOException {
+        if (channel == null) {
+            open();
+        }
+        dispatchers.put(sourceId, new PacketDispatcher(sourceId, consumer, executor));
+    }
+
+    /**
+     * Unregisters the consumer of packets with the given source identifier. The socket is closed when no consumers are
+     * left.
+     *
+     * @param sourceId the source identifier used for sending packets
+     */
+    public synchronized void unregister(long sourceId) {
+        dispatchers.remove(sourceId);
+        if (dispatchers.isEmpty()) {
+            close();
+        }
+    }
+
+    /**
+     * Broadcasts a packet to all lights. The source and sequence of the packet must already have been set.
+     *
+     * @param packet the packet to send
+     * @param logId the log identifier of the sender
+     * @return true if the packet was sent to all broadcast addresses
+     */
+    public boolean broadcastPacket(Packet packet, String logId) {
+        boolean success = true;
+        for (InetSocketAddress address : LifxNetworkUtil.getBroadcastAddresses()) {
+            success = success && sendPacket(packet, address, true, logId);
+        }
+        return success;
+    }
+
+    /**
+     * Sends a packet to a light. The source, target and sequence of the packet must already have been set.
+     *
+     * @param packet the packet to send
+     * @param address the address of the light
+     * @param logId the log identifier of the sender
+     * @return true if the packet was sent
+     */
+    public boolean sendPacket(Packet packet, InetSocketAddress address, String logId) {
+        return sendPacket(packet, address, false, logId);
+    }
+
+    private boolean sendPacket(Packet packet, InetSocketAddress address, boolean broadcast, String logId) {
+        DatagramChannel localChannel = channel;
+        if (localChannel == null) {
+            logger.debug("{} : Unable to send packet with closed transport", logId);
+            return false;
+        }
+
+        try {
+            if (broadcast) {
+                LifxThrottlingUtil.lock();
+            } else {
+                LifxThrottlingUtil.lock(packet.getTarget());
+            }
+
+            if (logger.isTraceEnabled()) {
+                logger.trace("{} : Sending packet type '{}' to '{}' for '{}' with sequence '{}' and source '{}'",
+                        new Object[] { logId, packet.getClass().getSimpleName(), address.toString(),
+                                packet.getTarget().getHex(), packet.getSequence(),
+                                Long.toString(packet.getSource(), 16) });
+            }
+
+            ByteBuffer bytes = packet.bytes();
+            if (!pendingPackets.isEmpty() || localChannel.send(bytes, address) == 0) {
+                // Keep the order of packets, the receiving thread sends them when the socket is writable
+                pendingPackets.add(new PendingPacket(bytes, address));
+                Selector localSelector = selector;
+                if (localSelector != null) {
+                    localSelector.wakeup();
+                }
+            }
+            return true;
+        } catch (IOException e) {
+            logger.debug("{} while sending a packet to the light ({}): {}", e.getClass().getSimpleName(), logId,
+                    e.getMessage());
+            return false;
+        } finally {
+            if (broadcast) {
+                LifxThrottlingUtil.unlock();
+            } else {
+                LifxThrottlingUtil.unlock(packet.getTarget());
+            }
+        }
+    }
+
+    /**
+     * Returns the local address of the socket, or null if the transport is closed.
+     */
+    @Nullable
+    InetSocketAddress getLocalAddress() {
+        DatagramChannel localChannel = channel;
+        if (localChannel == null) {
+            return null;
+        }
+        try {
+            return (InetSocketAddress) localChannel.getLocalAddress();
+        } catch (IOException e) {
+            return null;
+        }
+    }
+
+    @SuppressWarnings("resource")
+    private void open() throws IOException {
+        Selector localSelector = Selector.open();
+        DatagramChannel localChannel;
+        try {
+            localChannel = DatagramChannel.open(StandardProtocolFamily.INET);
+        } catch (IOException e) {
+            localSelector.close();
+            throw e;
+        }
+        try {
+            localChannel.setOption(StandardSocketOptions.SO_BROADCAST, true);
+            localChannel.configureBlocking(false);
+            localChannel.bind(new InetSocketAddress(0));
+            localChannel.register(localSelector, SelectionKey.OP_READ);
+        } catch (IOException e) {
+            localChannel.close();
+            localSelector.close();
+            throw e;
+        }
+        logger.debug("Opened LIFX transport on {}", localChannel.getLocalAddress());
+
+        selector = localSelector;
+        channel = localChannel;
+        Thread thread = new Thread(() -> receiveAndHandlePackets(localSelector, localChannel), THREAD_NAME);
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    private void close() {
+        Selector localSelector = selector;
+        DatagramChannel localChannel = channel;
+        selector = null;
+        channel = null;
+        pendingPackets.clear();
+
+        if (localChannel != null) {
+            try {
+                localChannel.close();
+            } catch (IOException e) {
+                logger.debug("{} while closing the LIFX transport: {}", e.getClass().getSimpleName(), e.getMessage());
+            }
+        }
+        if (localSelector != null) {
+            try {
+                // Ends the receiving thread
+                localSelector.close();
+            } catch (IOException e) {
+                logger.debug("{} while closing the LIFX transport: {}", e.getClass().getSimpleName(), e.getMessage());
+            }
+        }
+        logger.debug("Closed LIFX transport");
+    }
+
+    private void receiveAndHandlePackets(Selector localSelector, DatagramChannel localChannel) {
+        ByteBuffer readBuffer = ByteBuffer.allocate(MIN_BUFFER_SIZE);
+        try {
+            while (localSelector.isOpen()) {
+                SelectionKey key = localChannel.keyFor(localSelector);
+                if (key == null || !key.isValid()) {
+                    break;
+                }
+                key.interestOps(pendingPackets.isEmpty() ? SelectionKey.OP_READ
+                        : SelectionKey.OP_READ | SelectionKey.OP_WRITE);
+
+                localSelector.select();
+                localSelector.selectedKeys().clear();
+
+                sendPendingPackets(localChannel);
+
+                int bufferSize = Math.max(MIN_BUFFER_SIZE, LifxNetworkUtil.getBufferSize());
+                if (readBuffer.capacity() < bufferSize) {
+                    readBuffer = ByteBuffer.allocate(bufferSize);
+                }
+                InetSocketAddress address;
+                while ((address = receive(localChannel, readBuffer)) != null) {
+                    if (isRemoteAddress(address.getAddress())) {
+                        try {
+                            LifxSelectorUtil.supplyParsedPacketToConsumer(readBuffer, address, this::dispatchPacket,
+                                    THREAD_NAME);
+                        } catch (RuntimeException e) {
+                            // e.g. a malformed packet, keep receiving the packets of other lights
+                            logger.debug("{} while handling a LIFX packet from '{}': {}",
+                                    e.getClass().getSimpleName(), address, e.getMessage());
+                        }
+                    }
+                    readBuffer.clear();
+                }
+            }
+        } catch (Exception e) {
+            if (localSelector.isOpen()) {
+                logger.warn("{} while receiving LIFX packets: {}", e.getClass().getSimpleName(), e.getMessage(), e);
+            }
+        }
+        logger.debug("Stopped receiving LIFX packets");
+    }
+
+    private @Nullable InetSocketAddress receive(DatagramChannel localChannel, ByteBuffer readBuffer) {
+        try {
+            return (InetSocketAddress) localChannel.receive(readBuffer);
+        } catch (ClosedChannelException e) {
+            // Transport is closed
+            return null;
+        } catch (IOException e) {
+            // e.g. ICMP port unreachable of a previously sent packet
+            logger.debug("{} while receiving a LIFX packet: {}", e.getClass().getSimpleName(), e.getMessage());
+            return null;
+        }
+    }
+
+    private void sendPendingPackets(DatagramChannel localChannel) throws IOException {
+        PendingPacket pendingPacket;
+        while ((pendingPacket = pendingPackets.peek()) != null) {
+            if (localChannel.send(pendingPacket.bytes, pendingPacket.address) == 0) {
+                return;
+            }
+            pendingPackets.poll();
+        }
+    }
+
+    private void dispatchPacket(Packet packet, InetSocketAddress address) {
+        long source = packet.getSource();
+        if (source == 0) {
+            dispatchers.values().forEach(dispatcher -> dispatcher.dispatch(packet, address));
+        } else {
+            PacketDispatcher dispatcher = dispatchers.get(source);
+            if (dispatcher != null) {
+                dispatcher.dispatch(packet, address);
+            } else {
+                logger.trace("Ignoring packet type '{}' from '{}' with unknown source '{}'",
+                        packet.getClass().getSimpleName(), address, Long.toString(source, 16));
+            }
+        }
+    }
+}
@@ -55,6 +55,7 @@ import org.openhab.binding.lifx.internal.LifxLightOnlineStateUpdater;
 import org.openhab.binding.lifx.internal.LifxLightPropertiesUpdater;
 import org.openhab.binding.lifx.internal.LifxLightState;
 import org.openhab.binding.lifx.internal.LifxLightStateChanger;
+import org.openhab.binding.lifx.internal.LifxTransport;
 import org.openhab.binding.lifx.internal.fields.HSBK;
 import org.openhab.binding.lifx.internal.fields.MACAddress;
 import org.openhab.binding.lifx.internal.protocol.Effect;
@@ -90,6 +91,7 @@ public class LifxLightHandler extends BaseThingHandler {
     private static final Duration MAX_STATE_CHANGE_DURATION = Duration.ofSeconds(4);
 
     private final LifxChannelFactory channelFactory;
+    private final LifxTransport transport;
     private @NonNullByDefault({}) Product product;
 
     private @Nullable PercentType powerOnBrightness;
@@ -230,9 +232,10 @@ public class LifxLightHandler extends BaseThingHandler {
         }
     }
 
-    public LifxLightHandler(Thing thing, LifxChannelFactory channelFactory) {
+    public LifxLightHandler(Thing thing, LifxChannelFactory channelFactory, LifxTransport transport) {
         super(thing);
         this.channelFactory = channelFactory;
+        this.transport = transport;
     }
 
     @Override
@@ -263,7 +266,7 @@ public class LifxLightHandler extends BaseThingHandler {
             pendingLightState = new LifxLightState();
 
             LifxLightContext context = new LifxLightContext(logId, product, configuration, currentLightState,
-                    pendingLightState, scheduler);
+                    pendingLightState, scheduler, transport);
 
             communicationHandler = new LifxLightCommunicationHandler(context);
             currentStateUpdater = new LifxLightCurrentStateUpdater(context, communicationHandler);
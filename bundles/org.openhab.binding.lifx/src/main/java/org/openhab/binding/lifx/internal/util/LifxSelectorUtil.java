@@ -176,7 +176,7 @@ public class LifxSelectorUtil {
         }
     }
 
-    private static void supplyParsedPacketToConsumer(ByteBuffer readBuffer, InetSocketAddress address,
+    public static void supplyParsedPacketToConsumer(ByteBuffer readBuffer, InetSocketAddress address,
             BiConsumer<Packet, InetSocketAddress> packetConsumer, String logId) {
         int messageLength = readBuffer.position();
         readBuffer.rewind();
@@ -0,0 +1,153 @@
+/**
+ * Copyright (c) 2010-2020 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.binding.lifx.internal;
+
+import static org.junit.Assert.*;
+
+import java.io.IOException;
+import java.net.DatagramPacket;
+import java.net.DatagramSocket;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.openhab.binding.lifx.internal.protocol.GetServiceRequest;
+import org.openhab.binding.lifx.internal.protocol.Packet;
+
+/**
+ * Tests the dispatching of packets received by the shared socket of the {@link LifxTransport}.
+ *
+ * @author Wouter Born - Initial contribution
+ */
+@NonNullByDefault
+public class LifxTransportTest {
+
+    private static final long TIMEOUT_MILLIS = 2000;
+    private static final long SOURCE_1 = 0x1111;
+    private static final long SOURCE_2 = 0x2222;
+
+    private final LifxTransport transport = new LifxTransport();
+    private final ExecutorService executor = Executors.newFixedThreadPool(2);
+    private final BlockingQueue<String> received1 = new LinkedBlockingQueue<>();
+    private final BlockingQueue<String> received2 = new LinkedBlockingQueue<>();
+
+    private @NonNullByDefault({}) DatagramSocket light;
+
+    @Before
+    public void setUp() throws IOException {
+        light = new DatagramSocket(0, InetAddress.getLoopbackAddress());
+    }
+
+    @After
+    public void tearDown() {
+        transport.unregister(SOURCE_1);
+        transport.unregister(SOURCE_2);
+        executor.shutdownNow();
+        light.close();
+    }
+
+    private void sendToTransport(long source, int sequence) throws IOException {
+        InetSocketAddress localAddress = transport.getLocalAddress();
+        assertNotNull(localAddress);
+
+        Packet packet = new GetServiceRequest();
+        packet.setSource(source);
+        packet.setSequence(sequence);
+        ByteBuffer buffer = packet.bytes();
+        byte[] bytes = new byte[buffer.remaining()];
+        buffer.get(bytes);
+        light.send(new DatagramPacket(bytes, bytes.length, InetAddress.getLoopbackAddress(), localAddress.getPort()));
+    }
+
+    private static String poll(BlockingQueue<String> queue) throws InterruptedException {
+        return queue.poll(TIMEOUT_MILLIS, TimeUnit.MILLISECONDS);
+    }
+
+    @Test
+    public void dispatchesPacketsBySource() throws Exception {
+        transport.register(SOURCE_1, (packet, address) -> received1.add("sequence " + packet.getSequence()), executor);
+        transport.register(SOURCE_2, (packet, address) -> received2.add("sequence " + packet.getSequence()), executor);
+
+        sendToTransport(SOURCE_1, 1);
+        sendToTransport(SOURCE_2, 2);
+        sendToTransport(SOURCE_1, 3);
+
+        assertEquals("sequence 1", poll(received1));
+        assertEquals("sequence 3", poll(received1));
+        assertEquals("sequence 2", poll(received2));
+
+        // Packets without source are passed to all consumers, packets with unknown source to none
+        sendToTransport(0x3333, 4);
+        sendToTransport(0, 5);
+
+        assertEquals("sequence 5", poll(received1));
+        assertEquals("sequence 5", poll(received2));
+        assertTrue(received1.isEmpty());
+        assertTrue(received2.isEmpty());
+    }
+
+    @Test
+    public void keepsDispatchingAfterFailingConsumer() throws Exception {
+        transport.register(SOURCE_1, (packet, address) -> {
+            received1.add("sequence " + packet.getSequence());
+            throw new IllegalStateException("Consumer failure");
+        }, executor);
+        transport.register(SOURCE_2, (packet, address) -> received2.add("sequence " + packet.getSequence()), executor);
+
+        sendToTransport(SOURCE_1, 1);
+        assertEquals("sequence 1", poll(received1));
+
+        // Neither the receiving thread nor the failing consumer stop receiving packets
+        sendToTransport(SOURCE_1, 2);
+        sendToTransport(SOURCE_2, 3);
+
+        assertEquals("sequence 2", poll(received1));
+        assertEquals("sequence 3", poll(received2));
+    }
+
+    @Test
+    public void doesNotBlockOtherConsumersWhileConsumerIsBusy() throws Exception {
+        BlockingQueue<Boolean> release = new LinkedBlockingQueue<>();
+        transport.register(SOURCE_1, (packet, address) -> {
+            received1.add("sequence " + packet.getSequence());
+            try {
+                release.poll(TIMEOUT_MILLIS, TimeUnit.MILLISECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }, executor);
+        transport.register(SOURCE_2, (packet, address) -> received2.add("sequence " + packet.getSequence()), executor);
+
+        sendToTransport(SOURCE_1, 1);
+        assertEquals("sequence 1", poll(received1));
+
+        sendToTransport(SOURCE_1, 2);
+        sendToTransport(SOURCE_2, 3);
+        assertEquals("sequence 3", poll(received2));
+
+        // The queued packet is passed to the busy consumer once it is done with the previous one
+        assertTrue(received1.isEmpty());
+        release.add(true);
+        assertEquals("sequence 2", poll(received1));
+        release.add(true);
+    }
+}
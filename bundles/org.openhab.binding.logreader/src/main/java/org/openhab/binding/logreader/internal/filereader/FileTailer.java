@@ -12,13 +12,27 @@
  */
 package org.openhab.binding.logreader.internal.filereader;
 
-import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.ClosedByInterruptException;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.Arrays;
+import java.util.Objects;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
 
-import org.apache.commons.io.input.Tailer;
-import org.apache.commons.io.input.TailerListener;
-import org.apache.commons.io.input.TailerListenerAdapter;
 import org.eclipse.jdt.annotation.Nullable;
 import org.openhab.binding.logreader.internal.filereader.api.FileReaderException;
 import org.openhab.binding.logreader.internal.filereader.api.LogFileReader;
@@ -26,47 +40,54 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 /**
- * Apache Tailer based log file reader implementation.
+ * NIO based log file reader implementation.
+ * <p>
+ * The file is read with a {@link FileChannel} into a reused buffer, so bursts of log lines are read in large chunks.
+ * Changes are detected with a {@link WatchService} on the directory of the file. The refresh rate is used as a
+ * fallback, if the watch service doesn't report changes (e.g. on network file systems).
  *
  * @author Pauli Anttila - Initial contribution
  */
 public class FileTailer extends AbstractLogFileReader implements LogFileReader {
 
-    private final Logger logger = LoggerFactory.getLogger(FileTailer.class);
+    private static final int BUFFER_SIZE = 64 * 1024;
 
-    private Tailer tailer;
-    private ExecutorService executor;
+    private final Logger logger = LoggerFactory.getLogger(FileTailer.class);
 
-    TailerListener logListener = new TailerListenerAdapter() {
+    private final ByteBuffer buffer = ByteBuffer.allocate(BUFFER_SIZE);
+    private final Charset charset = Charset.defaultCharset();
 
-        @Override
-        public void handle(@Nullable String line) {
-            sendLineToListeners(line);
-        }
+    // Current line which is not yet terminated
+    private byte[] line = new byte[256];
+    private int lineLength;
+    private boolean seenCR;
 
-        @Override
-        public void fileNotFound() {
-            sendFileNotFoundToListeners();
-        }
-
-        @Override
-        public void handle(@Nullable Exception e) {
-            sendExceptionToListeners(e);
-        }
-
-        @Override
-        public void fileRotated() {
-            sendFileRotationToListeners();
-        }
-    };
+    private volatile boolean running;
+    private @Nullable WatchService watchService;
+    private @Nullable ExecutorService executor;
 
     @Override
     public void start(String filePath, long refreshRate) throws FileReaderException {
-        tailer = new Tailer(new File(filePath), logListener, refreshRate, true, false, true);
+        Path file = Paths.get(filePath).toAbsolutePath();
+        Path directory = file.getParent();
+        WatchService watchService = null;
+        try {
+            watchService = file.getFileSystem().newWatchService();
+            directory.register(watchService, StandardWatchEventKinds.ENTRY_CREATE,
+                    StandardWatchEventKinds.ENTRY_MODIFY, StandardWatchEventKinds.ENTRY_DELETE);
+        } catch (IOException | UnsupportedOperationException e) {
+            // The directory might not exist yet, poll with the refresh rate
+            logger.debug("Cannot watch directory '{}', polling file: {}", directory, e.getMessage());
+            closeWatchService(watchService);
+            watchService = null;
+        }
+        this.watchService = watchService;
+        running = true;
         executor = Executors.newSingleThreadExecutor();
         try {
             logger.debug("Start executor");
-            executor.execute(tailer);
+            final WatchService service = watchService;
+            executor.execute(() -> tail(file, refreshRate, service));
             logger.debug("Executor started");
         } catch (Exception e) {
             throw new FileReaderException(e);
@@ -76,12 +97,183 @@ public class FileTailer extends AbstractLogFileReader implements LogFileReader {
     @Override
     public void stop() {
         logger.debug("Shutdown");
-        if (tailer != null) {
-            tailer.stop();
-        }
+        running = false;
+        // Wakes up the reader thread
+        closeWatchService(watchService);
+        ExecutorService executor = this.executor;
         if (executor != null) {
             executor.shutdown();
         }
-        logger.debug("Shutdown complite");
+        logger.debug("Shutdown complete");
+    }
+
+    private void closeWatchService(@Nullable WatchService watchService) {
+        if (watchService != null) {
+            try {
+                watchService.close();
+            } catch (IOException e) {
+                logger.debug("Closing watch service failed: {}", e.getMessage());
+            }
+        }
+    }
+
+    private void tail(Path file, long refreshRate, @Nullable WatchService watchService) {
+        FileChannel channel = null;
+        try {
+            long position = 0;
+            Object fileKey = null;
+            while (running && channel == null) {
+                try {
+                    channel = FileChannel.open(file, StandardOpenOption.READ);
+                    fileKey = fileKey(file);
+                    // Start from the end of the file
+                    position = channel.size();
+                    channel.position(position);
+                } catch (NoSuchFileException e) {
+                    sendFileNotFoundToListeners();
+                    waitForChanges(watchService, refreshRate);
+                }
+            }
+            while (running && channel != null) {
+                long size;
+                Object currentKey;
+                try {
+                    size = Files.size(file);
+                    currentKey = fileKey(file);
+                } catch (NoSuchFileException e) {
+                    // Rotated, but the new file is not created yet
+                    size = position;
+                    currentKey = fileKey;
+                }
+                if (size < position || !Objects.equals(currentKey, fileKey)) {
+                    sendFileRotationToListeners();
+                    try {
+                        FileChannel rotated = FileChannel.open(file, StandardOpenOption.READ);
+                        // Finish reading the old file, then continue with the new one
+                        try {
+                            readLines(channel);
+                        } catch (IOException e) {
+                            sendExceptionToListeners(e);
+                        }
+                        channel.close();
+                        channel = rotated;
+                        fileKey = currentKey;
+                        position = 0;
+                        flushLine();
+                    } catch (NoSuchFileException e) {
+                        // Continue with the old file until the new one exists
+                        sendFileNotFoundToListeners();
+                        waitForChanges(watchService, refreshRate);
+                    }
+                    continue;
+                }
+                if (size > position) {
+                    position = readLines(channel);
+                }
+                waitForChanges(watchService, refreshRate);
+            }
+        } catch (InterruptedException | ClosedByInterruptException e) {
+            Thread.currentThread().interrupt();
+            sendExceptionToListeners(e);
+        } catch (Exception e) {
+            sendExceptionToListeners(e);
+        } finally {
+            if (channel != null) {
+                try {
+                    channel.close();
+                } catch (IOException e) {
+                    sendExceptionToListeners(e);
+                }
+            }
+        }
+    }
+
+    private @Nullable Object fileKey(Path file) throws IOException {
+        // null on file systems without file keys, rotation is then detected by file size only
+        return Files.readAttributes(file, BasicFileAttributes.class).fileKey();
+    }
+
+    /**
+     * Blocks until the watch service reports a change in the directory, or the refresh rate has elapsed.
+     */
+    private void waitForChanges(@Nullable WatchService watchService, long refreshRate) throws InterruptedException {
+        if (watchService == null) {
+            Thread.sleep(refreshRate);
+            return;
+        }
+        try {
+            WatchKey key = watchService.poll(refreshRate, TimeUnit.MILLISECONDS);
+            if (key != null) {
+                // The events are not needed, the file is always checked
+                key.pollEvents();
+                key.reset();
+            }
+        } catch (ClosedWatchServiceException e) {
+            // Reader is stopped
+        }
+    }
+
+    /**
+     * Reads all available data of the channel and sends the complete lines to the listeners. The line separators are
+     * "\n", "\r\n" and "\r".
+     *
+     * @return the position in the channel.
+     */
+    private long readLines(FileChannel channel) throws IOException {
+        byte[] data = buffer.array();
+        buffer.clear();
+        while (running && channel.read(buffer) > 0) {
+            int length = buffer.position();
+            int start = 0;
+            for (int i = 0; i < length; i++) {
+                byte ch = data[i];
+                if (ch == '\n') {
+                    // Swallow CR before LF
+                    seenCR = false;
+                    sendLine(data, start, i);
+                    start = i + 1;
+                } else if (ch == '\r') {
+                    if (seenCR) {
+                        appendLine(data, i, i + 1);
+                    }
+                    appendLine(data, start, i);
+                    start = i + 1;
+                    seenCR = true;
+                } else if (seenCR) {
+                    // Swallow final CR
+                    flushLine();
+                }
+            }
+            appendLine(data, start, length);
+            buffer.clear();
+        }
+        return channel.position();
+    }
+
+    private void sendLine(byte[] data, int start, int end) {
+        if (lineLength == 0) {
+            // Usual case, the line is completely in the buffer
+            sendLineToListeners(new String(data, start, end - start, charset));
+        } else {
+            appendLine(data, start, end);
+            flushLine();
+        }
+    }
+
+    private void flushLine() {
+        if (lineLength > 0 || seenCR) {
+            sendLineToListeners(new String(line, 0, lineLength, charset));
+        }
+        lineLength = 0;
+        seenCR = false;
+    }
+
+    private void appendLine(byte[] data, int start, int end) {
+        int length = end - start;
+        if (lineLength + length > line.length) {
+            line = Arrays.copyOf(line, Math.max(line.length * 2, lineLength + length));
+        }
+        System.arraycopy(data, start, line, lineLength, length);
+        lineLength += length;
     }
 }
@@ -32,6 +32,7 @@ import org.eclipse.smarthome.core.types.State;
 import org.openhab.binding.logreader.internal.config.LogReaderConfiguration;
 import org.openhab.binding.logreader.internal.filereader.api.FileReaderListener;
 import org.openhab.binding.logreader.internal.filereader.api.LogFileReader;
+import org.openhab.binding.logreader.internal.searchengine.CombinedSearchEngine;
 import org.openhab.binding.logreader.internal.searchengine.SearchEngine;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -44,6 +45,11 @@ import org.slf4j.LoggerFactory;
  * @author Pauli Anttila - Rewrite
  */
 public class LogHandler extends BaseThingHandler implements FileReaderListener {
+    // Bits of the combined search engine results
+    private static final long ERRORS = 1;
+    private static final long WARNINGS = 2;
+    private static final long CUSTOMEVENTS = 4;
+
     private final Logger logger = LoggerFactory.getLogger(LogHandler.class);
 
     private LogReaderConfiguration configuration;
@@ -53,6 +59,7 @@ public class LogHandler extends BaseThingHandler implements FileReaderListener {
     private SearchEngine errorEngine;
     private SearchEngine warningEngine;
     private SearchEngine customEngine;
+    private CombinedSearchEngine searchEngine;
 
     public LogHandler(Thing thing, LogFileReader fileReader) {
         super(thing);
@@ -94,7 +101,7 @@ public class LogHandler extends BaseThingHandler implements FileReaderListener {
             warningEngine = new SearchEngine(configuration.warningPatterns, configuration.warningBlacklistingPatterns);
             errorEngine = new SearchEngine(configuration.errorPatterns, configuration.errorBlacklistingPatterns);
             customEngine = new SearchEngine(configuration.customPatterns, configuration.customBlacklistingPatterns);
-
+            searchEngine = new CombinedSearchEngine(errorEngine, warningEngine, customEngine);
         } catch (PatternSyntaxException e) {
             logger.debug("Illegal search pattern syntax '{}'. ", e.getMessage(), e);
             updateStatus(ThingStatus.OFFLINE, ThingStatusDetail.OFFLINE.CONFIGURATION_ERROR, e.getMessage());
@@ -176,17 +183,18 @@ public class LogHandler extends BaseThingHandler implements FileReaderListener {
             updateStatus(ThingStatus.ONLINE);
         }
 
-        if (errorEngine.isMatching(line)) {
+        long matches = searchEngine.isMatching(line);
+        if ((matches & ERRORS) != 0) {
             updateChannelIfLinked(CHANNEL_ERRORS, new DecimalType(errorEngine.getMatchCount()));
             updateChannelIfLinked(CHANNEL_LASTERROR, new StringType(line));
             triggerChannel(CHANNEL_NEWERROR, line);
         }
-        if (warningEngine.isMatching(line)) {
+        if ((matches & WARNINGS) != 0) {
             updateChannelIfLinked(CHANNEL_WARNINGS, new DecimalType(warningEngine.getMatchCount()));
             updateChannelIfLinked(CHANNEL_LASTWARNING, new StringType(line));
             triggerChannel(CHANNEL_NEWWARNING, line);
         }
-        if (customEngine.isMatching(line)) {
+        if ((matches & CUSTOMEVENTS) != 0) {
             updateChannelIfLinked(CHANNEL_CUSTOMEVENTS, new DecimalType(customEngine.getMatchCount()));
             updateChannelIfLinked(CHANNEL_LASTCUSTOMEVENT, new StringType(line));
             triggerChannel(CHANNEL_NEWCUSTOM, line);
@@ -0,0 +1,79 @@
+/**
+ * Copyright (c) 2010-2020 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.binding.logreader.internal.searchengine;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.regex.Pattern;
+
+/**
+ * This class searches the patterns of several {@link SearchEngine}s with a single pass over the data.
+ *
+ * @author Pauli Anttila - Initial contribution
+ */
+public class CombinedSearchEngine {
+    /**
+     * Maximum number of search engines
+     */
+    public static final int MAX_ENGINES = MultiPatternMatcher.MAX_SETS / 2;
+
+    private final SearchEngine[] engines;
+    private final MultiPatternMatcher matcher;
+    // Pattern sets of all engines
+    private final long patterns;
+
+    /**
+     * Combine search engines.
+     *
+     * @param engines search engines, at most {@link #MAX_ENGINES}.
+     */
+    public CombinedSearchEngine(SearchEngine... engines) {
+        if (engines.length > MAX_ENGINES) {
+            throw new IllegalArgumentException("At most " + MAX_ENGINES + " search engines are supported");
+        }
+        this.engines = engines.clone();
+        // Set 2 * i contains the search patterns of engine i, set 2 * i + 1 the blacklisting patterns
+        List<List<Pattern>> sets = new ArrayList<>();
+        long patterns = 0;
+        for (int i = 0; i < engines.length; i++) {
+            sets.add(engines[i].getPatterns());
+            sets.add(engines[i].getBlacklistingPatterns());
+            patterns |= 1L << (2 * i);
+        }
+        this.patterns = patterns;
+        matcher = new MultiPatternMatcher(sets);
+    }
+
+    /**
+     * Check which search engines are matching the data. The match count of these engines is incremented.
+     *
+     * @param data data against search will be done.
+     * @return bit mask of the matching engines, bit i is set if engine i is matching.
+     */
+    public long isMatching(String data) {
+        long found = matcher.find(data, patterns);
+        if (found == 0) {
+            return 0;
+        }
+        // Search only the blacklisting patterns of the engines which have found the data
+        long blacklisted = matcher.find(data, found << 1);
+        long result = 0;
+        for (int i = 0; i < engines.length; i++) {
+            if ((found & 1L << (2 * i)) != 0 && (blacklisted & 1L << (2 * i + 1)) == 0) {
+                engines[i].incrementMatchCount();
+                result |= 1L << i;
+            }
+        }
+        return result;
+    }
+}
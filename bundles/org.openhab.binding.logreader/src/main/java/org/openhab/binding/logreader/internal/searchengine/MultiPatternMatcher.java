@@ -0,0 +1,345 @@
+/**
+ * Copyright (c) 2010-2020 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.binding.logreader.internal.searchengine;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.regex.Pattern;
+
+import org.eclipse.jdt.annotation.Nullable;
+
+/**
+ * This class searches many regular expressions, grouped into sets, with a single pass over the data.
+ * <p>
+ * Every match of most regular expressions contains a literal text, like "ERROR" for "ERROR+". These literals of all
+ * patterns are compiled into one Aho-Corasick automaton, which finds all of them in a single pass. A regular expression
+ * is only evaluated if its literal has been found, so data which doesn't contain any of the literals is classified by
+ * the automaton alone. Patterns without a literal are always evaluated.
+ * <p>
+ * The result is the same as evaluating all regular expressions with {@link java.util.regex.Matcher#find()}.
+ *
+ * @author Pauli Anttila - Initial contribution
+ */
+public class MultiPatternMatcher {
+    /**
+     * Maximum number of pattern sets
+     */
+    public static final int MAX_SETS = 64;
+
+    private final Pattern[] patterns;
+    // Set of each pattern
+    private final int[] patternSets;
+    // Patterns without a literal
+    private final int[] unconditionalPatterns;
+
+    // Automaton, transitions by state and character class
+    private final int[] charClasses;
+    private final int classCount;
+    private final int[] transitions;
+    // Patterns whose literal ends in the state, null if none
+    private final int[] @Nullable [] statePatterns;
+
+    /**
+     * Compile the given pattern sets.
+     *
+     * @param sets the pattern sets, at most {@link #MAX_SETS}.
+     */
+    public MultiPatternMatcher(List<List<Pattern>> sets) {
+        if (sets.size() > MAX_SETS) {
+            throw new IllegalArgumentException("At most " + MAX_SETS + " pattern sets are supported");
+        }
+        List<Pattern> patternList = new ArrayList<>();
+        List<Integer> setList = new ArrayList<>();
+        List<Integer> unconditionalList = new ArrayList<>();
+        Map<String, List<Integer>> literals = new LinkedHashMap<>();
+        for (int set = 0; set < sets.size(); set++) {
+            for (Pattern pattern : sets.get(set)) {
+                int index = patternList.size();
+                patternList.add(pattern);
+                setList.add(set);
+                // Flags like CASE_INSENSITIVE change the meaning of the literal
+                String literal = pattern.flags() == 0 ? requiredLiteral(pattern.pattern()) : null;
+                if (literal == null) {
+                    unconditionalList.add(index);
+                } else {
+                    literals.computeIfAbsent(literal, l -> new ArrayList<>()).add(index);
+                }
+            }
+        }
+        patterns = patternList.toArray(new Pattern[patternList.size()]);
+        patternSets = setList.stream().mapToInt(Integer::intValue).toArray();
+        unconditionalPatterns = unconditionalList.stream().mapToInt(Integer::intValue).toArray();
+
+        // Character classes: 0 for all characters which don't occur in a literal
+        char maxChar = 0;
+        for (String literal : literals.keySet()) {
+            for (int i = 0; i < literal.length(); i++) {
+                maxChar = (char) Math.max(maxChar, literal.charAt(i));
+            }
+        }
+        charClasses = new int[literals.isEmpty() ? 0 : maxChar + 1];
+        int classes = 1;
+        for (String literal : literals.keySet()) {
+            for (int i = 0; i < literal.length(); i++) {
+                if (charClasses[literal.charAt(i)] == 0) {
+                    charClasses[literal.charAt(i)] = classes++;
+                }
+            }
+        }
+        classCount = classes;
+
+        // Trie of the literals
+        List<int[]> trie = new ArrayList<>();
+        List<List<Integer>> outputs = new ArrayList<>();
+        trie.add(new int[classCount]);
+        outputs.add(new ArrayList<>());
+        for (Map.Entry<String, List<Integer>> entry : literals.entrySet()) {
+            int state = 0;
+            String literal = entry.getKey();
+            for (int i = 0; i < literal.length(); i++) {
+                int charClass = charClasses[literal.charAt(i)];
+                if (trie.get(state)[charClass] == 0) {
+                    trie.get(state)[charClass] = trie.size();
+                    trie.add(new int[classCount]);
+                    outputs.add(new ArrayList<>());
+                }
+                state = trie.get(state)[charClass];
+            }
+            outputs.get(state).addAll(entry.getValue());
+        }
+
+        // Turn the trie into the automaton by following the failure links, breadth first
+        int stateCount = trie.size();
+        transitions = new int[stateCount * classCount];
+        int[] failure = new int[stateCount];
+        Queue<Integer> queue = new ArrayDeque<>();
+        for (int charClass = 0; charClass < classCount; charClass++) {
+            int next = trie.get(0)[charClass];
+            transitions[charClass] = next;
+            if (next != 0) {
+                queue.add(next);
+            }
+        }
+        while (!queue.isEmpty()) {
+            int state = queue.poll();
+            outputs.get(state).addAll(outputs.get(failure[state]));
+            for (int charClass = 0; charClass < classCount; charClass++) {
+                int next = trie.get(state)[charClass];
+                int fallback = transitions[failure[state] * classCount + charClass];
+                if (next != 0 && charClass != 0) {
+                    failure[next] = fallback;
+                    transitions[state * classCount + charClass] = next;
+                    queue.add(next);
+                } else {
+                    transitions[state * classCount + charClass] = fallback;
+                }
+            }
+        }
+        statePatterns = new int[stateCount][];
+        for (int state = 0; state < stateCount; state++) {
+            List<Integer> output = outputs.get(state);
+            if (!output.isEmpty()) {
+                statePatterns[state] = output.stream().mapToInt(Integer::intValue).distinct().toArray();
+            }
+        }
+    }
+
+    /**
+     * Search the given pattern sets in the data.
+     *
+     * @param data data against search will be done.
+     * @param sets bit mask of the sets to search.
+     * @return bit mask of the searched sets of which at least one pattern has been found.
+     */
+    public long find(CharSequence data, long sets) {
+        long found = 0;
+        long[] evaluated = null;
+
+        int state = 0;
+        int length = data.length();
+        for (int i = 0; i < length && found != sets; i++) {
+            char c = data.charAt(i);
+            state = transitions[state * classCount + (c < charClasses.length ? charClasses[c] : 0)];
+            int[] candidates = statePatterns[state];
+            if (candidates == null) {
+                continue;
+            }
+            for (int pattern : candidates) {
+                long set = 1L << patternSets[pattern];
+                if ((sets & set) == 0 || (found & set) != 0) {
+                    continue;
+                }
+                if (evaluated == null) {
+                    evaluated = new long[(patterns.length + 63) / 64];
+                } else if ((evaluated[pattern >> 6] & (1L << pattern)) != 0) {
+                    continue;
+                }
+                evaluated[pattern >> 6] |= 1L << pattern;
+                if (patterns[pattern].matcher(data).find()) {
+                    found |= set;
+                }
+            }
+        }
+
+        for (int pattern : unconditionalPatterns) {
+            long set = 1L << patternSets[pattern];
+            if ((sets & set) != 0 && (found & set) == 0 && patterns[pattern].matcher(data).find()) {
+                found |= set;
+            }
+        }
+        return found;
+    }
+
+    /**
+     * Determine a literal text which is contained in every match of the regular expression. The regular expression is
+     * analyzed conservatively, null is returned for any construct which isn't understood.
+     *
+     * @param regex the regular expression.
+     * @return the longest literal found, or null if there is none.
+     */
+    static @Nullable String requiredLiteral(String regex) {
+        // Inline flags may change the meaning of the literal, quoted text is not analyzed
+        if (regex.contains("(?") || regex.contains("\\Q")) {
+            return null;
+        }
+        String longest = "";
+        StringBuilder literal = new StringBuilder();
+        int depth = 0;
+        int length = regex.length();
+        for (int i = 0; i < length; i++) {
+            char c = regex.charAt(i);
+            if (depth > 0) {
+                // Groups are skipped, they may contain alternatives
+                if (c == '\\') {
+                    i++;
+                } else if (c == '[') {
+                    i = skipCharacterClass(regex, i);
+                    if (i < 0) {
+                        return null;
+                    }
+                } else if (c == '(') {
+                    depth++;
+                } else if (c == ')') {
+                    depth--;
+                }
+                continue;
+            }
+            switch (c) {
+                case '\\':
+                    if (i + 1 >= length) {
+                        return null;
+                    }
+                    char escaped = regex.charAt(++i);
+                    if (!Character.isLetterOrDigit(escaped)) {
+                        literal.append(escaped);
+                    } else if ("dDwWsSbBAzZGhHvVRXtnrfeaE".indexOf(escaped) >= 0) {
+                        // Character classes, boundaries and control characters
+                        longest = longer(longest, literal);
+                    } else {
+                        // Escapes with arguments like \x41 or \p{Lu}, and back references
+                        return null;
+                    }
+                    break;
+                case '[':
+                    i = skipCharacterClass(regex, i);
+                    if (i < 0) {
+                        return null;
+                    }
+                    longest = longer(longest, literal);
+                    break;
+                case '(':
+                    depth++;
+                    longest = longer(longest, literal);
+                    break;
+                case ')':
+                case '|':
+                    return null;
+                case '?':
+                case '*':
+                    // The preceding character is optional
+                    if (literal.length() > 0) {
+                        literal.setLength(literal.length() - 1);
+                    }
+                    longest = longer(longest, literal);
+                    break;
+                case '{':
+                    int end = regex.indexOf('}', i);
+                    if (end < 0 || !regex.substring(i + 1, end).matches("\\d+(,\\d*)?")) {
+                        return null;
+                    }
+                    if (regex.charAt(i + 1) == '0' && regex.substring(i + 1, end).matches("0+(,\\d*)?")
+                            && literal.length() > 0) {
+                        literal.setLength(literal.length() - 1);
+                    }
+                    longest = longer(longest, literal);
+                    i = end;
+                    break;
+                case '+':
+                case '.':
+                case '^':
+                case '$':
+                    longest = longer(longest, literal);
+                    break;
+                default:
+                    literal.append(c);
+            }
+        }
+        if (depth != 0) {
+            return null;
+        }
+        longest = longer(longest, literal);
+        return longest.isEmpty() ? null : longest;
+    }
+
+    /**
+     * Returns the longer of the given literals and clears the current literal.
+     */
+    private static String longer(String longest, StringBuilder literal) {
+        String result = literal.length() > longest.length() ? literal.toString() : longest;
+        literal.setLength(0);
+        return result;
+    }
+
+    /**
+     * Returns the index of the closing bracket of the character class starting at the given index, or -1.
+     */
+    private static int skipCharacterClass(String regex, int start) {
+        int depth = 0;
+        int i = start;
+        // A closing bracket at the beginning of a class is a literal
+        if (i + 1 < regex.length() && regex.charAt(i + 1) == '^') {
+            i++;
+        }
+        if (i + 1 < regex.length() && regex.charAt(i + 1) == ']') {
+            i++;
+        }
+        for (i++; i < regex.length(); i++) {
+            char c = regex.charAt(i);
+            if (c == '\\') {
+                i++;
+            } else if (c == '[') {
+                depth++;
+            } else if (c == ']') {
+                if (depth == 0) {
+                    return i;
+                }
+                depth--;
+            }
+        }
+        return -1;
+    }
+}
@@ -13,8 +13,8 @@
 package org.openhab.binding.logreader.internal.searchengine;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
-import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 import java.util.regex.PatternSyntaxException;
 
@@ -27,8 +27,12 @@ import org.eclipse.jdt.annotation.Nullable;
  */
 public class SearchEngine {
 
+    private static final long PATTERNS = 1;
+    private static final long BLACKLISTING_PATTERNS = 2;
+
     private List<Pattern> matchers;
     private List<Pattern> blacklistingMatchers;
+    private MultiPatternMatcher matcher;
 
     private long matchCount;
 
@@ -42,6 +46,7 @@ public class SearchEngine {
     public SearchEngine(String patterns, String blacklistingPatterns) throws PatternSyntaxException {
         matchers = compilePatterns(patterns);
         blacklistingMatchers = compilePatterns(blacklistingPatterns);
+        matcher = new MultiPatternMatcher(Arrays.asList(matchers, blacklistingMatchers));
     }
 
     /**
@@ -51,8 +56,8 @@ public class SearchEngine {
      * @return true if one of the search patterns found.
      */
     public boolean isMatching(String data) {
-        if (isMatching(matchers, data)) {
-            if (notBlacklisted(data)) {
+        if (matcher.find(data, PATTERNS) != 0) {
+            if (matcher.find(data, BLACKLISTING_PATTERNS) == 0) {
                 matchCount++;
                 return true;
             }
@@ -72,6 +77,18 @@ public class SearchEngine {
         setMatchCount(0);
     }
 
+    void incrementMatchCount() {
+        matchCount++;
+    }
+
+    List<Pattern> getPatterns() {
+        return matchers;
+    }
+
+    List<Pattern> getBlacklistingPatterns() {
+        return blacklistingMatchers;
+    }
+
     /**
      * Split pattern string and precompile search patterns.
      *
@@ -91,20 +108,4 @@ public class SearchEngine {
         }
         return patternsList;
     }
-
-    private boolean notBlacklisted(String data) {
-        return !isMatching(blacklistingMatchers, data);
-    }
-
-    private boolean isMatching(@Nullable List<Pattern> patterns, String data) {
-        if (patterns != null) {
-            for (Pattern pattern : patterns) {
-                Matcher matcher = pattern.matcher(data);
-                if (matcher.find()) {
-                    return true;
-                }
-            }
-        }
-        return false;
-    }
 }
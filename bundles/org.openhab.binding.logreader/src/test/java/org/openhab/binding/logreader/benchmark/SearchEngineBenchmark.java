@@ -0,0 +1,145 @@
+/**
+ * Copyright (c) 2010-2020 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.binding.logreader.benchmark;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Pattern;
+
+import org.openhab.binding.logreader.internal.searchengine.CombinedSearchEngine;
+import org.openhab.binding.logreader.internal.searchengine.SearchEngine;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.CommandLineOptionException;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Benchmarks the classification of openhab.log lines by the error, warning and custom search engines, comparing the
+ * {@link CombinedSearchEngine} against evaluating every pattern of every engine in turn.
+ *
+ * @author Pauli Anttila - Initial contribution
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class SearchEngineBenchmark {
+
+    private static final String ERROR_PATTERNS = "ERROR+";
+    private static final String ERROR_BLACKLISTING_PATTERNS = "Connection refused|Read timed out|\\[.*mqtt.*\\]";
+    private static final String WARNING_PATTERNS = "WARN+";
+    private static final String WARNING_BLACKLISTING_PATTERNS = "deprecated|Unknown channel|\\[.*astro.*\\]";
+    private static final String CUSTOM_PATTERNS = "Starting openHAB|Stopping openHAB|OutOfMemoryError|Thread \\w+ blocked|Rule '.*' failed";
+    private static final String CUSTOM_BLACKLISTING_PATTERNS = "test";
+
+    /**
+     * Log lines
+     * <ul>
+     * <li>info: line which doesn't match any pattern, the usual case</li>
+     * <li>warning: line which matches the warning patterns</li>
+     * <li>blacklisted: line which matches the error patterns and an error blacklisting pattern</li>
+     * </ul>
+     */
+    @Param({ "info", "warning", "blacklisted" })
+    public String line;
+
+    private String data = "";
+    private List<SearchEngine> engines = new ArrayList<>();
+    private CombinedSearchEngine combined = new CombinedSearchEngine();
+    private List<List<Pattern>> patterns = new ArrayList<>();
+
+    @Setup
+    public void setUp() {
+        switch (line) {
+            case "info":
+                data = "2020-08-10 21:13:37.123 [INFO ] [.event.ItemStateChangedEvent] - LivingRoom_Temperature changed from 21.3 °C to 21.4 °C";
+                break;
+            case "warning":
+                data = "2020-08-10 21:13:37.123 [WARN ] [ding.hue.internal.HueBridgeHandler] - Bridge 192.168.1.20 is not reachable";
+                break;
+            case "blacklisted":
+                data = "2020-08-10 21:13:37.123 [ERROR] [org.openhab.binding.mqtt] - Connection refused: broker.local/192.168.1.5:1883";
+                break;
+            default:
+                throw new IllegalArgumentException(line);
+        }
+        engines.clear();
+        engines.add(new SearchEngine(ERROR_PATTERNS, ERROR_BLACKLISTING_PATTERNS));
+        engines.add(new SearchEngine(WARNING_PATTERNS, WARNING_BLACKLISTING_PATTERNS));
+        engines.add(new SearchEngine(CUSTOM_PATTERNS, CUSTOM_BLACKLISTING_PATTERNS));
+        combined = new CombinedSearchEngine(engines.toArray(new SearchEngine[engines.size()]));
+
+        patterns.clear();
+        for (String list : new String[] { ERROR_PATTERNS, ERROR_BLACKLISTING_PATTERNS, WARNING_PATTERNS,
+                WARNING_BLACKLISTING_PATTERNS, CUSTOM_PATTERNS, CUSTOM_BLACKLISTING_PATTERNS }) {
+            List<Pattern> compiled = new ArrayList<>();
+            for (String pattern : list.split("\\|")) {
+                compiled.add(Pattern.compile(pattern));
+            }
+            patterns.add(compiled);
+        }
+    }
+
+    @Benchmark
+    public long combined() {
+        return combined.isMatching(data);
+    }
+
+    /**
+     * Evaluates the patterns of every engine in turn, as the search engines did before they were combined
+     */
+    @Benchmark
+    public long patternByPattern() {
+        long result = 0;
+        for (int i = 0; i < patterns.size(); i += 2) {
+            if (find(patterns.get(i)) && !find(patterns.get(i + 1))) {
+                result |= 1L << (i / 2);
+            }
+        }
+        return result;
+    }
+
+    private boolean find(List<Pattern> list) {
+        for (Pattern pattern : list) {
+            if (pattern.matcher(data).find()) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    public static void main(String[] args) throws RunnerException, CommandLineOptionException {
+        CommandLineOptions commandLineOptions = new CommandLineOptions(args);
+        OptionsBuilder builder = new OptionsBuilder();
+        if (commandLineOptions.getIncludes().isEmpty()) {
+            builder.include(SearchEngineBenchmark.class.getName());
+        }
+        new Runner(builder.parent(commandLineOptions).addProfiler(GCProfiler.class).build()).run();
+    }
+}
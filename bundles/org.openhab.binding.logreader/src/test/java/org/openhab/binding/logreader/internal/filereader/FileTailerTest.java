@@ -0,0 +1,168 @@
+/**
+ * Copyright (c) 2010-2020 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.binding.logreader.internal.filereader;
+
+import static org.junit.Assert.*;
+
+import java.io.IOException;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Stream;
+
+import org.eclipse.smarthome.test.java.JavaTest;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.openhab.binding.logreader.internal.filereader.api.FileReaderException;
+import org.openhab.binding.logreader.internal.filereader.api.FileReaderListener;
+
+/**
+ * Tests the {@link FileTailer} with partial lines, truncated and rotated files.
+ *
+ * @author Pauli Anttila - Initial contribution
+ */
+public class FileTailerTest extends JavaTest {
+
+    private static final long REFRESH_RATE = 20;
+    private static final String SYNC = "sync";
+    private static final String READY = "ready";
+
+    private final List<String> lines = new CopyOnWriteArrayList<>();
+    private final List<Exception> exceptions = new CopyOnWriteArrayList<>();
+    private final AtomicInteger rotations = new AtomicInteger();
+    private final FileTailer tailer = new FileTailer();
+    private Path directory;
+    private Path file;
+
+    @Before
+    public void setUp() throws IOException, FileReaderException, InterruptedException {
+        directory = Files.createTempDirectory("logreader");
+        file = directory.resolve("openhab.log");
+        append("before start\n");
+        tailer.registerListener(new FileReaderListener() {
+            @Override
+            public void fileNotFound() {
+            }
+
+            @Override
+            public void fileRotated() {
+                rotations.incrementAndGet();
+            }
+
+            @Override
+            public void handle(String line) {
+                lines.add(line);
+            }
+
+            @Override
+            public void handle(Exception ex) {
+                exceptions.add(ex);
+            }
+        });
+        tailer.start(file.toString(), REFRESH_RATE);
+        waitForTailer();
+    }
+
+    @After
+    public void tearDown() throws IOException {
+        tailer.stop();
+        try (Stream<Path> files = Files.walk(directory)) {
+            files.sorted(Comparator.reverseOrder()).forEach(path -> path.toFile().delete());
+        }
+    }
+
+    private void append(String data) throws IOException {
+        Files.write(file, data.getBytes(Charset.defaultCharset()), StandardOpenOption.CREATE,
+                StandardOpenOption.APPEND);
+    }
+
+    /**
+     * The tailer starts at the end of the file, once it has opened it. Append lines until one has been read.
+     */
+    private void waitForTailer() throws IOException, InterruptedException {
+        for (int i = 0; i < 100 && !lines.contains(SYNC); i++) {
+            append(SYNC + "\n");
+            Thread.sleep(REFRESH_RATE * 2);
+        }
+        append(READY + "\n");
+        waitForAssert(() -> assertTrue(lines.contains(READY)));
+        assertFalse(lines.contains("before start"));
+        lines.clear();
+    }
+
+    @Test
+    public void testPartialLines() throws IOException {
+        append("first pa");
+        append("rt\nsecond\r\nthi");
+        waitForAssert(() -> assertEquals(Arrays.asList("first part", "second"), lines));
+
+        append("rd\rfourth\n\nsixth");
+        waitForAssert(() -> assertEquals(Arrays.asList("first part", "second", "third", "fourth", ""), lines));
+        append("\r\n");
+        waitForAssert(
+                () -> assertEquals(Arrays.asList("first part", "second", "third", "fourth", "", "sixth"), lines));
+        assertEquals(0, rotations.get());
+        assertEquals(Collections.emptyList(), exceptions);
+    }
+
+    @Test
+    public void testLongLine() throws IOException {
+        char[] chars = new char[200 * 1024];
+        Arrays.fill(chars, 'x');
+        String longLine = new String(chars);
+        append(longLine + "\nshort\n");
+        waitForAssert(() -> assertEquals(Arrays.asList(longLine, "short"), lines));
+    }
+
+    @Test
+    public void testTruncation() throws IOException {
+        append("old line\npartial");
+        waitForAssert(() -> assertEquals(Collections.singletonList("old line"), lines));
+
+        Files.write(file, "new\n".getBytes(Charset.defaultCharset()), StandardOpenOption.TRUNCATE_EXISTING);
+        waitForAssert(() -> assertEquals(Arrays.asList("old line", "partial", "new"), lines));
+        assertEquals(1, rotations.get());
+
+        append("appended\n");
+        waitForAssert(() -> assertEquals(Arrays.asList("old line", "partial", "new", "appended"), lines));
+        assertEquals(Collections.emptyList(), exceptions);
+    }
+
+    @Test
+    public void testRotation() throws IOException {
+        append("old line\n");
+        waitForAssert(() -> assertEquals(Collections.singletonList("old line"), lines));
+
+        // Lines written right before the rotation are still read from the old file
+        append("last old line\n");
+        Files.move(file, directory.resolve("openhab.log.1"));
+        append("first line of a long new file, which is longer than the old one\n");
+
+        waitForAssert(() -> assertEquals(Arrays.asList("old line", "last old line",
+                "first line of a long new file, which is longer than the old one"), lines));
+        assertEquals(1, rotations.get());
+
+        append("appended\n");
+        waitForAssert(() -> assertEquals(Arrays.asList("old line", "last old line",
+                "first line of a long new file, which is longer than the old one", "appended"), lines));
+        assertEquals(Collections.emptyList(), exceptions);
+    }
+}
@@ -0,0 +1,158 @@
+/**
+ * Copyright (c) 2010-2020 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.binding.logreader.internal.searchengine;
+
+import static org.junit.Assert.*;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.regex.Pattern;
+import java.util.regex.PatternSyntaxException;
+
+import org.junit.Test;
+
+/**
+ * Tests the literal extraction of the {@link MultiPatternMatcher} and that it finds the same patterns as
+ * {@link java.util.regex.Matcher#find()}.
+ *
+ * @author Pauli Anttila - Initial contribution
+ */
+public class MultiPatternMatcherTest {
+
+    @Test
+    public void testLiteralOfPlainText() {
+        assertEquals("ERROR", MultiPatternMatcher.requiredLiteral("ERROR+"));
+        assertEquals("Starting openHAB", MultiPatternMatcher.requiredLiteral("Starting openHAB"));
+        assertEquals("Exception:", MultiPatternMatcher.requiredLiteral("^.*Exception:"));
+    }
+
+    @Test
+    public void testLiteralOfAlternation() {
+        assertNull(MultiPatternMatcher.requiredLiteral("ERROR|WARN"));
+        assertNull(MultiPatternMatcher.requiredLiteral("Connection refused|Read timed out"));
+        // Alternatives within a group are skipped
+        assertEquals("' failed", MultiPatternMatcher.requiredLiteral("Rule '(a|b)' failed"));
+        assertEquals(" blocked", MultiPatternMatcher.requiredLiteral("Thread (\\w+|main) blocked"));
+    }
+
+    @Test
+    public void testLiteralOfOptionalParts() {
+        assertEquals("colo", MultiPatternMatcher.requiredLiteral("colou?r"));
+        assertEquals("warnin", MultiPatternMatcher.requiredLiteral("warning*"));
+        assertEquals("ghij", MultiPatternMatcher.requiredLiteral("abc(def)?ghij"));
+        assertEquals("cd", MultiPatternMatcher.requiredLiteral("ab{0,3}cd"));
+        assertEquals("abc", MultiPatternMatcher.requiredLiteral("abcd{0}"));
+        assertEquals("ERROR", MultiPatternMatcher.requiredLiteral("ERROR{2,}"));
+        assertNull(MultiPatternMatcher.requiredLiteral("a?"));
+        assertNull(MultiPatternMatcher.requiredLiteral("(ERROR)?"));
+    }
+
+    @Test
+    public void testLiteralOfCharacterClasses() {
+        assertEquals("def", MultiPatternMatcher.requiredLiteral("[abc]def"));
+        assertEquals("yz", MultiPatternMatcher.requiredLiteral("x[]a]yz"));
+        assertEquals("ok", MultiPatternMatcher.requiredLiteral("[^]\\]]ok"));
+        assertEquals("log", MultiPatternMatcher.requiredLiteral("[a-z[A-Z]]log"));
+        assertNull(MultiPatternMatcher.requiredLiteral("[abc"));
+    }
+
+    @Test
+    public void testLiteralOfEscapes() {
+        assertEquals(".log", MultiPatternMatcher.requiredLiteral("\\.log"));
+        assertEquals(" ms", MultiPatternMatcher.requiredLiteral("\\d+ ms"));
+        assertEquals("[INFO]", MultiPatternMatcher.requiredLiteral("\\[INFO\\]"));
+        assertNull(MultiPatternMatcher.requiredLiteral("\\x41"));
+        assertNull(MultiPatternMatcher.requiredLiteral("\\p{Lu}"));
+        assertNull(MultiPatternMatcher.requiredLiteral("(a)\\1"));
+        assertNull(MultiPatternMatcher.requiredLiteral("\\Qa.b\\E"));
+        assertNull(MultiPatternMatcher.requiredLiteral("abc\\"));
+    }
+
+    @Test
+    public void testLiteralOfInlineFlags() {
+        assertNull(MultiPatternMatcher.requiredLiteral("(?i)error"));
+        assertNull(MultiPatternMatcher.requiredLiteral("error(?i:s)"));
+        assertNull(MultiPatternMatcher.requiredLiteral("(?<name>error)"));
+    }
+
+    @Test
+    public void testFlagsDisableThePrefilter() {
+        MultiPatternMatcher matcher = new MultiPatternMatcher(Arrays.asList(
+                Collections.singletonList(Pattern.compile("error", Pattern.CASE_INSENSITIVE)),
+                Collections.singletonList(Pattern.compile("(?i)warn"))));
+        assertEquals(0b01, matcher.find("ERROR occurred", 0b11));
+        assertEquals(0b10, matcher.find("WARN occurred", 0b11));
+        assertEquals(0b00, matcher.find("INFO occurred", 0b11));
+    }
+
+    @Test
+    public void testOnlyRequestedSetsAreSearched() {
+        MultiPatternMatcher matcher = new MultiPatternMatcher(
+                Arrays.asList(Collections.singletonList(Pattern.compile("ERROR+")),
+                        Collections.singletonList(Pattern.compile("WARN+")),
+                        Collections.singletonList(Pattern.compile("ERROR|WARN"))));
+        assertEquals(0b101, matcher.find("[ERROR] something failed", 0b111));
+        assertEquals(0b100, matcher.find("[ERROR] something failed", 0b110));
+        assertEquals(0b010, matcher.find("[WARN ] something", 0b011));
+        assertEquals(0, matcher.find("[INFO ] something", 0b111));
+    }
+
+    /**
+     * Random patterns made of the supported constructs are searched in random lines: The matcher must find exactly the
+     * sets in which {@link java.util.regex.Matcher#find()} finds a pattern, the prefilter must never reject a line.
+     */
+    @Test
+    public void testPrefilterNeverRejectsAMatch() {
+        String[] parts = { "a", "b", "c", "ab", "ba", "a?", "b*", "c+", "a{0,2}", "b{2}", "[ab]", "[^a]", "[]a]", ".",
+                "\\.", "\\d", "\\w+", "(ab|c)", "(a)?", "(b)*", "x|y", "(?i)a", "\\s", "^", "$", "1", " " };
+        String alphabet = "abcABC.1 xy";
+        Random random = new Random(4711);
+        for (int round = 0; round < 500; round++) {
+            List<List<Pattern>> sets = new ArrayList<>();
+            for (int set = 0; set < 4; set++) {
+                List<Pattern> patterns = new ArrayList<>();
+                while (patterns.size() < 3) {
+                    StringBuilder regex = new StringBuilder();
+                    for (int i = random.nextInt(5); i >= 0; i--) {
+                        regex.append(parts[random.nextInt(parts.length)]);
+                    }
+                    try {
+                        patterns.add(Pattern.compile(regex.toString()));
+                    } catch (PatternSyntaxException e) {
+                        // Try another one
+                    }
+                }
+                sets.add(patterns);
+            }
+            MultiPatternMatcher matcher = new MultiPatternMatcher(sets);
+            for (int line = 0; line < 20; line++) {
+                StringBuilder data = new StringBuilder();
+                for (int i = random.nextInt(12); i > 0; i--) {
+                    data.append(alphabet.charAt(random.nextInt(alphabet.length())));
+                }
+                long expected = 0;
+                for (int set = 0; set < sets.size(); set++) {
+                    for (Pattern pattern : sets.get(set)) {
+                        if (pattern.matcher(data).find()) {
+                            expected |= 1L << set;
+                        }
+                    }
+                }
+                assertEquals(sets + " on '" + data + "'", expected, matcher.find(data, 0b1111));
+            }
+        }
+    }
+}
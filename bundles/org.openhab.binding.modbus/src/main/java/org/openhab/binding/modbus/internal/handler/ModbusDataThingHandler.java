@@ -147,6 +147,11 @@ public class ModbusDataThingHandler extends BaseThingHandler {
     private volatile Map<String, ChannelUID> channelCache = new HashMap<>();
     private volatile Map<ChannelUID, Long> channelLastUpdated = new HashMap<>(NUMER_OF_CHANNELS_HINT);
     private volatile Map<ChannelUID, State> channelLastState = new HashMap<>(NUMER_OF_CHANNELS_HINT);
+    // Raw data of the previous poll, used to skip decoding and transformation when nothing has changed
+    private volatile @Nullable ModbusRegisterArray lastRegisters;
+    private volatile @Nullable Boolean lastBit;
+    // Point of time until which all the channels updated from unchanged raw data would be updated with same state
+    private volatile long unchangedDataUpToDateUntilMillis;
 
     private volatile LocalDateTime lastStatusInfoUpdate = LocalDateTime.MIN;
     private volatile ThingStatusInfo statusInfo = new ThingStatusInfo(ThingStatus.UNKNOWN, ThingStatusDetail.NONE,
@@ -414,6 +419,9 @@ public class ModbusDataThingHandler extends BaseThingHandler {
         statusInfo = new ThingStatusInfo(ThingStatus.UNKNOWN, ThingStatusDetail.NONE, null);
         channelLastUpdated = new HashMap<>(NUMER_OF_CHANNELS_HINT);
         channelLastState = new HashMap<>(NUMER_OF_CHANNELS_HINT);
+        lastRegisters = null;
+        lastBit = null;
+        unchangedDataUpToDateUntilMillis = 0L;
     }
 
     @Override
@@ -702,6 +710,19 @@ public class ModbusDataThingHandler extends BaseThingHandler {
             int itemsPerRegister = 16 / readValueType.getBits();
             extractIndex = (readIndex.get() - pollStart) * itemsPerRegister + subIndex;
         }
+
+        // Registers holding the value. With <16 bit types, the whole register is compared.
+        int registerIndex = readValueType.getBits() >= 16 ? extractIndex : readIndex.get() - pollStart;
+        int registerCount = Math.max(1, readValueType.getBits() / 16);
+        ModbusRegisterArray localLastRegisters = lastRegisters;
+        lastRegisters = registers;
+        if (localLastRegisters != null && registers.dataEquals(localLastRegisters, registerIndex, registerCount)
+                && skipUnchangedData()) {
+            logger.trace("Thing {} registers unchanged, skipping update of channels. Registers {} for request {}",
+                    thing.getUID(), registers, request);
+            return;
+        }
+
         numericState = ModbusBitUtilities.extractStateFromRegisters(registers, extractIndex, readValueType)
                 .map(state -> (State) state).orElse(UnDefType.UNDEF);
         boolean boolValue = !numericState.equals(DecimalType.ZERO);
@@ -719,6 +740,13 @@ public class ModbusDataThingHandler extends BaseThingHandler {
             return;
         }
         boolean boolValue = bits.getBit(readIndex.get() - pollStart);
+        Boolean localLastBit = lastBit;
+        lastBit = boolValue;
+        if (localLastBit != null && localLastBit == boolValue && skipUnchangedData()) {
+            logger.trace("Thing {} bit unchanged, skipping update of channels. Bits {} for request {}", thing.getUID(),
+                    bits, request);
+            return;
+        }
         DecimalType numericState = boolValue ? new DecimalType(BigDecimal.ONE) : DecimalType.ZERO;
         Map<ChannelUID, State> values = processUpdatedValue(numericState, boolValue);
         logger.debug(
@@ -726,6 +754,30 @@ public class ModbusDataThingHandler extends BaseThingHandler {
                 thing.getUID(), values, readValueType, readIndex, numericState, boolValue, bits, request);
     }
 
+    /**
+     * Check whether channel updates can be skipped since the polled raw data has not changed.
+     *
+     * Unchanged raw data decodes and transforms to the same states, which would not be updated to the channels
+     * anyways unless <code>updateUnchangedValuesEveryMillis</code> has passed. When the update can be skipped, only the
+     * last successful read time is updated.
+     *
+     * @return whether to skip the decoding and updating of channels
+     */
+    private boolean skipUnchangedData() {
+        long now = System.currentTimeMillis();
+        if (updateUnchangedValuesEveryMillis <= 0L || now >= unchangedDataUpToDateUntilMillis) {
+            return false;
+        }
+        updateStatusIfChanged(ThingStatus.ONLINE);
+        ChannelUID lastReadSuccessUID = getChannelUID(ModbusBindingConstantsInternal.CHANNEL_LAST_READ_SUCCESS);
+        if (isLinked(lastReadSuccessUID)) {
+            DateTimeType lastReadSuccess = new DateTimeType();
+            updateExpiredChannel(now, lastReadSuccessUID, lastReadSuccess);
+            channelLastState.put(lastReadSuccessUID, lastReadSuccess);
+        }
+        return true;
+    }
+
     private synchronized void onError(ModbusReadRequestBlueprint request, Exception error) {
         if (hasConfigurationError()) {
             return;
@@ -895,6 +947,17 @@ public class ModbusDataThingHandler extends BaseThingHandler {
             // Update channels that have not been updated in a while, or when their values has changed
             states.forEach((uid, state) -> updateExpiredChannel(now, uid, state));
             channelLastState = states;
+
+            // Unchanged data needs to be processed again latest when the first channel expires
+            ChannelUID lastReadSuccessUID = getChannelUID(ModbusBindingConstantsInternal.CHANNEL_LAST_READ_SUCCESS);
+            long upToDateUntil = now + updateUnchangedValuesEveryMillis;
+            for (ChannelUID uid : states.keySet()) {
+                if (!uid.equals(lastReadSuccessUID)) {
+                    upToDateUntil = Math.min(upToDateUntil,
+                            channelLastUpdated.getOrDefault(uid, 0L) + updateUnchangedValuesEveryMillis);
+                }
+            }
+            unchangedDataUpToDateUntilMillis = upToDateUntil;
         }
     }
 
@@ -56,4 +56,11 @@ public class ChannelConfig {
     public @Nullable String stop;
 
     public int onBrightness = 10;
+
+    /** If true, the channel state is only updated if the received value differs from the current state. */
+    public boolean onlyOnChange = false;
+    /** Minimum time between two channel state updates in milliseconds, 0 to update on every received value. */
+    public int minUpdateInterval = 0;
+    /** Numbers are only updated if they differ from the current state by at least this value. */
+    public @Nullable BigDecimal deadband;
 }
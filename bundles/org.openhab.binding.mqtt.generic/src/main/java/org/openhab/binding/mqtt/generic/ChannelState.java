@@ -12,7 +12,7 @@
  */
 package org.openhab.binding.mqtt.generic;
 
-import java.nio.charset.StandardCharsets;
+import java.math.BigDecimal;
 import java.util.ArrayList;
 import java.util.IllegalFormatException;
 import java.util.List;
@@ -20,13 +20,16 @@ import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.ScheduledFuture;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
 
 import org.apache.commons.lang.StringUtils;
 import org.eclipse.jdt.annotation.NonNullByDefault;
 import org.eclipse.jdt.annotation.Nullable;
+import org.eclipse.smarthome.core.library.types.DecimalType;
 import org.eclipse.smarthome.core.library.types.StringType;
 import org.eclipse.smarthome.core.thing.ChannelUID;
 import org.eclipse.smarthome.core.types.Command;
+import org.eclipse.smarthome.core.types.State;
 import org.eclipse.smarthome.core.types.TypeParser;
 import org.eclipse.smarthome.io.transport.mqtt.MqttBrokerConnection;
 import org.eclipse.smarthome.io.transport.mqtt.MqttMessageSubscriber;
@@ -61,6 +64,14 @@ public class ChannelState implements MqttMessageSubscriber {
     protected boolean hasSubscribed = false;
     private @Nullable ScheduledFuture<?> scheduledFuture;
     private CompletableFuture<@Nullable Void> future = new CompletableFuture<>();
+    private @Nullable TopicDemultiplexer demultiplexer;
+    private @Nullable ScheduledExecutorService scheduler;
+    private @Nullable State lastUpdatedState;
+    private long lastUpdateMillis;
+    // The last value received within the minUpdateInterval, which updates the channel once the interval has passed
+    private @Nullable State pendingState;
+    private @Nullable ScheduledFuture<?> pendingUpdate;
+    private final AtomicLong droppedUpdates = new AtomicLong();
 
     /**
      * Creates a new channel state.
@@ -131,6 +142,23 @@ public class ChannelState implements MqttMessageSubscriber {
         return channelUID;
     }
 
+    /**
+     * Subscribe to the state topic via the given demultiplexer, which shares the subscription and the parsed payload
+     * with the other channels of the topic. Channels with wildcard state topics always subscribe on their own.
+     *
+     * @param demultiplexer The topic demultiplexer of the Thing
+     */
+    public void setDemultiplexer(TopicDemultiplexer demultiplexer) {
+        this.demultiplexer = demultiplexer;
+    }
+
+    private @Nullable TopicDemultiplexer getDemultiplexer() {
+        if (config.stateTopic.contains("+") || config.stateTopic.contains("#")) {
+            return null;
+        }
+        return demultiplexer;
+    }
+
     /**
      * Incoming message from the MqttBrokerConnection
      *
@@ -139,6 +167,16 @@ public class ChannelState implements MqttMessageSubscriber {
      */
     @Override
     public void processMessage(String topic, byte[] payload) {
+        processMessage(topic, new MessagePayload(payload));
+    }
+
+    /**
+     * Incoming message, which might be shared with other channels of the same topic.
+     *
+     * @param topic The topic. Is the same as the field stateTopic.
+     * @param message The message payload
+     */
+    void processMessage(String topic, MessagePayload message) {
         final ChannelStateUpdateListener channelStateUpdateListener = this.channelStateUpdateListener;
         if (channelStateUpdateListener == null) {
             logger.warn("MQTT message received for topic {}, but MessageSubscriber object hasn't been started!", topic);
@@ -146,16 +184,17 @@ public class ChannelState implements MqttMessageSubscriber {
         }
 
         if (cachedValue.isBinary()) {
-            cachedValue.update(payload);
+            cachedValue.update(message.getBytes());
             channelStateUpdateListener.updateChannelState(channelUID, cachedValue.getChannelState());
             receivedOrTimeout();
             return;
         }
 
-        // String value: Apply transformations
-        String strValue = new String(payload, StandardCharsets.UTF_8);
-        for (ChannelStateTransformation t : transformationsIn) {
-            String transformedValue = t.processValue(strValue);
+        // String value: Apply transformations, the first one may use the parsed payload
+        String strValue = message.getText();
+        for (int i = 0; i < transformationsIn.size(); i++) {
+            ChannelStateTransformation t = transformationsIn.get(i);
+            String transformedValue = i == 0 ? t.processValue(message) : t.processValue(strValue);
             if (transformedValue != null) {
                 strValue = transformedValue;
             } else {
@@ -200,11 +239,102 @@ public class ChannelState implements MqttMessageSubscriber {
         if (config.postCommand) {
             channelStateUpdateListener.postChannelCommand(channelUID, (Command) cachedValue.getChannelState());
         } else {
-            channelStateUpdateListener.updateChannelState(channelUID, cachedValue.getChannelState());
+            updateChannelState(channelStateUpdateListener, cachedValue.getChannelState());
         }
         receivedOrTimeout();
     }
 
+    /**
+     * Updates the channel state, according to the onlyOnChange, minUpdateInterval and deadband configuration.
+     * A value received within the minUpdateInterval is kept and updates the channel once the interval has passed,
+     * unless another value is received before.
+     */
+    private synchronized void updateChannelState(ChannelStateUpdateListener channelStateUpdateListener, State state) {
+        if (isUpdateDropped(state)) {
+            dropPendingUpdate();
+            droppedUpdates.incrementAndGet();
+            logger.trace("Dropped update of channel {} to {}", channelUID, state);
+            return;
+        }
+        long now = System.currentTimeMillis();
+        long delay = lastUpdateMillis + config.minUpdateInterval - now;
+        final ScheduledExecutorService scheduler = this.scheduler;
+        if (config.minUpdateInterval > 0 && lastUpdatedState != null && delay > 0 && scheduler != null) {
+            if (pendingState != null) {
+                droppedUpdates.incrementAndGet();
+                logger.trace("Dropped update of channel {} to {}", channelUID, pendingState);
+            }
+            pendingState = state;
+            if (pendingUpdate == null) {
+                pendingUpdate = scheduler.schedule(this::updatePendingState, delay, TimeUnit.MILLISECONDS);
+            }
+            return;
+        }
+        dropPendingUpdate();
+        lastUpdatedState = state;
+        lastUpdateMillis = now;
+        channelStateUpdateListener.updateChannelState(channelUID, state);
+    }
+
+    private synchronized void updatePendingState() {
+        pendingUpdate = null;
+        final State pendingState = this.pendingState;
+        final ChannelStateUpdateListener channelStateUpdateListener = this.channelStateUpdateListener;
+        this.pendingState = null;
+        if (pendingState != null && channelStateUpdateListener != null) {
+            lastUpdatedState = pendingState;
+            lastUpdateMillis = System.currentTimeMillis();
+            channelStateUpdateListener.updateChannelState(channelUID, pendingState);
+        }
+    }
+
+    private synchronized void dropPendingUpdate() {
+        final ScheduledFuture<?> pendingUpdate = this.pendingUpdate;
+        if (pendingUpdate != null) {
+            pendingUpdate.cancel(false);
+            this.pendingUpdate = null;
+        }
+        if (pendingState != null) {
+            droppedUpdates.incrementAndGet();
+            pendingState = null;
+        }
+    }
+
+    /**
+     * Checks the new state against the state of the last update, according to the onlyOnChange and deadband
+     * configuration.
+     *
+     * @return true if the channel should not be updated
+     */
+    private boolean isUpdateDropped(State state) {
+        final State lastUpdatedState = this.lastUpdatedState;
+        if (lastUpdatedState == null) {
+            return false;
+        }
+        if (config.onlyOnChange && state.equals(lastUpdatedState)) {
+            return true;
+        }
+        final BigDecimal deadband = config.deadband;
+        if (deadband != null) {
+            DecimalType number = state.as(DecimalType.class);
+            DecimalType lastNumber = lastUpdatedState.as(DecimalType.class);
+            if (number != null && lastNumber != null
+                    && number.toBigDecimal().subtract(lastNumber.toBigDecimal()).abs().compareTo(deadband) < 0) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Returns the number of received values, which did not update the channel state because of the onlyOnChange,
+     * minUpdateInterval or deadband configuration. Values received within the minUpdateInterval are only counted if
+     * they are replaced by a later value.
+     */
+    public long getDroppedUpdates() {
+        return droppedUpdates.get();
+    }
+
     /**
      * Returns the state topic. Might be an empty string if this is a stateless channel (TRIGGER kind channel).
      */
@@ -242,6 +372,10 @@ public class ChannelState implements MqttMessageSubscriber {
     public CompletableFuture<@Nullable Void> stop() {
         final MqttBrokerConnection connection = this.connection;
         if (connection != null && StringUtils.isNotBlank(config.stateTopic)) {
+            final TopicDemultiplexer demultiplexer = getDemultiplexer();
+            if (demultiplexer != null) {
+                return demultiplexer.unsubscribe(connection, this).thenRun(this::internalStop);
+            }
             return connection.unsubscribe(config.stateTopic, this).thenRun(this::internalStop);
         } else {
             internalStop();
@@ -254,9 +388,19 @@ public class ChannelState implements MqttMessageSubscriber {
         this.connection = null;
         this.channelStateUpdateListener = null;
         hasSubscribed = false;
+        resetLastUpdate();
         cachedValue.resetState();
     }
 
+    /**
+     * Forgets the state of the last update and drops a pending update, so the next received value always updates the
+     * channel.
+     */
+    private synchronized void resetLastUpdate() {
+        dropPendingUpdate();
+        lastUpdatedState = null;
+    }
+
     private void receivedOrTimeout() {
         final ScheduledFuture<?> scheduledFuture = this.scheduledFuture;
         if (scheduledFuture != null) { // Cancel timeout
@@ -287,6 +431,7 @@ public class ChannelState implements MqttMessageSubscriber {
      */
     public CompletableFuture<@Nullable Void> start(MqttBrokerConnection connection, ScheduledExecutorService scheduler,
             int timeout) {
+        this.scheduler = scheduler;
         // if the connection is still the same, the subscription is still present, otherwise we need to renew
         if (hasSubscribed && connection.equals(this.connection)) {
             return CompletableFuture.completedFuture(null);
@@ -301,7 +446,10 @@ public class ChannelState implements MqttMessageSubscriber {
         }
 
         this.future = new CompletableFuture<>();
-        connection.subscribe(config.stateTopic, this).thenRun(() -> {
+        final TopicDemultiplexer demultiplexer = getDemultiplexer();
+        CompletableFuture<Boolean> subscription = demultiplexer != null ? demultiplexer.subscribe(connection, this)
+                : connection.subscribe(config.stateTopic, this);
+        subscription.thenRun(() -> {
             hasSubscribed = true;
             logger.debug("Subscribed channel {} to topic: {}", this.channelUID, config.stateTopic);
             if (timeout > 0 && !future.isDone()) {
@@ -331,6 +479,8 @@ public class ChannelState implements MqttMessageSubscriber {
      */
     public CompletableFuture<Boolean> publishValue(Command command) {
         cachedValue.update(command);
+        // The item follows the command now, so the next received value must not be compared to an older update
+        resetLastUpdate();
 
         Value mqttCommandValue = cachedValue;
 
@@ -13,6 +13,10 @@
 package org.openhab.binding.mqtt.generic;
 
 import java.lang.ref.WeakReference;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
 
 import org.eclipse.jdt.annotation.NonNullByDefault;
 import org.eclipse.jdt.annotation.Nullable;
@@ -21,6 +25,10 @@ import org.eclipse.smarthome.core.transform.TransformationService;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonPrimitive;
+
 /**
  * A transformation for a {@link ChannelState}. It is applied for each received value on an MQTT topic.
  *
@@ -28,11 +36,22 @@ import org.slf4j.LoggerFactory;
  */
 @NonNullByDefault
 public class ChannelStateTransformation {
+    private static final String JSONPATH = "JSONPATH";
+    // Longer numbers might be parsed with a higher precision by the JSONPATH transformation
+    private static final int MAX_NUMBER_LENGTH = 18;
+    // Member name in dot notation, member name in bracket notation, array index
+    private static final String JSONPATH_SEGMENT_REGEX = "\\.([A-Za-z_][A-Za-z0-9_]*)|\\['([\\w .:@/+-]+)'\\]"
+            + "|\\[(0|[1-9][0-9]{0,8})\\]";
+    private static final Pattern JSONPATH_SEGMENT = Pattern.compile(JSONPATH_SEGMENT_REGEX);
+    private static final Pattern SIMPLE_JSONPATH = Pattern.compile("\\$(?:" + JSONPATH_SEGMENT_REGEX + ")+");
+
     private final Logger logger = LoggerFactory.getLogger(ChannelStateTransformation.class);
     private final TransformationServiceProvider provider;
     private WeakReference<@Nullable TransformationService> transformationService = new WeakReference<>(null);
     final String pattern;
     final String serviceName;
+    // Member names and array indices of a simple JSONPATH pattern, null for other patterns
+    private final @Nullable List<Object> jsonPath;
 
     /**
      * Creates a new channel state transformer.
@@ -53,6 +72,7 @@ public class ChannelStateTransformation {
         String type = pattern.substring(0, index).toUpperCase();
         this.pattern = pattern.substring(index + 1);
         this.serviceName = type;
+        this.jsonPath = parseJsonPath(serviceName, this.pattern);
     }
 
     /**
@@ -68,6 +88,106 @@ public class ChannelStateTransformation {
         this.serviceName = serviceName;
         this.pattern = pattern;
         this.provider = provider;
+        this.jsonPath = parseJsonPath(serviceName, pattern);
+    }
+
+    /**
+     * Parses simple JSONPATH patterns like <code>$.device.status[0].temperature</code>, which can be evaluated on a
+     * parsed JSON tree without the transformation service.
+     *
+     * Only a strictly validated subset is accepted: member names in dot notation made of letters, digits and
+     * underscores, member names in single quoted bracket notation, which may also contain spaces and the characters
+     * <code>.:@/+-</code>, and non-negative array indices. Everything else, like whitespace outside of quotes,
+     * wildcards, deep scans, filters, slices, unions and functions, is left to the transformation service.
+     *
+     * @return The member names and array indices of the pattern, or null if the pattern is not simple
+     */
+    static @Nullable List<Object> parseJsonPath(String serviceName, String pattern) {
+        if (!JSONPATH.equals(serviceName) || !SIMPLE_JSONPATH.matcher(pattern).matches()) {
+            return null;
+        }
+        List<Object> segments = new ArrayList<>();
+        Matcher matcher = JSONPATH_SEGMENT.matcher(pattern);
+        while (matcher.find()) {
+            if (matcher.group(1) != null) {
+                segments.add(matcher.group(1));
+            } else if (matcher.group(2) != null) {
+                segments.add(matcher.group(2));
+            } else {
+                segments.add(Integer.valueOf(matcher.group(3)));
+            }
+        }
+        return segments;
+    }
+
+    /**
+     * Evaluates the simple JSONPATH pattern on the JSON tree.
+     *
+     * @return The value, or null if the pattern does not lead to a string, boolean or number
+     */
+    private @Nullable String evaluateJsonPath(List<Object> jsonPath, JsonElement json) {
+        JsonElement element = json;
+        for (Object segment : jsonPath) {
+            if (segment instanceof Integer) {
+                int arrayIndex = (Integer) segment;
+                if (!element.isJsonArray() || arrayIndex >= element.getAsJsonArray().size()) {
+                    return null;
+                }
+                JsonArray array = element.getAsJsonArray();
+                element = array.get(arrayIndex);
+            } else {
+                if (!element.isJsonObject()) {
+                    return null;
+                }
+                JsonElement member = element.getAsJsonObject().get((String) segment);
+                if (member == null) {
+                    return null;
+                }
+                element = member;
+            }
+        }
+        if (!element.isJsonPrimitive()) {
+            return null;
+        }
+        JsonPrimitive primitive = element.getAsJsonPrimitive();
+        if (!primitive.isNumber()) {
+            return primitive.getAsString();
+        }
+        // Format numbers like the JSONPATH transformation: integers as is, decimals as double
+        String number = primitive.getAsString();
+        if (number.length() > MAX_NUMBER_LENGTH) {
+            return null;
+        }
+        try {
+            if (number.contains(".") || number.contains("e") || number.contains("E")) {
+                return String.valueOf(Double.parseDouble(number));
+            }
+            return String.valueOf(Long.parseLong(number));
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Will be called by the {@link ChannelState} for each incoming MQTT message, if this is the first transformation.
+     * Simple JSONPATH patterns are evaluated on the parsed payload, which is shared by all channels of the topic.
+     *
+     * @param message The incoming message
+     * @return The transformed value
+     */
+    @Nullable
+    String processValue(MessagePayload message) {
+        final List<Object> jsonPath = this.jsonPath;
+        if (jsonPath != null) {
+            JsonElement json = message.getJson();
+            if (json != null) {
+                String value = evaluateJsonPath(jsonPath, json);
+                if (value != null) {
+                    return value;
+                }
+            }
+        }
+        return processValue(message.getText());
     }
 
     /**
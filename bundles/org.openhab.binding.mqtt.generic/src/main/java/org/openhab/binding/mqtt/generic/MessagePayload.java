@@ -0,0 +1,88 @@
+/**
+ * Copyright (c) 2010-2020 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.binding.mqtt.generic;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+import org.eclipse.jdt.annotation.Nullable;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonParseException;
+import com.google.gson.TypeAdapter;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+
+/**
+ * The payload of a received MQTT message, shared by all {@link ChannelState}s of the topic.
+ * The text and the JSON tree of the payload are created on first use, and at most once per message.
+ *
+ * @author David Graeff - Initial contribution
+ */
+@NonNullByDefault
+class MessagePayload {
+    private static final TypeAdapter<JsonElement> JSON_ELEMENT_ADAPTER = new Gson().getAdapter(JsonElement.class);
+
+    private final byte[] payload;
+    private @Nullable String text;
+    private @Nullable JsonElement json;
+    private boolean jsonParsed = false;
+
+    MessagePayload(byte[] payload) {
+        this.payload = payload;
+    }
+
+    byte[] getBytes() {
+        return payload;
+    }
+
+    /**
+     * Returns the payload as UTF8 decoded text.
+     */
+    String getText() {
+        String text = this.text;
+        if (text == null) {
+            text = new String(payload, StandardCharsets.UTF_8);
+            this.text = text;
+        }
+        return text;
+    }
+
+    /**
+     * Returns the payload as JSON tree, or null if the payload is not a JSON object or array.
+     *
+     * The payload is parsed strictly: malformed JSON, which the JSONPATH transformation might still accept or reject
+     * differently, is not parsed, so such payloads are always handed to the transformation service.
+     */
+    @Nullable
+    JsonElement getJson() {
+        if (!jsonParsed) {
+            jsonParsed = true;
+            String text = getText().trim();
+            if (text.startsWith("{") || text.startsWith("[")) {
+                try (JsonReader reader = new JsonReader(new StringReader(text))) {
+                    reader.setLenient(false);
+                    JsonElement element = JSON_ELEMENT_ADAPTER.read(reader);
+                    // Trailing content is malformed as well
+                    json = reader.peek() == JsonToken.END_DOCUMENT ? element : null;
+                } catch (IOException | JsonParseException | IllegalStateException e) {
+                    json = null;
+                }
+            }
+        }
+        return json;
+    }
+}
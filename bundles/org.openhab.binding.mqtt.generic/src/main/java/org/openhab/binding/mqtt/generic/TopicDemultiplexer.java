@@ -0,0 +1,109 @@
+/**
+ * Copyright (c) 2010-2020 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.binding.mqtt.generic;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+import org.eclipse.jdt.annotation.Nullable;
+import org.eclipse.smarthome.io.transport.mqtt.MqttBrokerConnection;
+import org.eclipse.smarthome.io.transport.mqtt.MqttMessageSubscriber;
+
+/**
+ * Subscribes once per distinct state topic on behalf of all {@link ChannelState}s of a Thing, and dispatches the
+ * received messages to the channels of the topic.
+ *
+ * Many devices publish all their values as one JSON object on a single topic. The payload of such a message is decoded
+ * and parsed once, and the channels extract their values from the shared JSON tree (see {@link MessagePayload}).
+ *
+ * @author David Graeff - Initial contribution
+ */
+@NonNullByDefault
+public class TopicDemultiplexer implements MqttMessageSubscriber {
+    private final Map<String, List<ChannelState>> channelStatesByTopic = new ConcurrentHashMap<>();
+    private final Map<String, CompletableFuture<Boolean>> subscriptions = new ConcurrentHashMap<>();
+    private @Nullable MqttBrokerConnection connection;
+
+    /**
+     * Adds the channel state to its state topic and subscribes to the topic, if this is the first channel state of
+     * the topic.
+     *
+     * @param connection A broker connection
+     * @param channelState The channel state
+     * @return A future that completes when the topic is subscribed
+     */
+    synchronized CompletableFuture<Boolean> subscribe(MqttBrokerConnection connection, ChannelState channelState) {
+        if (!connection.equals(this.connection)) {
+            // subscriptions are renewed on a new connection
+            subscriptions.clear();
+            this.connection = connection;
+        }
+        String topic = channelState.getStateTopic();
+        List<ChannelState> channelStates = channelStatesByTopic.computeIfAbsent(topic,
+                t -> new CopyOnWriteArrayList<>());
+        if (!channelStates.contains(channelState)) {
+            channelStates.add(channelState);
+        }
+        CompletableFuture<Boolean> subscription = subscriptions.get(topic);
+        if (subscription == null || subscription.isCompletedExceptionally()) {
+            subscription = connection.subscribe(topic, this);
+            subscriptions.put(topic, subscription);
+        }
+        return subscription;
+    }
+
+    /**
+     * Removes the channel state from its state topic and unsubscribes from the topic, if this was the last channel
+     * state of the topic.
+     *
+     * @param connection A broker connection
+     * @param channelState The channel state
+     * @return A future that completes when the channel state is removed
+     */
+    synchronized CompletableFuture<Boolean> unsubscribe(MqttBrokerConnection connection, ChannelState channelState) {
+        String topic = channelState.getStateTopic();
+        List<ChannelState> channelStates = channelStatesByTopic.get(topic);
+        if (channelStates != null) {
+            channelStates.remove(channelState);
+            if (channelStates.isEmpty()) {
+                channelStatesByTopic.remove(topic);
+                if (subscriptions.remove(topic) != null && connection.equals(this.connection)) {
+                    return connection.unsubscribe(topic, this);
+                }
+            }
+        }
+        return CompletableFuture.completedFuture(true);
+    }
+
+    /**
+     * Incoming message from the MqttBrokerConnection, dispatched to all channel states of the topic.
+     *
+     * @param topic The topic
+     * @param payload The byte payload
+     */
+    @Override
+    public void processMessage(String topic, byte[] payload) {
+        List<ChannelState> channelStates = channelStatesByTopic.get(topic);
+        if (channelStates == null) {
+            return;
+        }
+        MessagePayload message = new MessagePayload(payload);
+        for (ChannelState channelState : channelStates) {
+            channelState.processMessage(topic, message);
+        }
+    }
+}
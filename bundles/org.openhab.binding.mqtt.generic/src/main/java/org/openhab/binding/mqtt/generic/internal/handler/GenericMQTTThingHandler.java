@@ -37,6 +37,7 @@ import org.openhab.binding.mqtt.generic.ChannelState;
 import org.openhab.binding.mqtt.generic.ChannelStateTransformation;
 import org.openhab.binding.mqtt.generic.ChannelStateUpdateListener;
 import org.openhab.binding.mqtt.generic.MqttChannelStateDescriptionProvider;
+import org.openhab.binding.mqtt.generic.TopicDemultiplexer;
 import org.openhab.binding.mqtt.generic.TransformationServiceProvider;
 import org.openhab.binding.mqtt.generic.utils.FutureCollector;
 import org.openhab.binding.mqtt.generic.values.Value;
@@ -55,6 +56,7 @@ public class GenericMQTTThingHandler extends AbstractMQTTThingHandler implements
     final Map<ChannelUID, ChannelState> channelStateByChannelUID = new HashMap<>();
     protected final MqttChannelStateDescriptionProvider stateDescProvider;
     protected final TransformationServiceProvider transformationServiceProvider;
+    private TopicDemultiplexer demultiplexer = new TopicDemultiplexer();
 
     /**
      * Creates a new Thing handler for generic MQTT channels.
@@ -91,6 +93,19 @@ public class GenericMQTTThingHandler extends AbstractMQTTThingHandler implements
     @Override
     protected void stop() {
         channelStateByChannelUID.values().forEach(c -> c.getCache().resetState());
+        if (logger.isDebugEnabled()) {
+            long droppedUpdates = getDroppedUpdates().values().stream().mapToLong(Long::longValue).sum();
+            logger.debug("Dropped {} channel updates of {}", droppedUpdates, thing.getUID());
+        }
+    }
+
+    /**
+     * Returns the number of received values per channel, which did not update the channel state because of the
+     * onlyOnChange, minUpdateInterval or deadband channel configuration.
+     */
+    public Map<ChannelUID, Long> getDroppedUpdates() {
+        return channelStateByChannelUID.entrySet().stream()
+                .collect(Collectors.toMap(Map.Entry::getKey, e -> e.getValue().getDroppedUpdates()));
     }
 
     @Override
@@ -121,6 +136,7 @@ public class GenericMQTTThingHandler extends AbstractMQTTThingHandler implements
      */
     protected ChannelState createChannelState(ChannelConfig channelConfig, ChannelUID channelUID, Value valueState) {
         ChannelState state = new ChannelState(channelConfig, channelUID, valueState, this);
+        state.setDemultiplexer(demultiplexer);
         String[] transformations;
 
         // Incoming value transformations
@@ -141,6 +157,7 @@ public class GenericMQTTThingHandler extends AbstractMQTTThingHandler implements
     @Override
     public void initialize() {
         GenericThingConfiguration config = getConfigAs(GenericThingConfiguration.class);
+        demultiplexer = new TopicDemultiplexer();
 
         String availabilityTopic = config.availabilityTopic;
 
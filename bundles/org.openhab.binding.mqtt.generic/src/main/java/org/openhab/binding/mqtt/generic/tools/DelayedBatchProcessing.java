@@ -13,11 +13,15 @@
 package org.openhab.binding.mqtt.generic.tools;
 
 import java.util.ArrayList;
-import java.util.Collections;
 import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.ScheduledFuture;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.concurrent.atomic.AtomicReference;
 import java.util.function.Consumer;
 
@@ -25,47 +29,118 @@ import org.eclipse.jdt.annotation.NonNullByDefault;
 import org.eclipse.jdt.annotation.Nullable;
 
 /**
- * Collects objects over time until a specified delay passed by.
+ * Collects objects over time until a specified delay passed by without new objects.
  * Then call the user back with a list of accumulated objects and start over again.
  *
+ * <p>
+ * A continuous stream of objects would delay the processing forever, therefore a batch is also delivered when its
+ * first object is older than a maximum delay, or when it reached a maximum size.
+ *
+ * <p>
+ * Objects are added to a lock-free queue. There is at most one timer armed, it is not rescheduled for each object,
+ * but checks the delays on expiry and re-arms itself for the remaining time if necessary.
+ *
  * @author David Graeff - Initial contribution
  *
  * @param <T> Any object
  */
 @NonNullByDefault
 public class DelayedBatchProcessing<T> implements Consumer<T> {
+    /** Default maximum delay of a batch, as multiple of the delay */
+    public static final int DEFAULT_MAX_DELAY_FACTOR = 10;
+    /** Default maximum number of objects of a batch */
+    public static final int DEFAULT_MAX_BATCH_SIZE = 500;
+
     private final int delay;
+    private final int maxDelay;
+    private final int maxBatchSize;
     private final Consumer<List<T>> consumer;
-    private final List<T> queue = Collections.synchronizedList(new ArrayList<>());
+    private final Queue<T> queue = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger queueSize = new AtomicInteger();
     private final ScheduledExecutorService executor;
     protected final AtomicReference<@Nullable ScheduledFuture<?>> futureRef = new AtomicReference<>();
+    private final AtomicBoolean armed = new AtomicBoolean();
+    private volatile long batchStartNanos;
+    private volatile long lastObjectNanos;
+
+    // Statistics
+    private final AtomicLong batches = new AtomicLong();
+    private final AtomicLong processedObjects = new AtomicLong();
+    private final AtomicInteger largestBatch = new AtomicInteger();
 
     /**
-     * Creates a {@link DelayedBatchProcessing}.
+     * Creates a {@link DelayedBatchProcessing} with a maximum delay of {@value #DEFAULT_MAX_DELAY_FACTOR} times the
+     * delay and a maximum batch size of {@value #DEFAULT_MAX_BATCH_SIZE}.
      *
      * @param delay A delay in milliseconds
      * @param consumer A consumer of the list of collected objects
      * @param executor A scheduled executor service
      */
     public DelayedBatchProcessing(int delay, Consumer<List<T>> consumer, ScheduledExecutorService executor) {
+        this(delay, delay * DEFAULT_MAX_DELAY_FACTOR, DEFAULT_MAX_BATCH_SIZE, consumer, executor);
+    }
+
+    /**
+     * Creates a {@link DelayedBatchProcessing}.
+     *
+     * @param delay A delay in milliseconds. The batch is delivered when no object was received for this time.
+     * @param maxDelay A delay in milliseconds. The batch is delivered at the latest this time after its first object.
+     * @param maxBatchSize The batch is delivered when it contains this number of objects
+     * @param consumer A consumer of the list of collected objects
+     * @param executor A scheduled executor service
+     */
+    public DelayedBatchProcessing(int delay, int maxDelay, int maxBatchSize, Consumer<List<T>> consumer,
+            ScheduledExecutorService executor) {
         this.delay = delay;
+        this.maxDelay = maxDelay;
+        this.maxBatchSize = maxBatchSize;
         this.consumer = consumer;
         this.executor = executor;
         if (delay <= 0) {
             throw new IllegalArgumentException("Delay need to be greater than 0!");
         }
+        if (maxDelay < delay) {
+            throw new IllegalArgumentException("Maximum delay need to be at least the delay!");
+        }
+        if (maxBatchSize <= 0) {
+            throw new IllegalArgumentException("Maximum batch size need to be greater than 0!");
+        }
     }
 
     /**
      * Add new object to the batch process list. Every time a new object is received,
-     * the delay timer is rescheduled.
+     * the delivery is delayed, up to the maximum delay of the batch.
      *
      * @param t An object
      */
     @Override
     public void accept(T t) {
+        long now = System.nanoTime();
+        lastObjectNanos = now;
         queue.add(t);
-        cancel(futureRef.getAndSet(executor.schedule(this::run, delay, TimeUnit.MILLISECONDS)));
+        if (queueSize.incrementAndGet() == maxBatchSize) {
+            executor.execute(this::forceProcessNow);
+        }
+        arm(now);
+    }
+
+    private void arm(long now) {
+        if (armed.compareAndSet(false, true)) {
+            batchStartNanos = now;
+            futureRef.set(executor.schedule(this::timerExpired, delay, TimeUnit.MILLISECONDS));
+        }
+    }
+
+    private void timerExpired() {
+        long now = System.nanoTime();
+        long quietDeadline = lastObjectNanos + TimeUnit.MILLISECONDS.toNanos(delay);
+        long maxDeadline = batchStartNanos + TimeUnit.MILLISECONDS.toNanos(maxDelay);
+        long remaining = Math.min(quietDeadline, maxDeadline) - now;
+        if (remaining > 0 && armed.get()) {
+            futureRef.set(executor.schedule(this::timerExpired, remaining, TimeUnit.NANOSECONDS));
+            return;
+        }
+        run();
     }
 
     /**
@@ -75,20 +150,15 @@ public class DelayedBatchProcessing<T> implements Consumer<T> {
      */
     public List<T> join() {
         cancel(futureRef.getAndSet(null));
-        List<T> lqueue = new ArrayList<>();
-        synchronized (queue) {
-            lqueue.addAll(queue);
-            queue.clear();
-        }
-        return lqueue;
+        armed.set(false);
+        return drain();
     }
 
     /**
      * Return true if there is a delayed processing going on.
      */
     public boolean isArmed() {
-        ScheduledFuture<?> scheduledFuture = this.futureRef.get();
-        return scheduledFuture != null && !scheduledFuture.isDone();
+        return armed.get();
     }
 
     /**
@@ -99,18 +169,67 @@ public class DelayedBatchProcessing<T> implements Consumer<T> {
         run();
     }
 
-    private void run() {
+    private List<T> drain() {
+        return drain(Integer.MAX_VALUE);
+    }
+
+    private List<T> drain(int max) {
         List<T> lqueue = new ArrayList<>();
-        synchronized (queue) {
-            lqueue.addAll(queue);
-            queue.clear();
+        T t;
+        while (lqueue.size() < max && (t = queue.poll()) != null) {
+            queueSize.decrementAndGet();
+            lqueue.add(t);
         }
+        return lqueue;
+    }
 
-        if (!lqueue.isEmpty()) {
+    private synchronized void run() {
+        armed.set(false);
+        List<T> lqueue;
+        while (!(lqueue = drain(maxBatchSize)).isEmpty()) {
+            batches.incrementAndGet();
+            processedObjects.addAndGet(lqueue.size());
+            largestBatch.accumulateAndGet(lqueue.size(), Math::max);
             consumer.accept(lqueue);
+            if (lqueue.size() < maxBatchSize) {
+                break;
+            }
+        }
+        // Objects added meanwhile have not armed the timer
+        if (!queue.isEmpty()) {
+            arm(System.nanoTime());
         }
     }
 
+    /**
+     * Return the number of delivered batches.
+     */
+    public long getBatchCount() {
+        return batches.get();
+    }
+
+    /**
+     * Return the number of objects delivered in all batches.
+     */
+    public long getProcessedCount() {
+        return processedObjects.get();
+    }
+
+    /**
+     * Return the number of objects of the largest delivered batch.
+     */
+    public int getLargestBatchSize() {
+        return largestBatch.get();
+    }
+
+    @Override
+    public String toString() {
+        long count = batches.get();
+        return String.format("batches=%d, objects=%d, avgSize=%.1f, maxSize=%d, queued=%d", count,
+                processedObjects.get(), count == 0 ? 0.0 : (double) processedObjects.get() / count,
+                largestBatch.get(), queueSize.get());
+    }
+
     private static void cancel(@Nullable ScheduledFuture<?> future) {
         if (future != null) {
             future.cancel(false);
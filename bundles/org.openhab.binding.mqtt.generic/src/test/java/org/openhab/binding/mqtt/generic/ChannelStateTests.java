@@ -26,6 +26,7 @@ import java.util.Arrays;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
 import java.util.concurrent.ScheduledThreadPoolExecutor;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.TimeoutException;
@@ -39,6 +40,7 @@ import org.eclipse.smarthome.io.transport.mqtt.MqttBrokerConnection;
 import org.junit.After;
 import org.junit.Before;
 import org.junit.Test;
+import org.mockito.ArgumentCaptor;
 import org.mockito.Mock;
 import org.mockito.Spy;
 import org.openhab.binding.mqtt.generic.values.ColorValue;
@@ -186,6 +188,95 @@ public class ChannelStateTests {
         assertThat(value.getChannelState().toString(), is("16.0"));
     }
 
+    @Test
+    public void receiveOnlyOnChangeTest() {
+        NumberValue value = new NumberValue(null, null, null, null);
+        ChannelState c = spy(new ChannelState(config, channelUID, value, channelStateUpdateListener));
+        c.config.onlyOnChange = true;
+        c.start(connection, mock(ScheduledExecutorService.class), 100);
+
+        c.processMessage("state", "15".getBytes());
+        c.processMessage("state", "15".getBytes());
+        c.processMessage("state", "16".getBytes());
+
+        verify(channelStateUpdateListener, times(2)).updateChannelState(eq(channelUID), any());
+        assertThat(c.getDroppedUpdates(), is(1L));
+    }
+
+    @Test
+    public void receiveDeadbandTest() {
+        NumberValue value = new NumberValue(null, null, null, null);
+        ChannelState c = spy(new ChannelState(config, channelUID, value, channelStateUpdateListener));
+        c.config.deadband = new BigDecimal("0.5");
+        c.start(connection, mock(ScheduledExecutorService.class), 100);
+
+        c.processMessage("state", "20.0".getBytes());
+        c.processMessage("state", "20.3".getBytes());
+        c.processMessage("state", "19.6".getBytes());
+        c.processMessage("state", "20.5".getBytes());
+
+        verify(channelStateUpdateListener, times(2)).updateChannelState(eq(channelUID), any());
+        assertThat(c.getDroppedUpdates(), is(2L));
+    }
+
+    @Test
+    public void receiveMinUpdateIntervalTest() {
+        ScheduledExecutorService mockScheduler = mock(ScheduledExecutorService.class);
+        doReturn(mock(ScheduledFuture.class)).when(mockScheduler).schedule(any(Runnable.class), anyLong(), any());
+        ChannelState c = spy(new ChannelState(config, channelUID, textValue, channelStateUpdateListener));
+        c.config.minUpdateInterval = 60000;
+        c.start(connection, mockScheduler, 100);
+
+        c.processMessage("state", "A".getBytes());
+        c.processMessage("state", "B".getBytes());
+        c.processMessage("state", "C".getBytes());
+
+        verify(channelStateUpdateListener, times(1)).updateChannelState(eq(channelUID), any());
+        assertThat(c.getDroppedUpdates(), is(1L));
+
+        // The last value of the burst updates the channel once the interval has passed
+        ArgumentCaptor<Runnable> pendingUpdate = ArgumentCaptor.forClass(Runnable.class);
+        verify(mockScheduler, times(1)).schedule(pendingUpdate.capture(),
+                longThat(delay -> delay > 0 && delay <= 60000), eq(TimeUnit.MILLISECONDS));
+        pendingUpdate.getValue().run();
+        verify(channelStateUpdateListener).updateChannelState(eq(channelUID), eq(new StringType("C")));
+        verify(channelStateUpdateListener, times(2)).updateChannelState(eq(channelUID), any());
+    }
+
+    @Test
+    public void receiveMinUpdateIntervalDropsUnchangedPendingValueTest() {
+        ScheduledExecutorService mockScheduler = mock(ScheduledExecutorService.class);
+        ScheduledFuture<?> future = mock(ScheduledFuture.class);
+        doReturn(future).when(mockScheduler).schedule(any(Runnable.class), anyLong(), any());
+        ChannelState c = spy(new ChannelState(config, channelUID, textValue, channelStateUpdateListener));
+        c.config.minUpdateInterval = 60000;
+        c.config.onlyOnChange = true;
+        c.start(connection, mockScheduler, 100);
+
+        c.processMessage("state", "A".getBytes());
+        c.processMessage("state", "B".getBytes());
+        c.processMessage("state", "A".getBytes());
+
+        verify(future).cancel(false);
+        verify(channelStateUpdateListener, times(1)).updateChannelState(eq(channelUID), any());
+        assertThat(c.getDroppedUpdates(), is(2L));
+    }
+
+    @Test
+    public void publishResetsLastUpdateTest() {
+        ChannelState c = spy(new ChannelState(config, channelUID, textValue, channelStateUpdateListener));
+        c.config.onlyOnChange = true;
+        c.start(connection, mock(ScheduledExecutorService.class), 100);
+
+        c.processMessage("state", "ON".getBytes());
+        c.publishValue(new StringType("OFF"));
+        // The device rejected the command and reports the previous value again
+        c.processMessage("state", "ON".getBytes());
+
+        verify(channelStateUpdateListener, times(2)).updateChannelState(eq(channelUID), eq(new StringType("ON")));
+        assertThat(c.getDroppedUpdates(), is(0L));
+    }
+
     @Test
     public void receivePercentageTest() {
         PercentageValue value = new PercentageValue(new BigDecimal(-100), new BigDecimal(100), new BigDecimal(10), null,
@@ -0,0 +1,198 @@
+/**
+ * Copyright (c) 2010-2020 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.binding.mqtt.generic;
+
+import static org.junit.Assert.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+import static org.mockito.MockitoAnnotations.initMocks;
+
+import java.util.Arrays;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+import org.eclipse.smarthome.core.thing.ChannelUID;
+import org.eclipse.smarthome.core.transform.TransformationService;
+import org.eclipse.smarthome.io.transport.mqtt.MqttBrokerConnection;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.Mock;
+import org.openhab.binding.mqtt.generic.values.TextValue;
+
+/**
+ * Tests the {@link TopicDemultiplexer} class.
+ *
+ * @author David Graeff - Initial contribution
+ */
+public class TopicDemultiplexerTests {
+    private static final String TOPIC = "zigbee2mqtt/sensor";
+    private static final byte[] PAYLOAD = "{\"temperature\": 23.2, \"humidity\": 45, \"state\": {\"battery\": 99}}"
+            .getBytes();
+
+    @Mock
+    private MqttBrokerConnection connection;
+
+    @Mock
+    private ChannelStateUpdateListener listener;
+
+    @Mock
+    private TransformationService jsonPathService;
+
+    @Mock
+    private TransformationServiceProvider transformationServiceProvider;
+
+    private ScheduledExecutorService scheduler;
+
+    private final ChannelUID temperatureUID = new ChannelUID("mqtt:topic:thing:temperature");
+    private final ChannelUID batteryUID = new ChannelUID("mqtt:topic:thing:battery");
+
+    @Before
+    public void setUp() {
+        initMocks(this);
+        doReturn(CompletableFuture.completedFuture(true)).when(connection).subscribe(any(), any());
+        doReturn(CompletableFuture.completedFuture(true)).when(connection).unsubscribe(any(), any());
+        when(transformationServiceProvider.getTransformationService(anyString())).thenReturn(jsonPathService);
+        scheduler = new ScheduledThreadPoolExecutor(1);
+    }
+
+    @After
+    public void tearDown() {
+        scheduler.shutdownNow();
+    }
+
+    private ChannelState createChannelState(TopicDemultiplexer demultiplexer, ChannelUID channelUID, String pattern) {
+        ChannelState state = new ChannelState(ChannelConfigBuilder.create(TOPIC, null).build(), channelUID,
+                new TextValue(), listener);
+        state.addTransformation(new ChannelStateTransformation("JSONPATH", pattern, transformationServiceProvider));
+        state.setDemultiplexer(demultiplexer);
+        return state;
+    }
+
+    @Test
+    public void subscribesOncePerTopic() throws Exception {
+        TopicDemultiplexer demultiplexer = new TopicDemultiplexer();
+        ChannelState temperature = createChannelState(demultiplexer, temperatureUID, "$.temperature");
+        ChannelState battery = createChannelState(demultiplexer, batteryUID, "$.state.battery");
+
+        temperature.start(connection, scheduler, 0).get(50, TimeUnit.MILLISECONDS);
+        battery.start(connection, scheduler, 0).get(50, TimeUnit.MILLISECONDS);
+        verify(connection, times(1)).subscribe(eq(TOPIC), eq(demultiplexer));
+
+        temperature.stop().get();
+        verify(connection, never()).unsubscribe(any(), any());
+        battery.stop().get();
+        verify(connection, times(1)).unsubscribe(eq(TOPIC), eq(demultiplexer));
+    }
+
+    @Test
+    public void evaluatesSimpleJsonPathOnSharedPayload() throws Exception {
+        TopicDemultiplexer demultiplexer = new TopicDemultiplexer();
+        ChannelState temperature = createChannelState(demultiplexer, temperatureUID, "$.temperature");
+        ChannelState battery = createChannelState(demultiplexer, batteryUID, "$.state.battery");
+        temperature.start(connection, scheduler, 0).get(50, TimeUnit.MILLISECONDS);
+        battery.start(connection, scheduler, 0).get(50, TimeUnit.MILLISECONDS);
+
+        demultiplexer.processMessage(TOPIC, PAYLOAD);
+
+        verify(listener).updateChannelState(eq(temperatureUID), argThat(arg -> "23.2".equals(arg.toString())));
+        verify(listener).updateChannelState(eq(batteryUID), argThat(arg -> "99".equals(arg.toString())));
+        verifyZeroInteractions(jsonPathService);
+    }
+
+    @Test
+    public void fallsBackToTransformationService() throws Exception {
+        when(jsonPathService.transform(eq("$..battery"), anyString())).thenReturn("99");
+        TopicDemultiplexer demultiplexer = new TopicDemultiplexer();
+        ChannelState battery = createChannelState(demultiplexer, batteryUID, "$..battery");
+        battery.start(connection, scheduler, 0).get(50, TimeUnit.MILLISECONDS);
+
+        demultiplexer.processMessage(TOPIC, PAYLOAD);
+
+        verify(listener).updateChannelState(eq(batteryUID), argThat(arg -> "99".equals(arg.toString())));
+    }
+
+    @Test
+    public void evaluatesBracketNotationAndArrayIndex() throws Exception {
+        TopicDemultiplexer demultiplexer = new TopicDemultiplexer();
+        ChannelState battery = createChannelState(demultiplexer, batteryUID, "$['state'].battery");
+        ChannelState temperature = createChannelState(demultiplexer, temperatureUID, "$.list[1]");
+        battery.start(connection, scheduler, 0).get(50, TimeUnit.MILLISECONDS);
+        temperature.start(connection, scheduler, 0).get(50, TimeUnit.MILLISECONDS);
+
+        demultiplexer.processMessage(TOPIC, "{\"state\": {\"battery\": 99}, \"list\": [1, 22.5]}".getBytes());
+
+        verify(listener).updateChannelState(eq(batteryUID), argThat(arg -> "99".equals(arg.toString())));
+        verify(listener).updateChannelState(eq(temperatureUID), argThat(arg -> "22.5".equals(arg.toString())));
+        verifyZeroInteractions(jsonPathService);
+    }
+
+    @Test
+    public void leavesOtherPatternsToTransformationService() {
+        String[] patterns = { "$..battery", "$[*]", "$.state.*", "$.a[?(@.b>1)]", "$['a','b']", "$[\"a\"]",
+                "$.a.length()", "$. a", "$[-1]", "$[0:2]", "$.a[0,1]", "$", "state.battery", "$.state.battery " };
+        for (String pattern : patterns) {
+            assertNull(pattern, ChannelStateTransformation.parseJsonPath("JSONPATH", pattern));
+        }
+        assertNull(ChannelStateTransformation.parseJsonPath("REGEX", "$.temperature"));
+        assertEquals(Arrays.asList("state", "battery level", 0),
+                ChannelStateTransformation.parseJsonPath("JSONPATH", "$.state['battery level'][0]"));
+    }
+
+    @Test
+    public void fallsBackToTransformationServiceForFilter() throws Exception {
+        String pattern = "$.sensors[?(@.id == 2)].value";
+        when(jsonPathService.transform(eq(pattern), anyString())).thenReturn("17");
+        TopicDemultiplexer demultiplexer = new TopicDemultiplexer();
+        ChannelState temperature = createChannelState(demultiplexer, temperatureUID, pattern);
+        temperature.start(connection, scheduler, 0).get(50, TimeUnit.MILLISECONDS);
+
+        demultiplexer.processMessage(TOPIC,
+                "{\"sensors\": [{\"id\": 1, \"value\": 3}, {\"id\": 2, \"value\": 17}]}".getBytes());
+
+        verify(jsonPathService).transform(eq(pattern), anyString());
+        verify(listener).updateChannelState(eq(temperatureUID), argThat(arg -> "17".equals(arg.toString())));
+    }
+
+    @Test
+    public void fallsBackToTransformationServiceForMalformedJson() throws Exception {
+        when(jsonPathService.transform(eq("$.temperature"), anyString())).thenReturn("23.2");
+        TopicDemultiplexer demultiplexer = new TopicDemultiplexer();
+        ChannelState temperature = createChannelState(demultiplexer, temperatureUID, "$.temperature");
+        temperature.start(connection, scheduler, 0).get(50, TimeUnit.MILLISECONDS);
+
+        String[] payloads = { "{temperature: 23.2}", "{'temperature': 23.2}", "{\"temperature\": 023.2}",
+                "{\"temperature\": 23.2} trailing", "{\"temperature\": NaN}" };
+        for (String payload : payloads) {
+            demultiplexer.processMessage(TOPIC, payload.getBytes());
+            verify(jsonPathService).transform("$.temperature", payload);
+        }
+    }
+
+    @Test
+    public void fallsBackToTransformationServiceForMissingOrLongValues() throws Exception {
+        when(jsonPathService.transform(eq("$.temperature"), anyString())).thenReturn("0");
+        TopicDemultiplexer demultiplexer = new TopicDemultiplexer();
+        ChannelState temperature = createChannelState(demultiplexer, temperatureUID, "$.temperature");
+        temperature.start(connection, scheduler, 0).get(50, TimeUnit.MILLISECONDS);
+
+        String[] payloads = { "{\"humidity\": 45}", "{\"temperature\": null}",
+                "{\"temperature\": {\"value\": 1}}", "{\"temperature\": 23.123456789012345678}", "[1, 2]" };
+        for (String payload : payloads) {
+            demultiplexer.processMessage(TOPIC, payload.getBytes());
+            verify(jsonPathService).transform("$.temperature", payload);
+        }
+    }
+}
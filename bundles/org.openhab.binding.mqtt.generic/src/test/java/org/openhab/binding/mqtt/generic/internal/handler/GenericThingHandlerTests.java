@@ -40,6 +40,7 @@ import org.openhab.binding.mqtt.generic.ChannelConfigBuilder;
 import org.openhab.binding.mqtt.generic.ChannelState;
 import org.openhab.binding.mqtt.generic.MqttChannelStateDescriptionProvider;
 import org.openhab.binding.mqtt.generic.ThingHandlerHelper;
+import org.openhab.binding.mqtt.generic.TopicDemultiplexer;
 import org.openhab.binding.mqtt.generic.TransformationServiceProvider;
 import org.openhab.binding.mqtt.generic.values.OnOffValue;
 import org.openhab.binding.mqtt.generic.values.TextValue;
@@ -118,7 +119,7 @@ public class GenericThingHandlerTests {
         assertThat(channelConfig.getStateTopic(), is("test/state"));
         assertThat(channelConfig.getCommandTopic(), is("test/command"));
 
-        verify(connection).subscribe(eq(channelConfig.getStateTopic()), eq(channelConfig));
+        verify(connection).subscribe(eq(channelConfig.getStateTopic()), any(TopicDemultiplexer.class));
 
         verify(callback).statusUpdated(eq(thing), argThat((arg) -> arg.getStatus().equals(ThingStatus.ONLINE)
                 && arg.getStatusDetail().equals(ThingStatusDetail.NONE)));
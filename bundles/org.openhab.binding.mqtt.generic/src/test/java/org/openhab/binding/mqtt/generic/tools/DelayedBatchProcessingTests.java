@@ -0,0 +1,97 @@
+/**
+ * Copyright (c) 2010-2020 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.binding.mqtt.generic.tools;
+
+import static org.hamcrest.CoreMatchers.*;
+import static org.junit.Assert.*;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Tests the {@link DelayedBatchProcessing} class.
+ *
+ * @author David Graeff - Initial contribution
+ */
+public class DelayedBatchProcessingTests {
+    private ScheduledExecutorService scheduler;
+    private final BlockingQueue<List<Integer>> batches = new LinkedBlockingQueue<>();
+
+    @Before
+    public void setUp() {
+        scheduler = new ScheduledThreadPoolExecutor(2);
+    }
+
+    @After
+    public void tearDown() {
+        scheduler.shutdownNow();
+    }
+
+    @Test
+    public void deliversAfterDelay() throws InterruptedException {
+        DelayedBatchProcessing<Integer> processing = new DelayedBatchProcessing<>(50, batches::add, scheduler);
+        processing.accept(1);
+        processing.accept(2);
+        assertTrue(processing.isArmed());
+
+        assertThat(batches.poll(1, TimeUnit.SECONDS), is(Arrays.asList(1, 2)));
+        assertFalse(processing.isArmed());
+        assertThat(processing.getBatchCount(), is(1L));
+        assertThat(processing.getProcessedCount(), is(2L));
+        assertThat(processing.getLargestBatchSize(), is(2));
+    }
+
+    @Test
+    public void continuousStreamIsDeliveredAfterMaxDelay() throws InterruptedException {
+        DelayedBatchProcessing<Integer> processing = new DelayedBatchProcessing<>(50, 200, 1000, batches::add,
+                scheduler);
+        long start = System.nanoTime();
+        int i = 0;
+        while (batches.isEmpty() && System.nanoTime() - start < TimeUnit.SECONDS.toNanos(2)) {
+            processing.accept(i++);
+            Thread.sleep(10);
+        }
+        assertThat(batches.isEmpty(), is(false));
+        processing.join();
+    }
+
+    @Test
+    public void fullBatchIsDeliveredImmediately() throws InterruptedException {
+        DelayedBatchProcessing<Integer> processing = new DelayedBatchProcessing<>(10000, 10000, 3, batches::add,
+                scheduler);
+        processing.accept(1);
+        processing.accept(2);
+        processing.accept(3);
+
+        assertThat(batches.poll(1, TimeUnit.SECONDS), is(Arrays.asList(1, 2, 3)));
+    }
+
+    @Test
+    public void joinReturnsQueuedObjects() {
+        DelayedBatchProcessing<Integer> processing = new DelayedBatchProcessing<>(10000, batches::add, scheduler);
+        processing.accept(1);
+
+        assertThat(processing.join(), is(Arrays.asList(1)));
+        assertFalse(processing.isArmed());
+        assertThat(processing.getBatchCount(), is(0L));
+    }
+}
@@ -211,6 +211,7 @@ public class HomeAssistantThingHandler extends AbstractMQTTThingHandler
         if (started) {
             discoverComponents.stopDiscovery();
             delayedProcessing.join();
+            logger.debug("Processed discovered components of {}: {}", thing.getUID(), delayedProcessing);
             // haComponents does not need to be synchronised -> the discovery thread is disabled
             haComponents.values().parallelStream().map(AbstractComponent::stop) //
                     // we need to join all the stops, otherwise they might not be done when start is called
@@ -138,6 +138,8 @@ public class HomieThingHandler extends AbstractMQTTThingHandler implements Devic
             this.heartBeatTimer = null;
         }
         delayedProcessing.join();
+        logger.debug("Processed discovered nodes and properties of Homie device {}: {}", device.attributes.name,
+                delayedProcessing);
         device.stop();
     }
 
@@ -0,0 +1,444 @@
+/**
+ * Copyright (c) 2010-2020 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.binding.network.internal;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+import org.eclipse.jdt.annotation.Nullable;
+import org.openhab.binding.network.internal.utils.NetworkUtils;
+import org.openhab.binding.network.internal.utils.NetworkUtils.ArpPingUtilEnum;
+import org.openhab.binding.network.internal.utils.NetworkUtils.IpPingMethodEnum;
+import org.openhab.binding.network.internal.utils.PingResult;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * The {@link NetworkScanner} checks the presence of many hosts, for example all hosts of a subnet.
+ * <p>
+ * The checks are performed by the {@link PresenceDetectionEngine}. They are started at the configured rate of probes
+ * per second, a probe being a TCP connection attempt, an ICMP ping or an ARP ping. Hosts are reported to the
+ * {@link PresenceDetectionListener} as soon as a check succeeds, and with a final result once all of their checks are
+ * done.
+ * <p>
+ * The result of each host is cached. Reachable hosts are reported from the cache and unreachable hosts are skipped,
+ * as long as their result has not expired.
+ *
+ * @author David Graeff - Initial contribution
+ */
+@NonNullByDefault
+public class NetworkScanner {
+    private static final int TICK_MS = 50;
+    private static final long PROGRESS_LOG_INTERVAL_MS = 5000;
+
+    private final Logger logger = LoggerFactory.getLogger(NetworkScanner.class);
+
+    /**
+     * Progress and rate of the current or last scan.
+     */
+    public static class Statistics {
+        public final int totalHosts;
+        public final int scannedHosts;
+        public final int cachedHosts;
+        public final int reachableHosts;
+        public final long probes;
+        public final long durationInMS;
+
+        Statistics(int totalHosts, int scannedHosts, int cachedHosts, int reachableHosts, long probes,
+                long durationInMS) {
+            this.totalHosts = totalHosts;
+            this.scannedHosts = scannedHosts;
+            this.cachedHosts = cachedHosts;
+            this.reachableHosts = reachableHosts;
+            this.probes = probes;
+            this.durationInMS = durationInMS;
+        }
+
+        /**
+         * Return the finished hosts in percent, including the hosts answered from the cache.
+         */
+        public double getProgress() {
+            return totalHosts == 0 ? 100 : 100.0 * (scannedHosts + cachedHosts) / totalHosts;
+        }
+
+        /**
+         * Return the achieved rate of probes per second.
+         */
+        public double getProbesPerSecond() {
+            return durationInMS == 0 ? 0 : probes * 1000.0 / durationInMS;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("%.0f%% of %d hosts (%d scanned, %d cached, %d reachable), %d probes at %.1f/s",
+                    getProgress(), totalHosts, scannedHosts, cachedHosts, reachableHosts, probes,
+                    getProbesPerSecond());
+        }
+    }
+
+    private static class CachedHost {
+        private final long expiresAt;
+        private final @Nullable PresenceDetectionValue value;
+
+        private CachedHost(long expiresAt, @Nullable PresenceDetectionValue value) {
+            this.expiresAt = expiresAt;
+            this.value = value;
+        }
+    }
+
+    NetworkUtils networkUtils = new NetworkUtils();
+    PresenceDetectionEngine engine = PresenceDetectionEngine.getInstance();
+    private final PresenceDetectionListener updateListener;
+    private final Map<String, CachedHost> hostCache = new ConcurrentHashMap<>();
+
+    /// Configuration variables
+    private Set<Integer> tcpPorts = Collections.emptySet();
+    private @Nullable IpPingMethodEnum pingMethod;
+    private ArpPingUtilEnum arpPingMethod = ArpPingUtilEnum.UNKNOWN_TOOL;
+    private String arpPingUtilPath = "";
+    private Set<String> interfaceNames = Collections.emptySet();
+    private int timeoutInMS = 500;
+    private int probesPerSecond = 200;
+    private long reachableCacheTimeInMS;
+    private long unreachableCacheTimeInMS;
+
+    /// State variables of the current scan
+    private final Queue<String> pendingHosts = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger runningHosts = new AtomicInteger();
+    private final AtomicInteger scannedHosts = new AtomicInteger();
+    private final AtomicInteger cachedHosts = new AtomicInteger();
+    private final AtomicInteger reachableHosts = new AtomicInteger();
+    private final AtomicLong probes = new AtomicLong();
+    private @Nullable ScheduledFuture<?> tickJob;
+    private @Nullable Runnable finishedCallback;
+    private int totalHosts;
+    private long startTimeInMS;
+    private long endTimeInMS;
+    private long lastTickInMS;
+    private long lastProgressLogInMS;
+    private double availableProbes;
+
+    public NetworkScanner(PresenceDetectionListener updateListener) {
+        this.updateListener = updateListener;
+    }
+
+    public void setServicePorts(Set<Integer> ports) {
+        this.tcpPorts = ports;
+    }
+
+    /**
+     * Sets the ping method.
+     *
+     * @param pingMethod The ping method or null to disable ICMP pings.
+     */
+    public void setIcmpPingMethod(@Nullable IpPingMethodEnum pingMethod) {
+        this.pingMethod = pingMethod;
+    }
+
+    /**
+     * Enables ARP pings on the given interfaces.
+     *
+     * @param arpPingUtilMethod The arping tool or {@link ArpPingUtilEnum#UNKNOWN_TOOL} to disable ARP pings.
+     */
+    public void setArpPing(String arpPingUtilPath, ArpPingUtilEnum arpPingUtilMethod, Set<String> interfaceNames) {
+        this.arpPingUtilPath = arpPingUtilPath;
+        this.arpPingMethod = arpPingUtilMethod;
+        this.interfaceNames = interfaceNames;
+    }
+
+    public void setTimeout(int timeout) {
+        this.timeoutInMS = timeout;
+    }
+
+    public void setProbesPerSecond(int probesPerSecond) {
+        this.probesPerSecond = Math.max(1, probesPerSecond);
+    }
+
+    /**
+     * Sets how long the result of a host is used instead of scanning it again.
+     *
+     * @param reachableCacheTimeInMS Cache time of reachable hosts
+     * @param unreachableCacheTimeInMS Cache time of unreachable hosts
+     */
+    public void setCacheTime(long reachableCacheTimeInMS, long unreachableCacheTimeInMS) {
+        this.reachableCacheTimeInMS = reachableCacheTimeInMS;
+        this.unreachableCacheTimeInMS = unreachableCacheTimeInMS;
+    }
+
+    /**
+     * Return the number of probes to check a host.
+     */
+    public int getProbesPerHost() {
+        int probesPerHost = tcpPorts.size();
+        if (pingMethod != null) {
+            probesPerHost += 1;
+        }
+        if (arpPingMethod == ArpPingUtilEnum.ELI_FULKERSON_ARP_PING_FOR_WINDOWS) {
+            probesPerHost += 1;
+        } else if (arpPingMethod != ArpPingUtilEnum.UNKNOWN_TOOL) {
+            probesPerHost += interfaceNames.size();
+        }
+        return Math.max(1, probesPerHost);
+    }
+
+    /**
+     * Start a scan of the given hosts. A running scan is stopped.
+     *
+     * @param hosts The IP addresses of the hosts
+     * @param scheduler The scheduler to start the checks
+     * @param finishedCallback Called when all hosts have been checked, unless the scan was stopped.
+     */
+    public synchronized void startScan(Collection<String> hosts, ScheduledExecutorService scheduler,
+            Runnable finishedCallback) {
+        stopScan();
+
+        long now = System.currentTimeMillis();
+        hostCache.values().removeIf(host -> host.expiresAt <= now);
+
+        pendingHosts.addAll(hosts);
+        totalHosts = hosts.size();
+        scannedHosts.set(0);
+        cachedHosts.set(0);
+        reachableHosts.set(0);
+        probes.set(0);
+        startTimeInMS = now;
+        endTimeInMS = 0;
+        lastTickInMS = now;
+        lastProgressLogInMS = now;
+        availableProbes = getProbesPerHost();
+        this.finishedCallback = finishedCallback;
+        tickJob = scheduler.scheduleWithFixedDelay(this::tick, 0, TICK_MS, TimeUnit.MILLISECONDS);
+        logger.debug("Scanning {} hosts with {} probes per second", totalHosts, probesPerSecond);
+    }
+
+    /**
+     * Stop the current scan. Running checks are finished and still reported.
+     */
+    public synchronized void stopScan() {
+        if (endScan()) {
+            logger.debug("Scan stopped: {}", getStatistics());
+        }
+    }
+
+    private boolean endScan() {
+        ScheduledFuture<?> job = tickJob;
+        if (job == null) {
+            return false;
+        }
+        job.cancel(false);
+        tickJob = null;
+        finishedCallback = null;
+        pendingHosts.clear();
+        endTimeInMS = System.currentTimeMillis();
+        return true;
+    }
+
+    /**
+     * Return true if a scan is running.
+     */
+    public synchronized boolean isScanning() {
+        return tickJob != null;
+    }
+
+    /**
+     * Return the progress and rate of the current or last scan.
+     */
+    public synchronized Statistics getStatistics() {
+        long end = endTimeInMS != 0 ? endTimeInMS : System.currentTimeMillis();
+        return new Statistics(totalHosts, scannedHosts.get(), cachedHosts.get(), reachableHosts.get(), probes.get(),
+                startTimeInMS == 0 ? 0 : end - startTimeInMS);
+    }
+
+    /**
+     * Start the checks of as many hosts as the rate allows. Hosts with a cached result do not count.
+     */
+    private void tick() {
+        List<PresenceDetectionValue> cachedValues = new ArrayList<>();
+        Runnable callback = null;
+        synchronized (this) {
+            if (tickJob == null) {
+                return;
+            }
+            long now = System.currentTimeMillis();
+            int probesPerHost = getProbesPerHost();
+            // A host is started as a whole, even if the rate is lower than its probes per tick
+            double maximumProbes = Math.max(probesPerHost, probesPerSecond * TICK_MS / 1000.0);
+            availableProbes = Math.min(maximumProbes,
+                    availableProbes + probesPerSecond * (now - lastTickInMS) / 1000.0);
+            lastTickInMS = now;
+
+            String host;
+            while ((host = pendingHosts.peek()) != null) {
+                CachedHost cachedHost = hostCache.get(host);
+                if (cachedHost != null && cachedHost.expiresAt > now) {
+                    pendingHosts.poll();
+                    cachedHosts.incrementAndGet();
+                    PresenceDetectionValue value = cachedHost.value;
+                    if (value != null) {
+                        reachableHosts.incrementAndGet();
+                        cachedValues.add(value);
+                    }
+                    continue;
+                }
+                if (availableProbes < probesPerHost) {
+                    break;
+                }
+                pendingHosts.poll();
+                availableProbes -= probesPerHost;
+                scanHost(host);
+            }
+
+            if (now - lastProgressLogInMS >= PROGRESS_LOG_INTERVAL_MS) {
+                lastProgressLogInMS = now;
+                logger.debug("Scan progress: {}", getStatistics());
+            }
+
+            if (pendingHosts.isEmpty() && runningHosts.get() == 0) {
+                callback = finishedCallback;
+                endScan();
+                logger.debug("Scan finished: {}", getStatistics());
+            }
+        }
+        for (PresenceDetectionValue value : cachedValues) {
+            updateListener.partialDetectionResult(value);
+            updateListener.finalDetectionResult(value);
+        }
+        if (callback != null) {
+            callback.run();
+        }
+    }
+
+    private void scanHost(String host) {
+        InetAddress destinationAddress;
+        try {
+            destinationAddress = InetAddress.getByName(host);
+        } catch (UnknownHostException e) {
+            logger.trace("Skipping invalid host {}", host);
+            scannedHosts.incrementAndGet();
+            return;
+        }
+        runningHosts.incrementAndGet();
+
+        HostResult result = new HostResult(host);
+        List<CompletableFuture<?>> checks = new ArrayList<>();
+        for (Integer tcpPort : tcpPorts) {
+            checks.add(engine.servicePing(destinationAddress, tcpPort, timeoutInMS)
+                    .thenAccept(o -> result.update(o, PresenceDetectionType.TCP_CONNECTION, tcpPort)));
+        }
+
+        if (arpPingMethod != ArpPingUtilEnum.UNKNOWN_TOOL) {
+            // Wake up iOS devices, they do not answer ARP pings while sleeping
+            int delayInMS = 50;
+            try {
+                networkUtils.wakeUpIOS(destinationAddress);
+            } catch (IOException e) {
+                delayInMS = 0;
+            }
+            // arp-ping.exe tool capable of handling multiple interfaces by itself
+            Set<String> arpInterfaceNames = arpPingMethod == ArpPingUtilEnum.ELI_FULKERSON_ARP_PING_FOR_WINDOWS
+                    ? Collections.singleton("")
+                    : interfaceNames;
+            for (String interfaceName : arpInterfaceNames) {
+                checks.add(engine
+                        .nativeARPPing(arpPingMethod, arpPingUtilPath, interfaceName, host, timeoutInMS, delayInMS)
+                        .thenAccept(o -> result.update(o, PresenceDetectionType.ARP_PING, 0)));
+            }
+        }
+
+        IpPingMethodEnum pingMethod = this.pingMethod;
+        if (pingMethod != null) {
+            CompletableFuture<Optional<PingResult>> ping = pingMethod == IpPingMethodEnum.JAVA_PING
+                    ? engine.javaPing(timeoutInMS, destinationAddress)
+                    : engine.nativePing(pingMethod, host, timeoutInMS);
+            checks.add(ping.thenAccept(o -> result.update(o, PresenceDetectionType.ICMP_PING, 0)));
+        }
+        probes.addAndGet(checks.size());
+
+        CompletableFuture.allOf(checks.toArray(new CompletableFuture<?>[checks.size()])).whenComplete((r, e) -> {
+            if (e != null) {
+                logger.trace("A check of host {} failed", host, e);
+            }
+            finishHost(result);
+        });
+    }
+
+    private void finishHost(HostResult result) {
+        PresenceDetectionValue value = result.getValue();
+        long now = System.currentTimeMillis();
+        if (value != null) {
+            reachableHosts.incrementAndGet();
+            hostCache.put(result.host, new CachedHost(now + reachableCacheTimeInMS, value));
+        } else {
+            hostCache.put(result.host, new CachedHost(now + unreachableCacheTimeInMS, null));
+            value = new PresenceDetectionValue(result.host, PresenceDetection.NOT_REACHABLE);
+        }
+        value.setDetectionIsFinished(true);
+        scannedHosts.incrementAndGet();
+        runningHosts.decrementAndGet();
+        updateListener.finalDetectionResult(value);
+    }
+
+    /**
+     * Collects the successful checks of a host.
+     */
+    private class HostResult {
+        private final String host;
+        private @Nullable PresenceDetectionValue value;
+
+        private HostResult(String host) {
+            this.host = host;
+        }
+
+        private synchronized @Nullable PresenceDetectionValue getValue() {
+            return value;
+        }
+
+        private void update(Optional<PingResult> result, PresenceDetectionType type, int tcpPort) {
+            if (!result.isPresent() || !result.get().isSuccess()) {
+                return;
+            }
+            PresenceDetectionValue v;
+            synchronized (this) {
+                v = value;
+                if (v == null) {
+                    v = new PresenceDetectionValue(host, 0);
+                    value = v;
+                }
+                v.updateLatency(result.get().getExecutionTimeInMS());
+                v.addType(type);
+                if (type == PresenceDetectionType.TCP_CONNECTION) {
+                    v.addReachableTcpService(tcpPort);
+                }
+            }
+            updateListener.partialDetectionResult(v);
+        }
+    }
+}
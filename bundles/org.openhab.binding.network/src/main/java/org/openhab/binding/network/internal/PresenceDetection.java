@@ -17,13 +17,17 @@ import java.net.Inet4Address;
 import java.net.InetAddress;
 import java.net.SocketException;
 import java.net.UnknownHostException;
+import java.util.ArrayList;
 import java.util.HashSet;
+import java.util.List;
+import java.util.Optional;
 import java.util.Set;
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.ScheduledFuture;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 import java.util.function.Consumer;
 
 import org.eclipse.jdt.annotation.NonNullByDefault;
@@ -53,6 +57,7 @@ public class PresenceDetection implements IPRequestReceivedCallback {
     public static final int DESTINATION_TTL = 300 * 1000; // in ms, 300 s
 
     NetworkUtils networkUtils = new NetworkUtils();
+    PresenceDetectionEngine engine = PresenceDetectionEngine.getInstance();
     private final Logger logger = LoggerFactory.getLogger(PresenceDetection.class);
 
     /// Configuration variables
@@ -79,9 +84,8 @@ public class PresenceDetection implements IPRequestReceivedCallback {
     ExpiringCacheAsync<PresenceDetectionValue> cache;
     private final PresenceDetectionListener updateListener;
     private @Nullable ScheduledFuture<?> refreshJob;
-    protected @Nullable ExecutorService executorService;
+    protected @Nullable CompletableFuture<Void> detection;
     private String dhcpState = "off";
-    Integer currentCheck = 0;
     int detectionChecks;
 
     public PresenceDetection(final PresenceDetectionListener updateListener, int cacheDeviceStateTimeInMS)
@@ -279,14 +283,10 @@ public class PresenceDetection implements IPRequestReceivedCallback {
         cache.getValue(callback);
     }
 
-    public ExecutorService getThreadsFor(int threadCount) {
-        return Executors.newFixedThreadPool(threadCount);
-    }
-
     /**
      * Perform a presence detection with ICMP-, ARP ping and
-     * TCP connection attempts simultaneously. A fixed thread pool will be created with as many
-     * thread as necessary to perform all tests at once.
+     * TCP connection attempts simultaneously. The checks are performed by the shared
+     * {@link PresenceDetectionEngine}, no threads are created per check.
      *
      * This is a NO-OP, if there is already an ongoing detection or if the cached value
      * is not expired yet.
@@ -300,7 +300,7 @@ public class PresenceDetection implements IPRequestReceivedCallback {
      * @return Return true if a presence detection is performed and false otherwise.
      */
     public boolean performPresenceDetection(boolean waitForDetectionToFinish) {
-        if (executorService != null) {
+        if (detection != null) {
             logger.debug(
                     "There is already an ongoing presence discovery for {} and a new one was issued by the scheduler! TCP Port {}",
                     hostname, tcpPorts);
@@ -313,7 +313,6 @@ public class PresenceDetection implements IPRequestReceivedCallback {
 
         Set<String> interfaceNames = null;
 
-        currentCheck = 0;
         detectionChecks = tcpPorts.size();
         if (pingMethod != null) {
             detectionChecks += 1;
@@ -327,49 +326,40 @@ public class PresenceDetection implements IPRequestReceivedCallback {
             return false;
         }
 
-        final ExecutorService executorService = getThreadsFor(detectionChecks);
-        this.executorService = executorService;
+        final CompletableFuture<Void> detection = new CompletableFuture<>();
+        this.detection = detection;
 
+        List<CompletableFuture<?>> checks = new ArrayList<>(detectionChecks);
         for (Integer tcpPort : tcpPorts) {
-            executorService.execute(() -> {
-                Thread.currentThread().setName("presenceDetectionTCP_" + hostname + " " + String.valueOf(tcpPort));
-                performServicePing(tcpPort);
-                checkIfFinished();
-            });
+            checks.add(performServicePing(tcpPort));
         }
 
-        // ARP ping for IPv4 addresses. Use single executor for Windows tool and
-        // each own executor for each network interface for other tools
+        // ARP ping for IPv4 addresses. A single check for the Windows tool and
+        // a check for each network interface for other tools
         if (arpPingMethod == ArpPingUtilEnum.ELI_FULKERSON_ARP_PING_FOR_WINDOWS) {
-            executorService.execute(() -> {
-                Thread.currentThread().setName("presenceDetectionARP_" + hostname + " ");
-                // arp-ping.exe tool capable of handling multiple interfaces by itself
-                performARPping("");
-                checkIfFinished();
-            });
+            // arp-ping.exe tool capable of handling multiple interfaces by itself
+            checks.add(performARPping(""));
         } else if (interfaceNames != null) {
             for (final String interfaceName : interfaceNames) {
-                executorService.execute(() -> {
-                    Thread.currentThread().setName("presenceDetectionARP_" + hostname + " " + interfaceName);
-                    performARPping(interfaceName);
-                    checkIfFinished();
-                });
+                checks.add(performARPping(interfaceName));
             }
         }
 
         // ICMP ping
         if (pingMethod != null) {
-            executorService.execute(() -> {
-                if (pingMethod != IpPingMethodEnum.JAVA_PING) {
-                    Thread.currentThread().setName("presenceDetectionICMP_" + hostname);
-                    performSystemPing();
-                } else {
-                    performJavaPing();
-                }
-                checkIfFinished();
-            });
+            if (pingMethod != IpPingMethodEnum.JAVA_PING) {
+                checks.add(performSystemPing());
+            } else {
+                checks.add(performJavaPing());
+            }
         }
 
+        // The final result is submitted as soon as all checks are done. This will
+        // happen way before the "timeoutInMS", if all checks were successful.
+        CompletableFuture.allOf(checks.toArray(new CompletableFuture<?>[checks.size()]))
+                .whenComplete((result, e) -> detection.complete(null));
+        detection.thenRun(() -> submitFinalResult(detection));
+
         if (waitForDetectionToFinish) {
             waitForPresenceDetection();
         }
@@ -380,18 +370,18 @@ public class PresenceDetection implements IPRequestReceivedCallback {
     /**
      * Calls updateListener.finalDetectionResult() with a final result value.
      * Safe to be called from different threads. After a call to this method,
-     * the presence detection process is finished and all threads are forcefully
-     * shut down.
+     * the presence detection process is finished. Checks which are still running
+     * may still report partial results.
+     *
+     * @param finishedDetection The detection process to finish. Nothing is done if this is not the current one.
      */
-    private synchronized void submitFinalResult() {
-        // Do nothing if we are not in a detection process
-        ExecutorService service = executorService;
-        if (service == null) {
+    private synchronized void submitFinalResult(CompletableFuture<Void> finishedDetection) {
+        // Do nothing if we are not in this detection process
+        if (detection != finishedDetection) {
             return;
         }
         // Finish the detection process
-        service.shutdownNow();
-        executorService = null;
+        detection = null;
         detectionChecks = 0;
 
         PresenceDetectionValue v;
@@ -415,37 +405,25 @@ public class PresenceDetection implements IPRequestReceivedCallback {
     }
 
     /**
-     * This method is called after each individual check and increases a check counter.
-     * If the counter equals the total checks,the final result is submitted. This will
-     * happen way before the "timeoutInMS", if all checks were successful.
-     * Thread safe.
-     */
-    private synchronized void checkIfFinished() {
-        currentCheck += 1;
-        if (currentCheck < detectionChecks) {
-            return;
-        }
-        submitFinalResult();
-    }
-
-    /**
-     * Waits for the presence detection threads to finish. Returns immediately
-     * if no presence detection is performed right now.
+     * Waits for the presence detection checks to finish. Returns immediately
+     * if no presence detection is performed right now. The final result is
+     * submitted after "timeoutInMS" at the latest.
      */
     public void waitForPresenceDetection() {
-        ExecutorService service = executorService;
-        if (service == null) {
+        CompletableFuture<Void> detection = this.detection;
+        if (detection == null) {
             return;
         }
         try {
             // We may get interrupted here by cancelRefreshJob().
-            service.awaitTermination(timeoutInMS + 100, TimeUnit.MILLISECONDS);
-            submitFinalResult();
+            detection.get(timeoutInMS + 100, TimeUnit.MILLISECONDS);
         } catch (InterruptedException e) {
             Thread.currentThread().interrupt(); // Reset interrupt flag
-            service.shutdownNow();
-            executorService = null;
+            return;
+        } catch (ExecutionException | TimeoutException ignored) {
+            // Submit the result of the checks which are done
         }
+        detection.complete(null);
     }
 
     /**
@@ -473,12 +451,18 @@ public class PresenceDetection implements IPRequestReceivedCallback {
         return v;
     }
 
-    protected void performServicePing(int tcpPort) {
+    protected CompletableFuture<?> performServicePing(int tcpPort) {
         logger.trace("Perform TCP presence detection for {} on port: {}", hostname, tcpPort);
-        try {
-            InetAddress destinationAddress = destination.getValue();
-            if (destinationAddress != null) {
-                networkUtils.servicePing(destinationAddress.getHostAddress(), tcpPort, timeoutInMS).ifPresent(o -> {
+        InetAddress destinationAddress = destination.getValue();
+        if (destinationAddress == null) {
+            return CompletableFuture.completedFuture(null);
+        }
+        return engine.servicePing(destinationAddress, tcpPort, timeoutInMS).handle((result, e) -> {
+            if (e != null) {
+                // This should not happen and might be a user configuration issue, we log a warning message therefore.
+                logger.warn("Could not create a socket connection", e);
+            } else {
+                result.ifPresent(o -> {
                     if (o.isSuccess()) {
                         PresenceDetectionValue v = updateReachableValue(PresenceDetectionType.TCP_CONNECTION,
                                 getLatency(o, preferResponseTimeAsLatency));
@@ -487,10 +471,8 @@ public class PresenceDetection implements IPRequestReceivedCallback {
                     }
                 });
             }
-        } catch (IOException e) {
-            // This should not happen and might be a user configuration issue, we log a warning message therefore.
-            logger.warn("Could not create a socket connection", e);
-        }
+            return null;
+        });
     }
 
     /**
@@ -501,31 +483,32 @@ public class PresenceDetection implements IPRequestReceivedCallback {
      * @param interfaceName The interface name. You can request a list of interface names
      *            from {@see NetworkUtils.getInterfaceNames()} for example.
      */
-    protected void performARPping(String interfaceName) {
-        try {
-            logger.trace("Perform ARP ping presence detection for {} on interface: {}", hostname, interfaceName);
-            InetAddress destinationAddress = destination.getValue();
-            if (destinationAddress == null) {
-                return;
-            }
-            if (iosDevice) {
+    protected CompletableFuture<?> performARPping(String interfaceName) {
+        logger.trace("Perform ARP ping presence detection for {} on interface: {}", hostname, interfaceName);
+        InetAddress destinationAddress = destination.getValue();
+        if (destinationAddress == null) {
+            return CompletableFuture.completedFuture(null);
+        }
+        int delayInMS = 0;
+        if (iosDevice) {
+            try {
                 networkUtils.wakeUpIOS(destinationAddress);
-                Thread.sleep(50);
+            } catch (IOException e) {
+                logger.trace("Failed to execute an arp ping for ip {}", hostname, e);
+                return CompletableFuture.completedFuture(null);
             }
-
-            networkUtils.nativeARPPing(arpPingMethod, arpPingUtilPath, interfaceName,
-                    destinationAddress.getHostAddress(), timeoutInMS).ifPresent(o -> {
-                        if (o.isSuccess()) {
-                            PresenceDetectionValue v = updateReachableValue(PresenceDetectionType.ARP_PING,
-                                    getLatency(o, preferResponseTimeAsLatency));
-                            updateListener.partialDetectionResult(v);
-                        }
-                    });
-        } catch (IOException e) {
-            logger.trace("Failed to execute an arp ping for ip {}", hostname, e);
-        } catch (InterruptedException ignored) {
-            // This can be ignored, the thread will end anyway
+            delayInMS = 50;
         }
+
+        return engine.nativeARPPing(arpPingMethod, arpPingUtilPath, interfaceName, destinationAddress.getHostAddress(),
+                timeoutInMS, delayInMS).handle((result, e) -> {
+                    if (e != null) {
+                        logger.trace("Failed to execute an arp ping for ip {}", hostname, e);
+                    } else {
+                        handlePingResult(result, PresenceDetectionType.ARP_PING);
+                    }
+                    return null;
+                });
     }
 
     /**
@@ -534,45 +517,45 @@ public class PresenceDetection implements IPRequestReceivedCallback {
      * the TCP echo service on port 7 which barely no device or server supports nowadays.
      * (http://docs.oracle.com/javase/7/docs/api/java/net/InetAddress.html#isReachable%28int%29)
      */
-    protected void performJavaPing() {
+    protected CompletableFuture<?> performJavaPing() {
         logger.trace("Perform java ping presence detection for {}", hostname);
 
         InetAddress destinationAddress = destination.getValue();
         if (destinationAddress == null) {
-            return;
+            return CompletableFuture.completedFuture(null);
+        }
+
+        return engine.javaPing(timeoutInMS, destinationAddress)
+                .thenAccept(result -> handlePingResult(result, PresenceDetectionType.ICMP_PING));
+    }
+
+    protected CompletableFuture<?> performSystemPing() {
+        logger.trace("Perform native ping presence detection for {}", hostname);
+        InetAddress destinationAddress = destination.getValue();
+        if (destinationAddress == null) {
+            return CompletableFuture.completedFuture(null);
         }
 
-        networkUtils.javaPing(timeoutInMS, destinationAddress).ifPresent(o -> {
+        return engine.nativePing(pingMethod, destinationAddress.getHostAddress(), timeoutInMS)
+                .handle((result, e) -> {
+                    if (e != null) {
+                        logger.trace("Failed to execute a native ping for ip {}", hostname, e);
+                    } else {
+                        handlePingResult(result, PresenceDetectionType.ICMP_PING);
+                    }
+                    return null;
+                });
+    }
+
+    private void handlePingResult(Optional<PingResult> result, PresenceDetectionType type) {
+        result.ifPresent(o -> {
             if (o.isSuccess()) {
-                PresenceDetectionValue v = updateReachableValue(PresenceDetectionType.ICMP_PING,
-                        getLatency(o, preferResponseTimeAsLatency));
+                PresenceDetectionValue v = updateReachableValue(type, getLatency(o, preferResponseTimeAsLatency));
                 updateListener.partialDetectionResult(v);
             }
         });
     }
 
-    protected void performSystemPing() {
-        try {
-            logger.trace("Perform native ping presence detection for {}", hostname);
-            InetAddress destinationAddress = destination.getValue();
-            if (destinationAddress == null) {
-                return;
-            }
-
-            networkUtils.nativePing(pingMethod, destinationAddress.getHostAddress(), timeoutInMS).ifPresent(o -> {
-                if (o.isSuccess()) {
-                    PresenceDetectionValue v = updateReachableValue(PresenceDetectionType.ICMP_PING,
-                            getLatency(o, preferResponseTimeAsLatency));
-                    updateListener.partialDetectionResult(v);
-                }
-            });
-        } catch (IOException e) {
-            logger.trace("Failed to execute a native ping for ip {}", hostname, e);
-        } catch (InterruptedException e) {
-            // This can be ignored, the thread will end anyway
-        }
-    }
-
     private double getLatency(PingResult pingResult, boolean preferResponseTimeAsLatency) {
         logger.debug("Getting latency from ping result {} using latency mode {}", pingResult,
                 preferResponseTimeAsLatency);
@@ -602,7 +585,7 @@ public class PresenceDetection implements IPRequestReceivedCallback {
         if (future != null && !future.isDone()) {
             future.cancel(true);
         }
-        refreshJob = scheduledExecutorService.scheduleWithFixedDelay(() -> performPresenceDetection(true), 0,
+        refreshJob = scheduledExecutorService.scheduleWithFixedDelay(() -> performPresenceDetection(false), 0,
                 refreshIntervalInMS, TimeUnit.MILLISECONDS);
     }
 
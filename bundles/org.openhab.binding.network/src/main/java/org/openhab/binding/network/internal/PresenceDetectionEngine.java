@@ -0,0 +1,438 @@
+/**
+ * Copyright (c) 2010-2020 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.binding.network.internal;
+
+import java.io.IOException;
+import java.net.ConnectException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.NoRouteToHostException;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.SocketChannel;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Optional;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+import org.eclipse.jdt.annotation.Nullable;
+import org.eclipse.smarthome.core.common.ThreadPoolManager;
+import org.openhab.binding.network.internal.utils.NetworkUtils;
+import org.openhab.binding.network.internal.utils.NetworkUtils.ArpPingUtilEnum;
+import org.openhab.binding.network.internal.utils.NetworkUtils.IpPingMethodEnum;
+import org.openhab.binding.network.internal.utils.PingResult;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * The {@link PresenceDetectionEngine} performs the checks of all presence detections of the binding, without a thread
+ * per check:
+ * <ul>
+ * <li>TCP connection attempts are non-blocking and are all watched by a single selector thread.
+ * <li>Native ICMP and ARP pings are collected and started in a sweep. A single thread of the shared pool starts the
+ * processes, at most {@link #MAX_CONCURRENT_PROCESSES} at once, and polls them until they have terminated.
+ * <li>Java pings block and are performed by the shared pool.
+ * </ul>
+ * Both threads only exist as long as there are checks to perform.
+ * <p>
+ * The returned futures are completed by these threads, dependent actions must not block.
+ *
+ * @author David Graeff - Initial contribution
+ */
+@NonNullByDefault
+public class PresenceDetectionEngine {
+    private static final PresenceDetectionEngine INSTANCE = new PresenceDetectionEngine(new NetworkUtils());
+
+    public static final String THREAD_POOL_NAME = "networkPresence";
+    public static final int MAX_CONCURRENT_PROCESSES = 32;
+    // Processes requested within this time are started by the same sweep
+    private static final int SWEEP_DELAY_MS = 20;
+    private static final int PROCESS_POLL_INTERVAL_MS = 10;
+    // Processes are killed if they do not respect their own timeout
+    private static final int PROCESS_GRACE_TIME_MS = 1000;
+
+    private final Logger logger = LoggerFactory.getLogger(PresenceDetectionEngine.class);
+
+    private class TcpProbe {
+        private final InetSocketAddress address;
+        private final double execStartTimeInMS = System.currentTimeMillis();
+        private final long deadline;
+        private final CompletableFuture<Optional<PingResult>> future = new CompletableFuture<>();
+        private @Nullable SocketChannel channel;
+
+        private TcpProbe(InetSocketAddress address, int timeoutInMS) {
+            this.address = address;
+            this.deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeoutInMS);
+        }
+
+        private void complete(boolean success) {
+            close();
+            future.complete(Optional.of(new PingResult(success, System.currentTimeMillis() - execStartTimeInMS)));
+        }
+
+        private void fail(Throwable e) {
+            close();
+            future.completeExceptionally(e);
+        }
+
+        private void close() {
+            SocketChannel channel = this.channel;
+            if (channel != null) {
+                try {
+                    channel.close();
+                } catch (IOException e) {
+                    logger.trace("Failed to close the connection to {}", address, e);
+                }
+            }
+        }
+    }
+
+    @FunctionalInterface
+    private interface ProcessEvaluator {
+        PingResult evaluate(Process process, int exitCode, double execStartTimeInMS) throws IOException;
+    }
+
+    private static class ProcessProbe {
+        private final List<String> command;
+        private final int timeoutInMS;
+        private final long notBefore;
+        private final ProcessEvaluator evaluator;
+        private final CompletableFuture<Optional<PingResult>> future = new CompletableFuture<>();
+        private @Nullable Process process;
+        private double execStartTimeInMS;
+
+        private ProcessProbe(List<String> command, int timeoutInMS, int delayInMS, ProcessEvaluator evaluator) {
+            this.command = command;
+            this.timeoutInMS = timeoutInMS;
+            this.notBefore = System.currentTimeMillis() + delayInMS;
+            this.evaluator = evaluator;
+        }
+    }
+
+    private final NetworkUtils networkUtils;
+
+    private final Queue<TcpProbe> newTcpProbes = new ConcurrentLinkedQueue<>();
+    private @Nullable Selector selector;
+
+    private final Queue<ProcessProbe> newProcessProbes = new ConcurrentLinkedQueue<>();
+    private boolean sweepScheduled;
+
+    PresenceDetectionEngine(NetworkUtils networkUtils) {
+        this.networkUtils = networkUtils;
+    }
+
+    /**
+     * Returns the engine shared by all presence detections.
+     */
+    public static PresenceDetectionEngine getInstance() {
+        return INSTANCE;
+    }
+
+    protected ScheduledExecutorService getScheduler() {
+        return ThreadPoolManager.getScheduledPool(THREAD_POOL_NAME);
+    }
+
+    /**
+     * Try to connect to the given port, see {@link NetworkUtils#servicePing(String, int, int)}.
+     *
+     * @param address The destination address
+     * @param port The TCP port
+     * @param timeoutInMS Timeout in milliseconds
+     * @return A future with the ping result. It completes exceptionally if the connection attempt could not be made.
+     */
+    public CompletableFuture<Optional<PingResult>> servicePing(InetAddress address, int port, int timeoutInMS) {
+        TcpProbe probe = new TcpProbe(new InetSocketAddress(address, port), timeoutInMS);
+        synchronized (this) {
+            newTcpProbes.add(probe);
+            Selector selector = this.selector;
+            if (selector != null) {
+                selector.wakeup();
+                return probe.future;
+            }
+            try {
+                selector = Selector.open();
+            } catch (IOException e) {
+                newTcpProbes.remove(probe);
+                probe.fail(e);
+                return probe.future;
+            }
+            this.selector = selector;
+            final Selector threadSelector = selector;
+            Thread thread = new Thread(() -> runSelector(threadSelector), "networkPresenceTCP");
+            thread.setDaemon(true);
+            thread.start();
+        }
+        return probe.future;
+    }
+
+    /**
+     * Perform a ping with the native ping utility, see
+     * {@link NetworkUtils#nativePing(IpPingMethodEnum, String, int)}.
+     *
+     * @return A future with the ping result or an empty result if there is no native ping for the method. It
+     *         completes exceptionally if the ping utility failed.
+     */
+    public CompletableFuture<Optional<PingResult>> nativePing(@Nullable IpPingMethodEnum method, String hostname,
+            int timeoutInMS) {
+        List<String> command = networkUtils.nativePingCommand(method, hostname, timeoutInMS);
+        if (command == null) {
+            return CompletableFuture.completedFuture(Optional.empty());
+        }
+        return startProcess(new ProcessProbe(command, timeoutInMS, 0, networkUtils::nativePingResult));
+    }
+
+    /**
+     * Perform an ARP ping with the arping tool, see
+     * {@link NetworkUtils#nativeARPPing(ArpPingUtilEnum, String, String, String, int)}.
+     *
+     * @param delayInMS The ping is not performed before this time has passed, to give a device time to wake up.
+     * @return A future with the ping result or an empty result if there is no arping tool. It completes exceptionally
+     *         if the arping tool failed.
+     */
+    public CompletableFuture<Optional<PingResult>> nativeARPPing(@Nullable ArpPingUtilEnum arpingTool,
+            @Nullable String arpUtilPath, String interfaceName, String ipV4address, int timeoutInMS, int delayInMS) {
+        List<String> command = networkUtils.nativeARPPingCommand(arpingTool, arpUtilPath, interfaceName, ipV4address,
+                timeoutInMS);
+        if (command == null) {
+            return CompletableFuture.completedFuture(Optional.empty());
+        }
+        // The return code is 0 for a successful ping. 1 if device didn't respond and 2 if there is another error like
+        // network interface not ready.
+        return startProcess(new ProcessProbe(command, timeoutInMS, delayInMS, (process, exitCode,
+                execStartTimeInMS) -> new PingResult(exitCode == 0, System.currentTimeMillis() - execStartTimeInMS)));
+    }
+
+    /**
+     * Perform a java ping on the shared pool, see {@link NetworkUtils#javaPing(int, InetAddress)}.
+     */
+    public CompletableFuture<Optional<PingResult>> javaPing(int timeoutInMS, InetAddress destinationAddress) {
+        return CompletableFuture.supplyAsync(() -> networkUtils.javaPing(timeoutInMS, destinationAddress),
+                getScheduler());
+    }
+
+    private void runSelector(Selector selector) {
+        List<TcpProbe> pending = new ArrayList<>();
+        try {
+            while (true) {
+                TcpProbe probe;
+                while ((probe = newTcpProbes.poll()) != null) {
+                    connect(selector, probe);
+                    if (!probe.future.isDone()) {
+                        pending.add(probe);
+                    }
+                }
+                if (pending.isEmpty()) {
+                    synchronized (this) {
+                        if (newTcpProbes.isEmpty()) {
+                            this.selector = null;
+                            return;
+                        }
+                    }
+                    continue;
+                }
+
+                long now = System.nanoTime();
+                long nextDeadline = Long.MAX_VALUE;
+                for (TcpProbe p : pending) {
+                    nextDeadline = Math.min(nextDeadline, p.deadline - now);
+                }
+                selector.select(Math.max(1, TimeUnit.NANOSECONDS.toMillis(nextDeadline) + 1));
+
+                Iterator<SelectionKey> keys = selector.selectedKeys().iterator();
+                while (keys.hasNext()) {
+                    SelectionKey key = keys.next();
+                    keys.remove();
+                    finishConnect((TcpProbe) key.attachment());
+                }
+
+                final long checkTime = System.nanoTime();
+                pending.removeIf(p -> {
+                    if (!p.future.isDone() && p.deadline - checkTime <= 0) {
+                        p.complete(false);
+                    }
+                    return p.future.isDone();
+                });
+            }
+        } catch (IOException | RuntimeException e) {
+            logger.warn("TCP presence detection failed", e);
+            pending.forEach(p -> p.fail(e));
+            synchronized (this) {
+                this.selector = null;
+                TcpProbe probe;
+                while ((probe = newTcpProbes.poll()) != null) {
+                    probe.fail(e);
+                }
+            }
+        } finally {
+            try {
+                selector.close();
+            } catch (IOException e) {
+                logger.trace("Failed to close the selector", e);
+            }
+        }
+    }
+
+    private void connect(Selector selector, TcpProbe probe) {
+        try {
+            SocketChannel channel = SocketChannel.open();
+            probe.channel = channel;
+            channel.configureBlocking(false);
+            if (channel.connect(probe.address)) {
+                probe.complete(true);
+            } else {
+                channel.register(selector, SelectionKey.OP_CONNECT, probe);
+            }
+        } catch (ConnectException | NoRouteToHostException ignored) {
+            probe.complete(false);
+        } catch (IOException | RuntimeException e) {
+            probe.fail(e);
+        }
+    }
+
+    private void finishConnect(TcpProbe probe) {
+        SocketChannel channel = probe.channel;
+        if (channel == null) {
+            return;
+        }
+        try {
+            if (channel.finishConnect()) {
+                probe.complete(true);
+            }
+        } catch (ConnectException | NoRouteToHostException ignored) {
+            probe.complete(false);
+        } catch (IOException e) {
+            probe.fail(e);
+        }
+    }
+
+    private CompletableFuture<Optional<PingResult>> startProcess(ProcessProbe probe) {
+        newProcessProbes.add(probe);
+        synchronized (this) {
+            if (!sweepScheduled) {
+                try {
+                    getScheduler().schedule(this::sweep, SWEEP_DELAY_MS, TimeUnit.MILLISECONDS);
+                    sweepScheduled = true;
+                } catch (RejectedExecutionException e) {
+                    newProcessProbes.remove(probe);
+                    probe.future.completeExceptionally(e);
+                }
+            }
+        }
+        return probe.future;
+    }
+
+    /**
+     * Start the requested processes and wait for them, until no more processes are requested.
+     */
+    private void sweep() {
+        List<ProcessProbe> waiting = new ArrayList<>();
+        List<ProcessProbe> running = new ArrayList<>();
+        try {
+            while (true) {
+                ProcessProbe probe;
+                while ((probe = newProcessProbes.poll()) != null) {
+                    waiting.add(probe);
+                }
+
+                long now = System.currentTimeMillis();
+                Iterator<ProcessProbe> it = waiting.iterator();
+                while (it.hasNext() && running.size() < MAX_CONCURRENT_PROCESSES) {
+                    probe = it.next();
+                    if (probe.notBefore <= now) {
+                        it.remove();
+                        if (start(probe)) {
+                            running.add(probe);
+                        }
+                    }
+                }
+
+                now = System.currentTimeMillis();
+                it = running.iterator();
+                while (it.hasNext()) {
+                    probe = it.next();
+                    Process process = probe.process;
+                    if (process == null) {
+                        it.remove();
+                    } else if (!process.isAlive()) {
+                        it.remove();
+                        evaluate(probe, process);
+                    } else if (now - probe.execStartTimeInMS > probe.timeoutInMS + PROCESS_GRACE_TIME_MS) {
+                        it.remove();
+                        logger.debug("Killing {}, it did not finish within its timeout", probe.command);
+                        process.destroyForcibly();
+                        probe.future.complete(Optional.of(new PingResult(false, now - probe.execStartTimeInMS)));
+                    }
+                }
+
+                if (waiting.isEmpty() && running.isEmpty()) {
+                    synchronized (this) {
+                        if (newProcessProbes.isEmpty()) {
+                            sweepScheduled = false;
+                            return;
+                        }
+                    }
+                    continue;
+                }
+                Thread.sleep(PROCESS_POLL_INTERVAL_MS);
+            }
+        } catch (InterruptedException | RuntimeException e) {
+            if (e instanceof InterruptedException) {
+                Thread.currentThread().interrupt();
+            } else {
+                logger.warn("Presence detection sweep failed", e);
+            }
+            for (ProcessProbe probe : running) {
+                Process process = probe.process;
+                if (process != null) {
+                    process.destroyForcibly();
+                }
+                probe.future.completeExceptionally(e);
+            }
+            waiting.forEach(probe -> probe.future.completeExceptionally(e));
+            synchronized (this) {
+                sweepScheduled = false;
+                ProcessProbe probe;
+                while ((probe = newProcessProbes.poll()) != null) {
+                    probe.future.completeExceptionally(e);
+                }
+            }
+        }
+    }
+
+    private boolean start(ProcessProbe probe) {
+        probe.execStartTimeInMS = System.currentTimeMillis();
+        try {
+            probe.process = new ProcessBuilder(probe.command).start();
+            return true;
+        } catch (IOException e) {
+            probe.future.completeExceptionally(e);
+            return false;
+        }
+    }
+
+    private void evaluate(ProcessProbe probe, Process process) {
+        try {
+            PingResult result = probe.evaluator.evaluate(process, process.exitValue(), probe.execStartTimeInMS);
+            probe.future.complete(Optional.of(result));
+        } catch (IOException | RuntimeException e) {
+            probe.future.completeExceptionally(e);
+        }
+    }
+}
@@ -19,8 +19,6 @@ import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
 import java.util.concurrent.TimeUnit;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
@@ -33,7 +31,7 @@ import org.eclipse.smarthome.config.discovery.DiscoveryResultBuilder;
 import org.eclipse.smarthome.config.discovery.DiscoveryService;
 import org.eclipse.smarthome.core.thing.ThingUID;
 import org.openhab.binding.network.internal.NetworkBindingConfiguration;
-import org.openhab.binding.network.internal.PresenceDetection;
+import org.openhab.binding.network.internal.NetworkScanner;
 import org.openhab.binding.network.internal.PresenceDetectionListener;
 import org.openhab.binding.network.internal.PresenceDetectionValue;
 import org.openhab.binding.network.internal.utils.NetworkUtils;
@@ -48,6 +46,7 @@ import org.slf4j.LoggerFactory;
  * The {@link NetworkDiscoveryService} is responsible for discovering devices on
  * the current Network. It uses every Network Interface which is connected to a network.
  * It tries common TCP ports to connect to, ICMP pings and ARP pings.
+ * The hosts are checked by a {@link NetworkScanner} at the configured rate of probes per second.
  *
  * @author Marc Mettke - Initial contribution
  * @author David Graeff - Rewritten
@@ -65,10 +64,10 @@ public class NetworkDiscoveryService extends AbstractDiscoveryService implements
     // TCP port 1025 (Xbox / MS-RPC)
     private Set<Integer> tcpServicePorts = Collections
             .unmodifiableSet(Stream.of(80, 548, 554, 1025).collect(Collectors.toSet()));
-    private Integer scannedIPcount = 0;
-    private @Nullable ExecutorService executorService = null;
     private final NetworkBindingConfiguration configuration = new NetworkBindingConfiguration();
+    private NetworkDiscoveryConfiguration discoveryConfiguration = new NetworkDiscoveryConfiguration();
     private final NetworkUtils networkUtils = new NetworkUtils();
+    private final NetworkScanner scanner = new NetworkScanner(this);
 
     public NetworkDiscoveryService() {
         super(SUPPORTED_THING_TYPES_UIDS, (int) Math.round(
@@ -91,17 +90,35 @@ public class NetworkDiscoveryService extends AbstractDiscoveryService implements
         // configuration, the values are automatically available in all handlers. Because they all
         // share the same instance.
         configuration.update(new Configuration(config).as(NetworkBindingConfiguration.class));
+        discoveryConfiguration = new Configuration(config).as(NetworkDiscoveryConfiguration.class);
     }
 
     @Override
     @Deactivate
     protected void deactivate() {
-        if (executorService != null) {
-            executorService.shutdown();
-        }
+        scanner.stopScan();
         super.deactivate();
     }
 
+    /**
+     * The scan is rate limited, its duration is estimated from the number of probes.
+     */
+    @Override
+    public int getScanTimeout() {
+        int hosts = networkUtils.getNetworkIPs(MAXIMUM_IPS_PER_INTERFACE).size();
+        // TCP ports, ICMP ping and an ARP ping per interface
+        int probesPerHost = tcpServicePorts.size() + 1 + networkUtils.getInterfaceNames().size();
+        return (int) Math.ceil(hosts * probesPerHost / Math.max(1.0, discoveryConfiguration.probesPerSecond)
+                + 2 * PING_TIMEOUT_IN_MS / 1000.0);
+    }
+
+    /**
+     * Return the progress and rate of the current or last scan.
+     */
+    public NetworkScanner.Statistics getScanStatistics() {
+        return scanner.getStatistics();
+    }
+
     @Override
     public void partialDetectionResult(PresenceDetectionValue value) {
         final String ip = value.getHostAddress();
@@ -120,64 +137,36 @@ public class NetworkDiscoveryService extends AbstractDiscoveryService implements
     }
 
     /**
-     * Starts the DiscoveryThread for each IP on each interface on the network
+     * Starts the scan of each IP on each interface on the network
      */
     @Override
     protected void startScan() {
-        if (executorService == null) {
-            executorService = Executors.newFixedThreadPool(Runtime.getRuntime().availableProcessors() * 2);
-        }
-        final ExecutorService service = executorService;
-        if (service == null) {
-            return;
-        }
         removeOlderResults(getTimestampOfLastScan(), null);
         logger.trace("Starting Network Device Discovery");
 
         final Set<String> networkIPs = networkUtils.getNetworkIPs(MAXIMUM_IPS_PER_INTERFACE);
-        scannedIPcount = 0;
-
-        for (String ip : networkIPs) {
-            final PresenceDetection s = new PresenceDetection(this, 2000);
-            s.setHostname(ip);
-            s.setIOSDevice(true);
-            s.setUseDhcpSniffing(false);
-            s.setTimeout(PING_TIMEOUT_IN_MS);
-            // Ping devices
-            s.setUseIcmpPing(true);
-            s.setUseArpPing(true, configuration.arpPingToolPath, configuration.arpPingUtilMethod);
-            // TCP devices
-            s.setServicePorts(tcpServicePorts);
-
-            service.execute(() -> {
-                Thread.currentThread().setName("Discovery thread " + ip);
-                s.performPresenceDetection(true);
-                synchronized (scannedIPcount) {
-                    scannedIPcount += 1;
-                    if (scannedIPcount == networkIPs.size()) {
-                        logger.trace("Scan of {} IPs successful", scannedIPcount);
-                        stopScan();
-                    }
-                }
-            });
-        }
+
+        scanner.setTimeout(PING_TIMEOUT_IN_MS);
+        // Ping devices
+        scanner.setIcmpPingMethod(networkUtils.determinePingMethod());
+        scanner.setArpPing(configuration.arpPingToolPath, configuration.arpPingUtilMethod,
+                networkUtils.getInterfaceNames());
+        // TCP devices
+        scanner.setServicePorts(tcpServicePorts);
+        scanner.setProbesPerSecond(discoveryConfiguration.probesPerSecond);
+        scanner.setCacheTime(TimeUnit.SECONDS.toMillis(discoveryConfiguration.reachableHostCacheTime),
+                TimeUnit.SECONDS.toMillis(discoveryConfiguration.unreachableHostCacheTime));
+
+        scanner.startScan(networkIPs, scheduler, () -> {
+            logger.trace("Scan of {} IPs successful", networkIPs.size());
+            stopScan();
+        });
     }
 
     @Override
     protected synchronized void stopScan() {
         super.stopScan();
-        final ExecutorService service = executorService;
-        if (service == null) {
-            return;
-        }
-
-        try {
-            service.awaitTermination(PING_TIMEOUT_IN_MS, TimeUnit.MILLISECONDS);
-        } catch (InterruptedException e) {
-            Thread.currentThread().interrupt(); // Reset interrupt flag
-        }
-        service.shutdown();
-        executorService = null;
+        scanner.stopScan();
     }
 
     public static ThingUID createServiceUID(String ip, int tcpPort) {
@@ -186,7 +175,7 @@ public class NetworkDiscoveryService extends AbstractDiscoveryService implements
     }
 
     /**
-     * Submit newly discovered devices. This method is called by the spawned threads in {@link startScan}.
+     * Submit newly discovered devices. This method is called by the scanner started in {@link startScan}.
      *
      * @param ip The device IP
      * @param tcpPort The TCP port
@@ -229,7 +218,7 @@ public class NetworkDiscoveryService extends AbstractDiscoveryService implements
     }
 
     /**
-     * Submit newly discovered devices. This method is called by the spawned threads in {@link startScan}.
+     * Submit newly discovered devices. This method is called by the scanner started in {@link startScan}.
      *
      * @param ip The device IP
      */
@@ -221,38 +221,60 @@ public class NetworkUtils {
             throws IOException, InterruptedException {
         double execStartTimeInMS = System.currentTimeMillis();
 
-        Process proc;
-        if (method == null) {
+        List<String> command = nativePingCommand(method, hostname, timeoutInMS);
+        if (command == null) {
             return Optional.empty();
         }
+        Process proc = new ProcessBuilder(command).start();
+        return Optional.of(nativePingResult(proc, proc.waitFor(), execStartTimeInMS));
+    }
+
+    /**
+     * Returns the command line of the native ping utility of the operating system.
+     *
+     * @param method The ping method
+     * @param hostname The DNS name, IPv4 or IPv6 address. Must not be null.
+     * @param timeoutInMS Timeout in milliseconds.
+     * @return The command line or null if there is no native ping for the method
+     */
+    public @Nullable List<String> nativePingCommand(@Nullable IpPingMethodEnum method, String hostname,
+            int timeoutInMS) {
+        if (method == null) {
+            return null;
+        }
         // Yes, all supported operating systems have their own ping utility with a different command line
         switch (method) {
             case IPUTILS_LINUX_PING:
-                proc = new ProcessBuilder("ping", "-w", String.valueOf(timeoutInMS / 1000), "-c", "1", hostname)
-                        .start();
-                break;
+                return Arrays.asList("ping", "-w", String.valueOf(timeoutInMS / 1000), "-c", "1", hostname);
             case MAC_OS_PING:
-                proc = new ProcessBuilder("ping", "-t", String.valueOf(timeoutInMS / 1000), "-c", "1", hostname)
-                        .start();
-                break;
+                return Arrays.asList("ping", "-t", String.valueOf(timeoutInMS / 1000), "-c", "1", hostname);
             case WINDOWS_PING:
-                proc = new ProcessBuilder("ping", "-w", String.valueOf(timeoutInMS), "-n", "1", hostname).start();
-                break;
+                return Arrays.asList("ping", "-w", String.valueOf(timeoutInMS), "-n", "1", hostname);
             case JAVA_PING:
             default:
-                // We cannot estimate the command line for any other operating system and just return false
-                return Optional.empty();
+                // We cannot estimate the command line for any other operating system
+                return null;
         }
+    }
 
+    /**
+     * Evaluates a terminated native ping process.
+     *
+     * @param proc The terminated process
+     * @param exitCode The exit code of the process
+     * @param execStartTimeInMS The time the process has been started
+     * @return Ping result information
+     * @throws IOException The ping process gave no output
+     */
+    public PingResult nativePingResult(Process proc, int exitCode, double execStartTimeInMS) throws IOException {
         // The return code is 0 for a successful ping, 1 if device didn't
         // respond, and 2 if there is another error like network interface
         // not ready.
         // Exception: return code is also 0 in Windows for all requests on the local subnet.
         // see https://superuser.com/questions/403905/ping-from-windows-7-get-no-reply-but-sets-errorlevel-to-0
 
-        int result = proc.waitFor();
-        if (result != 0) {
-            return Optional.of(new PingResult(false, System.currentTimeMillis() - execStartTimeInMS));
+        if (exitCode != 0) {
+            return new PingResult(false, System.currentTimeMillis() - execStartTimeInMS);
         }
 
         try (BufferedReader r = new BufferedReader(new InputStreamReader(proc.getInputStream()))) {
@@ -266,12 +288,12 @@ public class NetworkUtils {
                 if (line.contains("TTL=") || line.contains("ttl=")) {
                     PingResult pingResult = new PingResult(true, System.currentTimeMillis() - execStartTimeInMS);
                     latencyParser.parseLatency(line).ifPresent(pingResult::setResponseTimeInMS);
-                    return Optional.of(pingResult);
+                    return pingResult;
                 }
                 line = r.readLine();
             } while (line != null);
 
-            return Optional.of(new PingResult(false, System.currentTimeMillis() - execStartTimeInMS));
+            return new PingResult(false, System.currentTimeMillis() - execStartTimeInMS);
         }
     }
 
@@ -301,25 +323,41 @@ public class NetworkUtils {
             String interfaceName, String ipV4address, int timeoutInMS) throws IOException, InterruptedException {
         double execStartTimeInMS = System.currentTimeMillis();
 
-        if (arpUtilPath == null || arpingTool == null || arpingTool == ArpPingUtilEnum.UNKNOWN_TOOL) {
+        List<String> command = nativeARPPingCommand(arpingTool, arpUtilPath, interfaceName, ipV4address,
+                timeoutInMS);
+        if (command == null) {
             return Optional.empty();
         }
-        Process proc;
+        Process proc = new ProcessBuilder(command).start();
+
+        // The return code is 0 for a successful ping. 1 if device didn't respond and 2 if there is another error like
+        // network interface not ready.
+        return Optional.of(new PingResult(proc.waitFor() == 0, System.currentTimeMillis() - execStartTimeInMS));
+    }
+
+    /**
+     * Returns the command line of the arping tool, see
+     * {@link #nativeARPPing(ArpPingUtilEnum, String, String, String, int)}. The exit code of the process is 0 for a
+     * successful ping.
+     *
+     * @return The command line or null if there is no arping tool
+     */
+    public @Nullable List<String> nativeARPPingCommand(@Nullable ArpPingUtilEnum arpingTool,
+            @Nullable String arpUtilPath, String interfaceName, String ipV4address, int timeoutInMS) {
+        if (arpUtilPath == null || arpingTool == null || arpingTool == ArpPingUtilEnum.UNKNOWN_TOOL) {
+            return null;
+        }
         if (arpingTool == ArpPingUtilEnum.THOMAS_HABERT_ARPING_WITHOUT_TIMEOUT) {
-            proc = new ProcessBuilder(arpUtilPath, "-c", "1", "-i", interfaceName, ipV4address).start();
+            return Arrays.asList(arpUtilPath, "-c", "1", "-i", interfaceName, ipV4address);
         } else if (arpingTool == ArpPingUtilEnum.THOMAS_HABERT_ARPING) {
-            proc = new ProcessBuilder(arpUtilPath, "-w", String.valueOf(timeoutInMS / 1000), "-C", "1", "-i",
-                    interfaceName, ipV4address).start();
+            return Arrays.asList(arpUtilPath, "-w", String.valueOf(timeoutInMS / 1000), "-C", "1", "-i",
+                    interfaceName, ipV4address);
         } else if (arpingTool == ArpPingUtilEnum.ELI_FULKERSON_ARP_PING_FOR_WINDOWS) {
-            proc = new ProcessBuilder(arpUtilPath, "-w", String.valueOf(timeoutInMS), "-x", ipV4address).start();
+            return Arrays.asList(arpUtilPath, "-w", String.valueOf(timeoutInMS), "-x", ipV4address);
         } else {
-            proc = new ProcessBuilder(arpUtilPath, "-w", String.valueOf(timeoutInMS / 1000), "-c", "1", "-I",
-                    interfaceName, ipV4address).start();
+            return Arrays.asList(arpUtilPath, "-w", String.valueOf(timeoutInMS / 1000), "-c", "1", "-I",
+                    interfaceName, ipV4address);
         }
-
-        // The return code is 0 for a successful ping. 1 if device didn't respond and 2 if there is another error like
-        // network interface not ready.
-        return Optional.of(new PingResult(proc.waitFor() == 0, System.currentTimeMillis() - execStartTimeInMS));
     }
 
     /**
@@ -0,0 +1,138 @@
+/**
+ * Copyright (c) 2010-2020 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.binding.network.internal;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.*;
+
+import java.net.InetAddress;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.openhab.binding.network.internal.utils.NetworkUtils;
+import org.openhab.binding.network.internal.utils.PingResult;
+
+/**
+ * Tests cases for {@see NetworkScanner}
+ *
+ * @author David Graeff - Initial contribution
+ */
+public class NetworkScannerTest {
+    private final List<String> probedHosts = new CopyOnWriteArrayList<>();
+    private final List<String> partialResults = new CopyOnWriteArrayList<>();
+    private final List<PresenceDetectionValue> finalResults = new CopyOnWriteArrayList<>();
+
+    private ScheduledExecutorService scheduler;
+    private NetworkScanner subject;
+
+    @Before
+    public void setUp() {
+        scheduler = Executors.newSingleThreadScheduledExecutor();
+        subject = new NetworkScanner(new PresenceDetectionListener() {
+            @Override
+            public void partialDetectionResult(PresenceDetectionValue value) {
+                partialResults.add(value.getHostAddress());
+            }
+
+            @Override
+            public void finalDetectionResult(PresenceDetectionValue value) {
+                finalResults.add(value);
+            }
+        });
+        // Only 192.168.0.1 accepts connections
+        subject.engine = new PresenceDetectionEngine(new NetworkUtils()) {
+            @Override
+            public CompletableFuture<Optional<PingResult>> servicePing(InetAddress address, int port,
+                    int timeoutInMS) {
+                probedHosts.add(address.getHostAddress());
+                boolean success = "192.168.0.1".equals(address.getHostAddress());
+                return CompletableFuture.completedFuture(Optional.of(new PingResult(success, 10)));
+            }
+        };
+        subject.setServicePorts(Collections.singleton(80));
+        subject.setIcmpPingMethod(null);
+    }
+
+    @After
+    public void tearDown() {
+        subject.stopScan();
+        scheduler.shutdownNow();
+    }
+
+    private void scan(List<String> hosts) throws InterruptedException {
+        CountDownLatch finished = new CountDownLatch(1);
+        subject.startScan(hosts, scheduler, finished::countDown);
+        assertTrue(finished.await(10, TimeUnit.SECONDS));
+        assertFalse(subject.isScanning());
+    }
+
+    @Test
+    public void reachableAndUnreachableHostsAreCached() throws InterruptedException {
+        subject.setCacheTime(60000, 60000);
+        List<String> hosts = Arrays.asList("192.168.0.1", "192.168.0.2");
+
+        scan(hosts);
+        assertThat(probedHosts, is(hosts));
+        assertThat(partialResults, is(Collections.singletonList("192.168.0.1")));
+        assertThat(finalResults.size(), is(2));
+        assertTrue(finalResults.get(0).isReachable());
+        assertFalse(finalResults.get(1).isReachable());
+        assertThat(subject.getStatistics().scannedHosts, is(2));
+
+        // The reachable host is reported again, but no host is probed
+        scan(hosts);
+        assertThat(probedHosts.size(), is(2));
+        assertThat(partialResults, is(Arrays.asList("192.168.0.1", "192.168.0.1")));
+        assertThat(subject.getStatistics().cachedHosts, is(2));
+        assertThat(subject.getStatistics().reachableHosts, is(1));
+    }
+
+    @Test
+    public void expiredHostsAreProbedAgain() throws InterruptedException {
+        subject.setCacheTime(0, 0);
+        List<String> hosts = Arrays.asList("192.168.0.1", "192.168.0.2");
+
+        scan(hosts);
+        scan(hosts);
+        assertThat(probedHosts.size(), is(4));
+        assertThat(subject.getStatistics().cachedHosts, is(0));
+    }
+
+    @Test
+    public void probesAreRateLimited() throws InterruptedException {
+        subject.setProbesPerSecond(20);
+        List<String> hosts = new ArrayList<>();
+        for (int i = 1; i <= 11; i++) {
+            hosts.add("10.0.0." + i);
+        }
+
+        long start = System.currentTimeMillis();
+        scan(hosts);
+        // One host is started immediately, the others at 20 probes per second
+        assertTrue(System.currentTimeMillis() - start >= 450);
+        assertThat(subject.getStatistics().probes, is(11L));
+        assertThat(subject.getStatistics().getProgress(), is(100.0));
+    }
+}
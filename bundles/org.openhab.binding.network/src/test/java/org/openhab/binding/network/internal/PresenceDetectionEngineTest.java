@@ -0,0 +1,72 @@
+/**
+ * Copyright (c) 2010-2020 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.binding.network.internal;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertThat;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import org.junit.Test;
+import org.openhab.binding.network.internal.utils.NetworkUtils;
+import org.openhab.binding.network.internal.utils.PingResult;
+
+/**
+ * Tests cases for {@see PresenceDetectionEngine}
+ *
+ * @author David Graeff - Initial contribution
+ */
+public class PresenceDetectionEngineTest {
+    private final PresenceDetectionEngine subject = new PresenceDetectionEngine(new NetworkUtils());
+
+    @Test
+    public void servicePingOpenPorts() throws IOException, InterruptedException, ExecutionException, TimeoutException {
+        List<ServerSocket> servers = new ArrayList<>();
+        List<CompletableFuture<Optional<PingResult>>> results = new ArrayList<>();
+        try {
+            // Many connection attempts at once are watched by the same thread
+            for (int i = 0; i < 20; i++) {
+                ServerSocket server = new ServerSocket(0, 50, InetAddress.getLoopbackAddress());
+                servers.add(server);
+                results.add(subject.servicePing(InetAddress.getLoopbackAddress(), server.getLocalPort(), 1000));
+            }
+            for (CompletableFuture<Optional<PingResult>> result : results) {
+                assertThat(result.get(2, TimeUnit.SECONDS).get().isSuccess(), is(true));
+            }
+        } finally {
+            for (ServerSocket server : servers) {
+                server.close();
+            }
+        }
+    }
+
+    @Test
+    public void servicePingClosedPort() throws IOException, InterruptedException, ExecutionException, TimeoutException {
+        int port;
+        try (ServerSocket server = new ServerSocket(0, 50, InetAddress.getLoopbackAddress())) {
+            port = server.getLocalPort();
+        }
+        Optional<PingResult> result = subject.servicePing(InetAddress.getLoopbackAddress(), port, 1000).get(2,
+                TimeUnit.SECONDS);
+        assertThat(result.get().isSuccess(), is(false));
+    }
+}
@@ -21,7 +21,7 @@ import java.io.IOException;
 import java.net.UnknownHostException;
 import java.util.Collections;
 import java.util.Optional;
-import java.util.concurrent.ExecutorService;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.TimeUnit;
 import java.util.function.Consumer;
 
@@ -52,7 +52,7 @@ public class PresenceDetectionTest {
     PresenceDetectionListener listener;
 
     @Mock
-    ExecutorService executorService;
+    PresenceDetectionEngine engine;
 
     @Mock
     Consumer<PresenceDetectionValue> callback;
@@ -70,6 +70,7 @@ public class PresenceDetectionTest {
 
         subject = spy(new PresenceDetection(listener, (int) CACHETIME));
         subject.networkUtils = networkUtils;
+        subject.engine = engine;
         subject.cache = spy(new ExpiringCacheAsync<>(CACHETIME, () -> {
             subject.performPresenceDetection(false);
         }));
@@ -91,35 +92,37 @@ public class PresenceDetectionTest {
         subject.waitForPresenceDetection();
     }
 
-    // Depending on the amount of test methods an according amount of threads is spawned.
-    // We will check if they spawn and return in time.
+    // Depending on the amount of test methods an according amount of checks is performed.
+    // We will check if they are performed and return in time.
     @Test
-    public void threadCountTest() {
-        assertNull(subject.executorService);
+    public void checkCountTest() {
+        assertNull(subject.detection);
 
-        doNothing().when(subject).performARPping(any());
-        doNothing().when(subject).performJavaPing();
-        doNothing().when(subject).performSystemPing();
-        doNothing().when(subject).performServicePing(anyInt());
+        CompletableFuture<?> check = new CompletableFuture<>();
+        doReturn(check).when(subject).performARPping(any());
+        doReturn(check).when(subject).performJavaPing();
+        doReturn(check).when(subject).performSystemPing();
+        doReturn(check).when(subject).performServicePing(anyInt());
 
         subject.performPresenceDetection(false);
 
-        // Thread count: ARP + ICMP + 1*TCP
+        // Check count: ARP + ICMP + 1*TCP
         assertThat(subject.detectionChecks, is(3));
-        assertNotNull(subject.executorService);
+        assertNotNull(subject.detection);
 
+        // The checks are not done, the final result is submitted after the timeout
         subject.waitForPresenceDetection();
         assertThat(subject.detectionChecks, is(0));
-        assertNull(subject.executorService);
+        assertNull(subject.detection);
+        verify(listener, times(1)).finalDetectionResult(any());
     }
 
     @Test
     public void partialAndFinalCallbackTests() throws InterruptedException, IOException {
-        doReturn(Optional.of(new PingResult(true, 10))).when(networkUtils).nativePing(eq(IpPingMethodEnum.WINDOWS_PING),
-                anyString(), anyInt());
-        doReturn(Optional.of(new PingResult(true, 10))).when(networkUtils)
-                .nativeARPPing(eq(ArpPingUtilEnum.IPUTILS_ARPING), anyString(), anyString(), any(), anyInt());
-        doReturn(Optional.of(new PingResult(true, 10))).when(networkUtils).servicePing(anyString(), anyInt(), anyInt());
+        doReturn(pingResult()).when(engine).nativePing(eq(IpPingMethodEnum.WINDOWS_PING), anyString(), anyInt());
+        doReturn(pingResult()).when(engine).nativeARPPing(eq(ArpPingUtilEnum.IPUTILS_ARPING), anyString(),
+                anyString(), any(), anyInt(), anyInt());
+        doReturn(pingResult()).when(engine).servicePing(any(), anyInt(), anyInt());
 
         assertTrue(subject.performPresenceDetection(false));
         subject.waitForPresenceDetection();
@@ -138,29 +141,27 @@ public class PresenceDetectionTest {
 
     @Test
     public void cacheTest() throws InterruptedException, IOException {
-        doReturn(Optional.of(new PingResult(true, 10))).when(networkUtils).nativePing(eq(IpPingMethodEnum.WINDOWS_PING),
-                anyString(), anyInt());
-        doReturn(Optional.of(new PingResult(true, 10))).when(networkUtils)
-                .nativeARPPing(eq(ArpPingUtilEnum.IPUTILS_ARPING), anyString(), anyString(), any(), anyInt());
-        doReturn(Optional.of(new PingResult(true, 10))).when(networkUtils).servicePing(anyString(), anyInt(), anyInt());
-
-        doReturn(executorService).when(subject).getThreadsFor(anyInt());
+        CompletableFuture<Optional<PingResult>> icmp = new CompletableFuture<>();
+        CompletableFuture<Optional<PingResult>> arp = new CompletableFuture<>();
+        CompletableFuture<Optional<PingResult>> tcp = new CompletableFuture<>();
+        doReturn(icmp).when(engine).nativePing(eq(IpPingMethodEnum.WINDOWS_PING), anyString(), anyInt());
+        doReturn(arp).when(engine).nativeARPPing(eq(ArpPingUtilEnum.IPUTILS_ARPING), anyString(), anyString(), any(),
+                anyInt(), anyInt());
+        doReturn(tcp).when(engine).servicePing(any(), anyInt(), anyInt());
 
         // We expect no valid value
         assertTrue(subject.cache.isExpired());
         // Get value will issue a PresenceDetection internally.
         subject.getValue(callback);
         verify(subject).performPresenceDetection(eq(false));
-        assertNotNull(subject.executorService);
+        assertNotNull(subject.detection);
         // There should be no straight callback yet
         verify(callback, times(0)).accept(any());
 
-        // Perform the different presence detection threads now
-        ArgumentCaptor<Runnable> capture = ArgumentCaptor.forClass(Runnable.class);
-        verify(executorService, times(3)).execute(capture.capture());
-        for (Runnable r : capture.getAllValues()) {
-            r.run();
-        }
+        // Complete the different presence detection checks now
+        icmp.complete(Optional.of(new PingResult(true, 10)));
+        arp.complete(Optional.of(new PingResult(true, 10)));
+        tcp.complete(Optional.of(new PingResult(true, 10)));
         // "Wait" for the presence detection to finish
         subject.waitForPresenceDetection();
 
@@ -178,6 +179,10 @@ public class PresenceDetectionTest {
         verify(callback, times(2)).accept(any());
     }
 
+    private static CompletableFuture<Optional<PingResult>> pingResult() {
+        return CompletableFuture.completedFuture(Optional.of(new PingResult(true, 10)));
+    }
+
     @Test
     public void reuseValueTests() throws InterruptedException, IOException {
         final long START_TIME = 1000L;
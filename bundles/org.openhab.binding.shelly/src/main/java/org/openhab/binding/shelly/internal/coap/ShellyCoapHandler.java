@@ -18,6 +18,7 @@ import static org.openhab.binding.shelly.internal.coap.ShellyCoapJSonDTO.*;
 import static org.openhab.binding.shelly.internal.util.ShellyUtils.*;
 
 import java.net.UnknownHostException;
+import java.util.ArrayList;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
@@ -48,9 +49,6 @@ import org.openhab.binding.shelly.internal.api.ShellyDeviceProfile;
 import org.openhab.binding.shelly.internal.coap.ShellyCoapJSonDTO.CoIotDescrBlk;
 import org.openhab.binding.shelly.internal.coap.ShellyCoapJSonDTO.CoIotDescrSen;
 import org.openhab.binding.shelly.internal.coap.ShellyCoapJSonDTO.CoIotDevDescription;
-import org.openhab.binding.shelly.internal.coap.ShellyCoapJSonDTO.CoIotGenericSensorList;
-import org.openhab.binding.shelly.internal.coap.ShellyCoapJSonDTO.CoIotSensor;
-import org.openhab.binding.shelly.internal.coap.ShellyCoapJSonDTO.CoIotSensorTypeAdapter;
 import org.openhab.binding.shelly.internal.config.ShellyThingConfiguration;
 import org.openhab.binding.shelly.internal.handler.ShellyBaseHandler;
 import org.openhab.binding.shelly.internal.handler.ShellyColorUtils;
@@ -58,7 +56,6 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import com.google.gson.Gson;
-import com.google.gson.GsonBuilder;
 
 import tec.uom.se.unit.Units;
 
@@ -73,8 +70,7 @@ public class ShellyCoapHandler implements ShellyCoapListener {
 
     private final ShellyBaseHandler thingHandler;
     private ShellyThingConfiguration config = new ShellyThingConfiguration();
-    private final GsonBuilder gsonBuilder = new GsonBuilder();
-    private final Gson gson;
+    private final Gson gson = new Gson();
     private String thingName;
     private boolean discovering = false;
 
@@ -83,10 +79,9 @@ public class ShellyCoapHandler implements ShellyCoapListener {
     private Request reqDescription = new Request(Code.GET, Type.CON);
     private Request reqStatus = new Request(Code.GET, Type.CON);
 
-    private int lastSerial = -1;
-    private String lastPayload = "";
     private Map<String, CoIotDescrBlk> blockMap = new LinkedHashMap<>();
     private LinkedHashMap<String, CoIotDescrSen> sensorMap = new LinkedHashMap<>();
+    private @Nullable ShellyCoapStatusDecoder decoder;
 
     private static final byte[] EMPTY_BYTE = new byte[0];
 
@@ -94,10 +89,6 @@ public class ShellyCoapHandler implements ShellyCoapListener {
         this.thingHandler = thingHandler;
         this.coapServer = coapServer;
         this.thingName = thingHandler.thingName;
-
-        gsonBuilder.registerTypeAdapter(CoIotGenericSensorList.class, new CoIotSensorTypeAdapter());
-        gsonBuilder.setPrettyPrinting();
-        gson = gsonBuilder.create();
     }
 
     /**
@@ -116,13 +107,14 @@ public class ShellyCoapHandler implements ShellyCoapListener {
             this.thingName = thingName;
             this.config = config;
 
+            // Register first, responses are dispatched by the server
+            coapServer.start(config.localIp, config.deviceIp, this);
             reqDescription = sendRequest(reqDescription, config.deviceIp, COLOIT_URI_DEVDESC, Type.CON);
 
             if (!isStarted()) {
                 logger.debug("{}: Starting CoAP Listener", thingName);
                 reqDescription = sendRequest(reqDescription, config.deviceIp, COLOIT_URI_DEVDESC, Type.CON);
 
-                coapServer.start(config.localIp, this);
                 statusClient = new CoapClient(completeUrl(config.deviceIp, COLOIT_URI_DEVSTATUS))
                         .setTimeout((long) SHELLY_API_TIMEOUT_MS).useNONs().setEndpoint(coapServer.getEndpoint());
             }
@@ -138,17 +130,14 @@ public class ShellyCoapHandler implements ShellyCoapListener {
     }
 
     /**
-     * Process an inbound Response (or mapped Request): decode CoAP options. handle discovery result or status updates
+     * Process an inbound Response (or mapped Request): decode CoAP options. handle discovery result or status updates.
+     * The {@link ShellyCoapServer} only dispatches messages of this device, duplicates are already filtered out.
      *
      * @param response The Response packet
      */
     @Override
     public void processResponse(@Nullable Response response) {
         if (response == null) {
-            return; // other device instance
-        }
-        String ip = response.getSourceContext().getPeerAddress().toString();
-        if (!ip.contains(config.deviceIp)) {
             return;
         }
 
@@ -185,22 +174,6 @@ public class ShellyCoapHandler implements ShellyCoapListener {
                             break;
                         case COIOT_OPTION_STATUS_SERIAL:
                             serial = opt.getIntegerValue();
-                            if (serial == lastSerial) {
-                                // As per specification the serial changes when any sensor data has changed. The App
-                                // should ignore any updates with the same serial. However, as we have seen with the
-                                // Shelly HT and Shelly 4 Pro this is not always the case. The device comes up with an
-                                // status packet having the same serial, but new payload information.
-                                // Work Around: Packet will only be ignored when Serial AND Payload are the same as last
-                                // time
-                                if (!lastPayload.isEmpty() && !lastPayload.equals(payload)) {
-                                    logger.debug(
-                                            "{}: Duplicate serial {} will be processed, because payload is different: {} vs. {}",
-                                            thingName, serial, payload, lastPayload);
-                                    break;
-                                }
-                                logger.trace("{}: Serial {} was already processed, ignore update", thingName, serial);
-                                return;
-                            }
                             break;
                         default:
                             logger.debug("{} ({}): COAP option {} with value {} skipped", thingName, devId,
@@ -279,10 +252,29 @@ public class ShellyCoapHandler implements ShellyCoapListener {
             }
         }
 
+        compileDecoder();
+
         // Save to thing properties
         thingHandler.updateProperties(PROPERTY_COAP_DESCR, payload);
     }
 
+    /**
+     * Compile the sensor definitions into the decoder for status updates. Sensors linked to an unknown block are
+     * skipped.
+     */
+    private synchronized void compileDecoder() {
+        List<CoIotDescrSen> sensors = new ArrayList<>();
+        for (CoIotDescrSen sen : sensorMap.values()) {
+            if (blockMap.containsKey(sen.links)) {
+                sensors.add(sen);
+            } else {
+                logger.debug("{}: Invalid CoAP description: sen.links({}) for sen.id={}", thingName,
+                        getString(sen.links), sen.id);
+            }
+        }
+        decoder = new ShellyCoapStatusDecoder(sensors);
+    }
+
     /**
      * Add a new sensor to the sensor table
      *
@@ -309,11 +301,10 @@ public class ShellyCoapHandler implements ShellyCoapListener {
      *
      * @param devId device id included in the status packet
      * @param payload CoAP payload (Json format), example: {"G":[[0,112,0]]}
-     * @param serial Serial for this request. If this the the same as last serial
-     *            the update was already sent and processed so this one gets
-     *            ignored.
+     * @param serial Serial for this request. Updates with the same serial and payload as the last one are already
+     *            discarded by the {@link ShellyCoapServer}.
      */
-    private void handleStatusUpdate(String devId, String payload, int serial) {
+    private synchronized void handleStatusUpdate(String devId, String payload, int serial) {
         logger.debug("{}: CoIoT Sensor data {}", thingName, payload);
         if (blockMap.isEmpty()) {
             // send discovery packet
@@ -332,69 +323,66 @@ public class ShellyCoapHandler implements ShellyCoapListener {
             logger.debug("{}: Device description for {} restored: {}", thingName, devId, savedDescr);
         }
 
-        // Parse Json,
-        CoIotGenericSensorList list = gson.fromJson(payload, CoIotGenericSensorList.class);
-        if (list.generic == null) {
-            logger.debug("{}: Sensor list has invalid format! Payload: {}", devId, payload);
+        ShellyCoapStatusDecoder decoder = this.decoder;
+        if (decoder == null) {
+            logger.debug("{}: Device description not yet compiled, skip update", thingName);
             return;
         }
-        List<CoIotSensor> sensorUpdates = list.generic;
+
+        // Parse Json straight into the sensor slots of the device description
+        int count = decoder.decode(payload);
 
         ShellyDeviceProfile profile = thingHandler.getProfile();
         Map<String, State> updates = new TreeMap<String, State>();
-        logger.debug("{}: {} CoAP sensor updates received", thingName, sensorUpdates.size());
+        boolean received = false;
+        logger.debug("{}: {} CoAP sensor updates received", thingName, count);
         thingHandler.restartWatchdog(); // every CoAP message restarts the watchdog
-        for (int i = 0; i < sensorUpdates.size(); i++) {
+        for (int i = 0; i < count; i++) {
             try {
-                CoIotSensor s = sensorUpdates.get(i);
-                if (!sensorMap.containsKey(s.id)) {
+                if (!decoder.isDefined(i)) {
                     logger.debug("{}: Invalid index in sensor description: {}", thingName, i);
                     continue;
                 }
-                CoIotDescrSen sen = sensorMap.get(s.id);
-                // find matching sensor definition from device description, use the Link ID as index
-                sen = fixDescription(sen);
-                if (!blockMap.containsKey(sen.links)) {
-                    logger.debug("{}: Invalid CoAP description: sen.links({}", thingName, getString(sen.links));
+                received = true;
+                CoIotDescrSen sen = decoder.getSensor(i);
+                String type = decoder.getType(i);
+                String desc = decoder.getDesc(i);
+                double value = decoder.getValue(i);
+                if (!decoder.isChanged(i) && !isEventSensor(type, desc)) {
+                    // Value didn't change since the last update, the channel is already up to date
                     continue;
                 }
-
-                if (!blockMap.containsKey(sen.links)) {
-                    logger.debug("{}: Unable to find BLK for link {} from sen.id={}", thingName, sen.links, sen.id);
-                    continue;
-                }
-                CoIotDescrBlk element = blockMap.get(sen.links);
-                logger.trace("{}:  Sensor value[{}]: id={}, Value={} ({}, Type={}, Range={}, Link={}: {})", thingName,
-                        i, s.id, s.value, sen.desc, sen.type, sen.range, sen.links, element.desc);
+                logger.trace("{}:  Sensor value[{}]: id={}, Value={} ({}, Type={}, Range={}, Link={})", thingName, i,
+                        sen.id, value, sen.desc, sen.type, sen.range, sen.links);
 
                 // Process status information and convert into channel updates
                 Integer rIndex = Integer.parseInt(sen.links) + 1;
                 String rGroup = profile.numRelays <= 1 ? CHANNEL_GROUP_RELAY_CONTROL
                         : CHANNEL_GROUP_RELAY_CONTROL + rIndex;
 
-                switch (sen.type.toLowerCase()) {
+                switch (type) {
                     case "b" /* BatteryLevel */:
                         updateChannel(updates, CHANNEL_GROUP_BATTERY, CHANNEL_SENSOR_BAT_LEVEL,
-                                toQuantityType(s.value, DIGITS_PERCENT, SmartHomeUnits.PERCENT));
+                                toQuantityType(value, DIGITS_PERCENT, SmartHomeUnits.PERCENT));
                         break;
                     case "t" /* Temperature */:
-                        Double value = getDouble(s.value);
-                        switch (sen.desc.toLowerCase()) {
+                        Double temp = getDouble(value);
+                        switch (desc) {
                             case "temperature": // Sensor Temp
                                 if (getString(profile.settings.temperatureUnits)
                                         .equalsIgnoreCase(SHELLY_TEMP_FAHRENHEIT)) {
-                                    value = ImperialUnits.FAHRENHEIT.getConverterTo(Units.CELSIUS)
-                                            .convert(getDouble(s.value)).doubleValue();
+                                    temp = ImperialUnits.FAHRENHEIT.getConverterTo(Units.CELSIUS)
+                                            .convert(getDouble(value)).doubleValue();
                                 }
                                 updateChannel(updates, CHANNEL_GROUP_SENSOR, CHANNEL_SENSOR_TEMP,
-                                        toQuantityType(value, DIGITS_TEMP, SIUnits.CELSIUS));
+                                        toQuantityType(temp, DIGITS_TEMP, SIUnits.CELSIUS));
                                 break;
                             case "temperature f": // Device Temp -> ignore (we use C only)
                                 break;
                             case "temperature c": // Device Temü in C
                                 // Device temperature
                                 updateChannel(updates, CHANNEL_GROUP_DEV_STATUS, CHANNEL_DEVST_ITEMP,
-                                        toQuantityType(value, DIGITS_NONE, SIUnits.CELSIUS));
+                                        toQuantityType(temp, DIGITS_NONE, SIUnits.CELSIUS));
                                 break;
                             case "external temperature f": // Shelly 1/1PM external temp sensors
                                 // ignore F, we use C only
@@ -404,7 +392,7 @@ public class ShellyCoapHandler implements ShellyCoapListener {
                                 int idx = getExtTempId(sen.id);
                                 if (idx > 0) {
                                     updateChannel(updates, CHANNEL_GROUP_SENSOR, CHANNEL_SENSOR_TEMP + idx,
-                                            toQuantityType(value, DIGITS_TEMP, SIUnits.CELSIUS));
+                                            toQuantityType(temp, DIGITS_TEMP, SIUnits.CELSIUS));
                                 } else {
                                     logger.debug("{}: Unable to get extSensorId {} from {}/{}, payload={}", thingName,
                                             sen.id, sen.type, sen.desc, payload);
@@ -416,130 +404,129 @@ public class ShellyCoapHandler implements ShellyCoapListener {
                         break;
                     case "h" /* Humidity */:
                         updateChannel(updates, CHANNEL_GROUP_SENSOR, CHANNEL_SENSOR_HUM,
-                                toQuantityType(s.value, DIGITS_PERCENT, SmartHomeUnits.PERCENT));
+                                toQuantityType(value, DIGITS_PERCENT, SmartHomeUnits.PERCENT));
                         break;
                     case "m" /* Motion */:
                         updateChannel(updates, CHANNEL_GROUP_SENSOR, CHANNEL_SENSOR_MOTION,
-                                s.value == 1 ? OnOffType.ON : OnOffType.OFF);
+                                value == 1 ? OnOffType.ON : OnOffType.OFF);
                         break;
                     case "l" /* Luminosity */:
                         updateChannel(updates, CHANNEL_GROUP_SENSOR, CHANNEL_SENSOR_LUX,
-                                toQuantityType(s.value, DIGITS_LUX, SmartHomeUnits.LUX));
+                                toQuantityType(value, DIGITS_LUX, SmartHomeUnits.LUX));
                         break;
                     case "p" /* Power/Watt */:
                         String mGroup = profile.numMeters == 1 ? CHANNEL_GROUP_METER : CHANNEL_GROUP_METER + rIndex;
                         updateChannel(updates, mGroup, CHANNEL_METER_CURRENTWATTS,
-                                toQuantityType(s.value, DIGITS_WATT, SmartHomeUnits.WATT));
+                                toQuantityType(value, DIGITS_WATT, SmartHomeUnits.WATT));
                         updateChannel(updates, mGroup, CHANNEL_LAST_UPDATE, getTimestamp());
                         break;
                     case "s" /* CatchAll */:
-                        String senValue = sen.desc.toLowerCase();
-                        switch (senValue) {
+                        switch (desc) {
                             case "state":
                             case "output":
-                                updatePower(profile, updates, rIndex, sen, s, sensorUpdates);
+                                updatePower(profile, updates, rIndex, sen, value, decoder);
                                 break;
                             case "brightness":
                                 // already handled by state/output
                                 break;
                             case "overtemp":
-                                if (s.value == 1) {
+                                if (value == 1) {
                                     thingHandler.postEvent(ALARM_TYPE_OVERTEMP, true);
                                 }
                                 break;
                             case "energy counter 0 [w-min]":
                                 updateChannel(updates, rGroup, CHANNEL_METER_LASTMIN1,
-                                        toQuantityType(s.value, DIGITS_WATT, SmartHomeUnits.WATT));
+                                        toQuantityType(value, DIGITS_WATT, SmartHomeUnits.WATT));
                                 break;
                             case "energy counter 1 [w-min]":
                                 updateChannel(updates, rGroup, CHANNEL_METER_LASTMIN2,
-                                        toQuantityType(s.value, DIGITS_WATT, SmartHomeUnits.WATT));
+                                        toQuantityType(value, DIGITS_WATT, SmartHomeUnits.WATT));
                                 break;
                             case "energy counter 2 [w-min]":
                                 updateChannel(updates, rGroup, CHANNEL_METER_LASTMIN3,
-                                        toQuantityType(s.value, DIGITS_WATT, SmartHomeUnits.WATT));
+                                        toQuantityType(value, DIGITS_WATT, SmartHomeUnits.WATT));
                                 break;
                             case "energy counter total [w-h]": // EM3 reports W/h
                             case "energy counter total [w-min]":
-                                Double total = profile.isEMeter ? s.value / 1000 : s.value / 60 / 1000;
+                                Double total = profile.isEMeter ? value / 1000 : value / 60 / 1000;
                                 updateChannel(updates, rGroup, CHANNEL_METER_TOTALKWH,
                                         toQuantityType(total, DIGITS_KWH, SmartHomeUnits.KILOWATT_HOUR));
                                 break;
                             case "voltage":
                                 updateChannel(updates, rGroup, CHANNEL_EMETER_VOLTAGE,
-                                        toQuantityType(getDouble(s.value), DIGITS_VOLT, SmartHomeUnits.VOLT));
+                                        toQuantityType(getDouble(value), DIGITS_VOLT, SmartHomeUnits.VOLT));
                                 break;
                             case "current":
                                 updateChannel(updates, rGroup, CHANNEL_EMETER_CURRENT,
-                                        toQuantityType(getDouble(s.value), DIGITS_VOLT, SmartHomeUnits.AMPERE));
+                                        toQuantityType(getDouble(value), DIGITS_VOLT, SmartHomeUnits.AMPERE));
                                 break;
                             case "pf":
-                                updateChannel(updates, rGroup, CHANNEL_EMETER_PFACTOR, getDecimal(s.value));
+                                updateChannel(updates, rGroup, CHANNEL_EMETER_PFACTOR, getDecimal(value));
                                 break;
                             case "position":
                                 // work around: Roller reports 101% instead max 100
-                                double pos = Math.max(SHELLY_MIN_ROLLER_POS, Math.min(s.value, SHELLY_MAX_ROLLER_POS));
+                                double pos = Math.max(SHELLY_MIN_ROLLER_POS, Math.min(value, SHELLY_MAX_ROLLER_POS));
                                 updateChannel(updates, CHANNEL_GROUP_ROL_CONTROL, CHANNEL_ROL_CONTROL_CONTROL,
                                         toQuantityType(SHELLY_MAX_ROLLER_POS - pos, SmartHomeUnits.PERCENT));
                                 updateChannel(updates, CHANNEL_GROUP_ROL_CONTROL, CHANNEL_ROL_CONTROL_POS,
                                         toQuantityType(pos, SmartHomeUnits.PERCENT));
                                 break;
                             case "input":
-                                handleInput(sen, s, rGroup, updates);
+                                handleInput(sen, value, rGroup, updates);
                                 break;
                             case "flood":
                                 updateChannel(updates, CHANNEL_GROUP_SENSOR, CHANNEL_SENSOR_FLOOD,
-                                        s.value == 1 ? OnOffType.ON : OnOffType.OFF);
+                                        value == 1 ? OnOffType.ON : OnOffType.OFF);
                                 break;
                             case "tilt": // DW with FW1.6.5+
                                 updateChannel(updates, CHANNEL_GROUP_SENSOR, CHANNEL_SENSOR_TILT,
-                                        toQuantityType(s.value, DIGITS_NONE, SmartHomeUnits.DEGREE_ANGLE));
+                                        toQuantityType(value, DIGITS_NONE, SmartHomeUnits.DEGREE_ANGLE));
                                 break;
                             case "vibration": // DW with FW1.6.5+
                                 updateChannel(updates, CHANNEL_GROUP_SENSOR, CHANNEL_SENSOR_VIBRATION,
-                                        s.value == 1 ? OnOffType.ON : OnOffType.OFF);
+                                        value == 1 ? OnOffType.ON : OnOffType.OFF);
                                 break;
                             case "charger": // Sense
                                 updateChannel(updates, CHANNEL_GROUP_DEV_STATUS, CHANNEL_DEVST_CHARGER,
-                                        s.value == 1 ? OnOffType.ON : OnOffType.OFF);
+                                        value == 1 ? OnOffType.ON : OnOffType.OFF);
                                 break;
                             // RGBW2/Bulb
                             case "red":
                                 updateChannel(updates, CHANNEL_GROUP_COLOR_CONTROL, CHANNEL_COLOR_RED,
-                                        ShellyColorUtils.toPercent((int) s.value));
+                                        ShellyColorUtils.toPercent((int) value));
                                 break;
                             case "green":
                                 updateChannel(updates, CHANNEL_GROUP_COLOR_CONTROL, CHANNEL_COLOR_GREEN,
-                                        ShellyColorUtils.toPercent((int) s.value));
+                                        ShellyColorUtils.toPercent((int) value));
                                 break;
                             case "blue":
                                 updateChannel(updates, CHANNEL_GROUP_COLOR_CONTROL, CHANNEL_COLOR_BLUE,
-                                        ShellyColorUtils.toPercent((int) s.value));
+                                        ShellyColorUtils.toPercent((int) value));
                                 break;
                             case "white":
                                 updateChannel(updates, CHANNEL_GROUP_COLOR_CONTROL, CHANNEL_COLOR_WHITE,
-                                        ShellyColorUtils.toPercent((int) s.value));
+                                        ShellyColorUtils.toPercent((int) value));
                                 break;
                             case "gain":
                                 updateChannel(updates, CHANNEL_GROUP_COLOR_CONTROL, CHANNEL_COLOR_GAIN,
-                                        ShellyColorUtils.toPercent((int) s.value, SHELLY_MIN_GAIN, SHELLY_MAX_GAIN));
+                                        ShellyColorUtils.toPercent((int) value, SHELLY_MIN_GAIN, SHELLY_MAX_GAIN));
                                 break;
                             case "temp": // Shelly Bulb
                             case "colortemperature": // Shelly Duo
                                 updateChannel(updates,
                                         profile.inColor ? CHANNEL_GROUP_COLOR_CONTROL : CHANNEL_GROUP_WHITE_CONTROL,
                                         CHANNEL_COLOR_TEMP,
-                                        ShellyColorUtils.toPercent((int) s.value, profile.minTemp, profile.maxTemp));
+                                        ShellyColorUtils.toPercent((int) value, profile.minTemp, profile.maxTemp));
                                 break;
                             default:
                                 logger.debug(
                                         "{}: Update for unknown sensor with id {}, type {}/{} received, value={}, payload={}",
-                                        thingName, sen.id, sen.type, sen.desc, s.value, payload);
+                                        thingName, sen.id, sen.type, sen.desc, value, payload);
                         }
                         break;
                     default:
                         logger.debug("{}: Sensor data for id {}, type {}/{} not processed, value={}; payload={}",
-                                thingName, sen.id, sen.type, sen.desc, s.value, payload);
+                                thingName, sen.id, sen.type, sen.desc, value, payload);
                 }
             } catch (IllegalArgumentException | NullPointerException | ArrayIndexOutOfBoundsException e) {
                 // even the processing of one value failed we continue with the next one (sometimes this is caused by
@@ -549,7 +536,7 @@ public class ShellyCoapHandler implements ShellyCoapListener {
             }
         }
 
-        if (!updates.isEmpty()) {
+        if (received) {
             if (profile.hasBattery || thingHandler.autoCoIoT) {
                 // CoAP is currently lacking the lastUpdate info, so we use host timestamp
                 updateChannel(updates, CHANNEL_GROUP_SENSOR, CHANNEL_LAST_UPDATE, getTimestamp());
@@ -571,13 +558,34 @@ public class ShellyCoapHandler implements ShellyCoapListener {
                 thingHandler.requestUpdates(1, false);
             }
         }
+    }
 
-        // Remember serial, new packets with same serial will be ignored
-        lastSerial = serial;
-        lastPayload = payload;
+    /**
+     * Sensors, which trigger events or depend on other values, are processed with every status update even if the value
+     * didn't change.
+     *
+     * @param type Sensor type in lower case
+     * @param desc Sensor description in lower case
+     * @return true if the sensor has to be processed with every update
+     */
+    private boolean isEventSensor(String type, String desc) {
+        switch (type) {
+            case "p": // updates the timestamp of the meter
+                return true;
+            case "s":
+                switch (desc) {
+                    case "state":
+                    case "output":
+                    case "brightness":
+                    case "overtemp":
+                    case "input":
+                        return true;
+                }
+        }
+        return false;
     }
 
-    private void handleInput(CoIotDescrSen sen, CoIotSensor s, String rGroup, Map<String, State> updates) {
+    private void handleInput(CoIotDescrSen sen, double value, String rGroup, Map<String, State> updates) {
         final ShellyDeviceProfile profile = thingHandler.getProfile();
         int idx = getSensorNumber("Input", sen.id);
         if (idx <= 0) {
@@ -601,11 +609,11 @@ public class ShellyCoapHandler implements ShellyCoapListener {
         if ((profile.settings.relays != null) && (r >= 0) && (r < profile.settings.relays.size())) {
             ShellySettingsRelay relay = profile.settings.relays.get(r);
             logger.trace("{}: Coap update for button (type {})", thingName, relay.btnType);
-            if ((s.value != 0) && (relay.btnType.equalsIgnoreCase(SHELLY_BTNT_MOMENTARY)
+            if ((value != 0) && (relay.btnType.equalsIgnoreCase(SHELLY_BTNT_MOMENTARY)
                     || relay.btnType.equalsIgnoreCase(SHELLY_BTNT_MOM_ON_RELEASE)
                     || relay.btnType.equalsIgnoreCase(SHELLY_BTNT_DETACHED))) {
                 String trigger = "";
-                switch ((int) s.value) {
+                switch ((int) value) {
                     case 0:
                         trigger = CommonTriggerEvents.RELEASED;
                         break;
@@ -622,7 +630,7 @@ public class ShellyCoapHandler implements ShellyCoapListener {
                 }
             }
         }
-        updateChannel(updates, iGroup, iChannel, s.value == 0 ? OnOffType.OFF : OnOffType.ON);
+        updateChannel(updates, iGroup, iChannel, value == 0 ? OnOffType.OFF : OnOffType.ON);
     }
 
     /**
@@ -635,11 +643,12 @@ public class ShellyCoapHandler implements ShellyCoapListener {
      * @param updates List of updates. updatePower will add brightness$Switch and brightness&Value if changed
      * @param id Sensor id from the update
      * @param sen Sensor description from the update
-     * @param s New sensor value
-     * @param allUpdatesList of updates. This is required, because we need to update both values at the same time
+     * @param value New sensor value
+     * @param decoder Decoder with all values of the update. This is required, because we need to update both values at
+     *            the same time
      */
     private void updatePower(ShellyDeviceProfile profile, Map<String, State> updates, Integer id, CoIotDescrSen sen,
-            CoIotSensor s, List<CoIotSensor> allUpdates) {
+            double value, ShellyCoapStatusDecoder decoder) {
         String group = "";
         String channel = CHANNEL_BRIGHTNESS;
         String checkL = ""; // RGBW-white uses 4 different Power, Brightness, VSwitch values
@@ -661,16 +670,20 @@ public class ShellyCoapHandler implements ShellyCoapListener {
             // the UI
             Double brightness = -1.0;
             Double power = -1.0;
-            for (CoIotSensor update : allUpdates) {
-                CoIotDescrSen d = fixDescription(sensorMap.get(update.id));
+            for (int i = 0; i < decoder.getCount(); i++) {
+                if (!decoder.isDefined(i)) {
+                    continue;
+                }
+                CoIotDescrSen d = decoder.getSensor(i);
                 if (!checkL.isEmpty() && !d.links.equals(checkL)) {
                     // continue until we find the correct one
                     continue;
                 }
-                if (d.desc.equalsIgnoreCase("brightness")) {
-                    brightness = new Double(update.value);
-                } else if (d.desc.equalsIgnoreCase("output") || d.desc.equalsIgnoreCase("state")) {
-                    power = new Double(update.value);
+                String desc = decoder.getDesc(i);
+                if (desc.equals("brightness")) {
+                    brightness = new Double(decoder.getValue(i));
+                } else if (desc.equals("output") || desc.equals("state")) {
+                    power = new Double(decoder.getValue(i));
                 }
             }
             if (power != -1) {
@@ -682,15 +695,15 @@ public class ShellyCoapHandler implements ShellyCoapListener {
             }
         } else if (profile.hasRelays) {
             group = profile.numRelays <= 1 ? CHANNEL_GROUP_RELAY_CONTROL : CHANNEL_GROUP_RELAY_CONTROL + id;
-            updateChannel(updates, group, CHANNEL_OUTPUT, s.value == 1 ? OnOffType.ON : OnOffType.OFF);
+            updateChannel(updates, group, CHANNEL_OUTPUT, value == 1 ? OnOffType.ON : OnOffType.OFF);
         } else if (profile.isSensor) {
             // Sensor state
             if (profile.isDW) { // Door Window has item type Contact
                 updateChannel(updates, CHANNEL_GROUP_SENSOR, CHANNEL_SENSOR_STATE,
-                        s.value != 0 ? OpenClosedType.OPEN : OpenClosedType.CLOSED);
+                        value != 0 ? OpenClosedType.OPEN : OpenClosedType.CLOSED);
             } else {
                 updateChannel(updates, CHANNEL_GROUP_SENSOR, CHANNEL_SENSOR_STATE,
-                        s.value == 1 ? OnOffType.ON : OnOffType.OFF);
+                        value == 1 ? OnOffType.ON : OnOffType.OFF);
             }
         }
     }
@@ -881,7 +894,9 @@ public class ShellyCoapHandler implements ShellyCoapListener {
         request.addMessageObserver(new MessageObserverAdapter() {
             @Override
             public void onResponse(@Nullable Response response) {
-                processResponse(response);
+                if (response != null) {
+                    coapServer.processResponse(response);
+                }
             }
 
             @Override
@@ -901,11 +916,14 @@ public class ShellyCoapHandler implements ShellyCoapListener {
      * Reset serial and payload used to detect duplicate messages, which have to be ignored.
      * We can't rely that the device manages serials correctly all the time. There are firmware releases sending updated
      * sensor information with the serial from the last packet, which is wrong. We bypass this problem by comparing also
-     * the payload.
+     * the payload. The last sensor values are also reset, so all channels get updated by the next status update.
      */
     private void resetSerial() {
-        lastSerial = -1;
-        lastPayload = "";
+        coapServer.resetSerial(this);
+        ShellyCoapStatusDecoder decoder = this.decoder;
+        if (decoder != null) {
+            decoder.reset();
+        }
     }
 
     /**
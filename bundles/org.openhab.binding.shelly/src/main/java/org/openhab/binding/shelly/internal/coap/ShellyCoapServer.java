@@ -12,18 +12,22 @@
  */
 package org.openhab.binding.shelly.internal.coap;
 
-import static org.openhab.binding.shelly.internal.coap.ShellyCoapJSonDTO.COIOT_PORT;
+import static org.openhab.binding.shelly.internal.coap.ShellyCoapJSonDTO.*;
 
 import java.net.InetAddress;
 import java.net.InetSocketAddress;
 import java.net.UnknownHostException;
-import java.util.Set;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 import org.eclipse.californium.core.CoapResource;
 import org.eclipse.californium.core.CoapServer;
 import org.eclipse.californium.core.coap.CoAP;
 import org.eclipse.californium.core.coap.CoAP.Code;
 import org.eclipse.californium.core.coap.CoAP.ResponseCode;
+import org.eclipse.californium.core.coap.Message;
+import org.eclipse.californium.core.coap.Option;
 import org.eclipse.californium.core.coap.Request;
 import org.eclipse.californium.core.coap.Response;
 import org.eclipse.californium.core.network.CoapEndpoint;
@@ -32,12 +36,14 @@ import org.eclipse.californium.core.network.config.NetworkConfig;
 import org.eclipse.californium.elements.UdpMulticastConnector;
 import org.eclipse.jdt.annotation.NonNullByDefault;
 import org.eclipse.jdt.annotation.Nullable;
-import org.eclipse.jetty.util.ConcurrentHashSet;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 /**
  * The {@link ShellyCoapServer} implements the UDP listener and status event processor (for /cit/s messages)
+ * <p>
+ * Messages are dispatched to the listener of the sending device, which is looked up by the peer address and the
+ * CoIoT device id. Duplicate status messages (same serial and payload) are discarded before they are dispatched.
  *
  * @author Markus Michels - Initial contribution
  */
@@ -49,7 +55,47 @@ public class ShellyCoapServer {
     private CoapEndpoint statusEndpoint = new CoapEndpoint.Builder().build();
     private @Nullable UdpMulticastConnector statusConnector;
     private final CoapServer server = new CoapServer(NetworkConfig.getStandard(), COIOT_PORT);;
-    private final Set<ShellyCoapListener> coapListeners = new ConcurrentHashSet<>();
+    private final Map<ShellyCoapListener, CoapDevice> coapListeners = new ConcurrentHashMap<>();
+    private final Map<String, CoapDevice> devicesByAddress = new ConcurrentHashMap<>();
+    private final Map<String, CoapDevice> devicesByDevId = new ConcurrentHashMap<>();
+
+    private static class CoapDevice {
+        private final ShellyCoapListener listener;
+        private volatile String address;
+        private volatile String devId = "";
+
+        // Serial and payload of the last status message, used to detect duplicates
+        private int lastSerial = -1;
+        private int lastPayloadLength;
+        private int lastPayloadHash;
+
+        public CoapDevice(ShellyCoapListener listener, String address) {
+            this.listener = listener;
+            this.address = address;
+        }
+
+        /**
+         * Check if the message is a duplicate of the last status message and remember it otherwise. As per
+         * specification the serial changes when any sensor data has changed. However, as we have seen with the Shelly
+         * HT and Shelly 4 Pro this is not always the case. The device comes up with an status packet having the same
+         * serial, but new payload information. So packets are only ignored when serial AND payload are the same as
+         * last time.
+         */
+        public synchronized boolean isDuplicate(int serial, byte[] payload) {
+            int payloadHash = Arrays.hashCode(payload);
+            if (serial == lastSerial && payload.length == lastPayloadLength && payloadHash == lastPayloadHash) {
+                return true;
+            }
+            lastSerial = serial;
+            lastPayloadLength = payload.length;
+            lastPayloadHash = payloadHash;
+            return false;
+        }
+
+        public synchronized void resetSerial() {
+            lastSerial = -1;
+        }
+    }
 
     protected class ShellyStatusListener extends CoapResource {
 
@@ -68,7 +114,7 @@ public class ShellyCoapServer {
                 Code code = exchange.getRequest().getCode();
                 switch (code) {
                     case CUSTOM_30:
-                        listener.processResponse(createResponse(request));
+                        listener.processRequest(request);
                         break;
                     default:
                         super.handleRequest(exchange);
@@ -77,7 +123,16 @@ public class ShellyCoapServer {
         }
     }
 
-    public synchronized void start(String localIp, ShellyCoapListener listener) throws UnknownHostException {
+    /**
+     * Start the server (if not yet started) and register a listener for the messages of a device
+     *
+     * @param localIp Local IP address to bind the multicast listener
+     * @param deviceIp IP address of the device
+     * @param listener Listener for the messages of the device
+     * @throws UnknownHostException
+     */
+    public synchronized void start(String localIp, String deviceIp, ShellyCoapListener listener)
+            throws UnknownHostException {
         if (!started) {
             logger.debug("Initializing CoIoT listener (local IP={}:{})", localIp, COIOT_PORT);
             NetworkConfig nc = NetworkConfig.getStandard();
@@ -95,13 +150,108 @@ public class ShellyCoapServer {
             started = true;
         }
 
-        if (!coapListeners.contains(listener)) {
-            coapListeners.add(listener);
+        addListener(deviceIp, listener);
+    }
+
+    /**
+     * Register a listener for the messages of a device. If the listener is already registered with another IP address
+     * (e.g. the device configuration has been changed), the device is looked up by the new address from now on.
+     *
+     * @param deviceIp IP address of the device
+     * @param listener Listener for the messages of the device
+     * @throws UnknownHostException
+     */
+    synchronized void addListener(String deviceIp, ShellyCoapListener listener) throws UnknownHostException {
+        String address = InetAddress.getByName(deviceIp).getHostAddress();
+        CoapDevice device = coapListeners.get(listener);
+        if (device == null) {
+            device = new CoapDevice(listener, address);
+            coapListeners.put(listener, device);
+        } else if (!device.address.equals(address)) {
+            logger.debug("CoIoT address of device {} changed from {} to {}", device.devId, device.address, address);
+            devicesByAddress.remove(device.address, device);
+            device.address = address;
+        }
+        devicesByAddress.put(address, device);
+    }
+
+    /**
+     * Process a multicast message. The message is only converted into a {@link Response} if it is dispatched.
+     *
+     * @param request The inbound message
+     */
+    protected void processRequest(Request request) {
+        CoapDevice device = getReceiver(request);
+        if (device != null) {
+            device.listener.processResponse(createResponse(request));
+        }
+    }
+
+    /**
+     * Process a response to a request of a listener
+     *
+     * @param response The Response packet
+     */
+    public void processResponse(Response response) {
+        CoapDevice device = getReceiver(response);
+        if (device != null) {
+            device.listener.processResponse(response);
         }
     }
 
-    protected void processResponse(Response response) {
-        coapListeners.forEach(listener -> listener.processResponse(response));
+    /**
+     * Find the listener of the device, which has sent the message
+     *
+     * @param message The inbound message
+     * @return The device or null if the message is not for a registered device or a duplicate
+     */
+    private @Nullable CoapDevice getReceiver(Message message) {
+        InetSocketAddress peer = message.getSourceContext().getPeerAddress();
+        String devId = "";
+        int serial = -1;
+        for (Option opt : message.getOptions().getOthers()) {
+            switch (opt.getNumber()) {
+                case COIOT_OPTION_GLOBAL_DEVID:
+                    devId = opt.getStringValue();
+                    break;
+                case COIOT_OPTION_STATUS_SERIAL:
+                    serial = opt.getIntegerValue();
+                    break;
+            }
+        }
+
+        CoapDevice device = devicesByAddress.get(peer.getAddress().getHostAddress());
+        if (device == null) {
+            // The IP address of the device might have changed
+            device = devId.isEmpty() ? null : devicesByDevId.get(devId);
+            if (device == null) {
+                logger.trace("CoIoT Message from {} ({}) is not for a registered device", peer, devId);
+                return null;
+            }
+        } else if (!devId.isEmpty() && !devId.equals(device.devId)) {
+            devicesByDevId.remove(device.devId, device);
+            device.devId = devId;
+            devicesByDevId.put(devId, device);
+        }
+
+        if (serial != -1 && device.isDuplicate(serial, message.getPayload())) {
+            logger.trace("{}: Serial {} was already processed, ignore update", devId, serial);
+            return null;
+        }
+        return device;
+    }
+
+    /**
+     * Reset serial and payload used to detect duplicate messages of a device, so the next status message will be
+     * processed.
+     *
+     * @param listener Listener of the device
+     */
+    public void resetSerial(ShellyCoapListener listener) {
+        CoapDevice device = coapListeners.get(listener);
+        if (device != null) {
+            device.resetSerial();
+        }
     }
 
     public static Response createResponse(Request request) {
@@ -123,7 +273,11 @@ public class ShellyCoapServer {
      * Cancel pending requests and shutdown the client
      */
     public void stop(ShellyCoapListener listener) {
-        coapListeners.remove(listener);
+        CoapDevice device = coapListeners.remove(listener);
+        if (device != null) {
+            devicesByAddress.remove(device.address, device);
+            devicesByDevId.remove(device.devId, device);
+        }
         if (coapListeners.isEmpty()) {
             stop();
         }
@@ -135,6 +289,8 @@ public class ShellyCoapServer {
             server.stop();
             statusEndpoint.stop();
             coapListeners.clear();
+            devicesByAddress.clear();
+            devicesByDevId.clear();
             started = false;
             logger.debug("CoAP Listener stopped");
         }
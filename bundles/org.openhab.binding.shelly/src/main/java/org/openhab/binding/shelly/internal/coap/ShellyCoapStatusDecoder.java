@@ -0,0 +1,294 @@
+/**
+ * Copyright (c) 2010-2020 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.binding.shelly.internal.coap;
+
+import static org.openhab.binding.shelly.internal.coap.ShellyCoapJSonDTO.COIOT_TAG_GENERIC;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Map;
+import java.util.TreeMap;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+import org.openhab.binding.shelly.internal.coap.ShellyCoapJSonDTO.CoIotDescrSen;
+
+/**
+ * The {@link ShellyCoapStatusDecoder} decodes CoIoT status updates (/cit/s) for a compiled device description (/cit/d).
+ * The sensor definitions are resolved once, each sensor gets a slot. The "G" array of a status update is parsed
+ * straight into these slots, no Json objects are created. For each sensor the last value is kept, so unchanged
+ * values can be skipped.
+ *
+ * @author Markus Michels - Initial contribution
+ */
+@NonNullByDefault
+public class ShellyCoapStatusDecoder {
+    private static final int INITIAL_ENTRIES = 16;
+
+    // Sorted sensor ids, index is the slot
+    private final int[] ids;
+    private final CoIotDescrSen[] sensors;
+    private final String[] types;
+    private final String[] descs;
+    private final double[] lastValues;
+    private final boolean[] hasValue;
+
+    // Entries of the last status update in the order of the payload
+    private int count;
+    private int[] entrySlots = new int[INITIAL_ENTRIES];
+    private double[] entryValues = new double[INITIAL_ENTRIES];
+    private boolean[] entryChanged = new boolean[INITIAL_ENTRIES];
+
+    /**
+     * Compile the sensor definitions of a device description
+     *
+     * @param sensors Sensor definitions, the description must already be fixed. Sensors without a numeric id are
+     *            skipped, they can't be reported by status updates.
+     */
+    public ShellyCoapStatusDecoder(Collection<CoIotDescrSen> sensors) {
+        Map<Integer, CoIotDescrSen> sorted = new TreeMap<>();
+        for (CoIotDescrSen sen : sensors) {
+            try {
+                sorted.put(Integer.parseInt(sen.id), sen);
+            } catch (NumberFormatException e) {
+                // not a sensor of the status update
+            }
+        }
+        int size = sorted.size();
+        ids = new int[size];
+        this.sensors = new CoIotDescrSen[size];
+        types = new String[size];
+        descs = new String[size];
+        lastValues = new double[size];
+        hasValue = new boolean[size];
+        int slot = 0;
+        for (Map.Entry<Integer, CoIotDescrSen> e : sorted.entrySet()) {
+            CoIotDescrSen sen = e.getValue();
+            ids[slot] = e.getKey();
+            this.sensors[slot] = sen;
+            types[slot] = sen.type != null ? sen.type.toLowerCase() : "";
+            descs[slot] = sen.desc != null ? sen.desc.toLowerCase() : "";
+            slot++;
+        }
+    }
+
+    /**
+     * Decode a status update, example: {"G":[[0,112,0],[0,111,1.5]]}. The entries can be accessed by index afterwards.
+     *
+     * @param payload CoAP payload (Json format)
+     * @return Number of entries
+     * @throws IllegalArgumentException if the payload has an invalid format. The last values are kept in this case.
+     */
+    public int decode(String payload) {
+        count = 0;
+        try {
+            parse(payload);
+        } catch (IllegalArgumentException e) {
+            count = 0;
+            throw e;
+        }
+        for (int entry = 0; entry < count; entry++) {
+            int slot = entrySlots[entry];
+            if (slot >= 0) {
+                double value = entryValues[entry];
+                entryChanged[entry] = !hasValue[slot] || Double.compare(lastValues[slot], value) != 0;
+                lastValues[slot] = value;
+                hasValue[slot] = true;
+            }
+        }
+        return count;
+    }
+
+    private void parse(String payload) {
+        Parser p = new Parser(payload);
+        p.expect('{');
+        if (p.next('}')) {
+            p.expectEnd();
+            return;
+        }
+        if (!COIOT_TAG_GENERIC.equals(p.string())) {
+            throw new IllegalArgumentException("Sensor list has invalid format");
+        }
+        p.expect(':');
+        p.expect('[');
+        if (p.peek() != ']') {
+            do {
+                p.expect('[');
+                p.number(); // always 0
+                p.expect(',');
+                int id = (int) p.number();
+                p.expect(',');
+                double value = p.number();
+                p.expect(']');
+                add(id, value);
+            } while (p.next(','));
+        }
+        p.expect(']');
+        p.expect('}');
+        p.expectEnd();
+    }
+
+    private void add(int id, double value) {
+        if (count == entrySlots.length) {
+            int length = count * 2;
+            entrySlots = Arrays.copyOf(entrySlots, length);
+            entryValues = Arrays.copyOf(entryValues, length);
+            entryChanged = Arrays.copyOf(entryChanged, length);
+        }
+        int slot = Arrays.binarySearch(ids, id);
+        entrySlots[count] = slot >= 0 ? slot : -1;
+        entryValues[count] = value;
+        entryChanged[count] = true;
+        count++;
+    }
+
+    /**
+     * Forget the last values, so all values of the next status update are reported as changed.
+     */
+    public void reset() {
+        Arrays.fill(hasValue, false);
+    }
+
+    /**
+     * @return Number of entries of the last status update
+     */
+    public int getCount() {
+        return count;
+    }
+
+    /**
+     * @return true if the sensor of the entry is defined in the device description
+     */
+    public boolean isDefined(int entry) {
+        return entrySlots[entry] >= 0;
+    }
+
+    public CoIotDescrSen getSensor(int entry) {
+        return sensors[entrySlots[entry]];
+    }
+
+    /**
+     * @return Sensor type in lower case
+     */
+    public String getType(int entry) {
+        return types[entrySlots[entry]];
+    }
+
+    /**
+     * @return Sensor description in lower case
+     */
+    public String getDesc(int entry) {
+        return descs[entrySlots[entry]];
+    }
+
+    public double getValue(int entry) {
+        return entryValues[entry];
+    }
+
+    /**
+     * @return true if the value differs from the last status update
+     */
+    public boolean isChanged(int entry) {
+        return entryChanged[entry];
+    }
+
+    /**
+     * Minimal parser for the Json structure of status updates
+     */
+    private static class Parser {
+        private final String s;
+        private int pos;
+
+        public Parser(String s) {
+            this.s = s;
+        }
+
+        private void skipWhitespace() {
+            while (pos < s.length() && Character.isWhitespace(s.charAt(pos))) {
+                pos++;
+            }
+        }
+
+        public char peek() {
+            skipWhitespace();
+            if (pos >= s.length()) {
+                throw new IllegalArgumentException("Unexpected end of payload");
+            }
+            return s.charAt(pos);
+        }
+
+        public boolean next(char c) {
+            if (peek() == c) {
+                pos++;
+                return true;
+            }
+            return false;
+        }
+
+        public void expect(char c) {
+            if (!next(c)) {
+                throw new IllegalArgumentException("'" + c + "' expected at position " + pos);
+            }
+        }
+
+        public void expectEnd() {
+            skipWhitespace();
+            if (pos < s.length()) {
+                throw new IllegalArgumentException("Unexpected content at position " + pos);
+            }
+        }
+
+        public String string() {
+            expect('"');
+            int end = s.indexOf('"', pos);
+            if (end < 0) {
+                throw new IllegalArgumentException("Unterminated string at position " + pos);
+            }
+            String value = s.substring(pos, end);
+            pos = end + 1;
+            return value;
+        }
+
+        public double number() {
+            // Values are sometimes quoted
+            boolean quoted = next('"');
+            int start = pos;
+            boolean integer = true;
+            long value = 0;
+            boolean negative = pos < s.length() && s.charAt(pos) == '-';
+            if (negative) {
+                pos++;
+            }
+            for (; pos < s.length(); pos++) {
+                char c = s.charAt(pos);
+                if (c >= '0' && c <= '9') {
+                    value = value * 10 + (c - '0');
+                } else if (c == '.' || c == 'e' || c == 'E' || c == '+' || c == '-') {
+                    integer = false;
+                } else {
+                    break;
+                }
+            }
+            int end = pos;
+            if (quoted) {
+                expect('"');
+            }
+            if (end == start || (negative && end == start + 1)) {
+                throw new IllegalArgumentException("Number expected at position " + start);
+            }
+            if (integer && end - start <= 18) {
+                return negative ? -value : value;
+            }
+            return Double.parseDouble(s.substring(start, end));
+        }
+    }
+}
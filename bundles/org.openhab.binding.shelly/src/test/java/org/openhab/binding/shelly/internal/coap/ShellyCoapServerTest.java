@@ -0,0 +1,149 @@
+/**
+ * Copyright (c) 2010-2020 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.binding.shelly.internal.coap;
+
+import static org.junit.Assert.*;
+import static org.openhab.binding.shelly.internal.coap.ShellyCoapJSonDTO.*;
+
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.UnknownHostException;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.eclipse.californium.core.coap.CoAP.Code;
+import org.eclipse.californium.core.coap.CoAP.Type;
+import org.eclipse.californium.core.coap.Option;
+import org.eclipse.californium.core.coap.Request;
+import org.eclipse.californium.core.coap.Response;
+import org.eclipse.californium.elements.AddressEndpointContext;
+import org.eclipse.jdt.annotation.NonNullByDefault;
+import org.eclipse.jdt.annotation.Nullable;
+import org.junit.Test;
+
+/**
+ * Tests the dispatching of CoIoT messages to the listener of the sending device.
+ *
+ * @author Markus Michels - Initial contribution
+ */
+@NonNullByDefault
+public class ShellyCoapServerTest {
+
+    private static final String DEVICE_IP_1 = "192.168.1.5";
+    private static final String DEVICE_IP_2 = "192.168.1.50";
+    private static final String DEV_ID_1 = "SHSW-1#A4CF12F3B2C1#1";
+    private static final String PAYLOAD = "{\"G\":[[0,112,0]]}";
+
+    private final ShellyCoapServer server = new ShellyCoapServer();
+
+    private static class TestListener implements ShellyCoapListener {
+        private final List<String> payloads = new ArrayList<>();
+
+        @Override
+        public void processResponse(@Nullable Response response) {
+            if (response != null) {
+                payloads.add(response.getPayloadString());
+            }
+        }
+    }
+
+    private static Request status(String peerIp, String devId, int serial, String payload)
+            throws UnknownHostException {
+        Request request = new Request(Code.CUSTOM_30, Type.NON);
+        InetSocketAddress peer = new InetSocketAddress(InetAddress.getByName(peerIp), COIOT_PORT);
+        request.setSourceContext(new AddressEndpointContext(peer));
+        if (!devId.isEmpty()) {
+            request.getOptions().addOption(new Option(COIOT_OPTION_GLOBAL_DEVID, devId));
+        }
+        if (serial != -1) {
+            request.getOptions().addOption(new Option(COIOT_OPTION_STATUS_SERIAL, serial));
+        }
+        request.setPayload(payload);
+        return request;
+    }
+
+    @Test
+    public void dispatchesByExactPeerAddress() throws UnknownHostException {
+        TestListener listener1 = new TestListener();
+        TestListener listener2 = new TestListener();
+        server.addListener(DEVICE_IP_1, listener1);
+        server.addListener(DEVICE_IP_2, listener2);
+
+        server.processRequest(status(DEVICE_IP_2, "", 1, PAYLOAD));
+        server.processRequest(status("192.168.1.99", "", 1, PAYLOAD));
+
+        assertTrue(listener1.payloads.isEmpty());
+        assertEquals(1, listener2.payloads.size());
+        assertEquals(PAYLOAD, listener2.payloads.get(0));
+    }
+
+    @Test
+    public void dispatchesByDevIdAfterAddressChange() throws UnknownHostException {
+        TestListener listener = new TestListener();
+        server.addListener(DEVICE_IP_1, listener);
+
+        // Unknown address and device id
+        server.processRequest(status("192.168.1.77", DEV_ID_1, 1, PAYLOAD));
+        assertTrue(listener.payloads.isEmpty());
+
+        // The device id is learned from a message of the registered address
+        server.processRequest(status(DEVICE_IP_1, DEV_ID_1, 2, PAYLOAD));
+        server.processRequest(status("192.168.1.77", DEV_ID_1, 3, PAYLOAD));
+        server.processRequest(status("192.168.1.78", "SHSW-1#A4CF12F3B2C2#1", 4, PAYLOAD));
+        assertEquals(2, listener.payloads.size());
+    }
+
+    @Test
+    public void rekeysDeviceRegisteredWithNewAddress() throws UnknownHostException {
+        TestListener listener = new TestListener();
+        server.addListener(DEVICE_IP_1, listener);
+        server.addListener(DEVICE_IP_2, listener);
+
+        server.processRequest(status(DEVICE_IP_1, "", 1, PAYLOAD));
+        assertTrue(listener.payloads.isEmpty());
+        server.processRequest(status(DEVICE_IP_2, "", 2, PAYLOAD));
+        assertEquals(1, listener.payloads.size());
+
+        server.stop(listener);
+        server.processRequest(status(DEVICE_IP_2, "", 3, PAYLOAD));
+        assertEquals(1, listener.payloads.size());
+    }
+
+    @Test
+    public void suppressesDuplicates() throws UnknownHostException {
+        TestListener listener = new TestListener();
+        server.addListener(DEVICE_IP_1, listener);
+
+        server.processRequest(status(DEVICE_IP_1, DEV_ID_1, 7, PAYLOAD));
+        server.processRequest(status(DEVICE_IP_1, DEV_ID_1, 7, PAYLOAD));
+        assertEquals(1, listener.payloads.size());
+
+        // Same serial, but new payload
+        server.processRequest(status(DEVICE_IP_1, DEV_ID_1, 7, "{\"G\":[[0,112,1]]}"));
+        assertEquals(2, listener.payloads.size());
+
+        // Responses to own requests are checked as well
+        Request request = status(DEVICE_IP_1, DEV_ID_1, 7, "{\"G\":[[0,112,1]]}");
+        server.processResponse(ShellyCoapServer.createResponse(request));
+        assertEquals(2, listener.payloads.size());
+
+        // Messages without serial are always dispatched
+        server.processRequest(status(DEVICE_IP_1, DEV_ID_1, -1, PAYLOAD));
+        server.processRequest(status(DEVICE_IP_1, DEV_ID_1, -1, PAYLOAD));
+        assertEquals(4, listener.payloads.size());
+
+        server.resetSerial(listener);
+        server.processRequest(status(DEVICE_IP_1, DEV_ID_1, 7, "{\"G\":[[0,112,1]]}"));
+        assertEquals(5, listener.payloads.size());
+    }
+}
@@ -0,0 +1,142 @@
+/**
+ * Copyright (c) 2010-2020 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.binding.shelly.internal.coap;
+
+import static org.junit.Assert.*;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+import org.junit.Before;
+import org.junit.Test;
+import org.openhab.binding.shelly.internal.coap.ShellyCoapJSonDTO.CoIotDevDescription;
+
+import com.google.gson.Gson;
+
+/**
+ * Tests the {@link ShellyCoapStatusDecoder} with device descriptions (/cit/d) and status updates (/cit/s) of a
+ * Shelly 1PM.
+ *
+ * @author Markus Michels - Initial contribution
+ */
+@NonNullByDefault
+public class ShellyCoapStatusDecoderTest {
+
+    private static final String DESCRIPTION = "{\"blk\":[{\"I\":0,\"D\":\"Relay0\"},{\"I\":1,\"D\":\"Device\"}],"
+            + "\"sen\":[{\"I\":111,\"T\":\"P\",\"R\":\"0/3500\",\"L\":0},{\"I\":112,\"T\":\"S\",\"R\":\"0/1\",\"L\":0},"
+            + "{\"I\":113,\"T\":\"T\",\"D\":\"deviceTemp\",\"R\":\"-40/300\",\"L\":1},"
+            + "{\"I\":115,\"T\":\"S\",\"D\":\"overtemp\",\"R\":\"0/1\",\"L\":1},"
+            + "{\"I\":118,\"T\":\"S\",\"R\":\"0/1\",\"L\":0}],"
+            + "\"act\":[{\"I\":211,\"D\":\"Switch\",\"L\":0,\"P\":[{\"I\":2011,\"D\":\"ToState\",\"R\":\"0/1\"}]}]}";
+    private static final String STATUS = "{\"G\":[[0,111,23.57],[0,112,1],[0,113,43.2],[0,115,0],[0,118,0]]}";
+
+    private @NonNullByDefault({}) ShellyCoapStatusDecoder decoder;
+
+    @Before
+    public void setUp() {
+        CoIotDevDescription description = new Gson().fromJson(DESCRIPTION, CoIotDevDescription.class);
+        decoder = new ShellyCoapStatusDecoder(description.sen);
+    }
+
+    @Test
+    public void decodesStatus() {
+        assertEquals(5, decoder.decode(STATUS));
+
+        assertTrue(decoder.isDefined(0));
+        assertEquals("111", decoder.getSensor(0).id);
+        assertEquals("p", decoder.getType(0));
+        assertEquals(23.57, decoder.getValue(0), 0);
+        assertEquals(1, decoder.getValue(1), 0);
+        assertEquals("devicetemp", decoder.getDesc(2));
+        assertEquals(43.2, decoder.getValue(2), 0);
+        assertEquals("", decoder.getDesc(4));
+        for (int i = 0; i < decoder.getCount(); i++) {
+            assertTrue(decoder.isChanged(i));
+        }
+    }
+
+    @Test
+    public void decodesFormattingVariants() {
+        assertEquals(0, decoder.decode("{}"));
+        assertEquals(0, decoder.decode(" { \"G\" : [ ] } "));
+        assertEquals(2, decoder.decode("{\"G\": [[0, 111, \"-1.5\"], [0, 113, 4.5e1]]}\n"));
+        assertEquals(-1.5, decoder.getValue(0), 0);
+        assertEquals(45, decoder.getValue(1), 0);
+    }
+
+    @Test
+    public void keepsUnknownIds() {
+        assertEquals(3, decoder.decode("{\"G\":[[0,9103,2],[0,112,1],[0,119,0]]}"));
+
+        assertFalse(decoder.isDefined(0));
+        assertEquals(2, decoder.getValue(0), 0);
+        assertTrue(decoder.isDefined(1));
+        assertEquals("112", decoder.getSensor(1).id);
+        assertFalse(decoder.isDefined(2));
+    }
+
+    @Test
+    public void reportsOnlyChangedValues() {
+        decoder.decode(STATUS);
+        assertEquals(5, decoder.decode("{\"G\":[[0,111,24.1],[0,112,1],[0,113,43.2],[0,115,0],[0,118,1]]}"));
+
+        assertTrue(decoder.isChanged(0));
+        assertFalse(decoder.isChanged(1));
+        assertFalse(decoder.isChanged(2));
+        assertFalse(decoder.isChanged(3));
+        assertTrue(decoder.isChanged(4));
+    }
+
+    @Test
+    public void republishesAllValuesAfterReset() {
+        decoder.decode(STATUS);
+        decoder.decode(STATUS);
+        for (int i = 0; i < decoder.getCount(); i++) {
+            assertFalse(decoder.isChanged(i));
+        }
+
+        decoder.reset();
+        decoder.decode(STATUS);
+        for (int i = 0; i < decoder.getCount(); i++) {
+            assertTrue(decoder.isChanged(i));
+        }
+    }
+
+    @Test
+    public void rejectsMalformedStatus() {
+        String[] payloads = { "", "[]", "{\"G\":[[0,112,1]]", "{\"G\":[[0,112,1]]}}", "{\"X\":[[0,112,1]]}",
+                "{\"G\":[[0,112]]}", "{\"G\":[[0,112,1],]}", "{\"G\":[[0,112,null]]}", "{\"G\":[[0,112,\"\"]]}",
+                "{\"G\":[[0,112,1.2.3]]}", "{\"G\":[[0,112,-]]}", "{\"G\":[[0,112,1]]} trailing", "{\"G" };
+        for (String payload : payloads) {
+            try {
+                decoder.decode(payload);
+                fail("Malformed payload accepted: " + payload);
+            } catch (IllegalArgumentException e) {
+                assertEquals(0, decoder.getCount());
+            }
+        }
+    }
+
+    @Test
+    public void keepsLastValuesOnMalformedStatus() {
+        decoder.decode(STATUS);
+        try {
+            decoder.decode("{\"G\":[[0,111,30.5],[0,112,0],[0,113,");
+            fail("Malformed payload accepted");
+        } catch (IllegalArgumentException e) {
+            // expected
+        }
+
+        decoder.decode("{\"G\":[[0,111,30.5],[0,112,1]]}");
+        assertTrue(decoder.isChanged(0));
+        assertFalse(decoder.isChanged(1));
+    }
+}
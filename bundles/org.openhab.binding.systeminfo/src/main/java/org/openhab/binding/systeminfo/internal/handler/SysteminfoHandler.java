@@ -237,6 +237,8 @@ public class SysteminfoHandler extends BaseThingHandler {
     }
 
     private void publishData(Set<ChannelUID> channels) {
+        // All channels of this refresh are served from the same sample
+        systeminfo.startRefresh();
         Iterator<ChannelUID> iter = channels.iterator();
         while (iter.hasNext()) {
             ChannelUID channeUID = iter.next();
@@ -513,6 +515,7 @@ public class SysteminfoHandler extends BaseThingHandler {
         if (thing.getStatus().equals(ThingStatus.ONLINE)) {
             if (command instanceof RefreshType) {
                 logger.debug("Refresh command received for channel {}!", channelUID);
+                systeminfo.startRefresh();
                 publishDataForChannel(channelUID);
             } else {
                 logger.debug("Unsupported command {}! Supported commands: REFRESH", command);
@@ -579,6 +582,7 @@ public class SysteminfoHandler extends BaseThingHandler {
         Object newValue = newConfig.get(parameter);
         logger.debug("Channel with UID {} has changed its {} from {} to {}", channel.getUID(), parameter, oldValue,
                 newValue);
+        systeminfo.startRefresh();
         publishDataForChannel(channel.getUID());
     }
 
@@ -13,6 +13,10 @@
 package org.openhab.binding.systeminfo.internal.model;
 
 import java.math.BigDecimal;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.Supplier;
 
 import org.apache.commons.lang.ArrayUtils;
 import org.eclipse.jdt.annotation.NonNullByDefault;
@@ -33,6 +37,7 @@ import oshi.hardware.HardwareAbstractionLayer;
 import oshi.hardware.NetworkIF;
 import oshi.hardware.PowerSource;
 import oshi.hardware.Sensors;
+import oshi.hardware.VirtualMemory;
 import oshi.software.os.OSFileStore;
 import oshi.software.os.OSProcess;
 import oshi.software.os.OperatingSystem;
@@ -75,6 +80,20 @@ public class OSHISysteminfo implements SysteminfoInterface {
 
     public static final int PRECISION_AFTER_DECIMAL_SIGN = 1;
 
+    /**
+     * Refreshes started within this time share their samples
+     */
+    static final long SAMPLE_SHARING_MILLIS = 1000;
+
+    /**
+     * Samples of the subsystems by sample generation, see {@link #startRefresh()}. A subsystem is only sampled if one of
+     * its channels is refreshed. Only the samples of the latest two generations are kept.
+     */
+    private final ConcurrentMap<Long, Map<String, Object>> samples = new ConcurrentHashMap<>();
+    private final ThreadLocal<@Nullable Long> refreshGeneration = new ThreadLocal<>();
+    private long latestGeneration;
+    private long latestGenerationStart;
+
     /**
      * Some of the methods used in this constructor execute native code and require execute permissions
      *
@@ -88,7 +107,11 @@ public class OSHISysteminfo implements SysteminfoInterface {
         logger.debug("OSHISysteminfo service starts initializing");
 
         SystemInfo systemInfo = new SystemInfo();
-        hal = systemInfo.getHardware();
+        initializeSysteminfo(systemInfo.getHardware(), systemInfo.getOperatingSystem());
+    }
+
+    void initializeSysteminfo(HardwareAbstractionLayer hal, OperatingSystem operatingSystem) {
+        this.hal = hal;
 
         // Doesn't need regular update, they may be queried repeatedly
         memory = hal.getMemory();
@@ -96,12 +119,88 @@ public class OSHISysteminfo implements SysteminfoInterface {
         sensors = hal.getSensors();
 
         computerSystem = hal.getComputerSystem();
-        operatingSystem = systemInfo.getOperatingSystem();
+        this.operatingSystem = operatingSystem;
         networks = hal.getNetworkIFs();
         displays = hal.getDisplays();
         fileStores = operatingSystem.getFileSystem().getFileStores();
         powerSources = hal.getPowerSources();
         drives = hal.getDiskStores();
+
+        samples.clear();
+    }
+
+    /**
+     * Binds the calling thread to a sample generation. Refreshes started within {@link #SAMPLE_SHARING_MILLIS} share
+     * the generation and its samples, e.g. the refreshes of several things. A later refresh starts a new generation
+     * and drops the samples older than the previous generation, including those of processes and devices which are no
+     * longer refreshed. A refresh still running keeps its generation when the next one starts, so it is not affected
+     * by the new refresh.
+     */
+    @Override
+    public void startRefresh() {
+        startRefresh(System.currentTimeMillis());
+    }
+
+    synchronized void startRefresh(long now) {
+        if (!samples.containsKey(latestGeneration) || now - latestGenerationStart >= SAMPLE_SHARING_MILLIS
+                || now < latestGenerationStart) {
+            latestGeneration++;
+            latestGenerationStart = now;
+            samples.put(latestGeneration, new ConcurrentHashMap<>());
+            samples.keySet().removeIf(generation -> generation < latestGeneration - 1);
+        }
+        refreshGeneration.set(latestGeneration);
+    }
+
+    /**
+     * Returns the sample with the given key. A new sample is only taken if the subsystem has not been sampled in the
+     * generation of the refresh, so all channels of one refresh share one sample.
+     *
+     * @param key the key of the sampled subsystem (and device)
+     * @param sampler takes a new sample
+     * @return the sample
+     */
+    @SuppressWarnings("unchecked")
+    private <T> T getSample(String key, Supplier<T> sampler) {
+        Long generation = refreshGeneration.get();
+        Map<String, Object> generationSamples = generation != null ? samples.get(generation) : null;
+        if (generationSamples == null) {
+            // Refresh not started by this thread, or its generation has been dropped meanwhile
+            startRefresh();
+            return getSample(key, sampler);
+        }
+        return (T) generationSamples.computeIfAbsent(key, k -> sampler.get());
+    }
+
+    /**
+     * Updates the attributes of a device, if they have not been updated for the current sample.
+     *
+     * @param key the key of the sampled device
+     * @param updater updates the attributes of the device
+     */
+    private void updateSample(String key, Runnable updater) {
+        getSample(key, () -> {
+            updater.run();
+            return Boolean.TRUE;
+        });
+    }
+
+    private OSFileStore getFileStore(int index) throws DeviceNotFoundException {
+        OSFileStore fileStore = (OSFileStore) getDevice(fileStores, index);
+        updateSample("storage" + index, fileStore::updateAtrributes);
+        return fileStore;
+    }
+
+    private NetworkIF getNetwork(int index) throws DeviceNotFoundException {
+        NetworkIF network = (NetworkIF) getDevice(networks, index);
+        updateSample("network" + index, network::updateAttributes);
+        return network;
+    }
+
+    private PowerSource getPowerSource(int index) throws DeviceNotFoundException {
+        PowerSource powerSource = (PowerSource) getDevice(powerSources, index);
+        updateSample("battery" + index, powerSource::updateAttributes);
+        return powerSource;
     }
 
     private Object getDevice(Object @Nullable [] devices, int index) throws DeviceNotFoundException {
@@ -112,7 +211,12 @@ public class OSHISysteminfo implements SysteminfoInterface {
     }
 
     private OSProcess getProcess(int pid) throws DeviceNotFoundException {
-        OSProcess process = operatingSystem.getProcess(pid);
+        // The sample is empty if the process doesn't exist
+        Object sample = getSample("process" + pid, () -> {
+            OSProcess process = operatingSystem.getProcess(pid);
+            return process != null ? process : Boolean.FALSE;
+        });
+        OSProcess process = sample instanceof OSProcess ? (OSProcess) sample : null;
         if (process == null) {
             throw new DeviceNotFoundException("Error while getting information for process with PID " + pid);
         }
@@ -172,22 +276,23 @@ public class OSHISysteminfo implements SysteminfoInterface {
 
     @Override
     public DecimalType getMemoryTotal() {
-        long totalMemory = memory.getTotal();
+        long totalMemory = getMemorySample()[0];
         totalMemory = getSizeInMB(totalMemory);
         return new DecimalType(totalMemory);
     }
 
     @Override
     public DecimalType getMemoryAvailable() {
-        long availableMemory = memory.getAvailable();
+        long availableMemory = getMemorySample()[1];
         availableMemory = getSizeInMB(availableMemory);
         return new DecimalType(availableMemory);
     }
 
     @Override
     public DecimalType getMemoryUsed() {
-        long totalMemory = memory.getTotal();
-        long availableMemory = memory.getAvailable();
+        long[] memorySample = getMemorySample();
+        long totalMemory = memorySample[0];
+        long availableMemory = memorySample[1];
         long usedMemory = totalMemory - availableMemory;
         usedMemory = getSizeInMB(usedMemory);
         return new DecimalType(usedMemory);
@@ -195,8 +300,7 @@ public class OSHISysteminfo implements SysteminfoInterface {
 
     @Override
     public DecimalType getStorageTotal(int index) throws DeviceNotFoundException {
-        OSFileStore fileStore = (OSFileStore) getDevice(fileStores, index);
-        fileStore.updateAtrributes();
+        OSFileStore fileStore = getFileStore(index);
         long totalSpace = fileStore.getTotalSpace();
         totalSpace = getSizeInMB(totalSpace);
         return new DecimalType(totalSpace);
@@ -204,8 +308,7 @@ public class OSHISysteminfo implements SysteminfoInterface {
 
     @Override
     public DecimalType getStorageAvailable(int index) throws DeviceNotFoundException {
-        OSFileStore fileStore = (OSFileStore) getDevice(fileStores, index);
-        fileStore.updateAtrributes();
+        OSFileStore fileStore = getFileStore(index);
         long freeSpace = fileStore.getUsableSpace();
         freeSpace = getSizeInMB(freeSpace);
         return new DecimalType(freeSpace);
@@ -213,8 +316,7 @@ public class OSHISysteminfo implements SysteminfoInterface {
 
     @Override
     public DecimalType getStorageUsed(int index) throws DeviceNotFoundException {
-        OSFileStore fileStore = (OSFileStore) getDevice(fileStores, index);
-        fileStore.updateAtrributes();
+        OSFileStore fileStore = getFileStore(index);
         long totalSpace = fileStore.getTotalSpace();
         long freeSpace = fileStore.getUsableSpace();
         long usedSpace = totalSpace - freeSpace;
@@ -224,8 +326,7 @@ public class OSHISysteminfo implements SysteminfoInterface {
 
     @Override
     public @Nullable DecimalType getStorageAvailablePercent(int deviceIndex) throws DeviceNotFoundException {
-        OSFileStore fileStore = (OSFileStore) getDevice(fileStores, deviceIndex);
-        fileStore.updateAtrributes();
+        OSFileStore fileStore = getFileStore(deviceIndex);
         long totalSpace = fileStore.getTotalSpace();
         long freeSpace = fileStore.getUsableSpace();
         if (totalSpace > 0) {
@@ -239,8 +340,7 @@ public class OSHISysteminfo implements SysteminfoInterface {
 
     @Override
     public @Nullable DecimalType getStorageUsedPercent(int deviceIndex) throws DeviceNotFoundException {
-        OSFileStore fileStore = (OSFileStore) getDevice(fileStores, deviceIndex);
-        fileStore.updateAtrributes();
+        OSFileStore fileStore = getFileStore(deviceIndex);
         long totalSpace = fileStore.getTotalSpace();
         long freeSpace = fileStore.getUsableSpace();
         long usedSpace = totalSpace - freeSpace;
@@ -253,6 +353,13 @@ public class OSHISysteminfo implements SysteminfoInterface {
         }
     }
 
+    /**
+     * Returns total and available memory of the current sample.
+     */
+    private long[] getMemorySample() {
+        return getSample("memory", () -> new long[] { memory.getTotal(), memory.getAvailable() });
+    }
+
     @Override
     public StringType getStorageName(int index) throws DeviceNotFoundException {
         OSFileStore fileStore = (OSFileStore) getDevice(fileStores, index);
@@ -276,8 +383,7 @@ public class OSHISysteminfo implements SysteminfoInterface {
 
     @Override
     public StringType getNetworkIp(int index) throws DeviceNotFoundException {
-        NetworkIF netInterface = (NetworkIF) getDevice(networks, index);
-        netInterface.updateAttributes();
+        NetworkIF netInterface = getNetwork(index);
         String[] ipAddresses = netInterface.getIPv4addr();
         String ipv4 = (String) getDevice(ipAddresses, 0);
         return new StringType(ipv4);
@@ -315,29 +421,28 @@ public class OSHISysteminfo implements SysteminfoInterface {
 
     @Override
     public @Nullable DecimalType getSensorsCpuTemperature() {
-        BigDecimal cpuTemp = new BigDecimal(sensors.getCpuTemperature());
+        BigDecimal cpuTemp = new BigDecimal(getSample("cpuTemperature", sensors::getCpuTemperature));
         cpuTemp = cpuTemp.setScale(PRECISION_AFTER_DECIMAL_SIGN, BigDecimal.ROUND_HALF_UP);
         return cpuTemp.signum() == 1 ? new DecimalType(cpuTemp) : null;
     }
 
     @Override
     public @Nullable DecimalType getSensorsCpuVoltage() {
-        BigDecimal cpuVoltage = new BigDecimal(sensors.getCpuVoltage());
+        BigDecimal cpuVoltage = new BigDecimal(getSample("cpuVoltage", sensors::getCpuVoltage));
         cpuVoltage = cpuVoltage.setScale(PRECISION_AFTER_DECIMAL_SIGN, BigDecimal.ROUND_HALF_UP);
         return cpuVoltage.signum() == 1 ? new DecimalType(cpuVoltage) : null;
     }
 
     @Override
     public @Nullable DecimalType getSensorsFanSpeed(int index) throws DeviceNotFoundException {
-        int[] fanSpeeds = sensors.getFanSpeeds();
+        int[] fanSpeeds = getSample("fanSpeeds", sensors::getFanSpeeds);
         int speed = (int) getDevice(ArrayUtils.toObject(fanSpeeds), index);
         return speed > 0 ? new DecimalType(speed) : null;
     }
 
     @Override
     public @Nullable DecimalType getBatteryRemainingTime(int index) throws DeviceNotFoundException {
-        PowerSource powerSource = (PowerSource) getDevice(powerSources, index);
-        powerSource.updateAttributes();
+        PowerSource powerSource = getPowerSource(index);
         double remainingTimeInSeconds = powerSource.getTimeRemainingEstimated();
         // The getTimeRemaining() method returns (-1.0) if is calculating or (-2.0) if the time is unlimited.
         BigDecimal remainingTime = getTimeInMinutes(remainingTimeInSeconds);
@@ -346,8 +451,7 @@ public class OSHISysteminfo implements SysteminfoInterface {
 
     @Override
     public DecimalType getBatteryRemainingCapacity(int index) throws DeviceNotFoundException {
-        PowerSource powerSource = (PowerSource) getDevice(powerSources, index);
-        powerSource.updateAttributes();
+        PowerSource powerSource = getPowerSource(index);
         double remainingCapacity = powerSource.getRemainingCapacityPercent();
         BigDecimal remainingCapacityPercents = getPercentsValue(remainingCapacity);
         return new DecimalType(remainingCapacityPercents);
@@ -362,8 +466,9 @@ public class OSHISysteminfo implements SysteminfoInterface {
 
     @Override
     public @Nullable DecimalType getMemoryAvailablePercent() {
-        long availableMemory = memory.getAvailable();
-        long totalMemory = memory.getTotal();
+        long[] memorySample = getMemorySample();
+        long totalMemory = memorySample[0];
+        long availableMemory = memorySample[1];
         if (totalMemory > 0) {
             double freePercentDecimal = (double) availableMemory / (double) totalMemory;
             BigDecimal freePercent = getPercentsValue(freePercentDecimal);
@@ -375,8 +480,9 @@ public class OSHISysteminfo implements SysteminfoInterface {
 
     @Override
     public @Nullable DecimalType getMemoryUsedPercent() {
-        long availableMemory = memory.getAvailable();
-        long totalMemory = memory.getTotal();
+        long[] memorySample = getMemorySample();
+        long totalMemory = memorySample[0];
+        long availableMemory = memorySample[1];
         long usedMemory = totalMemory - availableMemory;
         if (totalMemory > 0) {
             double usedPercentDecimal = (double) usedMemory / (double) totalMemory;
@@ -410,15 +516,16 @@ public class OSHISysteminfo implements SysteminfoInterface {
 
     @Override
     public @Nullable DecimalType getSwapTotal() {
-        long swapTotal = memory.getVirtualMemory().getSwapTotal();
+        long swapTotal = getSwapSample()[0];
         swapTotal = getSizeInMB(swapTotal);
         return new DecimalType(swapTotal);
     }
 
     @Override
     public @Nullable DecimalType getSwapAvailable() {
-        long swapTotal = memory.getVirtualMemory().getSwapTotal();
-        long swapUsed = memory.getVirtualMemory().getSwapUsed();
+        long[] swapSample = getSwapSample();
+        long swapTotal = swapSample[0];
+        long swapUsed = swapSample[1];
         long swapAvailable = swapTotal - swapUsed;
         swapAvailable = getSizeInMB(swapAvailable);
         return new DecimalType(swapAvailable);
@@ -426,15 +533,16 @@ public class OSHISysteminfo implements SysteminfoInterface {
 
     @Override
     public @Nullable DecimalType getSwapUsed() {
-        long swapUsed = memory.getVirtualMemory().getSwapUsed();
+        long swapUsed = getSwapSample()[1];
         swapUsed = getSizeInMB(swapUsed);
         return new DecimalType(swapUsed);
     }
 
     @Override
     public @Nullable DecimalType getSwapAvailablePercent() {
-        long swapTotal = memory.getVirtualMemory().getSwapTotal();
-        long swapUsed = memory.getVirtualMemory().getSwapUsed();
+        long[] swapSample = getSwapSample();
+        long swapTotal = swapSample[0];
+        long swapUsed = swapSample[1];
         long swapAvailable = swapTotal - swapUsed;
         if (swapTotal > 0) {
             double swapAvailablePercentDecimal = (double) swapAvailable / (double) swapTotal;
@@ -447,8 +555,9 @@ public class OSHISysteminfo implements SysteminfoInterface {
 
     @Override
     public @Nullable DecimalType getSwapUsedPercent() {
-        long swapTotal = memory.getVirtualMemory().getSwapTotal();
-        long swapUsed = memory.getVirtualMemory().getSwapUsed();
+        long[] swapSample = getSwapSample();
+        long swapTotal = swapSample[0];
+        long swapUsed = swapSample[1];
         if (swapTotal > 0) {
             double swapUsedPercentDecimal = (double) swapUsed / (double) swapTotal;
             BigDecimal swapUsedPercent = getPercentsValue(swapUsedPercentDecimal);
@@ -458,6 +567,16 @@ public class OSHISysteminfo implements SysteminfoInterface {
         }
     }
 
+    /**
+     * Returns total and used swap of the current sample.
+     */
+    private long[] getSwapSample() {
+        return getSample("swap", () -> {
+            VirtualMemory virtualMemory = memory.getVirtualMemory();
+            return new long[] { virtualMemory.getSwapTotal(), virtualMemory.getSwapUsed() };
+        });
+    }
+
     private long getSizeInMB(long sizeInBytes) {
         return Math.round(sizeInBytes / (1024D * 1024));
     }
@@ -523,7 +642,8 @@ public class OSHISysteminfo implements SysteminfoInterface {
             default:
                 index = 2;
         }
-        double processorLoads[] = cpu.getSystemLoadAverage(index + 1);
+        // All averages are sampled at once
+        double processorLoads[] = getSample("load", () -> cpu.getSystemLoadAverage(3));
         BigDecimal result = new BigDecimal(processorLoads[index]);
         result = result.setScale(PRECISION_AFTER_DECIMAL_SIGN, BigDecimal.ROUND_HALF_UP);
         return result;
@@ -550,32 +670,28 @@ public class OSHISysteminfo implements SysteminfoInterface {
 
     @Override
     public DecimalType getNetworkPacketsReceived(int networkIndex) throws DeviceNotFoundException {
-        NetworkIF network = (NetworkIF) getDevice(networks, networkIndex);
-        network.updateAttributes();
+        NetworkIF network = getNetwork(networkIndex);
         long packRecv = network.getPacketsRecv();
         return new DecimalType(packRecv);
     }
 
     @Override
     public DecimalType getNetworkPacketsSent(int networkIndex) throws DeviceNotFoundException {
-        NetworkIF network = (NetworkIF) getDevice(networks, networkIndex);
-        network.updateAttributes();
+        NetworkIF network = getNetwork(networkIndex);
         long packSent = network.getPacketsSent();
         return new DecimalType(packSent);
     }
 
     @Override
     public DecimalType getNetworkDataSent(int networkIndex) throws DeviceNotFoundException {
-        NetworkIF network = (NetworkIF) getDevice(networks, networkIndex);
-        network.updateAttributes();
+        NetworkIF network = getNetwork(networkIndex);
         long bytesSent = network.getBytesSent();
         return new DecimalType(getSizeInMB(bytesSent));
     }
 
     @Override
     public DecimalType getNetworkDataReceived(int networkIndex) throws DeviceNotFoundException {
-        NetworkIF network = (NetworkIF) getDevice(networks, networkIndex);
-        network.updateAttributes();
+        NetworkIF network = getNetwork(networkIndex);
         long bytesRecv = network.getBytesRecv();
         return new DecimalType(getSizeInMB(bytesRecv));
     }
@@ -31,6 +31,13 @@ public interface SysteminfoInterface {
      */
     public void initializeSysteminfo();
 
+    /**
+     * Start a refresh of channels in the calling thread. The information of a subsystem is read at most once per
+     * refresh, so all channels refreshed afterwards by this thread are consistent, until it starts the next refresh.
+     * Refreshes started at about the same time, e.g. by several things, may share the information.
+     */
+    public void startRefresh();
+
     // Operating system info
     /**
      * Get the Family of the operating system /e.g. Windows,Unix,.../
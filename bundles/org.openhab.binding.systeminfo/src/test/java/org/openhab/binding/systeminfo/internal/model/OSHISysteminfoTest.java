@@ -0,0 +1,215 @@
+/**
+ * Copyright (c) 2010-2020 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.binding.systeminfo.internal.model;
+
+import static org.junit.Assert.*;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.*;
+import static org.mockito.MockitoAnnotations.initMocks;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+import org.eclipse.smarthome.core.library.types.DecimalType;
+import org.eclipse.smarthome.core.library.types.StringType;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.Mock;
+
+import oshi.hardware.CentralProcessor;
+import oshi.hardware.Display;
+import oshi.hardware.GlobalMemory;
+import oshi.hardware.HWDiskStore;
+import oshi.hardware.HardwareAbstractionLayer;
+import oshi.hardware.NetworkIF;
+import oshi.hardware.PowerSource;
+import oshi.hardware.Sensors;
+import oshi.hardware.VirtualMemory;
+import oshi.software.os.FileSystem;
+import oshi.software.os.OSFileStore;
+import oshi.software.os.OSProcess;
+import oshi.software.os.OperatingSystem;
+
+/**
+ * Tests that {@link OSHISysteminfo} reads each OSHI subsystem at most once per refresh, and shares the samples between
+ * refreshes started together.
+ *
+ * @author Svilen Valkanov - Initial contribution
+ */
+@NonNullByDefault
+public class OSHISysteminfoTest {
+
+    private static final int PID = 4711;
+    private static final long NEXT_REFRESH = OSHISysteminfo.SAMPLE_SHARING_MILLIS;
+
+    private @Mock @NonNullByDefault({}) HardwareAbstractionLayer hal;
+    private @Mock @NonNullByDefault({}) OperatingSystem operatingSystem;
+    private @Mock @NonNullByDefault({}) FileSystem fileSystem;
+    private @Mock @NonNullByDefault({}) CentralProcessor cpu;
+    private @Mock @NonNullByDefault({}) GlobalMemory memory;
+    private @Mock @NonNullByDefault({}) VirtualMemory virtualMemory;
+    private @Mock @NonNullByDefault({}) Sensors sensors;
+    private @Mock @NonNullByDefault({}) OSFileStore fileStore;
+    private @Mock @NonNullByDefault({}) NetworkIF network;
+    private @Mock @NonNullByDefault({}) PowerSource powerSource;
+    private @Mock @NonNullByDefault({}) OSProcess process;
+
+    private final OSHISysteminfo systeminfo = new OSHISysteminfo();
+
+    @Before
+    public void setUp() {
+        initMocks(this);
+
+        when(hal.getProcessor()).thenReturn(cpu);
+        when(hal.getMemory()).thenReturn(memory);
+        when(hal.getSensors()).thenReturn(sensors);
+        when(memory.getVirtualMemory()).thenReturn(virtualMemory);
+        when(hal.getNetworkIFs()).thenReturn(new NetworkIF[] { network });
+        when(hal.getDisplays()).thenReturn(new Display[0]);
+        when(hal.getPowerSources()).thenReturn(new PowerSource[] { powerSource });
+        when(hal.getDiskStores()).thenReturn(new HWDiskStore[0]);
+        when(operatingSystem.getFileSystem()).thenReturn(fileSystem);
+        when(fileSystem.getFileStores()).thenReturn(new OSFileStore[] { fileStore });
+
+        when(cpu.getSystemLoadAverage(3)).thenReturn(new double[] { 0.5, 0.4, 0.3 });
+        when(memory.getTotal()).thenReturn(4096L * 1024 * 1024);
+        when(memory.getAvailable()).thenReturn(1024L * 1024 * 1024);
+        when(virtualMemory.getSwapTotal()).thenReturn(2048L * 1024 * 1024);
+        when(virtualMemory.getSwapUsed()).thenReturn(512L * 1024 * 1024);
+        when(sensors.getCpuTemperature()).thenReturn(45.0);
+        when(sensors.getFanSpeeds()).thenReturn(new int[] { 1200 });
+        when(fileStore.getTotalSpace()).thenReturn(2000000000L);
+        when(fileStore.getUsableSpace()).thenReturn(500000000L);
+        when(operatingSystem.getProcess(PID)).thenReturn(process);
+        when(process.getName()).thenReturn("java");
+        when(process.getThreadCount()).thenReturn(42);
+
+        systeminfo.initializeSysteminfo(hal, operatingSystem);
+    }
+
+    private void refreshAllChannels(long now) throws DeviceNotFoundException {
+        systeminfo.startRefresh(now);
+        systeminfo.getStorageTotal(0);
+        systeminfo.getStorageAvailable(0);
+        systeminfo.getStorageUsedPercent(0);
+        systeminfo.getNetworkDataSent(0);
+        systeminfo.getNetworkPacketsReceived(0);
+        systeminfo.getBatteryRemainingCapacity(0);
+        systeminfo.getBatteryRemainingTime(0);
+        systeminfo.getCpuLoad1();
+        systeminfo.getCpuLoad5();
+        systeminfo.getCpuLoad15();
+        systeminfo.getProcessName(PID);
+        systeminfo.getProcessThreads(PID);
+        systeminfo.getProcessMemoryUsage(PID);
+        systeminfo.getMemoryUsed();
+        systeminfo.getMemoryAvailablePercent();
+        systeminfo.getSwapUsed();
+        systeminfo.getSwapAvailablePercent();
+        systeminfo.getSensorsCpuTemperature();
+        systeminfo.getSensorsFanSpeed(0);
+    }
+
+    private void verifySamples(int count) {
+        verify(fileStore, times(count)).updateAtrributes();
+        verify(network, times(count)).updateAttributes();
+        verify(powerSource, times(count)).updateAttributes();
+        verify(cpu, times(count)).getSystemLoadAverage(3);
+        verify(operatingSystem, times(count)).getProcess(PID);
+        verify(memory, times(count)).getAvailable();
+        verify(memory, times(count)).getVirtualMemory();
+        verify(sensors, times(count)).getCpuTemperature();
+        verify(sensors, times(count)).getFanSpeeds();
+    }
+
+    @Test
+    public void readsEachSubsystemOncePerRefresh() throws DeviceNotFoundException {
+        refreshAllChannels(0);
+        verifySamples(1);
+
+        refreshAllChannels(NEXT_REFRESH);
+        verifySamples(2);
+    }
+
+    @Test
+    public void sharesSamplesOfRefreshesStartedTogether() throws DeviceNotFoundException {
+        refreshAllChannels(0);
+        refreshAllChannels(NEXT_REFRESH / 2);
+        verifySamples(1);
+    }
+
+    @Test
+    public void runningRefreshKeepsItsSamples() throws DeviceNotFoundException, InterruptedException {
+        systeminfo.startRefresh(0);
+        systeminfo.getCpuLoad1();
+
+        // Another thing starts the next refresh meanwhile
+        Thread other = new Thread(() -> {
+            systeminfo.startRefresh(NEXT_REFRESH);
+            systeminfo.getCpuLoad1();
+        });
+        other.start();
+        other.join();
+        verify(cpu, times(2)).getSystemLoadAverage(3);
+
+        systeminfo.getCpuLoad15();
+        verify(cpu, times(2)).getSystemLoadAverage(3);
+    }
+
+    @Test
+    public void returnsValuesOfMemoryAndSensorSamples() throws DeviceNotFoundException {
+        systeminfo.startRefresh(0);
+
+        assertEquals(new DecimalType(3072), systeminfo.getMemoryUsed());
+        assertEquals(new DecimalType(25), systeminfo.getMemoryAvailablePercent());
+        assertEquals(new DecimalType(1536), systeminfo.getSwapAvailable());
+        assertEquals(new DecimalType(25), systeminfo.getSwapUsedPercent());
+        assertEquals(new DecimalType("45.0"), systeminfo.getSensorsCpuTemperature());
+        assertEquals(new DecimalType(1200), systeminfo.getSensorsFanSpeed(0));
+    }
+
+    @Test
+    public void returnsValuesOfSample() throws DeviceNotFoundException {
+        systeminfo.startRefresh(0);
+
+        assertEquals(new DecimalType("0.5"), systeminfo.getCpuLoad1());
+        assertEquals(new DecimalType("0.3"), systeminfo.getCpuLoad15());
+        assertEquals(new StringType("java"), systeminfo.getProcessName(PID));
+        assertEquals(new DecimalType(42), systeminfo.getProcessThreads(PID));
+        assertEquals(new DecimalType(75), systeminfo.getStorageUsedPercent(0));
+    }
+
+    @Test
+    public void doesNotReadUnrefreshedSubsystems() throws DeviceNotFoundException {
+        systeminfo.startRefresh(0);
+        systeminfo.getCpuLoad1();
+
+        verify(cpu).getSystemLoadAverage(3);
+        verify(fileStore, never()).updateAtrributes();
+        verify(network, never()).updateAttributes();
+        verify(powerSource, never()).updateAttributes();
+        verify(operatingSystem, never()).getProcess(anyInt());
+    }
+
+    @Test
+    public void readsMissingProcessOncePerRefresh() {
+        systeminfo.startRefresh(0);
+        for (int i = 0; i < 2; i++) {
+            try {
+                systeminfo.getProcessName(PID + 1);
+                fail("Missing process found");
+            } catch (DeviceNotFoundException e) {
+                // expected
+            }
+        }
+        verify(operatingSystem).getProcess(PID + 1);
+    }
+}
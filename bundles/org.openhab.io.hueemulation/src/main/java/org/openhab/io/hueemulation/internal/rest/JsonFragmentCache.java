@@ -0,0 +1,145 @@
+/**
+ * Copyright (c) 2010-2020 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.io.hueemulation.internal.rest;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.BiFunction;
+
+import javax.ws.rs.core.EntityTag;
+import javax.ws.rs.core.Request;
+import javax.ws.rs.core.Response;
+import javax.ws.rs.core.Response.ResponseBuilder;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+
+import com.google.gson.Gson;
+
+/**
+ * Caches the serialized JSON of Hue API entries, like lights and groups.
+ * <p>
+ * Each entry is serialized once and kept until it is invalidated by its key, for example because the state of the
+ * associated item has changed. Documents of all entries are assembled from the cached fragments. Their entity tag is
+ * computed from the fragments as well, so a client which already has the current document is answered without
+ * assembling it.
+ *
+ * @author David Graeff - Initial contribution
+ */
+@NonNullByDefault
+class JsonFragmentCache<T> {
+    private static class Fragment<T> {
+        private final T entry;
+        private final String json;
+
+        private Fragment(T entry, String json) {
+            this.entry = entry;
+            this.json = json;
+        }
+    }
+
+    private final Gson gson;
+    private final BiFunction<String, T, String> keyFunction;
+    private final Map<String, Fragment<T>> fragments = new ConcurrentHashMap<>();
+    // Incremented on each invalidation, to not cache fragments serialized before an invalidation
+    private final AtomicLong generation = new AtomicLong();
+
+    /**
+     * Create a cache.
+     *
+     * @param gson The gson instance to serialize entries with
+     * @param keyFunction Determines the cache key of an entry from its Hue ID and the entry
+     */
+    JsonFragmentCache(Gson gson, BiFunction<String, T, String> keyFunction) {
+        this.gson = gson;
+        this.keyFunction = keyFunction;
+    }
+
+    /**
+     * Returns the JSON of an entry, serializing it if it is not cached.
+     *
+     * @param id The Hue ID of the entry
+     * @param entry The entry
+     */
+    String toJson(String id, T entry) {
+        String key = keyFunction.apply(id, entry);
+        Fragment<T> fragment = fragments.get(key);
+        // Entries may be replaced without invalidation, the fragment must belong to this entry instance
+        if (fragment != null && fragment.entry == entry) {
+            return fragment.json;
+        }
+        long generation = this.generation.get();
+        fragment = new Fragment<>(entry, gson.toJson(entry));
+        fragments.put(key, fragment);
+        if (this.generation.get() != generation) {
+            fragments.remove(key, fragment);
+        }
+        return fragment.json;
+    }
+
+    /**
+     * Returns a response with the JSON object of all given entries, or "304 Not Modified" if the request
+     * preconditions show that the client already has the document.
+     *
+     * @param request The request, to evaluate If-None-Match
+     * @param entries The entries by Hue ID
+     */
+    Response toResponse(Request request, Map<String, T> entries) {
+        List<String> ids = new ArrayList<>(entries.size());
+        List<String> jsons = new ArrayList<>(entries.size());
+        int hash = 1;
+        for (Map.Entry<String, T> entry : entries.entrySet()) {
+            String json = toJson(entry.getKey(), entry.getValue());
+            ids.add(entry.getKey());
+            jsons.add(json);
+            // String hashes are cached in the String instances, this is cheap for cached fragments
+            hash = 31 * (31 * hash + entry.getKey().hashCode()) + json.hashCode();
+        }
+        EntityTag tag = new EntityTag(Integer.toHexString(hash) + "-" + Integer.toHexString(ids.size()));
+        ResponseBuilder notModified = request.evaluatePreconditions(tag);
+        if (notModified != null) {
+            return notModified.build();
+        }
+
+        StringBuilder document = new StringBuilder();
+        document.append('{');
+        for (int i = 0; i < ids.size(); i++) {
+            if (i > 0) {
+                document.append(',');
+            }
+            document.append(gson.toJson(ids.get(i))).append(':').append(jsons.get(i));
+        }
+        document.append('}');
+        return Response.ok(document.toString()).tag(tag).build();
+    }
+
+    /**
+     * Drop the cached JSON of an entry.
+     *
+     * @param key The cache key of the entry
+     */
+    void invalidate(String key) {
+        generation.incrementAndGet();
+        fragments.remove(key);
+    }
+
+    /**
+     * Drop all cached JSON.
+     */
+    void invalidateAll() {
+        generation.incrementAndGet();
+        fragments.clear();
+    }
+}
@@ -27,6 +27,7 @@ import javax.ws.rs.PathParam;
 import javax.ws.rs.Produces;
 import javax.ws.rs.core.Context;
 import javax.ws.rs.core.MediaType;
+import javax.ws.rs.core.Request;
 import javax.ws.rs.core.Response;
 import javax.ws.rs.core.UriInfo;
 
@@ -57,6 +58,9 @@ import org.osgi.service.component.annotations.Deactivate;
 import org.osgi.service.component.annotations.Reference;
 import org.osgi.service.component.annotations.ReferenceCardinality;
 import org.osgi.service.component.annotations.ReferencePolicy;
+import org.osgi.service.event.Event;
+import org.osgi.service.event.EventConstants;
+import org.osgi.service.event.EventHandler;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -88,16 +92,22 @@ import io.swagger.annotations.ApiResponses;
  * </p>
  *
  * <p>
+ * The JSON of lights and groups is cached per entry in a {@link JsonFragmentCache}. A light is serialized again after
+ * a state change of its item, which is received as OSGi event, or after a change through this API or the item
+ * registry. Responses with all lights or groups carry an entity tag, so polling clients get a "304 Not Modified" as
+ * long as nothing has changed.
  * </p>
  *
  * @author David Graeff - Initial contribution
  * @author Florian Schmidt - Removed base type restriction from Group items
  */
-@Component(immediate = false, service = { LightsAndGroups.class }, property = "com.eclipsesource.jaxrs.publish=false")
+@Component(immediate = false, service = { LightsAndGroups.class, EventHandler.class }, property = {
+        "com.eclipsesource.jaxrs.publish=false", EventConstants.EVENT_TOPIC + "=smarthome",
+        EventConstants.EVENT_FILTER + "=(|(type=ItemStateChangedEvent)(type=GroupItemStateChangedEvent))" })
 @NonNullByDefault
 @Path("")
 @Produces(MediaType.APPLICATION_JSON)
-public class LightsAndGroups implements RegistryChangeListener<Item> {
+public class LightsAndGroups implements RegistryChangeListener<Item>, EventHandler {
     public static final String EXPOSE_AS_DEVICE_TAG = "huelight";
     private final Logger logger = LoggerFactory.getLogger(LightsAndGroups.class);
     private static final String ITEM_TYPE_GROUP = "Group";
@@ -113,11 +123,17 @@ public class LightsAndGroups implements RegistryChangeListener<Item> {
     @Reference(policy = ReferencePolicy.DYNAMIC, cardinality = ReferenceCardinality.OPTIONAL)
     protected volatile @Nullable EventPublisher eventPublisher;
 
+    // Lights are cached by item name, as item events refer to them by name. Groups are cached by hue ID.
+    private @NonNullByDefault({}) JsonFragmentCache<HueLightEntry> lightsCache;
+    private @NonNullByDefault({}) JsonFragmentCache<HueGroupEntry> groupsCache;
+
     /**
      * Registers to the {@link ItemRegistry} and enumerates currently existing items.
      */
     @Activate
     protected void activate() {
+        lightsCache = new JsonFragmentCache<>(cs.gson, (id, light) -> light.item.getName());
+        groupsCache = new JsonFragmentCache<>(cs.gson, (id, group) -> id);
         cs.ds.resetGroupsAndLights();
 
         itemRegistry.removeRegistryChangeListener(this);
@@ -136,8 +152,29 @@ public class LightsAndGroups implements RegistryChangeListener<Item> {
         itemRegistry.removeRegistryChangeListener(this);
     }
 
+    /**
+     * Invalidates the cached JSON of a light, if the state of its item has changed.
+     * The ESH event topic is "smarthome/items/{itemName}/statechanged" or
+     * "smarthome/items/{groupName}/{memberName}/statechanged".
+     */
+    @Override
+    public void handleEvent(@Nullable Event event) {
+        if (event == null) {
+            return;
+        }
+        Object topic = event.getProperty("topic");
+        if (!(topic instanceof String)) {
+            return;
+        }
+        String[] segments = ((String) topic).split("/");
+        if (segments.length > 2) {
+            lightsCache.invalidate(segments[2]);
+        }
+    }
+
     @Override
     public synchronized void added(Item newElement) {
+        invalidate(newElement);
         if (!(newElement instanceof GenericItem)) {
             return;
         }
@@ -188,10 +225,21 @@ public class LightsAndGroups implements RegistryChangeListener<Item> {
     private void updateGroup0() {
         cs.ds.groups.get("0").lights = cs.ds.lights.keySet().stream().map(v -> String.valueOf(v))
                 .collect(Collectors.toList());
+        groupsCache.invalidate("0");
+    }
+
+    /**
+     * Invalidates the cached JSON of an item, and of all groups, because the group memberships of the item
+     * might have changed.
+     */
+    private void invalidate(Item item) {
+        lightsCache.invalidate(item.getName());
+        groupsCache.invalidateAll();
     }
 
     @Override
     public synchronized void removed(Item element) {
+        invalidate(element);
         String hueID = cs.mapItemUIDtoHueID(element);
         logger.debug("Remove item {}", hueID);
         cs.ds.lights.remove(hueID);
@@ -205,6 +253,7 @@ public class LightsAndGroups implements RegistryChangeListener<Item> {
     @SuppressWarnings({ "null", "unused" })
     @Override
     public synchronized void updated(Item oldElement, Item newElement) {
+        invalidate(newElement);
         if (!(newElement instanceof GenericItem)) {
             return;
         }
@@ -243,12 +292,12 @@ public class LightsAndGroups implements RegistryChangeListener<Item> {
     @Path("{username}/lights")
     @ApiOperation(value = "Return all lights")
     @ApiResponses(value = { @ApiResponse(code = 200, message = "OK") })
-    public Response getAllLightsApi(@Context UriInfo uri,
+    public Response getAllLightsApi(@Context UriInfo uri, @Context Request request,
             @PathParam("username") @ApiParam(value = "username") String username) {
         if (!userManagement.authorizeUser(username)) {
             return NetworkUtils.singleError(cs.gson, uri, HueResponse.UNAUTHORIZED, "Not Authorized");
         }
-        return Response.ok(cs.gson.toJson(cs.ds.lights)).build();
+        return lightsCache.toResponse(request, cs.ds.lights);
     }
 
     @GET
@@ -285,7 +334,11 @@ public class LightsAndGroups implements RegistryChangeListener<Item> {
         if (!userManagement.authorizeUser(username)) {
             return NetworkUtils.singleError(cs.gson, uri, HueResponse.UNAUTHORIZED, "Not Authorized");
         }
-        return Response.ok(cs.gson.toJson(cs.ds.lights.get(id))).build();
+        HueLightEntry hueDevice = cs.ds.lights.get(id);
+        if (hueDevice == null) {
+            return Response.ok(cs.gson.toJson(null)).build();
+        }
+        return Response.ok(lightsCache.toJson(id, hueDevice)).build();
     }
 
     @SuppressWarnings({ "null", "unused" })
@@ -382,6 +435,7 @@ public class LightsAndGroups implements RegistryChangeListener<Item> {
             }
             hueDevice.lastCommand = command;
             hueDevice.lastHueChange = newState;
+            lightsCache.invalidate(hueDevice.item.getName());
         }
 
         return Response.ok(cs.gson.toJson(responses, new TypeToken<List<?>>() {
@@ -413,6 +467,7 @@ public class LightsAndGroups implements RegistryChangeListener<Item> {
 
         // First synchronize the internal state information with the framework
         hueDevice.action = StateUtils.colorStateFromItemState(groupItem.getState(), hueDevice.deviceType);
+        groupsCache.invalidate(id);
 
         List<HueResponse> responses = new ArrayList<>();
         Command command = StateUtils.computeCommandByState(responses, "/groups/" + id + "/state/", hueDevice.action,
@@ -438,12 +493,12 @@ public class LightsAndGroups implements RegistryChangeListener<Item> {
     @Path("{username}/groups")
     @ApiOperation(value = "Return all groups")
     @ApiResponses(value = { @ApiResponse(code = 200, message = "OK") })
-    public Response getAllGroupsApi(@Context UriInfo uri,
+    public Response getAllGroupsApi(@Context UriInfo uri, @Context Request request,
             @PathParam("username") @ApiParam(value = "username") String username) {
         if (!userManagement.authorizeUser(username)) {
             return NetworkUtils.singleError(cs.gson, uri, HueResponse.UNAUTHORIZED, "Not Authorized");
         }
-        return Response.ok(cs.gson.toJson(cs.ds.groups)).build();
+        return groupsCache.toResponse(request, cs.ds.groups);
     }
 
     @GET
@@ -456,7 +511,11 @@ public class LightsAndGroups implements RegistryChangeListener<Item> {
         if (!userManagement.authorizeUser(username)) {
             return NetworkUtils.singleError(cs.gson, uri, HueResponse.UNAUTHORIZED, "Not Authorized");
         }
-        return Response.ok(cs.gson.toJson(cs.ds.groups.get(id))).build();
+        HueGroupEntry group = cs.ds.groups.get(id);
+        if (group == null) {
+            return Response.ok(cs.gson.toJson(null)).build();
+        }
+        return Response.ok(groupsCache.toJson(id, group)).build();
     }
 
     @SuppressWarnings({ "null", "unused" })
@@ -18,8 +18,11 @@ import static org.mockito.ArgumentMatchers.argThat;
 import static org.mockito.Mockito.verify;
 
 import java.io.IOException;
+import java.util.Collections;
 
 import javax.ws.rs.client.Entity;
+import javax.ws.rs.core.EntityTag;
+import javax.ws.rs.core.HttpHeaders;
 import javax.ws.rs.core.Response;
 
 import org.eclipse.jdt.annotation.NonNullByDefault;
@@ -334,6 +337,30 @@ public class LightsAndGroupsTests {
         assertThat(body, containsString("color"));
     }
 
+    @Test
+    public void allLightsNotModifiedUntilItemStateChanged() {
+        Response response = commonSetup.client.target(commonSetup.basePath + "/testuser/lights").request().get();
+        assertEquals(200, response.getStatus());
+        EntityTag tag = response.getEntityTag();
+        assertThat(tag, is(notNullValue()));
+        String body = response.readEntity(String.class);
+
+        response = commonSetup.client.target(commonSetup.basePath + "/testuser/lights").request()
+                .header(HttpHeaders.IF_NONE_MATCH, tag).get();
+        assertEquals(304, response.getStatus());
+
+        // The state change of an item is announced by an event
+        cs.ds.lights.get("1").item.setState(OnOffType.ON);
+        subject.handleEvent(new org.osgi.service.event.Event("smarthome",
+                Collections.singletonMap("topic", "smarthome/items/switch/statechanged")));
+
+        response = commonSetup.client.target(commonSetup.basePath + "/testuser/lights").request()
+                .header(HttpHeaders.IF_NONE_MATCH, tag).get();
+        assertEquals(200, response.getStatus());
+        assertThat(response.getEntityTag(), is(not(tag)));
+        assertThat(response.readEntity(String.class), is(not(body)));
+    }
+
     private boolean assertHueValue(ItemCommandEvent ce, int hueValue) {
         assertThat(((HSBType) ce.getItemCommand()).getHue().intValue(), is(hueValue * 360 / HueStateColorBulb.MAX_HUE));
         return true;
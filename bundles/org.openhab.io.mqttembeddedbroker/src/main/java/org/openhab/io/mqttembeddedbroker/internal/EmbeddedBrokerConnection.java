@@ -0,0 +1,369 @@
+/**
+ * Copyright (c) 2010-2020 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.io.mqttembeddedbroker.internal;
+
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArraySet;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+import org.eclipse.jdt.annotation.Nullable;
+import org.eclipse.smarthome.core.common.NamedThreadFactory;
+import org.eclipse.smarthome.io.transport.mqtt.MqttBrokerConnection;
+import org.eclipse.smarthome.io.transport.mqtt.MqttConnectionObserver;
+import org.eclipse.smarthome.io.transport.mqtt.MqttConnectionState;
+import org.eclipse.smarthome.io.transport.mqtt.MqttMessageSubscriber;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import io.moquette.broker.Server;
+import io.moquette.interception.InterceptHandler;
+import io.moquette.interception.messages.InterceptAcknowledgedMessage;
+import io.moquette.interception.messages.InterceptConnectMessage;
+import io.moquette.interception.messages.InterceptConnectionLostMessage;
+import io.moquette.interception.messages.InterceptDisconnectMessage;
+import io.moquette.interception.messages.InterceptPublishMessage;
+import io.moquette.interception.messages.InterceptSubscribeMessage;
+import io.moquette.interception.messages.InterceptUnsubscribeMessage;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+import io.netty.handler.codec.mqtt.MqttMessageBuilders;
+import io.netty.handler.codec.mqtt.MqttPublishMessage;
+import io.netty.handler.codec.mqtt.MqttQoS;
+
+/**
+ * The {@link EmbeddedBrokerConnection} is an in-process connection to the embedded Moquette broker.
+ * <p>
+ * Instead of connecting to the broker over a localhost socket, messages are handed over as objects: Publishes are
+ * passed to {@link Server#internalPublish(MqttPublishMessage, String)} and messages published by other clients are
+ * received by an intercept handler. Topic filters are matched within this connection, the broker does not know about
+ * its subscriptions.
+ * <p>
+ * Messages are delivered to the subscribers by a single thread of this connection, like the callback thread of a
+ * network connection. Publishes return before the subscribers are called, so a subscriber publishing in turn does not
+ * recurse into the delivery, and the threads of the broker are not blocked by subscribers. The message order is kept.
+ * <p>
+ * Retained messages are replayed to new subscribers, but only those which have been published since the connection
+ * has been attached to the broker. Retained messages restored from the broker persistence file are not known.
+ *
+ * @author David Graeff - Initial contribution
+ */
+@NonNullByDefault
+public class EmbeddedBrokerConnection extends MqttBrokerConnection {
+    private final Logger logger = LoggerFactory.getLogger(EmbeddedBrokerConnection.class);
+
+    /**
+     * Subscribers of a topic filter, with the filter split into its levels
+     */
+    private static class Subscription {
+        private final String[] levels;
+        private final Set<MqttMessageSubscriber> subscribers = new CopyOnWriteArraySet<>();
+
+        private Subscription(String filter) {
+            this.levels = filter.split("/", -1);
+        }
+    }
+
+    @NonNullByDefault({})
+    private class PublishInterceptHandler implements InterceptHandler {
+        @Override
+        public String getID() {
+            return "loopback";
+        }
+
+        @Override
+        public Class<?>[] getInterceptedMessageTypes() {
+            return new Class<?>[] { InterceptPublishMessage.class };
+        }
+
+        @Override
+        public void onPublish(InterceptPublishMessage msg) {
+            // Own publishes are delivered within publish()
+            if (getClientId().equals(msg.getClientID())) {
+                return;
+            }
+            ByteBuf buffer = msg.getPayload();
+            byte[] payload = new byte[buffer.readableBytes()];
+            buffer.getBytes(buffer.readerIndex(), payload);
+            received.incrementAndGet();
+            String topic = msg.getTopicName();
+            boolean retain = msg.isRetainFlag();
+            execute(() -> deliver(topic, payload, retain));
+        }
+
+        @Override
+        public void onConnect(InterceptConnectMessage msg) {
+        }
+
+        @Override
+        public void onDisconnect(InterceptDisconnectMessage msg) {
+        }
+
+        @Override
+        public void onConnectionLost(InterceptConnectionLostMessage msg) {
+        }
+
+        @Override
+        public void onSubscribe(InterceptSubscribeMessage msg) {
+        }
+
+        @Override
+        public void onUnsubscribe(InterceptUnsubscribeMessage msg) {
+        }
+
+        @Override
+        public void onMessageAcknowledged(InterceptAcknowledgedMessage msg) {
+        }
+    }
+
+    private final PublishInterceptHandler interceptHandler = new PublishInterceptHandler();
+    private final Set<MqttConnectionObserver> observers = new CopyOnWriteArraySet<>();
+    // Filters without wildcards are looked up by topic, the others are matched one by one
+    private final Map<String, Subscription> exactSubscriptions = new ConcurrentHashMap<>();
+    private final Map<String, Subscription> wildcardSubscriptions = new ConcurrentHashMap<>();
+    private final Map<String, byte[]> retainedMessages = new ConcurrentHashMap<>();
+    private final AtomicLong published = new AtomicLong();
+    private final AtomicLong received = new AtomicLong();
+
+    private @Nullable Server server;
+    private @Nullable ExecutorService deliveryExecutor;
+    private volatile MqttConnectionState state = MqttConnectionState.DISCONNECTED;
+
+    /**
+     * Create a connection, which is attached to the broker with {@link #attach(Server)}.
+     *
+     * @param port The port of the embedded broker, only reported to users of this connection.
+     * @param clientId The client id, used as origin of publishes.
+     */
+    public EmbeddedBrokerConnection(@Nullable Integer port, String clientId) {
+        super("localhost", port, false, clientId);
+    }
+
+    /**
+     * Attach this connection to the started broker. The connection still needs to be started.
+     *
+     * @param server The started broker
+     */
+    public synchronized void attach(Server server) {
+        this.server = server;
+        deliveryExecutor = Executors.newSingleThreadExecutor(new NamedThreadFactory("mqttembeddedbroker", true));
+        server.addInterceptHandler(interceptHandler);
+    }
+
+    /**
+     * Detach this connection from the broker, before the broker is stopped. The connection is disconnected.
+     */
+    public synchronized void detach() {
+        Server server = this.server;
+        if (server == null) {
+            return;
+        }
+        server.removeInterceptHandler(interceptHandler);
+        this.server = null;
+        ExecutorService deliveryExecutor = this.deliveryExecutor;
+        if (deliveryExecutor != null) {
+            deliveryExecutor.shutdown();
+            this.deliveryExecutor = null;
+        }
+        retainedMessages.clear();
+        setState(MqttConnectionState.DISCONNECTED, null);
+    }
+
+    @Override
+    public synchronized CompletableFuture<Boolean> start() {
+        if (server == null) {
+            return CompletableFuture.completedFuture(false);
+        }
+        setState(MqttConnectionState.CONNECTED, null);
+        return CompletableFuture.completedFuture(true);
+    }
+
+    @Override
+    public synchronized CompletableFuture<Boolean> stop() {
+        exactSubscriptions.clear();
+        wildcardSubscriptions.clear();
+        setState(MqttConnectionState.DISCONNECTED, null);
+        logger.debug("Embedded broker loopback connection stopped, {} messages published, {} messages received",
+                published.get(), received.get());
+        return CompletableFuture.completedFuture(true);
+    }
+
+    @Override
+    public MqttConnectionState connectionState() {
+        return state;
+    }
+
+    @Override
+    public void addConnectionObserver(MqttConnectionObserver connectionObserver) {
+        observers.add(connectionObserver);
+    }
+
+    @Override
+    public void removeConnectionObserver(MqttConnectionObserver connectionObserver) {
+        observers.remove(connectionObserver);
+    }
+
+    private void setState(MqttConnectionState state, @Nullable Throwable error) {
+        if (this.state == state) {
+            return;
+        }
+        this.state = state;
+        observers.forEach(observer -> observer.connectionStateChanged(state, error));
+    }
+
+    @Override
+    public CompletableFuture<Boolean> subscribe(String topic, MqttMessageSubscriber subscriber) {
+        if (state != MqttConnectionState.CONNECTED) {
+            return CompletableFuture.completedFuture(false);
+        }
+        Map<String, Subscription> subscriptions = isWildcardFilter(topic) ? wildcardSubscriptions
+                : exactSubscriptions;
+        Subscription subscription = subscriptions.computeIfAbsent(topic, Subscription::new);
+        if (subscription.subscribers.add(subscriber)) {
+            // Replay retained messages, as the broker would do for a new subscription
+            execute(() -> retainedMessages.forEach((retainedTopic, payload) -> {
+                if (matches(subscription.levels, retainedTopic.split("/", -1))) {
+                    processMessage(subscriber, retainedTopic, payload);
+                }
+            }));
+        }
+        return CompletableFuture.completedFuture(true);
+    }
+
+    @Override
+    public CompletableFuture<Boolean> unsubscribe(String topic, MqttMessageSubscriber subscriber) {
+        Map<String, Subscription> subscriptions = isWildcardFilter(topic) ? wildcardSubscriptions
+                : exactSubscriptions;
+        subscriptions.computeIfPresent(topic, (filter, subscription) -> {
+            subscription.subscribers.remove(subscriber);
+            return subscription.subscribers.isEmpty() ? null : subscription;
+        });
+        return CompletableFuture.completedFuture(true);
+    }
+
+    @Override
+    public CompletableFuture<Void> unsubscribeAll() {
+        exactSubscriptions.clear();
+        wildcardSubscriptions.clear();
+        return CompletableFuture.completedFuture(null);
+    }
+
+    @Override
+    public CompletableFuture<Boolean> publish(String topic, byte[] payload, int qos, boolean retain) {
+        Server server = this.server;
+        if (server == null || state != MqttConnectionState.CONNECTED) {
+            return CompletableFuture.completedFuture(false);
+        }
+        MqttPublishMessage message = MqttMessageBuilders.publish().topicName(topic).retained(retain)
+                .qos(MqttQoS.valueOf(qos)).payload(Unpooled.wrappedBuffer(payload)).build();
+        server.internalPublish(message, getClientId());
+        published.incrementAndGet();
+        execute(() -> deliver(topic, payload, retain));
+        return CompletableFuture.completedFuture(true);
+    }
+
+    /**
+     * Run a delivery in the delivery thread of this connection.
+     */
+    private void execute(Runnable delivery) {
+        ExecutorService deliveryExecutor = this.deliveryExecutor;
+        if (deliveryExecutor == null) {
+            return;
+        }
+        try {
+            deliveryExecutor.execute(delivery);
+        } catch (RejectedExecutionException e) {
+            logger.debug("Embedded broker loopback connection detached, message not delivered");
+        }
+    }
+
+    private void processMessage(MqttMessageSubscriber subscriber, String topic, byte[] payload) {
+        try {
+            subscriber.processMessage(topic, payload);
+        } catch (RuntimeException e) {
+            logger.warn("Subscriber of topic {} failed to process the message", topic, e);
+        }
+    }
+
+    /**
+     * Deliver a message to the subscribers of this connection, and keep it if retained. Runs in the delivery thread.
+     */
+    private void deliver(String topic, byte[] payload, boolean retain) {
+        if (retain) {
+            if (payload.length == 0) {
+                retainedMessages.remove(topic);
+            } else {
+                retainedMessages.put(topic, payload);
+            }
+        }
+        Subscription exact = exactSubscriptions.get(topic);
+        if (exact != null) {
+            exact.subscribers.forEach(subscriber -> processMessage(subscriber, topic, payload));
+        }
+        if (wildcardSubscriptions.isEmpty()) {
+            return;
+        }
+        String[] levels = topic.split("/", -1);
+        for (Subscription subscription : wildcardSubscriptions.values()) {
+            if (matches(subscription.levels, levels)) {
+                subscription.subscribers.forEach(subscriber -> processMessage(subscriber, topic, payload));
+            }
+        }
+    }
+
+    /**
+     * Returns the number of messages published by this connection.
+     */
+    public long getPublishedCount() {
+        return published.get();
+    }
+
+    /**
+     * Returns the number of messages received from other clients of the broker.
+     */
+    public long getReceivedCount() {
+        return received.get();
+    }
+
+    private static boolean isWildcardFilter(String filter) {
+        return filter.indexOf('+') >= 0 || filter.indexOf('#') >= 0;
+    }
+
+    /**
+     * Match a topic against a topic filter, both split into levels.
+     * Topics starting with "$" are not matched by a wildcard on the first level.
+     */
+    static boolean matches(String[] filter, String[] topic) {
+        if (topic.length > 0 && topic[0].startsWith("$") && ("+".equals(filter[0]) || "#".equals(filter[0]))) {
+            return false;
+        }
+        for (int i = 0; i < filter.length; i++) {
+            if ("#".equals(filter[i])) {
+                return true;
+            }
+            if (i >= topic.length) {
+                return false;
+            }
+            if (!"+".equals(filter[i]) && !filter[i].equals(topic[i])) {
+                return false;
+            }
+        }
+        return filter.length == topic.length;
+    }
+}
@@ -76,6 +76,9 @@ import io.netty.handler.ssl.SslContextBuilder;
  * <p>
  * For now tls connections are offered with an accept-all trust manager
  * and a predefined keystore if "secure" is set to true.
+ * <p>
+ * If "loopback" is set to true, the connection is an in-process {@link EmbeddedBrokerConnection}
+ * instead of a network connection to the broker.
  *
  * @author David Graeff - Initial contribution
  */
@@ -167,7 +170,11 @@ public class EmbeddedBrokerService
             service.removeBrokerConnection(Constants.CLIENTID);
         }
 
-        connection = new MqttBrokerConnection("localhost", config.port, config.secure, Constants.CLIENTID);
+        if (config.loopback) {
+            connection = new EmbeddedBrokerConnection(config.port, Constants.CLIENTID);
+        } else {
+            connection = new MqttBrokerConnection("localhost", config.port, config.secure, Constants.CLIENTID);
+        }
         connection.addConnectionObserver(this);
 
         if (config.username != null) {
@@ -209,6 +216,9 @@ public class EmbeddedBrokerService
         connection.removeConnectionObserver(this);
         try {
             connection.stop().thenRun(() -> {
+                if (connection instanceof EmbeddedBrokerConnection) {
+                    ((EmbeddedBrokerConnection) connection).detach();
+                }
                 if (server != null) {
                     server.stopServer();
                     server = null;
@@ -314,6 +324,14 @@ public class EmbeddedBrokerService
         }
         this.server = server;
         server.addInterceptHandler(metrics);
+
+        MqttBrokerConnection connection = this.connection;
+        if (connection instanceof EmbeddedBrokerConnection) {
+            // The broker is started synchronously, there is no need to wait for its port to be reachable
+            ((EmbeddedBrokerConnection) connection).attach(server);
+            mqttEmbeddedBrokerStarted(false);
+            return;
+        }
         ScheduledExecutorService s = new ScheduledThreadPoolExecutor(1);
         detectStart.startBrokerStartedDetection(port, s);
     }
@@ -321,10 +339,15 @@ public class EmbeddedBrokerService
     public void stopEmbeddedServer() {
         Server server = this.server;
         if (server != null) {
+            this.server = null;
+            MqttBrokerConnection connection = this.connection;
+            if (connection instanceof EmbeddedBrokerConnection) {
+                // Detaching reports the connection as disconnected, which calls this method again
+                ((EmbeddedBrokerConnection) connection).detach();
+            }
             server.removeInterceptHandler(metrics);
             detectStart.stopBrokerStartDetection();
             server.stopServer();
-            this.server = null;
         }
     }
 
@@ -332,6 +355,9 @@ public class EmbeddedBrokerService
      * For testing: Returns true if the embedded server confirms that the MqttBrokerConnection is connected.
      */
     protected boolean serverConfirmsEmbeddedClient() {
+        if (connection instanceof EmbeddedBrokerConnection) {
+            return server != null && connection.connectionState() == MqttConnectionState.CONNECTED;
+        }
         return server != null && server.listConnectedClients().stream()
                 .anyMatch(client -> Constants.CLIENTID.equals(client.getClientID()));
     }
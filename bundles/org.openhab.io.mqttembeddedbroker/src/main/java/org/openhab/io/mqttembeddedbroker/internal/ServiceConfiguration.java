@@ -24,6 +24,7 @@ import org.eclipse.jdt.annotation.Nullable;
 public class ServiceConfiguration {
     public @Nullable Integer port;
     public Boolean secure = false;
+    public Boolean loopback = false;
     public String persistenceFile = "mqttembedded.bin";
 
     public @Nullable String username;
@@ -0,0 +1,147 @@
+/**
+ * Copyright (c) 2010-2020 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.io.mqttembeddedbroker.benchmark;
+
+import static org.mockito.Mockito.mock;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import org.eclipse.smarthome.io.transport.mqtt.MqttBrokerConnection;
+import org.eclipse.smarthome.io.transport.mqtt.MqttBrokerConnection.Protocol;
+import org.eclipse.smarthome.io.transport.mqtt.MqttConnectionState;
+import org.eclipse.smarthome.io.transport.mqtt.MqttService;
+import org.openhab.io.mqttembeddedbroker.internal.EmbeddedBrokerService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.CommandLineOptionException;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Benchmarks the message throughput between openHAB and a device connected to the embedded broker, comparing the
+ * in-process loopback connection against the TCP connection to localhost.
+ * <p>
+ * The device is always a TCP client of the broker. Every operation publishes one message and waits until it has been
+ * received on the other side, so the results are round trips per second.
+ *
+ * @author David Graeff - Initial contribution
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class EmbeddedBrokerBenchmark {
+
+    private static final int PORT = 12346;
+    private static final String USERNAME = "username";
+    private static final String PASSWORD = "password";
+    private static final long TIMEOUT_SECONDS = 10;
+    private static final byte[] PAYLOAD = "{\"temperature\": 23.2, \"humidity\": 45}".getBytes();
+
+    @Param({ "false", "true" })
+    public boolean loopback;
+
+    private EmbeddedBrokerService service;
+    private MqttBrokerConnection openhab;
+    private MqttBrokerConnection device;
+    private final Semaphore openhabReceived = new Semaphore(0);
+    private final Semaphore deviceReceived = new Semaphore(0);
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        Map<String, Object> config = new HashMap<>();
+        config.put("username", USERNAME);
+        config.put("password", PASSWORD);
+        config.put("port", PORT);
+        config.put("secure", false);
+        config.put("persistenceFile", "");
+        config.put("loopback", loopback);
+        service = new EmbeddedBrokerService(mock(MqttService.class), config);
+
+        openhab = service.getConnection();
+        long end = System.currentTimeMillis() + TimeUnit.SECONDS.toMillis(TIMEOUT_SECONDS);
+        while (openhab.connectionState() != MqttConnectionState.CONNECTED) {
+            if (System.currentTimeMillis() > end) {
+                throw new TimeoutException("The embedded broker connection did not connect");
+            }
+            Thread.sleep(10);
+        }
+        openhab.subscribe("device/state", (topic, payload) -> openhabReceived.release()).get();
+
+        device = new MqttBrokerConnection(Protocol.TCP, "localhost", PORT, false, "device");
+        device.setCredentials(USERNAME, PASSWORD);
+        if (!device.start().get()) {
+            throw new IllegalStateException("The device could not connect");
+        }
+        device.subscribe("device/command", (topic, payload) -> deviceReceived.release()).get();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws Exception {
+        device.stop().get();
+        service.deactivate();
+    }
+
+    private static void await(Semaphore received) throws InterruptedException, TimeoutException {
+        if (!received.tryAcquire(TIMEOUT_SECONDS, TimeUnit.SECONDS)) {
+            throw new TimeoutException("The message has not been received");
+        }
+    }
+
+    /**
+     * A state published by the device, received by openHAB
+     */
+    @Benchmark
+    public void deviceToOpenhab() throws Exception {
+        device.publish("device/state", PAYLOAD, 0, false);
+        await(openhabReceived);
+    }
+
+    /**
+     * A command published by openHAB, received by the device
+     */
+    @Benchmark
+    public void openhabToDevice() throws Exception {
+        openhab.publish("device/command", PAYLOAD, 0, false);
+        await(deviceReceived);
+    }
+
+    public static void main(String[] args) throws RunnerException, CommandLineOptionException {
+        CommandLineOptions commandLineOptions = new CommandLineOptions(args);
+        OptionsBuilder builder = new OptionsBuilder();
+        if (commandLineOptions.getIncludes().isEmpty()) {
+            builder.include(EmbeddedBrokerBenchmark.class.getName());
+        }
+        new Runner(builder.parent(commandLineOptions).addProfiler(GCProfiler.class).build()).run();
+    }
+}
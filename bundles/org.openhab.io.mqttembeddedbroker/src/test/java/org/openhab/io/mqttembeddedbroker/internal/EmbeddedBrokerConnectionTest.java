@@ -0,0 +1,93 @@
+/**
+ * Copyright (c) 2010-2020 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.io.mqttembeddedbroker.internal;
+
+import static org.junit.Assert.*;
+import static org.mockito.Mockito.mock;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.eclipse.smarthome.io.transport.mqtt.MqttMessageSubscriber;
+import org.junit.Test;
+
+import io.moquette.broker.Server;
+
+/**
+ * Tests the topic filter matching and the message delivery of the {@link EmbeddedBrokerConnection}.
+ *
+ * @author David Graeff - Initial contribution
+ */
+public class EmbeddedBrokerConnectionTest {
+
+    private static boolean matches(String filter, String topic) {
+        return EmbeddedBrokerConnection.matches(filter.split("/", -1), topic.split("/", -1));
+    }
+
+    @Test
+    public void singleLevelWildcard() {
+        assertTrue(matches("home/+/temperature", "home/kitchen/temperature"));
+        assertFalse(matches("home/+/temperature", "home/kitchen/sensor/temperature"));
+        assertFalse(matches("home/+", "home"));
+        assertTrue(matches("home/+", "home/"));
+        assertTrue(matches("+/+", "/home"));
+    }
+
+    @Test
+    public void multiLevelWildcard() {
+        assertTrue(matches("home/#", "home/kitchen/temperature"));
+        assertTrue(matches("home/#", "home"));
+        assertTrue(matches("#", "home/kitchen"));
+        assertFalse(matches("home/#", "garden/kitchen"));
+    }
+
+    @Test
+    public void exactAndSystemTopics() {
+        assertTrue(matches("home/kitchen", "home/kitchen"));
+        assertFalse(matches("home/kitchen", "home/kitchen/temperature"));
+        assertFalse(matches("#", "$SYS/broker/uptime"));
+        assertFalse(matches("+/broker/uptime", "$SYS/broker/uptime"));
+        assertTrue(matches("$SYS/#", "$SYS/broker/uptime"));
+    }
+
+    @Test
+    public void publishFromSubscriberDoesNotRecurse() throws InterruptedException {
+        EmbeddedBrokerConnection connection = new EmbeddedBrokerConnection(1883, "test");
+        connection.attach(mock(Server.class));
+        connection.start();
+
+        int count = 100;
+        CountDownLatch delivered = new CountDownLatch(count);
+        AtomicInteger depth = new AtomicInteger();
+        AtomicInteger maxDepth = new AtomicInteger();
+        Thread testThread = Thread.currentThread();
+        MqttMessageSubscriber subscriber = (topic, payload) -> {
+            maxDepth.accumulateAndGet(depth.incrementAndGet(), Math::max);
+            assertNotSame(testThread, Thread.currentThread());
+            delivered.countDown();
+            if (delivered.getCount() > 0) {
+                connection.publish(topic, payload, 0, false);
+            }
+            depth.decrementAndGet();
+        };
+        connection.subscribe("home/ping", subscriber);
+
+        connection.publish("home/ping", new byte[] { 1 }, 0, false);
+
+        assertTrue(delivered.await(10, TimeUnit.SECONDS));
+        assertEquals(1, maxDepth.get());
+        assertEquals(count, connection.getPublishedCount());
+        connection.detach();
+    }
+}
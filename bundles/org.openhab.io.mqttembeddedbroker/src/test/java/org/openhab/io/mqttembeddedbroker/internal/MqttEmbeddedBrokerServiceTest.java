@@ -12,7 +12,7 @@
  */
 package org.openhab.io.mqttembeddedbroker.internal;
 
-import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.*;
 import static org.junit.Assert.*;
 import static org.mockito.ArgumentMatchers.*;
 import static org.mockito.Mockito.verify;
@@ -22,8 +22,11 @@ import java.io.IOException;
 import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.security.GeneralSecurityException;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.Semaphore;
 import java.util.concurrent.TimeUnit;
@@ -192,4 +195,39 @@ public class MqttEmbeddedBrokerServiceTest extends JavaTest {
             assertThat(new String(entry.getValue().getPayload()), is("testtest"));
         }
     }
+
+    @Test
+    public void loopbackConnection() throws InterruptedException, IOException, ExecutionException {
+        config.put("loopback", true);
+        subject.modified(config);
+
+        MqttBrokerConnection c = subject.getConnection();
+        assertThat(c, is(instanceOf(EmbeddedBrokerConnection.class)));
+        waitForConnectionChange(c, MqttConnectionState.CONNECTED);
+        verify(service).addBrokerConnection(anyString(), eq(c));
+
+        List<String> received = new CopyOnWriteArrayList<>();
+        assertTrue(c.subscribe("loop/#", (topic, payload) -> received.add(topic + "=" + new String(payload))).get());
+
+        // A network client of the embedded broker
+        MqttBrokerConnection external = new MqttBrokerConnection(Protocol.TCP, c.getHost(), c.getPort(), false,
+                "external");
+        external.setCredentials(c.getUser(), c.getPassword());
+        assertTrue(external.start().get());
+        List<String> externalReceived = new CopyOnWriteArrayList<>();
+        assertTrue(external
+                .subscribe("loop/+", (topic, payload) -> externalReceived.add(topic + "=" + new String(payload))).get());
+
+        external.publish("loop/external", "a".getBytes(), 1, false).get();
+        c.publish("loop/internal", "b".getBytes(), 1, true).get();
+
+        waitForAssert(() -> assertThat(received, hasItems("loop/external=a", "loop/internal=b")));
+        waitForAssert(() -> assertThat(externalReceived, hasItems("loop/external=a", "loop/internal=b")));
+        external.stop().get();
+
+        // Retained messages are replayed to new subscribers
+        List<String> retained = new CopyOnWriteArrayList<>();
+        c.subscribe("loop/internal", (topic, payload) -> retained.add(topic + "=" + new String(payload))).get();
+        waitForAssert(() -> assertThat(retained, is(Collections.singletonList("loop/internal=b"))));
+    }
 }
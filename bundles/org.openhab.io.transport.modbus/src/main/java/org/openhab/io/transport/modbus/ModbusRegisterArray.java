@@ -12,20 +12,31 @@
  */
 package org.openhab.io.transport.modbus;
 
+import java.util.Arrays;
 import java.util.Iterator;
 import java.util.stream.IntStream;
 
 import org.eclipse.jdt.annotation.NonNullByDefault;
+import org.eclipse.jdt.annotation.Nullable;
 
 /**
  * Immutable {@link ModbusRegisterArray} implementation
  *
+ * The register data is stored as a byte array, two bytes per register, high byte first. The primitive getters (e.g.
+ * {@link #getInt16(int)}, {@link #getFloat32(int)}) read directly from the byte array without allocating any
+ * objects.
+ *
  * @author Sami Salonen - Initial contribution
  */
 @NonNullByDefault
 public class ModbusRegisterArray implements Iterable<ModbusRegister> {
 
-    private final ModbusRegister[] registers;
+    private final byte[] bytes;
+
+    /**
+     * Register objects, constructed lazily from the bytes on first access
+     */
+    private volatile ModbusRegister @Nullable [] registers;
 
     /**
      * Construct plain <code>ModbusRegister[]</code> array from register values
@@ -47,9 +58,29 @@ public class ModbusRegisterArray implements Iterable<ModbusRegister> {
      * @param registers
      */
     public ModbusRegisterArray(ModbusRegister[] registers) {
+        this.bytes = new byte[registers.length * 2];
+        for (int i = 0; i < registers.length; i++) {
+            byte[] registerBytes = registers[i].getBytes();
+            bytes[2 * i] = registerBytes[0];
+            bytes[2 * i + 1] = registerBytes[1];
+        }
         this.registers = registers;
     }
 
+    /**
+     * Construct ModbusRegisterArrayImpl from register data
+     *
+     * @param bytes register data, two bytes per register, high byte first. The array is not copied and should not be
+     *            modified afterwards.
+     * @throws IllegalArgumentException when the number of bytes is odd
+     */
+    public ModbusRegisterArray(byte[] bytes) {
+        if (bytes.length % 2 != 0) {
+            throw new IllegalArgumentException("Register data must have even number of bytes, got " + bytes.length);
+        }
+        this.bytes = bytes;
+    }
+
     /**
      * Construct plain <code>ModbusRegisterArrayImpl</code> array from register values
      *
@@ -57,7 +88,11 @@ public class ModbusRegisterArray implements Iterable<ModbusRegister> {
      * @return
      */
     public ModbusRegisterArray(int... registerValues) {
-        this(registersFromValues(registerValues));
+        this.bytes = new byte[registerValues.length * 2];
+        for (int i = 0; i < registerValues.length; i++) {
+            bytes[2 * i] = (byte) (registerValues[i] >> 8);
+            bytes[2 * i + 1] = (byte) registerValues[i];
+        }
     }
 
     /**
@@ -70,7 +105,15 @@ public class ModbusRegisterArray implements Iterable<ModbusRegister> {
      * @throws IndexOutOfBoundsException if the index is out of bounds.
      */
     public ModbusRegister getRegister(int index) {
-        return registers[index];
+        ModbusRegister[] localRegisters = registers;
+        if (localRegisters == null) {
+            localRegisters = new ModbusRegister[size()];
+            for (int i = 0; i < localRegisters.length; i++) {
+                localRegisters[i] = new ModbusRegister(bytes[2 * i], bytes[2 * i + 1]);
+            }
+            registers = localRegisters;
+        }
+        return localRegisters[index];
     }
 
     /**
@@ -79,15 +122,179 @@ public class ModbusRegisterArray implements Iterable<ModbusRegister> {
      * @return
      */
     public int size() {
-        return registers.length;
+        return bytes.length / 2;
+    }
+
+    /**
+     * Get registers [index, index + length) as a new array
+     *
+     * @param index index of the first register
+     * @param length number of registers
+     * @return new register array
+     * @throws IndexOutOfBoundsException if the range is out of bounds
+     */
+    public ModbusRegisterArray subArray(int index, int length) {
+        if (index < 0 || length < 0 || index + length > size()) {
+            throw new IndexOutOfBoundsException(
+                    String.format("Range [%d, %d) out of bounds, size %d", index, index + length, size()));
+        }
+        return new ModbusRegisterArray(Arrays.copyOfRange(bytes, 2 * index, 2 * (index + length)));
+    }
+
+    /**
+     * Whether registers [index, index + length) of this and the other array have equal data
+     *
+     * @param other other register array
+     * @param index index of the first register to compare
+     * @param length number of registers to compare
+     * @return true if the data is equal, false otherwise, or if the range is out of bounds of either array
+     */
+    public boolean dataEquals(ModbusRegisterArray other, int index, int length) {
+        if (index < 0 || index + length > size() || index + length > other.size()) {
+            return false;
+        }
+        for (int i = 2 * index; i < 2 * (index + length); i++) {
+            if (bytes[i] != other.bytes[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Read byte as signed 8 bit integer
+     *
+     * @param index byte index. Index 0 refers to the low byte of the first register, 1 to the high byte of the first
+     *            register, 2 to the low byte of the second register etc.
+     * @return the signed value
+     */
+    public byte getInt8(int index) {
+        return bytes[2 * (index / 2) + 1 - (index % 2)];
+    }
+
+    /**
+     * Read byte as unsigned 8 bit integer
+     *
+     * @param index byte index, as with {@link #getInt8(int)}
+     * @return the unsigned value
+     */
+    public int getUInt8(int index) {
+        return getInt8(index) & 0xff;
+    }
+
+    /**
+     * Read register as signed 16 bit integer
+     *
+     * @param index register index
+     * @return the signed value
+     */
+    public short getInt16(int index) {
+        return (short) getUInt16(index);
+    }
+
+    /**
+     * Read register as unsigned 16 bit integer
+     *
+     * @param index register index
+     * @return the unsigned value
+     */
+    public int getUInt16(int index) {
+        return ((bytes[2 * index] & 0xff) << 8) | (bytes[2 * index + 1] & 0xff);
+    }
+
+    /**
+     * Read registers (index) and (index + 1) as signed 32 bit integer, first register containing the most significant
+     * 16 bits
+     *
+     * @param index index of the first register
+     * @return the signed value
+     */
+    public int getInt32(int index) {
+        return (getUInt16(index) << 16) | getUInt16(index + 1);
+    }
+
+    /**
+     * Same as {@link #getInt32(int)} but registers swapped
+     *
+     * @param index index of the first register
+     * @return the signed value
+     */
+    public int getInt32Swap(int index) {
+        return (getUInt16(index + 1) << 16) | getUInt16(index);
+    }
+
+    /**
+     * Read registers (index) and (index + 1) as unsigned 32 bit integer, first register containing the most
+     * significant 16 bits
+     *
+     * @param index index of the first register
+     * @return the unsigned value
+     */
+    public long getUInt32(int index) {
+        return getInt32(index) & 0xffffffffL;
+    }
+
+    /**
+     * Same as {@link #getUInt32(int)} but registers swapped
+     *
+     * @param index index of the first register
+     * @return the unsigned value
+     */
+    public long getUInt32Swap(int index) {
+        return getInt32Swap(index) & 0xffffffffL;
+    }
+
+    /**
+     * Read registers (index) and (index + 1) as 32 bit floating point number, first register containing the most
+     * significant 16 bits
+     *
+     * @param index index of the first register
+     * @return the value, possibly NaN or infinite
+     */
+    public float getFloat32(int index) {
+        return Float.intBitsToFloat(getInt32(index));
+    }
+
+    /**
+     * Same as {@link #getFloat32(int)} but registers swapped
+     *
+     * @param index index of the first register
+     * @return the value, possibly NaN or infinite
+     */
+    public float getFloat32Swap(int index) {
+        return Float.intBitsToFloat(getInt32Swap(index));
+    }
+
+    /**
+     * Read registers (index), (index + 1), (index + 2) and (index + 3) as signed 64 bit integer, first register
+     * containing the most significant 16 bits
+     *
+     * Use {@link Long#toUnsignedString(long)} and friends to interpret the result as unsigned 64 bit integer.
+     *
+     * @param index index of the first register
+     * @return the signed value
+     */
+    public long getInt64(int index) {
+        return ((getInt32(index) & 0xffffffffL) << 32) | (getInt32(index + 2) & 0xffffffffL);
+    }
+
+    /**
+     * Same as {@link #getInt64(int)} but registers swapped, that is, registers (index + 3), (index + 2), (index + 1),
+     * (index) are interpreted as signed 64 bit integer
+     *
+     * @param index index of the first register
+     * @return the signed value
+     */
+    public long getInt64Swap(int index) {
+        return ((getInt32Swap(index + 2) & 0xffffffffL) << 32) | (getInt32Swap(index) & 0xffffffffL);
     }
 
     @Override
     public String toString() {
-        if (registers.length == 0) {
+        if (size() == 0) {
             return "ModbusRegisterArrayImpl(<empty>)";
         }
-        StringBuffer buffer = new StringBuffer(registers.length * 2).append("ModbusRegisterArrayImpl(");
+        StringBuffer buffer = new StringBuffer(size() * 2).append("ModbusRegisterArrayImpl(");
         return appendHexString(buffer).append(')').toString();
     }
 
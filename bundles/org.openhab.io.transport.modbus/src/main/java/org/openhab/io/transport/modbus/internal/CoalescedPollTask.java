@@ -0,0 +1,172 @@
+/**
+ * Copyright (c) 2010-2020 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.io.transport.modbus.internal;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.function.Predicate;
+
+import org.apache.commons.lang.builder.StandardToStringStyle;
+import org.apache.commons.lang.builder.ToStringBuilder;
+import org.eclipse.jdt.annotation.NonNullByDefault;
+import org.openhab.io.transport.modbus.AsyncModbusFailure;
+import org.openhab.io.transport.modbus.AsyncModbusReadResult;
+import org.openhab.io.transport.modbus.BitArray;
+import org.openhab.io.transport.modbus.ModbusFailureCallback;
+import org.openhab.io.transport.modbus.ModbusReadCallback;
+import org.openhab.io.transport.modbus.ModbusReadRequestBlueprint;
+import org.openhab.io.transport.modbus.ModbusRegisterArray;
+import org.openhab.io.transport.modbus.PollTask;
+import org.openhab.io.transport.modbus.endpoint.ModbusSlaveEndpoint;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * {@link PollTask} that reads a single contiguous block covering the requests of several member poll tasks.
+ *
+ * The response is split back to the members such that each member callback receives data exactly as if its own
+ * request had been sent to the slave. Failures are reported to every member. Members that are no longer registered
+ * when the response arrives, e.g. unregistered while the read was in flight, are skipped.
+ *
+ * Equality is identity based: coalesced tasks are created by {@link ModbusReadRequestPlanner} and are never
+ * registered as such.
+ *
+ * @author Sami Salonen - Initial contribution
+ *
+ */
+@NonNullByDefault
+public class CoalescedPollTask implements PollTask {
+
+    private static StandardToStringStyle toStringStyle = new StandardToStringStyle();
+    static {
+        toStringStyle.setUseShortClassName(true);
+    }
+
+    private final Logger logger = LoggerFactory.getLogger(CoalescedPollTask.class);
+
+    private final ModbusSlaveEndpoint endpoint;
+    private final ModbusReadRequestBlueprint request;
+    private final List<PollTask> members;
+    private final Predicate<PollTask> registered;
+
+    public CoalescedPollTask(ModbusSlaveEndpoint endpoint, ModbusReadRequestBlueprint request,
+            List<PollTask> members) {
+        this(endpoint, request, members, member -> true);
+    }
+
+    /**
+     * Constructor
+     *
+     * @param endpoint endpoint of the members
+     * @param request request covering the requests of all members
+     * @param members member poll tasks
+     * @param registered tells whether a member is still registered, and should receive callbacks
+     */
+    public CoalescedPollTask(ModbusSlaveEndpoint endpoint, ModbusReadRequestBlueprint request, List<PollTask> members,
+            Predicate<PollTask> registered) {
+        this.endpoint = endpoint;
+        this.request = request;
+        this.members = Collections.unmodifiableList(members);
+        this.registered = registered;
+    }
+
+    /**
+     * Get the poll tasks served by this coalesced task
+     *
+     * @return member poll tasks
+     */
+    public List<PollTask> getMembers() {
+        return members;
+    }
+
+    @Override
+    public ModbusSlaveEndpoint getEndpoint() {
+        return endpoint;
+    }
+
+    @Override
+    public ModbusReadRequestBlueprint getRequest() {
+        return request;
+    }
+
+    @Override
+    public ModbusReadCallback getResultCallback() {
+        return this::dispatchResult;
+    }
+
+    @Override
+    public ModbusFailureCallback<ModbusReadRequestBlueprint> getFailureCallback() {
+        return this::dispatchFailure;
+    }
+
+    private void dispatchResult(AsyncModbusReadResult result) {
+        for (PollTask member : members) {
+            if (!registered.test(member)) {
+                logger.debug("Poll task {} unregistered while reading {}, not dispatching result", member, this);
+                continue;
+            }
+            ModbusReadRequestBlueprint memberRequest = member.getRequest();
+            int offset = memberRequest.getReference() - request.getReference();
+            int length = memberRequest.getDataLength();
+            AsyncModbusReadResult memberResult;
+            if (result.getRegisters().isPresent()) {
+                memberResult = new AsyncModbusReadResult(memberRequest,
+                        sliceRegisters(result.getRegisters().get(), offset, length));
+            } else if (result.getBits().isPresent()) {
+                memberResult = new AsyncModbusReadResult(memberRequest,
+                        sliceBits(result.getBits().get(), offset, length));
+            } else {
+                logger.warn("Result {} contains neither registers nor bits, not dispatching to {}", result, member);
+                continue;
+            }
+            try {
+                member.getResultCallback().handle(memberResult);
+            } catch (RuntimeException e) {
+                // Do not let one misbehaving callback prevent other members from receiving their data
+                logger.warn("Result callback of poll task {} failed unexpectedly", member, e);
+            }
+        }
+    }
+
+    private void dispatchFailure(AsyncModbusFailure<ModbusReadRequestBlueprint> failure) {
+        for (PollTask member : members) {
+            if (!registered.test(member)) {
+                logger.debug("Poll task {} unregistered while reading {}, not dispatching failure", member, this);
+                continue;
+            }
+            try {
+                member.getFailureCallback().handle(new AsyncModbusFailure<>(member.getRequest(), failure.getCause()));
+            } catch (RuntimeException e) {
+                logger.warn("Failure callback of poll task {} failed unexpectedly", member, e);
+            }
+        }
+    }
+
+    private static ModbusRegisterArray sliceRegisters(ModbusRegisterArray registers, int offset, int length) {
+        return registers.subArray(offset, length);
+    }
+
+    private static BitArray sliceBits(BitArray bits, int offset, int length) {
+        BitArray slice = new BitArray(length);
+        for (int i = 0; i < length; i++) {
+            slice.setBit(i, bits.getBit(offset + i));
+        }
+        return slice;
+    }
+
+    @Override
+    public String toString() {
+        return new ToStringBuilder(this, toStringStyle).append("request", request).append("endpoint", endpoint)
+                .append("members", members.size()).toString();
+    }
+}
@@ -0,0 +1,336 @@
+/**
+ * Copyright (c) 2010-2020 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.io.transport.modbus.internal;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.HashSet;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+import org.eclipse.jdt.annotation.Nullable;
+import org.openhab.io.transport.modbus.PollTask;
+import org.openhab.io.transport.modbus.endpoint.ModbusSlaveEndpoint;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import net.wimpi.modbus.net.ModbusSlaveConnection;
+
+/**
+ * Queue of pending operations for a single endpoint.
+ *
+ * Operations of the endpoint are executed one after another by a drain loop running in the shared executor. At most
+ * one drain loop is active per endpoint, so a slow or unreachable endpoint occupies at most one executor thread, and
+ * cannot starve the other endpoints.
+ *
+ * Writes are executed before polls. The amount of queued polls is bounded: regular polls that are already queued are
+ * not queued again, and the oldest queued poll is dropped when the queue is full. The amount of queued writes is
+ * bounded as well, but queued writes are never dropped: new writes are rejected instead when the queue is full.
+ *
+ * The drain loop may keep the connection borrowed from the pool between back-to-back operations, see {@link Session}.
+ *
+ * @author Sami Salonen - Initial contribution
+ *
+ */
+@NonNullByDefault
+public class EndpointTaskQueue {
+
+    /**
+     * Maximum number of operations executed in one go before giving the executor thread to other endpoints
+     */
+    private static final int MAX_OPERATIONS_PER_DRAIN = 16;
+
+    /**
+     * State shared by the consecutive operations of one drain loop
+     *
+     * @author Sami Salonen - Initial contribution
+     *
+     */
+    public static class Session {
+        private Optional<ModbusSlaveConnection> connection = Optional.empty();
+        private @Nullable Long lastTransactionMillis;
+
+        /**
+         * Take the connection kept by previous operation, if any
+         *
+         * @return connection kept by previous operation
+         */
+        public Optional<ModbusSlaveConnection> takeConnection() {
+            Optional<ModbusSlaveConnection> kept = connection;
+            connection = Optional.empty();
+            return kept;
+        }
+
+        /**
+         * Keep the connection for the next operation
+         *
+         * @param connection connection to keep
+         */
+        public void keepConnection(ModbusSlaveConnection connection) {
+            this.connection = Optional.of(connection);
+            this.lastTransactionMillis = System.currentTimeMillis();
+        }
+
+        /**
+         * Time of the last transaction executed with the kept connection
+         *
+         * @return time in milliseconds, or null if no connection has been kept
+         */
+        public @Nullable Long getLastTransactionMillis() {
+            return lastTransactionMillis;
+        }
+    }
+
+    private static class Entry {
+        private final @Nullable PollTask regularPoll;
+        private final FutureTask<?> future;
+
+        private Entry(@Nullable PollTask regularPoll, FutureTask<?> future) {
+            this.regularPoll = regularPoll;
+            this.future = future;
+        }
+    }
+
+    private final Logger logger = LoggerFactory.getLogger(EndpointTaskQueue.class);
+
+    private final ModbusSlaveEndpoint endpoint;
+    private final Executor executor;
+    private final int capacity;
+    private final int writeCapacity;
+    private final Consumer<Session> sessionEndHandler;
+
+    private final Deque<Entry> writes = new ArrayDeque<>();
+    private final Deque<Entry> polls = new ArrayDeque<>();
+    private final Set<PollTask> queuedRegularPolls = new HashSet<>();
+    private final AtomicBoolean draining = new AtomicBoolean();
+    private final AtomicLong droppedPolls = new AtomicLong();
+    private final AtomicLong rejectedWrites = new AtomicLong();
+    private final Session session = new Session();
+    private volatile boolean closed;
+
+    /**
+     *
+     * @param endpoint endpoint of the queued operations
+     * @param executor executor running the drain loop
+     * @param capacity maximum number of queued polls
+     * @param writeCapacity maximum number of queued writes
+     * @param sessionEndHandler called at the end of each drain loop, e.g. for returning the kept connection to the pool
+     */
+    public EndpointTaskQueue(ModbusSlaveEndpoint endpoint, Executor executor, int capacity, int writeCapacity,
+            Consumer<Session> sessionEndHandler) {
+        this.endpoint = endpoint;
+        this.executor = executor;
+        this.capacity = capacity;
+        this.writeCapacity = writeCapacity;
+        this.sessionEndHandler = sessionEndHandler;
+    }
+
+    /**
+     * Session of the currently active drain loop. Should be only called from the queued operations.
+     *
+     * @return session of the drain loop
+     */
+    public Session getSession() {
+        return session;
+    }
+
+    /**
+     * Queue write operation. The write is rejected if too many writes are already queued.
+     *
+     * @param operation operation to execute
+     * @param rejectionHandler called with the reason if the write is rejected due to full queue
+     * @return future representing the operation. Future of rejected write fails with
+     *         {@link RejectedExecutionException}.
+     */
+    public Future<?> submitWrite(Runnable operation, Consumer<RejectedExecutionException> rejectionHandler) {
+        FutureTask<?> future = new FutureTask<>(operation, null);
+        if (closed) {
+            future.cancel(false);
+            return future;
+        }
+        boolean queued = false;
+        synchronized (this) {
+            if (writes.size() < writeCapacity) {
+                writes.add(new Entry(null, future));
+                queued = true;
+            }
+        }
+        if (!queued) {
+            rejectedWrites.incrementAndGet();
+            logger.warn("Too many ({}) writes queued for endpoint {}, rejecting the write", writeCapacity, endpoint);
+            RejectedExecutionException error = new RejectedExecutionException(
+                    String.format("Too many (%d) writes queued for endpoint %s", writeCapacity, endpoint));
+            FutureTask<?> rejected = new FutureTask<>(() -> {
+                throw error;
+            });
+            rejected.run();
+            rejectionHandler.accept(error);
+            return rejected;
+        }
+        maybeStartDrain();
+        return future;
+    }
+
+    /**
+     * Queue one-off poll operation
+     *
+     * @param operation operation to execute
+     * @return future representing the operation
+     */
+    public Future<?> submitPoll(Runnable operation) {
+        FutureTask<?> future = new FutureTask<>(operation, null);
+        if (closed) {
+            future.cancel(false);
+            return future;
+        }
+        synchronized (this) {
+            makeRoomForPoll();
+            polls.add(new Entry(null, future));
+        }
+        maybeStartDrain();
+        return future;
+    }
+
+    /**
+     * Queue execution of regular poll. Nothing is queued if the same regular poll is already waiting in the queue.
+     *
+     * @param task regular poll task
+     * @param operation operation executing the poll
+     */
+    public void submitRegularPoll(PollTask task, Runnable operation) {
+        if (closed) {
+            return;
+        }
+        synchronized (this) {
+            if (!queuedRegularPolls.add(task)) {
+                droppedPolls.incrementAndGet();
+                logger.debug("Poll task {} is already queued, not queueing it again", task);
+                return;
+            }
+            makeRoomForPoll();
+            polls.add(new Entry(task, new FutureTask<>(operation, null)));
+        }
+        maybeStartDrain();
+    }
+
+    private synchronized void makeRoomForPoll() {
+        while (polls.size() >= capacity) {
+            Entry oldest = polls.poll();
+            if (oldest == null) {
+                return;
+            }
+            PollTask regularPoll = oldest.regularPoll;
+            if (regularPoll != null) {
+                queuedRegularPolls.remove(regularPoll);
+            }
+            oldest.future.cancel(false);
+            droppedPolls.incrementAndGet();
+            logger.warn("Too many ({}) polls queued for endpoint {}, dropping the oldest one", capacity, endpoint);
+        }
+    }
+
+    private synchronized @Nullable Entry next() {
+        Entry entry = writes.poll();
+        if (entry == null) {
+            entry = polls.poll();
+            if (entry != null && entry.regularPoll != null) {
+                queuedRegularPolls.remove(entry.regularPoll);
+            }
+        }
+        return entry;
+    }
+
+    private void maybeStartDrain() {
+        if (closed || size() == 0 || !draining.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            executor.execute(this::drain);
+        } catch (RejectedExecutionException e) {
+            draining.set(false);
+            logger.warn("Could not start executing queued operations for endpoint {}: {}", endpoint, e.getMessage());
+        }
+    }
+
+    private void drain() {
+        try {
+            for (int executed = 0; executed < MAX_OPERATIONS_PER_DRAIN && !closed; executed++) {
+                Entry entry = next();
+                if (entry == null) {
+                    break;
+                }
+                entry.future.run();
+            }
+        } finally {
+            sessionEndHandler.accept(session);
+            draining.set(false);
+        }
+        // Continue in new drain loop to give other endpoints a chance to use the thread
+        maybeStartDrain();
+    }
+
+    /**
+     * Number of queued operations
+     *
+     * @return number of writes and polls in the queue
+     */
+    public synchronized int size() {
+        return writes.size() + polls.size();
+    }
+
+    /**
+     * Number of polls dropped since the queue was created, either due to full queue or duplicate regular polls
+     *
+     * @return number of dropped polls
+     */
+    public long getDroppedPolls() {
+        return droppedPolls.get();
+    }
+
+    /**
+     * Number of writes rejected since the queue was created due to full queue
+     *
+     * @return number of rejected writes
+     */
+    public long getRejectedWrites() {
+        return rejectedWrites.get();
+    }
+
+    /**
+     * Cancel all queued operations and reject all further operations
+     */
+    public void close() {
+        closed = true;
+        synchronized (this) {
+            writes.forEach(entry -> entry.future.cancel(false));
+            polls.forEach(entry -> entry.future.cancel(false));
+            writes.clear();
+            polls.clear();
+            queuedRegularPolls.clear();
+        }
+    }
+
+    @Override
+    public String toString() {
+        return String.format("EndpointTaskQueue(endpoint=%s, size=%d, droppedPolls=%d, rejectedWrites=%d, draining=%s)",
+                endpoint, size(), droppedPolls.get(), rejectedWrites.get(), draining.get());
+    }
+}
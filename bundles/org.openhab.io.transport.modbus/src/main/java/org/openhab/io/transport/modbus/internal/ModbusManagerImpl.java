@@ -13,7 +13,9 @@
 package org.openhab.io.transport.modbus.internal;
 
 import java.io.IOException;
+import java.util.ArrayList;
 import java.util.LinkedList;
+import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
@@ -24,6 +26,7 @@ import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.ScheduledFuture;
 import java.util.concurrent.ThreadPoolExecutor;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.concurrent.atomic.AtomicReference;
 
 import javax.imageio.IIOException;
@@ -82,6 +85,9 @@ import net.wimpi.modbus.net.ModbusSlaveConnection;
  * important with serial slaves but practice has shown that even many tcp slaves have limited
  * capability to handle many connections at the same time
  *
+ * Operations are queued per endpoint (see {@link EndpointTaskQueue}) such that an unresponsive endpoint occupies at
+ * most one thread of the shared thread pool, and writes are executed before polls.
+ *
  * @author Sami Salonen - Initial contribution
  */
 @Component(service = ModbusManager.class, immediate = true, configurationPid = "transport.modbus")
@@ -96,6 +102,31 @@ public class ModbusManagerImpl implements ModbusManager {
         private static final long serialVersionUID = 6939730579178506885L;
     }
 
+    /**
+     * Regular polls sharing endpoint and poll period, executed together when request planner is enabled
+     *
+     * @author Sami Salonen - Initial contribution
+     *
+     */
+    private static class PollGroup {
+        private final ModbusSlaveEndpoint endpoint;
+        private final long pollPeriodMillis;
+        private final Set<PollTask> tasks = new ConcurrentHashSet<>();
+        private volatile @Nullable List<PollTask> plan;
+        private volatile @Nullable ScheduledFuture<?> future;
+
+        private PollGroup(ModbusSlaveEndpoint endpoint, long pollPeriodMillis) {
+            this.endpoint = endpoint;
+            this.pollPeriodMillis = pollPeriodMillis;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("PollGroup(endpoint=%s, pollPeriodMillis=%d, tasks=%d)", endpoint, pollPeriodMillis,
+                    tasks.size());
+        }
+    }
+
     @FunctionalInterface
     private interface ModbusOperation<T> {
 
@@ -290,10 +321,27 @@ public class ModbusManagerImpl implements ModbusManager {
      * Note that there is no issue registering many regular polls, those do not "queue" the same way.
      *
      * Presumably slow callbacks can increase queue size with callbackThreadPool
+     *
+     * The endpoint queues do not grow beyond this limit: oldest polls are dropped, and new writes are rejected with
+     * failure callback.
      */
     private static final long WARN_QUEUE_SIZE = 500;
     private static final long MONITOR_QUEUE_INTERVAL_MILLIS = 10000;
 
+    /**
+     * Configuration parameter for enabling the request planner. When enabled, regular polls with the same endpoint
+     * and poll period are executed together, and overlapping or nearby reads with the same unit ID and function code
+     * are merged into one request.
+     */
+    private static final String CONFIG_REQUEST_PLANNER = "requestPlanner";
+
+    /**
+     * Configuration parameter for the maximum amount of unrequested registers/bits between two reads that are still
+     * merged by the request planner
+     */
+    private static final String CONFIG_REQUEST_PLANNER_MAX_GAP = "requestPlannerMaxGap";
+    private static final int DEFAULT_REQUEST_PLANNER_MAX_GAP = 0;
+
     private final PollOperation pollOperation = new PollOperation();
     private final WriteOperation writeOperation = new WriteOperation();
 
@@ -319,6 +367,20 @@ public class ModbusManagerImpl implements ModbusManager {
     private volatile @Nullable ScheduledFuture<?> monitorFuture;
     private volatile Set<ModbusCommunicationInterfaceImpl> communicationInterfaces = new ConcurrentHashSet<>();
 
+    private volatile boolean requestPlannerEnabled;
+    private volatile int requestPlannerMaxGap = DEFAULT_REQUEST_PLANNER_MAX_GAP;
+    /**
+     * Poll groups by endpoint and poll period. Used only with request planner
+     */
+    private final Map<ModbusSlaveEndpoint, Map<Long, PollGroup>> pollGroups = new ConcurrentHashMap<>();
+    private final Map<PollTask, PollGroup> pollGroupByTask = new ConcurrentHashMap<>();
+    private final AtomicLong plannedPollRequests = new AtomicLong();
+    /**
+     * Queues of pending operations, one per endpoint
+     */
+    private final Map<ModbusSlaveEndpoint, EndpointTaskQueue> taskQueues = new ConcurrentHashMap<>();
+    private final AtomicLong savedPollRequests = new AtomicLong();
+
     private void constructConnectionPool() {
         ModbusSlaveConnectionFactoryImpl connectionFactory = new ModbusSlaveConnectionFactoryImpl();
         connectionFactory.setDefaultPoolConfigurationFactory(endpoint -> {
@@ -396,6 +458,56 @@ public class ModbusManagerImpl implements ModbusManager {
         return connection;
     }
 
+    /**
+     * Get connection for the endpoint, preferring the connection kept by the previous operation of the same drain loop
+     *
+     * Since kept connection is not returned to the pool in between, the validation and age checks of the pool, and
+     * the inter-transaction delay are ensured here. Kept connection failing the checks is returned to the pool, which
+     * disconnects or destroys it as usual, and a connection is borrowed from the pool instead.
+     */
+    private Optional<ModbusSlaveConnection> borrowConnection(ModbusSlaveEndpoint endpoint,
+            EndpointTaskQueue.@Nullable Session session) {
+        if (session != null) {
+            Optional<ModbusSlaveConnection> kept = session.takeConnection();
+            ModbusSlaveConnectionFactoryImpl connectionFactory = this.connectionFactory;
+            if (kept.isPresent() && connectionFactory != null
+                    && connectionFactory.isReusable(endpoint, kept.get())) {
+                EndpointPoolConfiguration config = connectionFactory.getEndpointPoolConfiguration(endpoint);
+                if (config != null) {
+                    try {
+                        ModbusSlaveConnectionFactoryImpl.waitAtleast(session.getLastTransactionMillis(),
+                                config.getInterTransactionDelayMillis());
+                    } catch (InterruptedException e) {
+                        // Operation is aborted by the caller after noticing the interrupt
+                        Thread.currentThread().interrupt();
+                    }
+                }
+                logger.trace("Reusing connection kept from previous operation for endpoint {}", endpoint);
+                return kept;
+            }
+            returnConnection(endpoint, kept);
+        }
+        return borrowConnection(endpoint);
+    }
+
+    /**
+     * Return connection to the pool, or keep it for the next operation of the same drain loop.
+     *
+     * Connection is kept only if the endpoint is not configured to reconnect after every transaction.
+     */
+    private void releaseConnection(ModbusSlaveEndpoint endpoint, Optional<ModbusSlaveConnection> connection,
+            EndpointTaskQueue.@Nullable Session session) {
+        ModbusSlaveConnectionFactoryImpl connectionFactory = this.connectionFactory;
+        EndpointPoolConfiguration config = connectionFactory == null ? null
+                : connectionFactory.getEndpointPoolConfiguration(endpoint);
+        if (session != null && config != null && config.getReconnectAfterMillis() != 0 && connection.isPresent()
+                && connection.get().isConnected()) {
+            session.keepConnection(connection.get());
+            return;
+        }
+        returnConnection(endpoint, connection);
+    }
+
     private void invalidate(ModbusSlaveEndpoint endpoint, Optional<ModbusSlaveConnection> connection) {
         KeyedObjectPool<ModbusSlaveEndpoint, ModbusSlaveConnection> pool = connectionPool;
         if (pool == null) {
@@ -445,7 +557,8 @@ public class ModbusManagerImpl implements ModbusManager {
      * @throws PollTaskUnregistered
      */
     private <R, C extends ModbusResultCallback, F extends ModbusFailureCallback<R>, T extends TaskWithEndpoint<R, C, F>> Optional<ModbusSlaveConnection> getConnection(
-            AggregateStopWatch timer, boolean oneOffTask, @NonNull T task) throws PollTaskUnregistered {
+            AggregateStopWatch timer, boolean oneOffTask, @NonNull T task, EndpointTaskQueue.@Nullable Session session)
+            throws PollTaskUnregistered {
         KeyedObjectPool<ModbusSlaveEndpoint, ModbusSlaveConnection> connectionPool = this.connectionPool;
         if (connectionPool == null) {
             return Optional.empty();
@@ -460,7 +573,8 @@ public class ModbusManagerImpl implements ModbusManager {
         ModbusSlaveEndpoint endpoint = task.getEndpoint();
 
         R request = task.getRequest();
-        Optional<ModbusSlaveConnection> connection = timer.connection.timeSupplier(() -> borrowConnection(endpoint));
+        Optional<ModbusSlaveConnection> connection = timer.connection
+                .timeSupplier(() -> borrowConnection(endpoint, session));
         logger.trace("Executing task {} (oneOff={})! Connection received in {} ms [operation ID {}]", task, oneOffTask,
                 System.currentTimeMillis() - connectionBorrowStart, operationId);
         if (scheduledThreadPoolExecutor == null) {
@@ -501,6 +615,14 @@ public class ModbusManagerImpl implements ModbusManager {
     }
 
     private void verifyTaskIsRegistered(PollTask task) throws PollTaskUnregistered {
+        if (task instanceof CoalescedPollTask) {
+            if (((CoalescedPollTask) task).getMembers().stream().noneMatch(scheduledPollTasks::containsKey)) {
+                String msg = String.format("All member poll tasks of %s are unregistered", task);
+                logger.debug(msg);
+                throw new PollTaskUnregistered(msg);
+            }
+            return;
+        }
         if (!this.scheduledPollTasks.containsKey(task)) {
             String msg = String.format("Poll task %s is unregistered", task);
             logger.debug(msg);
@@ -521,9 +643,10 @@ public class ModbusManagerImpl implements ModbusManager {
      * @param task
      * @param oneOffTask
      * @param operation
+     * @param session session of the endpoint queue drain loop, or null to always return the connection to the pool
      */
     private <R, C extends ModbusResultCallback, F extends ModbusFailureCallback<R>, T extends TaskWithEndpoint<R, C, F>> void executeOperation(
-            T task, boolean oneOffTask, ModbusOperation<T> operation) {
+            T task, boolean oneOffTask, ModbusOperation<T> operation, EndpointTaskQueue.@Nullable Session session) {
         AggregateStopWatch timer = new AggregateStopWatch();
         timer.total.resume();
         String operationId = timer.operationId;
@@ -553,7 +676,7 @@ public class ModbusManagerImpl implements ModbusManager {
         try {
             logger.trace("Starting new operation with task {}. Trying to get connection [operation ID {}]", task,
                     operationId);
-            connection = getConnection(timer, oneOffTask, task);
+            connection = getConnection(timer, oneOffTask, task, session);
             logger.trace("Operation with task {}. Got a connection {} [operation ID {}]", task,
                     connection.isPresent() ? "successfully" : "which was unconnected (connection issue)", operationId);
             if (!connection.isPresent()) {
@@ -693,7 +816,7 @@ public class ModbusManagerImpl implements ModbusManager {
                     // Connection was reseted in error handling and needs to be reconnected.
                     // Try to re-establish connection.
                     if (willRetry && !connection.isPresent()) {
-                        connection = getConnection(timer, oneOffTask, task);
+                        connection = getConnection(timer, oneOffTask, task, session);
                     }
                 }
             }
@@ -715,7 +838,7 @@ public class ModbusManagerImpl implements ModbusManager {
             timer.connection.timeConsumer(c -> invalidate(endpoint, c), connection);
             connection = Optional.empty();
         } finally {
-            timer.connection.timeConsumer(c -> returnConnection(endpoint, c), connection);
+            timer.connection.timeConsumer(c -> releaseConnection(endpoint, c, session), connection);
             logger.trace("Connection was returned to the pool, ending operation [operation ID {}]", operationId);
             timer.suspendAllRunning();
             logger.debug("Modbus operation ended, timing info: {} [operation ID {}]", timer, operationId);
@@ -743,16 +866,15 @@ public class ModbusManagerImpl implements ModbusManager {
             if (closed) {
                 throw new IllegalStateException("Communication interface is closed already!");
             }
-            ScheduledExecutorService executor = scheduledThreadPoolExecutor;
-            Objects.requireNonNull(executor, "Not activated!");
+            EndpointTaskQueue queue = getTaskQueue(endpoint);
             long scheduleTime = System.currentTimeMillis();
             BasicPollTask task = new BasicPollTask(endpoint, request, resultCallback, failureCallback);
             logger.debug("Scheduling one-off poll task {}", task);
-            Future<?> future = executor.submit(() -> {
+            Future<?> future = queue.submitPoll(() -> {
                 long millisInThreadPoolWaiting = System.currentTimeMillis() - scheduleTime;
-                logger.debug("Will now execute one-off poll task {}, waited in thread pool for {}", task,
+                logger.debug("Will now execute one-off poll task {}, waited in queue for {}", task,
                         millisInThreadPoolWaiting);
-                executeOperation(task, true, pollOperation);
+                executeOperation(task, true, pollOperation, queue.getSession());
             });
             return future;
         }
@@ -774,26 +896,17 @@ public class ModbusManagerImpl implements ModbusManager {
                     logger.trace("Unregistering previous poll task (possibly with different period)");
                     unregisterRegularPoll(task);
                 }
-                ScheduledFuture<?> future = executor.scheduleWithFixedDelay(() -> {
-                    long started = System.currentTimeMillis();
-                    logger.debug("Executing scheduled ({}ms) poll task {}. Current millis: {}", pollPeriodMillis, task,
-                            started);
-                    try {
-                        executeOperation(task, false, pollOperation);
-                    } catch (RuntimeException e) {
-                        // We want to catch all unexpected exceptions since all unhandled exceptions make
-                        // ScheduledExecutorService halt the polling. It is better to print out the exception, and try
-                        // again
-                        // (on next poll cycle)
-                        logger.warn(
-                                "Execution of scheduled ({}ms) poll task {} failed unexpectedly. Ignoring exception, polling again according to poll interval.",
-                                pollPeriodMillis, task, e);
-                    }
-                    long finished = System.currentTimeMillis();
-                    logger.debug(
-                            "Execution of scheduled ({}ms) poll task {} finished at {}. Was started at millis: {} (=duration of {} millis)",
-                            pollPeriodMillis, task, finished, started, finished - started);
-                }, initialDelayMillis, pollPeriodMillis, TimeUnit.MILLISECONDS);
+                if (requestPlannerEnabled) {
+                    ScheduledFuture<?> future = registerToPollGroup(executor, task, pollPeriodMillis,
+                            initialDelayMillis);
+                    scheduledPollTasks.put(task, future);
+                    pollTasksRegisteredByThisCommInterface.add(task);
+                    logger.trace("Registered poll task {} to poll group with period {}", task, pollPeriodMillis);
+                    return task;
+                }
+                ScheduledFuture<?> future = executor.scheduleWithFixedDelay(
+                        () -> submitRegularPoll(task, pollPeriodMillis), initialDelayMillis, pollPeriodMillis,
+                        TimeUnit.MILLISECONDS);
 
                 scheduledPollTasks.put(task, future);
                 pollTasksRegisteredByThisCommInterface.add(task);
@@ -822,6 +935,16 @@ public class ModbusManagerImpl implements ModbusManager {
                     logger.warn("Caller tried to unregister nonexisting poll task {}", task);
                     return false;
                 }
+                PollGroup group = pollGroupByTask.remove(task);
+                if (group != null) {
+                    group.tasks.remove(task);
+                    group.plan = null;
+                    if (!group.tasks.isEmpty()) {
+                        logger.debug("Poll task {} removed from poll group {}", task, group);
+                        return true;
+                    }
+                    removePollGroup(group);
+                }
                 logger.debug("Unregistering regular poll task {} (interrupting if necessary)", task);
                 future.cancel(true);
                 logger.debug("Poll task {} canceled", task);
@@ -835,17 +958,16 @@ public class ModbusManagerImpl implements ModbusManager {
             if (closed) {
                 throw new IllegalStateException("Communication interface is closed already!");
             }
-            ScheduledExecutorService localScheduledThreadPoolExecutor = scheduledThreadPoolExecutor;
-            Objects.requireNonNull(localScheduledThreadPoolExecutor, "Not activated!");
+            EndpointTaskQueue queue = getTaskQueue(endpoint);
             WriteTask task = new BasicWriteTask(endpoint, request, resultCallback, failureCallback);
             long scheduleTime = System.currentTimeMillis();
             logger.debug("Scheduling one-off write task {}", task);
-            Future<?> future = localScheduledThreadPoolExecutor.submit(() -> {
+            Future<?> future = queue.submitWrite(() -> {
                 long millisInThreadPoolWaiting = System.currentTimeMillis() - scheduleTime;
-                logger.debug("Will now execute one-off write task {}, waited in thread pool for {}", task,
+                logger.debug("Will now execute one-off write task {}, waited in queue for {}", task,
                         millisInThreadPoolWaiting);
-                executeOperation(task, true, writeOperation);
-            });
+                executeOperation(task, true, writeOperation, queue.getSession());
+            }, error -> invokeCallbackWithError(request, failureCallback, error));
             return future;
         }
 
@@ -873,6 +995,124 @@ public class ModbusManagerImpl implements ModbusManager {
         }
     }
 
+    /**
+     * Add poll task to the poll group matching its endpoint and poll period, creating and scheduling the poll group if
+     * necessary.
+     *
+     * Caller should hold lock of this instance.
+     *
+     * @return future of the poll group
+     */
+    private ScheduledFuture<?> registerToPollGroup(ScheduledExecutorService executor, PollTask task,
+            long pollPeriodMillis, long initialDelayMillis) {
+        PollGroup group = pollGroups.computeIfAbsent(task.getEndpoint(), endpoint -> new ConcurrentHashMap<>())
+                .computeIfAbsent(pollPeriodMillis, period -> new PollGroup(task.getEndpoint(), period));
+        group.tasks.add(task);
+        group.plan = null;
+        pollGroupByTask.put(task, group);
+        ScheduledFuture<?> future = group.future;
+        if (future == null) {
+            group.future = future = executor.scheduleWithFixedDelay(() -> executePollGroup(group),
+                    initialDelayMillis, pollPeriodMillis, TimeUnit.MILLISECONDS);
+        }
+        return future;
+    }
+
+    /**
+     * Cancel polling of the (empty) poll group
+     *
+     * Caller should hold lock of this instance.
+     */
+    private void removePollGroup(PollGroup group) {
+        Map<Long, PollGroup> groupsOfEndpoint = pollGroups.get(group.endpoint);
+        if (groupsOfEndpoint != null) {
+            groupsOfEndpoint.remove(group.pollPeriodMillis, group);
+            if (groupsOfEndpoint.isEmpty()) {
+                pollGroups.remove(group.endpoint);
+            }
+        }
+        ScheduledFuture<?> future = group.future;
+        if (future != null) {
+            logger.debug("Last poll task of poll group {} unregistered, canceling the poll group", group);
+            future.cancel(true);
+            group.future = null;
+        }
+    }
+
+    private void executePollGroup(PollGroup group) {
+        long started = System.currentTimeMillis();
+        List<PollTask> plan = group.plan;
+        int memberCount = group.tasks.size();
+        if (plan == null) {
+            group.plan = plan = ModbusReadRequestPlanner.plan(new ArrayList<>(group.tasks), requestPlannerMaxGap,
+                    task -> scheduledPollTasks.containsKey(task));
+            logger.debug("Planned {} requests for the {} poll tasks of poll group {}", plan.size(), memberCount,
+                    group);
+        }
+        plannedPollRequests.addAndGet(plan.size());
+        savedPollRequests.addAndGet(Math.max(0, memberCount - plan.size()));
+        for (PollTask task : plan) {
+            submitRegularPoll(task, group.pollPeriodMillis);
+        }
+        logger.debug("Poll group {} queued, duration {} millis", group, System.currentTimeMillis() - started);
+    }
+
+    private EndpointTaskQueue getTaskQueue(ModbusSlaveEndpoint endpoint) {
+        ScheduledExecutorService executor = scheduledThreadPoolExecutor;
+        Objects.requireNonNull(executor, "Not activated!");
+        return taskQueues.computeIfAbsent(endpoint, key -> new EndpointTaskQueue(key, executor, (int) WARN_QUEUE_SIZE,
+                (int) WARN_QUEUE_SIZE, session -> returnConnection(key, session.takeConnection())));
+    }
+
+    /**
+     * Queue execution of regularly polled task. Called by the scheduler on every poll period.
+     */
+    private void submitRegularPoll(PollTask task, long pollPeriodMillis) {
+        if (scheduledThreadPoolExecutor == null) {
+            // deactivated manager
+            return;
+        }
+        EndpointTaskQueue queue = getTaskQueue(task.getEndpoint());
+        long scheduleTime = System.currentTimeMillis();
+        queue.submitRegularPoll(task, () -> {
+            long started = System.currentTimeMillis();
+            logger.debug("Executing scheduled ({}ms) poll task {}. Current millis: {}, waited in queue for {}",
+                    pollPeriodMillis, task, started, started - scheduleTime);
+            try {
+                executeOperation(task, false, pollOperation, queue.getSession());
+            } catch (RuntimeException e) {
+                // We want to catch all unexpected exceptions since all unhandled exceptions would be swallowed by the
+                // queue. It is better to print out the exception, and try again (on next poll cycle)
+                logger.warn(
+                        "Execution of scheduled ({}ms) poll task {} failed unexpectedly. Ignoring exception, polling again according to poll interval.",
+                        pollPeriodMillis, task, e);
+            }
+            long finished = System.currentTimeMillis();
+            logger.debug(
+                    "Execution of scheduled ({}ms) poll task {} finished at {}. Was started at millis: {} (=duration of {} millis)",
+                    pollPeriodMillis, task, finished, started, finished - started);
+        });
+    }
+
+    /**
+     * Number of read requests sent by the request planner since activation
+     *
+     * @return number of read requests
+     */
+    public long getPlannedPollRequests() {
+        return plannedPollRequests.get();
+    }
+
+    /**
+     * Number of read requests saved by the request planner since activation, i.e. the amount of requests that would
+     * have been sent without request planner minus the number of requests actually sent
+     *
+     * @return number of read requests saved
+     */
+    public long getSavedPollRequests() {
+        return savedPollRequests.get();
+    }
+
     @Override
     public ModbusCommunicationInterface newModbusCommunicationInterface(ModbusSlaveEndpoint endpoint,
             @Nullable EndpointPoolConfiguration configuration) throws IllegalArgumentException {
@@ -909,6 +1149,10 @@ public class ModbusManagerImpl implements ModbusManager {
 
             // Make sure connections to this endpoint are closed when they are returned to pool (which
             // is usually pretty soon as transactions should be relatively short-lived)
+            EndpointTaskQueue queue = taskQueues.remove(endpoint);
+            if (queue != null) {
+                queue.close();
+            }
             ModbusSlaveConnectionFactoryImpl localConnectionFactory = connectionFactory;
             if (localConnectionFactory != null) {
                 localConnectionFactory.disconnectOnReturn(endpoint, System.currentTimeMillis());
@@ -928,6 +1172,18 @@ public class ModbusManagerImpl implements ModbusManager {
     protected void activate(Map<String, Object> configProperties) {
         synchronized (this) {
             logger.info("Modbus manager activated");
+            Object requestPlanner = configProperties.get(CONFIG_REQUEST_PLANNER);
+            requestPlannerEnabled = requestPlanner != null && Boolean.parseBoolean(requestPlanner.toString());
+            Object maxGap = configProperties.get(CONFIG_REQUEST_PLANNER_MAX_GAP);
+            try {
+                requestPlannerMaxGap = maxGap == null ? DEFAULT_REQUEST_PLANNER_MAX_GAP
+                        : Math.max(0, Integer.parseInt(maxGap.toString().trim()));
+            } catch (NumberFormatException e) {
+                logger.warn("Invalid {} '{}', using default {}", CONFIG_REQUEST_PLANNER_MAX_GAP, maxGap,
+                        DEFAULT_REQUEST_PLANNER_MAX_GAP);
+                requestPlannerMaxGap = DEFAULT_REQUEST_PLANNER_MAX_GAP;
+            }
+            logger.debug("Request planner enabled: {}, maximum gap: {}", requestPlannerEnabled, requestPlannerMaxGap);
             if (connectionPool == null) {
                 constructConnectionPool();
             }
@@ -959,6 +1215,8 @@ public class ModbusManagerImpl implements ModbusManager {
                     }
                 }
 
+                taskQueues.values().forEach(EndpointTaskQueue::close);
+                taskQueues.clear();
                 connectionPool.close();
                 this.connectionPool = connectionPool = null;
             }
@@ -994,6 +1252,20 @@ public class ModbusManagerImpl implements ModbusManager {
                         task.getRequest().getDataLength(), future.isDone(), future.isCancelled(),
                         future.getDelay(TimeUnit.MILLISECONDS), task);
             });
+            this.taskQueues.values().forEach(queue -> {
+                pollMonitorLogger.trace("POLL MONITOR: endpoint queue {}", queue);
+                if (queue.size() >= WARN_QUEUE_SIZE) {
+                    pollMonitorLogger.warn(
+                            "Many ({}) operations queued in {}! The endpoint might be unresponsive or too slow for the configured poll intervals.",
+                            queue.size(), queue);
+                }
+            });
+            if (requestPlannerEnabled) {
+                pollMonitorLogger.trace(
+                        "POLL MONITOR: request planner: {} poll groups, {} requests sent, {} requests saved",
+                        pollGroups.values().stream().mapToInt(Map::size).sum(), plannedPollRequests.get(),
+                        savedPollRequests.get());
+            }
             if (scheduledThreadPoolExecutor instanceof ThreadPoolExecutor) {
                 ThreadPoolExecutor executor = ((ThreadPoolExecutor) scheduledThreadPoolExecutor);
                 pollMonitorLogger.trace(
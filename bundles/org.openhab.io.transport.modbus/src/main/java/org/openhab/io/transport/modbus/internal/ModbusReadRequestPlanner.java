@@ -0,0 +1,173 @@
+/**
+ * Copyright (c) 2010-2020 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.io.transport.modbus.internal;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Predicate;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+import org.eclipse.jdt.annotation.Nullable;
+import org.openhab.io.transport.modbus.ModbusReadFunctionCode;
+import org.openhab.io.transport.modbus.ModbusReadRequestBlueprint;
+import org.openhab.io.transport.modbus.PollTask;
+import org.openhab.io.transport.modbus.endpoint.ModbusSlaveEndpoint;
+
+/**
+ * Plans the wire requests for a set of poll tasks.
+ *
+ * Poll tasks sharing the same endpoint, unit ID and function code are sorted by start address and merged into
+ * {@link CoalescedPollTask}s when the gap between them is at most <code>maxGap</code> items and the merged request
+ * stays within the protocol limits (125 registers or 2000 coils/discrete inputs per request).
+ *
+ * Tasks that cannot be merged with anything are returned as-is.
+ *
+ * @author Sami Salonen - Initial contribution
+ *
+ */
+@NonNullByDefault
+public class ModbusReadRequestPlanner {
+
+    /**
+     * Maximum number of registers that can be read with one request, as per Modbus specification
+     */
+    public static final int MAX_REGISTERS_PER_READ = 125;
+
+    /**
+     * Maximum number of coils or discrete inputs that can be read with one request, as per Modbus specification
+     */
+    public static final int MAX_BITS_PER_READ = 2000;
+
+    private static class GroupKey {
+        private final ModbusSlaveEndpoint endpoint;
+        private final int unitId;
+        private final ModbusReadFunctionCode functionCode;
+
+        private GroupKey(PollTask task) {
+            this.endpoint = task.getEndpoint();
+            this.unitId = task.getRequest().getUnitID();
+            this.functionCode = task.getRequest().getFunctionCode();
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(endpoint, unitId, functionCode);
+        }
+
+        @Override
+        public boolean equals(@Nullable Object obj) {
+            if (obj == this) {
+                return true;
+            }
+            if (obj == null || obj.getClass() != getClass()) {
+                return false;
+            }
+            GroupKey other = (GroupKey) obj;
+            return unitId == other.unitId && functionCode == other.functionCode && endpoint.equals(other.endpoint);
+        }
+    }
+
+    /**
+     * Maximum number of items (registers or bits) to read in one request with the given function code
+     *
+     * @param functionCode read function code
+     * @return maximum data length of single request
+     */
+    public static int getMaxDataLength(ModbusReadFunctionCode functionCode) {
+        switch (functionCode) {
+            case READ_COILS:
+            case READ_INPUT_DISCRETES:
+                return MAX_BITS_PER_READ;
+            default:
+                return MAX_REGISTERS_PER_READ;
+        }
+    }
+
+    /**
+     * Plan wire requests for the given poll tasks
+     *
+     * @param tasks poll tasks to plan
+     * @param maxGap maximum amount of unrequested items allowed between two merged requests
+     * @return poll tasks to execute. Each of the given tasks is either returned as is, or is a member of exactly one
+     *         returned {@link CoalescedPollTask}
+     */
+    public static List<PollTask> plan(Collection<PollTask> tasks, int maxGap) {
+        return plan(tasks, maxGap, task -> true);
+    }
+
+    /**
+     * Plan wire requests for the given poll tasks
+     *
+     * @param tasks poll tasks to plan
+     * @param maxGap maximum amount of unrequested items allowed between two merged requests
+     * @param registered tells whether a task is still registered. Results of merged requests are dispatched only to
+     *            the registered members.
+     * @return poll tasks to execute. Each of the given tasks is either returned as is, or is a member of exactly one
+     *         returned {@link CoalescedPollTask}
+     */
+    public static List<PollTask> plan(Collection<PollTask> tasks, int maxGap, Predicate<PollTask> registered) {
+        Map<GroupKey, List<PollTask>> groups = new LinkedHashMap<>();
+        for (PollTask task : tasks) {
+            groups.computeIfAbsent(new GroupKey(task), key -> new ArrayList<>()).add(task);
+        }
+
+        List<PollTask> planned = new ArrayList<>(tasks.size());
+        for (List<PollTask> group : groups.values()) {
+            group.sort(Comparator.comparingInt((PollTask task) -> task.getRequest().getReference())
+                    .thenComparingInt(task -> task.getRequest().getDataLength()));
+            int maxLength = getMaxDataLength(group.get(0).getRequest().getFunctionCode());
+
+            List<PollTask> current = new ArrayList<>();
+            int currentStart = 0;
+            int currentEnd = 0;
+            for (PollTask task : group) {
+                ModbusReadRequestBlueprint request = task.getRequest();
+                int start = request.getReference();
+                int end = start + request.getDataLength();
+                if (!current.isEmpty() && start <= currentEnd + maxGap
+                        && Math.max(currentEnd, end) - currentStart <= maxLength) {
+                    current.add(task);
+                    currentEnd = Math.max(currentEnd, end);
+                    continue;
+                }
+                flush(current, currentStart, currentEnd, registered, planned);
+                current = new ArrayList<>();
+                current.add(task);
+                currentStart = start;
+                currentEnd = end;
+            }
+            flush(current, currentStart, currentEnd, registered, planned);
+        }
+        return planned;
+    }
+
+    private static void flush(List<PollTask> current, int start, int end, Predicate<PollTask> registered,
+            List<PollTask> planned) {
+        if (current.isEmpty()) {
+            return;
+        } else if (current.size() == 1) {
+            planned.add(current.get(0));
+            return;
+        }
+        PollTask first = current.get(0);
+        int maxTries = current.stream().mapToInt(PollTask::getMaxTries).max().orElse(1);
+        ModbusReadRequestBlueprint request = new ModbusReadRequestBlueprint(first.getRequest().getUnitID(),
+                first.getRequest().getFunctionCode(), start, end - start, maxTries);
+        planned.add(new CoalescedPollTask(first.getEndpoint(), request, current, registered));
+    }
+}
@@ -102,12 +102,7 @@ public class ModbusSlaveConnectionFactoryImpl
             long reconnectAfterMillis = configuration == null ? 0 : configuration.getReconnectAfterMillis();
             long connectionAgeMillis = System.currentTimeMillis() - localLastConnected;
             long disconnectIfConnectedBeforeMillis = disconnectIfConnectedBefore.getOrDefault(localEndpoint, -1L);
-            boolean disconnectSinceTooOldConnection = disconnectIfConnectedBeforeMillis < 0L ? false
-                    : localLastConnected <= disconnectIfConnectedBeforeMillis;
-            boolean shouldBeDisconnected = (reconnectAfterMillis == 0
-                    || (reconnectAfterMillis > 0 && connectionAgeMillis > reconnectAfterMillis)
-                    || disconnectSinceTooOldConnection);
-            if (shouldBeDisconnected) {
+            if (shouldBeDisconnected(localEndpoint, localLastConnected)) {
                 logger.trace(
                         "({}) Connection {} (endpoint {}) age {}ms is over the reconnectAfterMillis={}ms limit or has been connection time ({}) is after the \"disconnectBeforeConnectedMillis\"={} -> disconnecting.",
                         activityName, connection, localEndpoint, connectionAgeMillis, reconnectAfterMillis,
@@ -353,6 +348,36 @@ public class ModbusSlaveConnectionFactoryImpl
         return millisToWaitStill;
     }
 
+    /**
+     * Check whether connection of the endpoint can be used for another transaction without returning it to the pool
+     * in between.
+     *
+     * The same criteria are applied as when the connection is returned to the pool: the connection must be connected,
+     * and it must not be older than <code>reconnectAfterMillis</code> nor connected before the time given with
+     * {@link #disconnectOnReturn(ModbusSlaveEndpoint, long)}. Since the pool has at most one connection per endpoint,
+     * the last connect time of the endpoint is the connect time of the connection.
+     *
+     * @param endpoint endpoint of the connection
+     * @param connection connection borrowed from the pool
+     * @return whether the connection can be used without returning it to the pool first
+     */
+    public boolean isReusable(ModbusSlaveEndpoint endpoint, ModbusSlaveConnection connection) {
+        Long lastConnected = lastConnectMillis.get(endpoint);
+        return connection.isConnected() && lastConnected != null && !shouldBeDisconnected(endpoint, lastConnected);
+    }
+
+    private boolean shouldBeDisconnected(ModbusSlaveEndpoint endpoint, long lastConnected) {
+        @Nullable
+        EndpointPoolConfiguration configuration = endpointPoolConfigs.get(endpoint);
+        long reconnectAfterMillis = configuration == null ? 0 : configuration.getReconnectAfterMillis();
+        long connectionAgeMillis = System.currentTimeMillis() - lastConnected;
+        long disconnectIfConnectedBeforeMillis = disconnectIfConnectedBefore.getOrDefault(endpoint, -1L);
+        boolean disconnectSinceTooOldConnection = disconnectIfConnectedBeforeMillis < 0L ? false
+                : lastConnected <= disconnectIfConnectedBeforeMillis;
+        return reconnectAfterMillis == 0 || (reconnectAfterMillis > 0 && connectionAgeMillis > reconnectAfterMillis)
+                || disconnectSinceTooOldConnection;
+    }
+
     /**
      * Disconnect returning connections which have been connected before certain time
      *
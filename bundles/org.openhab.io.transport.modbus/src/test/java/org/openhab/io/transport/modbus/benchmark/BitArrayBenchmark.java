@@ -0,0 +1,81 @@
+/**
+ * Copyright (c) 2010-2020 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.io.transport.modbus.benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openhab.io.transport.modbus.BitArray;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Benchmarks access of {@link BitArray}, as done when coil or discrete input data is processed
+ *
+ * @author Sami Salonen - Initial contribution
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class BitArrayBenchmark {
+
+    /**
+     * Number of bits, typical poll size and the protocol maximum
+     */
+    @Param({ "16", "2000" })
+    public int size;
+
+    private BitArray bits;
+
+    @Setup
+    public void setUp() {
+        bits = new BitArray(size);
+        for (int i = 0; i < size; i += 3) {
+            bits.setBit(i, true);
+        }
+    }
+
+    @Benchmark
+    public void getBit(Blackhole blackhole) {
+        for (int i = 0; i < bits.size(); i++) {
+            blackhole.consume(bits.getBit(i));
+        }
+    }
+
+    @Benchmark
+    public void iterate(Blackhole blackhole) {
+        for (Boolean bit : bits) {
+            blackhole.consume(bit);
+        }
+    }
+
+    @Benchmark
+    public BitArray setBit() {
+        for (int i = 0; i < bits.size(); i++) {
+            bits.setBit(i, (i & 1) == 0);
+        }
+        return bits;
+    }
+}
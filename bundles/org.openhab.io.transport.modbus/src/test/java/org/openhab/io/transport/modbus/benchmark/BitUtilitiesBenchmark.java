@@ -0,0 +1,67 @@
+/**
+ * Copyright (c) 2010-2020 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.io.transport.modbus.benchmark;
+
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+import org.eclipse.smarthome.core.library.types.DecimalType;
+import org.openhab.io.transport.modbus.ModbusBitUtilities;
+import org.openhab.io.transport.modbus.ModbusConstants.ValueType;
+import org.openhab.io.transport.modbus.ModbusRegisterArray;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmarks {@link ModbusBitUtilities#extractStateFromRegisters} with every {@link ValueType}
+ *
+ * @author Sami Salonen - Initial contribution
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class BitUtilitiesBenchmark {
+
+    @Param({ "bit", "int8", "uint8", "int16", "uint16", "int32", "uint32", "float32", "int64", "uint64", "int32_swap",
+            "uint32_swap", "float32_swap", "int64_swap", "uint64_swap" })
+    public String valueType;
+
+    private ValueType type;
+    private ModbusRegisterArray registers;
+    private int index;
+
+    @Setup
+    public void setUp() {
+        type = ValueType.fromConfigValue(valueType);
+        registers = new ModbusRegisterArray(0x1234, 0x5678, 0x4049, 0x0fdb, 0x9abc, 0xdef0, 0x0001, 0x8000);
+        // Read from the middle of the registers, with all types
+        index = type.getBits() >= 16 ? 2 : 32 / type.getBits() + 1;
+    }
+
+    @Benchmark
+    public Optional<DecimalType> extractStateFromRegisters() {
+        return ModbusBitUtilities.extractStateFromRegisters(registers, index, type);
+    }
+}
@@ -0,0 +1,140 @@
+/**
+ * Copyright (c) 2010-2020 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.io.transport.modbus.benchmark;
+
+import java.net.InetAddress;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import org.eclipse.smarthome.core.library.types.DecimalType;
+import org.openhab.io.transport.modbus.AsyncModbusReadResult;
+import org.openhab.io.transport.modbus.ModbusBitUtilities;
+import org.openhab.io.transport.modbus.ModbusCommunicationInterface;
+import org.openhab.io.transport.modbus.ModbusConstants.ValueType;
+import org.openhab.io.transport.modbus.ModbusReadFunctionCode;
+import org.openhab.io.transport.modbus.ModbusReadRequestBlueprint;
+import org.openhab.io.transport.modbus.ModbusRegisterArray;
+import org.openhab.io.transport.modbus.endpoint.EndpointPoolConfiguration;
+import org.openhab.io.transport.modbus.endpoint.ModbusTCPSlaveEndpoint;
+import org.openhab.io.transport.modbus.test.IntegrationTestSupport.NonOSGIModbusManager;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import net.wimpi.modbus.ModbusCoupler;
+import net.wimpi.modbus.net.ModbusTCPListener;
+import net.wimpi.modbus.net.TCPSlaveConnection;
+import net.wimpi.modbus.net.TCPSlaveConnection.ModbusTCPTransportFactory;
+import net.wimpi.modbus.procimg.SimpleProcessImage;
+import net.wimpi.modbus.procimg.SimpleRegister;
+
+/**
+ * End-to-end benchmark of a poll: request is executed through the modbus manager against an in-process TCP slave,
+ * and the result callback decodes the registers the way data things do, each data thing extracting its own value
+ * from the polled registers.
+ *
+ * @author Sami Salonen - Initial contribution
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class PollPipelineBenchmark {
+
+    private static final int REGISTER_COUNT = 64;
+    private static final long TIMEOUT_MILLIS = 5000;
+
+    /**
+     * Number of data things served by the poll
+     */
+    @Param({ "1", "16" })
+    public int dataThings;
+
+    @Param({ "uint16", "float32", "int64_swap" })
+    public String valueType;
+
+    private ValueType type;
+    private ModbusTCPListener listener;
+    private NonOSGIModbusManager manager;
+    private ModbusCommunicationInterface comms;
+    private ModbusReadRequestBlueprint request;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        type = ValueType.fromConfigValue(valueType);
+        SimpleProcessImage processImage = new SimpleProcessImage();
+        for (int i = 0; i < REGISTER_COUNT; i++) {
+            processImage.addRegister(new SimpleRegister(i * 31));
+        }
+        ModbusCoupler.getReference().setProcessImage(processImage);
+        ModbusCoupler.getReference().setMaster(false);
+        ModbusCoupler.getReference().setUnitID(1);
+
+        listener = new ModbusTCPListener(1, InetAddress.getByName("127.0.0.1"),
+                socket -> new TCPSlaveConnection(socket, new ModbusTCPTransportFactory()));
+        listener.setPort(0);
+        listener.start();
+        long deadline = System.currentTimeMillis() + TIMEOUT_MILLIS;
+        while (listener.getLocalPort() <= 0 && System.currentTimeMillis() < deadline) {
+            Thread.sleep(5);
+        }
+
+        // Keep the connection open and do not wait between transactions, we want to measure our own overhead
+        EndpointPoolConfiguration configuration = new EndpointPoolConfiguration();
+        configuration.setInterTransactionDelayMillis(0);
+        configuration.setReconnectAfterMillis(-1);
+        manager = new NonOSGIModbusManager();
+        comms = manager.newModbusCommunicationInterface(
+                new ModbusTCPSlaveEndpoint("127.0.0.1", listener.getLocalPort()), configuration);
+        request = new ModbusReadRequestBlueprint(1, ModbusReadFunctionCode.READ_MULTIPLE_REGISTERS, 0,
+                REGISTER_COUNT, 1);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws Exception {
+        comms.close();
+        manager.close();
+        listener.stop();
+    }
+
+    @Benchmark
+    public Object pollAndDecode() throws Exception {
+        CompletableFuture<Object> result = new CompletableFuture<>();
+        comms.submitOneTimePoll(request, readResult -> result.complete(decode(readResult)),
+                failure -> result.completeExceptionally(failure.getCause()));
+        return result.get(TIMEOUT_MILLIS, TimeUnit.MILLISECONDS);
+    }
+
+    private Object decode(AsyncModbusReadResult readResult) {
+        ModbusRegisterArray registers = readResult.getRegisters().get();
+        int registersPerThing = Math.max(1, type.getBits() / 16);
+        DecimalType last = null;
+        for (int thing = 0; thing < dataThings; thing++) {
+            last = ModbusBitUtilities.extractStateFromRegisters(registers, thing * registersPerThing, type)
+                    .orElse(null);
+        }
+        return last == null ? readResult : last;
+    }
+}
@@ -0,0 +1,212 @@
+/**
+ * Copyright (c) 2010-2020 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.io.transport.modbus.test;
+
+import static org.hamcrest.CoreMatchers.*;
+import static org.junit.Assert.*;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.openhab.io.transport.modbus.ModbusReadFunctionCode;
+import org.openhab.io.transport.modbus.ModbusReadRequestBlueprint;
+import org.openhab.io.transport.modbus.PollTask;
+import org.openhab.io.transport.modbus.endpoint.ModbusSlaveEndpoint;
+import org.openhab.io.transport.modbus.endpoint.ModbusTCPSlaveEndpoint;
+import org.openhab.io.transport.modbus.internal.BasicPollTask;
+import org.openhab.io.transport.modbus.internal.EndpointTaskQueue;
+
+/**
+ * Tests for {@link EndpointTaskQueue}. The drain loops are run by the test thread, one at a time.
+ *
+ * @author Sami Salonen - Initial contribution
+ */
+public class EndpointTaskQueueTest {
+
+    private static final int CAPACITY = 3;
+    private static final int WRITE_CAPACITY = 20;
+
+    private final ModbusSlaveEndpoint endpoint = new ModbusTCPSlaveEndpoint("localhost", 502);
+    private final Queue<Runnable> drainLoops = new LinkedList<>();
+    private final List<String> executed = new ArrayList<>();
+    private final List<RejectedExecutionException> rejections = new ArrayList<>();
+    private int sessionsEnded;
+    private EndpointTaskQueue queue;
+
+    @Before
+    public void setUp() {
+        sessionsEnded = 0;
+        queue = new EndpointTaskQueue(endpoint, drainLoops::add, CAPACITY, WRITE_CAPACITY, session -> sessionsEnded++);
+    }
+
+    private Runnable operation(String name) {
+        return () -> executed.add(name);
+    }
+
+    private void rejected(RejectedExecutionException error) {
+        rejections.add(error);
+    }
+
+    private PollTask pollTask(int start) {
+        return new BasicPollTask(endpoint,
+                new ModbusReadRequestBlueprint(1, ModbusReadFunctionCode.READ_MULTIPLE_REGISTERS, start, 1, 1),
+                result -> {
+                }, failure -> {
+                });
+    }
+
+    private void runDrainLoops() {
+        Runnable drainLoop;
+        while ((drainLoop = drainLoops.poll()) != null) {
+            drainLoop.run();
+        }
+    }
+
+    @Test
+    public void testWritesDrainBeforePolls() {
+        queue.submitPoll(operation("poll1"));
+        queue.submitRegularPoll(pollTask(0), operation("poll2"));
+        queue.submitWrite(operation("write1"), this::rejected);
+        queue.submitWrite(operation("write2"), this::rejected);
+        assertThat(drainLoops.size(), is(equalTo(1)));
+
+        runDrainLoops();
+
+        assertThat(executed, is(equalTo(Arrays.asList("write1", "write2", "poll1", "poll2"))));
+        assertThat(queue.size(), is(equalTo(0)));
+        assertThat(sessionsEnded, is(equalTo(1)));
+    }
+
+    @Test
+    public void testDuplicateRegularPollSuppressed() {
+        PollTask task = pollTask(0);
+        queue.submitRegularPoll(task, operation("first"));
+        queue.submitRegularPoll(task, operation("second"));
+        queue.submitRegularPoll(pollTask(1), operation("other"));
+
+        assertThat(queue.size(), is(equalTo(2)));
+        assertThat(queue.getDroppedPolls(), is(equalTo(1L)));
+        runDrainLoops();
+        assertThat(executed, is(equalTo(Arrays.asList("first", "other"))));
+
+        // once executed, the same regular poll is queued again
+        queue.submitRegularPoll(task, operation("third"));
+        runDrainLoops();
+        assertThat(executed, is(equalTo(Arrays.asList("first", "other", "third"))));
+    }
+
+    @Test
+    public void testOldestPollEvictedWhenFull() {
+        PollTask oldest = pollTask(0);
+        queue.submitRegularPoll(oldest, operation("poll0"));
+        Future<?> second = queue.submitPoll(operation("poll1"));
+        queue.submitPoll(operation("poll2"));
+        Future<?> newest = queue.submitPoll(operation("poll3"));
+        queue.submitWrite(operation("write"), this::rejected);
+
+        assertThat(queue.size(), is(equalTo(CAPACITY + 1)));
+        assertThat(queue.getDroppedPolls(), is(equalTo(1L)));
+
+        // evicted regular poll can be queued again
+        queue.submitRegularPoll(oldest, operation("poll0 again"));
+        assertThat(second.isCancelled(), is(true));
+        assertThat(queue.getDroppedPolls(), is(equalTo(2L)));
+
+        runDrainLoops();
+        assertThat(executed, is(equalTo(Arrays.asList("write", "poll2", "poll3", "poll0 again"))));
+        assertThat(newest.isDone(), is(true));
+        assertThat(newest.isCancelled(), is(false));
+    }
+
+    @Test
+    public void testWriteRejectedWhenFull() throws InterruptedException {
+        for (int i = 0; i < WRITE_CAPACITY; i++) {
+            queue.submitWrite(operation("write" + i), this::rejected);
+        }
+        queue.submitPoll(operation("poll"));
+        Future<?> rejected = queue.submitWrite(operation("rejected"), this::rejected);
+
+        // queued writes are kept, the new write fails
+        assertThat(queue.size(), is(equalTo(WRITE_CAPACITY + 1)));
+        assertThat(queue.getRejectedWrites(), is(equalTo(1L)));
+        assertThat(rejections.size(), is(equalTo(1)));
+        assertThat(rejected.isDone(), is(true));
+        assertThat(rejected.isCancelled(), is(false));
+        try {
+            rejected.get();
+            fail("Rejected write should fail");
+        } catch (ExecutionException e) {
+            assertThat(e.getCause(), is(sameInstance(rejections.get(0))));
+        }
+
+        runDrainLoops();
+        assertThat(executed.size(), is(equalTo(WRITE_CAPACITY + 1)));
+        assertThat(executed.contains("rejected"), is(false));
+
+        // writes are accepted again once the queue has room
+        queue.submitWrite(operation("accepted"), this::rejected);
+        runDrainLoops();
+        assertThat(executed.get(WRITE_CAPACITY + 1), is(equalTo("accepted")));
+        assertThat(queue.getRejectedWrites(), is(equalTo(1L)));
+    }
+
+    @Test
+    public void testCloseCancelsPendingOperations() {
+        Future<?> write = queue.submitWrite(operation("write"), this::rejected);
+        Future<?> poll = queue.submitPoll(operation("poll"));
+        queue.submitRegularPoll(pollTask(0), operation("regular"));
+
+        queue.close();
+
+        assertThat(write.isCancelled(), is(true));
+        assertThat(poll.isCancelled(), is(true));
+        assertThat(queue.size(), is(equalTo(0)));
+        runDrainLoops();
+        assertThat(executed.isEmpty(), is(true));
+
+        // further operations are rejected
+        assertThat(queue.submitWrite(operation("late"), this::rejected).isCancelled(), is(true));
+        queue.submitRegularPoll(pollTask(0), operation("late regular"));
+        assertThat(queue.size(), is(equalTo(0)));
+        assertThat(drainLoops.isEmpty(), is(true));
+    }
+
+    @Test
+    public void testDrainRearmedAfterMaxOperations() {
+        for (int i = 0; i < 20; i++) {
+            queue.submitWrite(operation("write" + i), this::rejected);
+        }
+        assertThat(drainLoops.size(), is(equalTo(1)));
+
+        drainLoops.poll().run();
+        // the drain loop gives up the thread after 16 operations and re-arms itself for the rest
+        assertThat(executed.size(), is(equalTo(16)));
+        assertThat(sessionsEnded, is(equalTo(1)));
+        assertThat(queue.size(), is(equalTo(4)));
+        assertThat(drainLoops.size(), is(equalTo(1)));
+
+        drainLoops.poll().run();
+        assertThat(executed.size(), is(equalTo(20)));
+        assertThat(executed.get(19), is(equalTo("write19")));
+        assertThat(sessionsEnded, is(equalTo(2)));
+        assertThat(drainLoops.isEmpty(), is(true));
+    }
+}
@@ -0,0 +1,90 @@
+/**
+ * Copyright (c) 2010-2020 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.io.transport.modbus.test;
+
+import static org.junit.Assert.*;
+import static org.mockito.Mockito.*;
+
+import org.apache.commons.pool2.PooledObject;
+import org.junit.Before;
+import org.junit.Test;
+import org.openhab.io.transport.modbus.endpoint.EndpointPoolConfiguration;
+import org.openhab.io.transport.modbus.endpoint.ModbusSlaveEndpoint;
+import org.openhab.io.transport.modbus.endpoint.ModbusTCPSlaveEndpoint;
+import org.openhab.io.transport.modbus.internal.pooling.ModbusSlaveConnectionFactoryImpl;
+
+import net.wimpi.modbus.net.ModbusSlaveConnection;
+
+/**
+ * Tests that a connection kept borrowed between the operations of an endpoint is reused only when the pool would
+ * keep it open, too.
+ *
+ * @author Sami Salonen - Initial contribution
+ */
+public class KeptConnectionTest {
+
+    private final ModbusSlaveEndpoint endpoint = new ModbusTCPSlaveEndpoint("localhost", 502);
+    private ModbusSlaveConnectionFactoryImpl factory;
+    private EndpointPoolConfiguration config;
+    private ModbusSlaveConnection connection;
+
+    @Before
+    public void setUp() throws Exception {
+        factory = new ModbusSlaveConnectionFactoryImpl();
+        config = new EndpointPoolConfiguration();
+        config.setReconnectAfterMillis(60_000);
+        factory.setEndpointPoolConfiguration(endpoint, config);
+
+        connection = mock(ModbusSlaveConnection.class);
+        when(connection.isConnected()).thenReturn(false);
+        PooledObject<ModbusSlaveConnection> pooled = factory.wrap(connection);
+        factory.activateObject(endpoint, pooled);
+        verify(connection).connect();
+        when(connection.isConnected()).thenReturn(true);
+    }
+
+    @Test
+    public void testConnectedConnectionReusable() {
+        assertTrue(factory.isReusable(endpoint, connection));
+    }
+
+    @Test
+    public void testDisconnectedConnectionNotReusable() {
+        when(connection.isConnected()).thenReturn(false);
+        assertFalse(factory.isReusable(endpoint, connection));
+    }
+
+    @Test
+    public void testConnectionOlderThanReconnectAfterMillisNotReusable() throws InterruptedException {
+        config.setReconnectAfterMillis(1);
+        Thread.sleep(10);
+        assertFalse(factory.isReusable(endpoint, connection));
+    }
+
+    @Test
+    public void testConnectionNotReusableWhenReconnectingAfterEveryTransaction() {
+        config.setReconnectAfterMillis(0);
+        assertFalse(factory.isReusable(endpoint, connection));
+    }
+
+    @Test
+    public void testConnectionNotReusableAfterDisconnectOnReturn() {
+        factory.disconnectOnReturn(endpoint, System.currentTimeMillis());
+        assertFalse(factory.isReusable(endpoint, connection));
+    }
+
+    @Test
+    public void testNeverConnectedEndpointNotReusable() {
+        assertFalse(factory.isReusable(new ModbusTCPSlaveEndpoint("localhost", 503), connection));
+    }
+}
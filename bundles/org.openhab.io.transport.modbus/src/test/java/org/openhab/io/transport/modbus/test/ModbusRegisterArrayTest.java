@@ -0,0 +1,112 @@
+/**
+ * Copyright (c) 2010-2020 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.io.transport.modbus.test;
+
+import static org.hamcrest.CoreMatchers.*;
+import static org.junit.Assert.assertThat;
+
+import org.junit.Test;
+import org.openhab.io.transport.modbus.ModbusRegister;
+import org.openhab.io.transport.modbus.ModbusRegisterArray;
+
+/**
+ * @author Sami Salonen - Initial contribution
+ */
+public class ModbusRegisterArrayTest {
+
+    @Test
+    public void testConstructorsAgree() {
+        ModbusRegisterArray fromValues = new ModbusRegisterArray(0x1234, 0xfedc);
+        ModbusRegisterArray fromBytes = new ModbusRegisterArray(
+                new byte[] { (byte) 0x12, (byte) 0x34, (byte) 0xfe, (byte) 0xdc });
+        ModbusRegisterArray fromRegisters = new ModbusRegisterArray(
+                new ModbusRegister[] { new ModbusRegister(0x1234), new ModbusRegister(0xfedc) });
+
+        for (ModbusRegisterArray registers : new ModbusRegisterArray[] { fromValues, fromBytes, fromRegisters }) {
+            assertThat(registers.size(), is(equalTo(2)));
+            assertThat(registers.getRegister(0).getValue(), is(equalTo(0x1234)));
+            assertThat(registers.getRegister(1).getValue(), is(equalTo(0xfedc)));
+            assertThat(registers.toHexString(), is(equalTo("12 34 fe dc")));
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testOddNumberOfBytes() {
+        new ModbusRegisterArray(new byte[] { 1, 2, 3 });
+    }
+
+    @Test
+    public void test8BitGetters() {
+        ModbusRegisterArray registers = new ModbusRegisterArray(0x01ff, 0x8002);
+        // index 0 is the low byte of first register
+        assertThat(registers.getInt8(0), is(equalTo((byte) -1)));
+        assertThat(registers.getUInt8(0), is(equalTo(0xff)));
+        assertThat(registers.getInt8(1), is(equalTo((byte) 1)));
+        assertThat(registers.getInt8(2), is(equalTo((byte) 2)));
+        assertThat(registers.getInt8(3), is(equalTo((byte) -128)));
+        assertThat(registers.getUInt8(3), is(equalTo(0x80)));
+    }
+
+    @Test
+    public void test16BitGetters() {
+        ModbusRegisterArray registers = new ModbusRegisterArray(0xfffe, 0x7fff);
+        assertThat(registers.getInt16(0), is(equalTo((short) -2)));
+        assertThat(registers.getUInt16(0), is(equalTo(0xfffe)));
+        assertThat(registers.getInt16(1), is(equalTo((short) 0x7fff)));
+        assertThat(registers.getUInt16(1), is(equalTo(0x7fff)));
+    }
+
+    @Test
+    public void test32BitGetters() {
+        ModbusRegisterArray registers = new ModbusRegisterArray(0xffff, 0xfffe);
+        assertThat(registers.getInt32(0), is(equalTo(-2)));
+        assertThat(registers.getUInt32(0), is(equalTo(0xfffffffeL)));
+        assertThat(registers.getInt32Swap(0), is(equalTo(0xfffeffff)));
+        assertThat(registers.getUInt32Swap(0), is(equalTo(0xfffeffffL)));
+
+        // 1.0f is 0x3f800000
+        ModbusRegisterArray floatRegisters = new ModbusRegisterArray(0x3f80, 0x0000);
+        assertThat(floatRegisters.getFloat32(0), is(equalTo(1.0f)));
+        assertThat(new ModbusRegisterArray(0x0000, 0x3f80).getFloat32Swap(0), is(equalTo(1.0f)));
+    }
+
+    @Test
+    public void test64BitGetters() {
+        ModbusRegisterArray registers = new ModbusRegisterArray(0x0102, 0x0304, 0x0506, 0x0708);
+        assertThat(registers.getInt64(0), is(equalTo(0x0102030405060708L)));
+        assertThat(registers.getInt64Swap(0), is(equalTo(0x0708050603040102L)));
+
+        ModbusRegisterArray unsigned = new ModbusRegisterArray(0xffff, 0xffff, 0xffff, 0xfffe);
+        assertThat(unsigned.getInt64(0), is(equalTo(-2L)));
+        assertThat(Long.toUnsignedString(unsigned.getInt64(0)), is(equalTo("18446744073709551614")));
+    }
+
+    @Test
+    public void testSubArrayAndDataEquals() {
+        ModbusRegisterArray registers = new ModbusRegisterArray(1, 2, 3, 4);
+        ModbusRegisterArray sub = registers.subArray(1, 2);
+        assertThat(sub.size(), is(equalTo(2)));
+        assertThat(sub.getUInt16(0), is(equalTo(2)));
+        assertThat(sub.getUInt16(1), is(equalTo(3)));
+
+        ModbusRegisterArray other = new ModbusRegisterArray(9, 2, 3, 9);
+        assertThat(registers.dataEquals(other, 1, 2), is(equalTo(true)));
+        assertThat(registers.dataEquals(other, 0, 2), is(equalTo(false)));
+        assertThat(registers.dataEquals(sub, 1, 2), is(equalTo(false)));
+    }
+
+    @Test(expected = IndexOutOfBoundsException.class)
+    public void testSubArrayOutOfBounds() {
+        new ModbusRegisterArray(1, 2).subArray(1, 2);
+    }
+}
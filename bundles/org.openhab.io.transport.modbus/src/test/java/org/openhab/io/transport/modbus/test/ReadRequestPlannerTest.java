@@ -0,0 +1,162 @@
+/**
+ * Copyright (c) 2010-2020 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.io.transport.modbus.test;
+
+import static org.hamcrest.CoreMatchers.*;
+import static org.junit.Assert.assertThat;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import org.junit.Test;
+import org.openhab.io.transport.modbus.AsyncModbusFailure;
+import org.openhab.io.transport.modbus.AsyncModbusReadResult;
+import org.openhab.io.transport.modbus.BitArray;
+import org.openhab.io.transport.modbus.ModbusReadFunctionCode;
+import org.openhab.io.transport.modbus.ModbusReadRequestBlueprint;
+import org.openhab.io.transport.modbus.ModbusRegisterArray;
+import org.openhab.io.transport.modbus.PollTask;
+import org.openhab.io.transport.modbus.endpoint.ModbusSlaveEndpoint;
+import org.openhab.io.transport.modbus.endpoint.ModbusTCPSlaveEndpoint;
+import org.openhab.io.transport.modbus.internal.BasicPollTask;
+import org.openhab.io.transport.modbus.internal.CoalescedPollTask;
+import org.openhab.io.transport.modbus.internal.ModbusReadRequestPlanner;
+
+/**
+ * @author Sami Salonen - Initial contribution
+ */
+public class ReadRequestPlannerTest {
+
+    private final ModbusSlaveEndpoint endpoint = new ModbusTCPSlaveEndpoint("localhost", 502);
+    private final List<AsyncModbusReadResult> results = new ArrayList<>();
+    private final List<AsyncModbusFailure<ModbusReadRequestBlueprint>> failures = new ArrayList<>();
+
+    private PollTask task(int unitId, ModbusReadFunctionCode functionCode, int start, int length) {
+        return new BasicPollTask(endpoint, new ModbusReadRequestBlueprint(unitId, functionCode, start, length, 3),
+                results::add, failures::add);
+    }
+
+    @Test
+    public void testAdjacentRegistersAreMerged() {
+        PollTask first = task(1, ModbusReadFunctionCode.READ_MULTIPLE_REGISTERS, 0, 2);
+        PollTask second = task(1, ModbusReadFunctionCode.READ_MULTIPLE_REGISTERS, 2, 3);
+        List<PollTask> plan = ModbusReadRequestPlanner.plan(Arrays.asList(second, first), 0);
+
+        assertThat(plan.size(), is(equalTo(1)));
+        assertThat(plan.get(0), is(instanceOf(CoalescedPollTask.class)));
+        ModbusReadRequestBlueprint request = plan.get(0).getRequest();
+        assertThat(request.getReference(), is(equalTo(0)));
+        assertThat(request.getDataLength(), is(equalTo(5)));
+    }
+
+    @Test
+    public void testGapRespected() {
+        PollTask first = task(1, ModbusReadFunctionCode.READ_MULTIPLE_REGISTERS, 0, 2);
+        PollTask second = task(1, ModbusReadFunctionCode.READ_MULTIPLE_REGISTERS, 5, 1);
+
+        assertThat(ModbusReadRequestPlanner.plan(Arrays.asList(first, second), 2).size(), is(equalTo(2)));
+        List<PollTask> plan = ModbusReadRequestPlanner.plan(Arrays.asList(first, second), 3);
+        assertThat(plan.size(), is(equalTo(1)));
+        assertThat(plan.get(0).getRequest().getDataLength(), is(equalTo(6)));
+    }
+
+    @Test
+    public void testDifferentUnitOrFunctionCodeNotMerged() {
+        List<PollTask> plan = ModbusReadRequestPlanner
+                .plan(Arrays.asList(task(1, ModbusReadFunctionCode.READ_MULTIPLE_REGISTERS, 0, 2),
+                        task(2, ModbusReadFunctionCode.READ_MULTIPLE_REGISTERS, 2, 2),
+                        task(1, ModbusReadFunctionCode.READ_INPUT_REGISTERS, 2, 2)), 10);
+        assertThat(plan.size(), is(equalTo(3)));
+    }
+
+    @Test
+    public void testProtocolLimitRespected() {
+        PollTask first = task(1, ModbusReadFunctionCode.READ_MULTIPLE_REGISTERS, 0, 100);
+        PollTask second = task(1, ModbusReadFunctionCode.READ_MULTIPLE_REGISTERS, 100, 26);
+        assertThat(ModbusReadRequestPlanner.plan(Arrays.asList(first, second), 0).size(), is(equalTo(2)));
+
+        PollTask coils1 = task(1, ModbusReadFunctionCode.READ_COILS, 0, 100);
+        PollTask coils2 = task(1, ModbusReadFunctionCode.READ_COILS, 100, 26);
+        assertThat(ModbusReadRequestPlanner.plan(Arrays.asList(coils1, coils2), 0).size(), is(equalTo(1)));
+    }
+
+    @Test
+    public void testRegisterResponseSplit() {
+        PollTask first = task(1, ModbusReadFunctionCode.READ_MULTIPLE_REGISTERS, 10, 2);
+        PollTask second = task(1, ModbusReadFunctionCode.READ_MULTIPLE_REGISTERS, 11, 2);
+        PollTask merged = ModbusReadRequestPlanner.plan(Arrays.asList(first, second), 0).get(0);
+
+        merged.getResultCallback()
+                .handle(new AsyncModbusReadResult(merged.getRequest(), new ModbusRegisterArray(1, 2, 3)));
+
+        assertThat(results.size(), is(equalTo(2)));
+        assertThat(results.get(0).getRequest(), is(equalTo(first.getRequest())));
+        assertThat(results.get(0).getRegisters().get().getRegister(0).getValue(), is(equalTo(1)));
+        assertThat(results.get(0).getRegisters().get().getRegister(1).getValue(), is(equalTo(2)));
+        assertThat(results.get(1).getRequest(), is(equalTo(second.getRequest())));
+        assertThat(results.get(1).getRegisters().get().getRegister(0).getValue(), is(equalTo(2)));
+        assertThat(results.get(1).getRegisters().get().getRegister(1).getValue(), is(equalTo(3)));
+    }
+
+    @Test
+    public void testBitResponseSplit() {
+        PollTask first = task(1, ModbusReadFunctionCode.READ_COILS, 0, 1);
+        PollTask second = task(1, ModbusReadFunctionCode.READ_COILS, 2, 2);
+        PollTask merged = ModbusReadRequestPlanner.plan(Arrays.asList(first, second), 1).get(0);
+
+        // responses are in 8 bit chunks, i.e. there might be more bits than requested
+        merged.getResultCallback().handle(new AsyncModbusReadResult(merged.getRequest(),
+                new BitArray(true, false, false, true, true, false, false, false)));
+
+        assertThat(results.size(), is(equalTo(2)));
+        assertThat(results.get(0).getBits().get(), is(equalTo(new BitArray(true))));
+        assertThat(results.get(1).getBits().get(), is(equalTo(new BitArray(false, true))));
+    }
+
+    @Test
+    public void testFailureDispatchedToAllMembers() {
+        PollTask first = task(1, ModbusReadFunctionCode.READ_INPUT_REGISTERS, 0, 1);
+        PollTask second = task(1, ModbusReadFunctionCode.READ_INPUT_REGISTERS, 1, 1);
+        PollTask merged = ModbusReadRequestPlanner.plan(Arrays.asList(first, second), 0).get(0);
+
+        Exception error = new Exception("test");
+        merged.getFailureCallback().handle(new AsyncModbusFailure<>(merged.getRequest(), error));
+
+        assertThat(failures.size(), is(equalTo(2)));
+        assertThat(failures.get(0).getRequest(), is(equalTo(first.getRequest())));
+        assertThat(failures.get(1).getRequest(), is(equalTo(second.getRequest())));
+        assertThat(failures.get(1).getCause(), is(sameInstance(error)));
+    }
+
+    @Test
+    public void testUnregisteredMemberSkipped() {
+        PollTask first = task(1, ModbusReadFunctionCode.READ_MULTIPLE_REGISTERS, 0, 1);
+        PollTask second = task(1, ModbusReadFunctionCode.READ_MULTIPLE_REGISTERS, 1, 1);
+        Set<PollTask> registered = new HashSet<>(Arrays.asList(first, second));
+        PollTask merged = ModbusReadRequestPlanner.plan(Arrays.asList(first, second), 0, registered::contains).get(0);
+
+        // second is unregistered while the merged read is in flight
+        registered.remove(second);
+        merged.getResultCallback()
+                .handle(new AsyncModbusReadResult(merged.getRequest(), new ModbusRegisterArray(1, 2)));
+        merged.getFailureCallback().handle(new AsyncModbusFailure<>(merged.getRequest(), new Exception("test")));
+
+        assertThat(results.size(), is(equalTo(1)));
+        assertThat(results.get(0).getRequest(), is(equalTo(first.getRequest())));
+        assertThat(failures.size(), is(equalTo(1)));
+        assertThat(failures.get(0).getRequest(), is(equalTo(first.getRequest())));
+    }
+}
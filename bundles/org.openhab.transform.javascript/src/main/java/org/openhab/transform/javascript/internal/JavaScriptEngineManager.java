@@ -17,9 +17,20 @@ import java.io.FileInputStream;
 import java.io.IOException;
 import java.io.InputStreamReader;
 import java.io.Reader;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Collections;
 import java.util.Map;
+import java.util.Queue;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
+import javax.script.Bindings;
 import javax.script.Compilable;
 import javax.script.CompiledScript;
 import javax.script.ScriptEngine;
@@ -27,13 +38,24 @@ import javax.script.ScriptEngineManager;
 import javax.script.ScriptException;
 
 import org.eclipse.jdt.annotation.NonNullByDefault;
+import org.eclipse.jdt.annotation.Nullable;
+import org.eclipse.smarthome.core.common.ThreadPoolManager;
 import org.eclipse.smarthome.core.transform.TransformationException;
+import org.osgi.service.component.annotations.Activate;
 import org.osgi.service.component.annotations.Component;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 /**
- * Simple cache for compiled JavaScript files.
+ * Cache for compiled JavaScript files.
+ *
+ * Script engines are not thread-safe, so each script has a pool of instances, each compiled in its own engine.
+ * Concurrent evaluations of the same script use different instances and run in parallel. The pools are looked up and
+ * borrowed from without locking. Only the compiled scripts are reused, every evaluation gets fresh bindings so no state
+ * is carried over from one evaluation to the next.
+ *
+ * Scripts found in the transformation folder are compiled in the background on activation, so the first
+ * transformation does not pay for the compilation.
  *
  * @author Thomas Kordelle - pre compiled scripts
  *
@@ -42,39 +64,206 @@ import org.slf4j.LoggerFactory;
 @Component(service = JavaScriptEngineManager.class)
 public class JavaScriptEngineManager {
 
+    /**
+     * Maximum number of idle instances kept per script
+     */
+    private static final int MAX_IDLE_INSTANCES = Math.max(2, Runtime.getRuntime().availableProcessors());
+
+    private static final String SCRIPT_EXTENSION = ".js";
+
+    /**
+     * Evaluation statistics of a script
+     *
+     * @author Thomas Kordelle - Initial contribution
+     */
+    public static class ScriptStatistics {
+        private final AtomicLong evaluations = new AtomicLong();
+        private final AtomicLong totalNanos = new AtomicLong();
+        private final AtomicLong maxNanos = new AtomicLong();
+        private final AtomicInteger instances = new AtomicInteger();
+
+        private void record(long nanos) {
+            evaluations.incrementAndGet();
+            totalNanos.addAndGet(nanos);
+            maxNanos.accumulateAndGet(nanos, Math::max);
+        }
+
+        public long getEvaluations() {
+            return evaluations.get();
+        }
+
+        public long getTotalNanos() {
+            return totalNanos.get();
+        }
+
+        public long getMaxNanos() {
+            return maxNanos.get();
+        }
+
+        /**
+         * Number of compiled instances created, i.e. the highest concurrency seen with this script
+         */
+        public int getInstances() {
+            return instances.get();
+        }
+
+        @Override
+        public String toString() {
+            long count = evaluations.get();
+            return String.format("evaluations=%d, avg=%.3f ms, max=%.3f ms, instances=%d", count,
+                    count == 0 ? 0.0 : totalNanos.get() / 1e6 / count, maxNanos.get() / 1e6, instances.get());
+        }
+    }
+
+    /**
+     * Script compiled in its own engine
+     */
+    private static class ScriptInstance {
+        private final ScriptPool pool;
+        private final CompiledScript script;
+
+        private ScriptInstance(ScriptPool pool, CompiledScript script) {
+            this.pool = pool;
+            this.script = script;
+        }
+    }
+
+    /**
+     * Idle instances of one script
+     */
+    private static class ScriptPool {
+        private final String filename;
+        private final Queue<ScriptInstance> idle = new ConcurrentLinkedQueue<>();
+        private final AtomicInteger idleCount = new AtomicInteger();
+        private final ScriptStatistics statistics = new ScriptStatistics();
+
+        private ScriptPool(String filename) {
+            this.filename = filename;
+        }
+    }
+
     private final Logger logger = LoggerFactory.getLogger(JavaScriptEngineManager.class);
     private final ScriptEngineManager manager = new ScriptEngineManager();
-    /* keep memory foot print low. max 2 concurrent threads are estimated */
-    private final Map<String, CompiledScript> compiledScriptMap = new ConcurrentHashMap<>(4, 0.5f, 2);
+    private final Map<String, ScriptPool> scriptPools = new ConcurrentHashMap<>();
+
+    @Activate
+    public void activate() {
+        ThreadPoolManager.getPool(ThreadPoolManager.THREAD_POOL_NAME_COMMON).execute(this::warmUp);
+    }
 
     /**
-     * Get a pre compiled script {@link CompiledScript} from cache. If it is not in the cache, then load it from
-     * storage and put a pre compiled version into the cache.
-     *
-     * @param filename name of the JavaScript file to load
-     * @return a pre compiled script {@link CompiledScript}
-     * @throws TransformationException if compile of JavaScript failed
+     * Compile all the scripts of the transformation folder
      */
-    protected CompiledScript getScript(final String filename) throws TransformationException {
-        synchronized (compiledScriptMap) {
-            if (compiledScriptMap.containsKey(filename)) {
-                logger.debug("Loading JavaScript {} from cache.", filename);
-                return compiledScriptMap.get(filename);
-            } else {
-                final String path = TransformationScriptWatcher.TRANSFORM_FOLDER + File.separator + filename;
-                logger.debug("Loading script {} from storage ", path);
-                try (final Reader reader = new InputStreamReader(new FileInputStream(path))) {
-                    final ScriptEngine engine = manager.getEngineByName("javascript");
-                    final CompiledScript cScript = ((Compilable) engine).compile(reader);
-                    logger.debug("Putting compiled JavaScript {} to cache.", cScript);
-                    compiledScriptMap.put(filename, cScript);
-                    return cScript;
-                } catch (IOException | ScriptException e) {
-                    throw new TransformationException("An error occurred while loading JavaScript. " + e.getMessage(),
-                            e);
+    private void warmUp() {
+        Path folder = Paths.get(TransformationScriptWatcher.TRANSFORM_FOLDER);
+        if (!Files.isDirectory(folder)) {
+            return;
+        }
+        try (Stream<Path> files = Files.walk(folder)) {
+            for (Path file : files.filter(path -> path.toString().endsWith(SCRIPT_EXTENSION))
+                    .collect(Collectors.toList())) {
+                String filename = folder.relativize(file).toString();
+                try {
+                    ScriptPool pool = scriptPools.get(filename);
+                    if (pool == null || pool.idleCount.get() == 0) {
+                        release(compile(filename));
+                    }
+                } catch (TransformationException e) {
+                    logger.debug("Could not pre compile JavaScript {}: {}", filename, e.getMessage());
                 }
             }
+        } catch (IOException e) {
+            logger.debug("Could not list JavaScript files in {}: {}", folder, e.getMessage());
+        }
+    }
+
+    /**
+     * Compile new instance of the script. The pool of the script is created only once the script has been compiled
+     * successfully, so missing or broken scripts do not leave empty pools behind.
+     */
+    private ScriptInstance compile(final String filename) throws TransformationException {
+        final String path = getScriptPath(filename);
+        logger.debug("Loading script {} from storage ", path);
+        final CompiledScript cScript;
+        try (final Reader reader = new InputStreamReader(new FileInputStream(path))) {
+            final ScriptEngine engine = manager.getEngineByName("javascript");
+            cScript = ((Compilable) engine).compile(reader);
+        } catch (IOException | ScriptException e) {
+            throw new TransformationException("An error occurred while loading JavaScript. " + e.getMessage(), e);
         }
+        ScriptPool pool = scriptPools.computeIfAbsent(filename, ScriptPool::new);
+        pool.statistics.instances.incrementAndGet();
+        return new ScriptInstance(pool, cScript);
+    }
+
+    /**
+     * Path of the script file
+     *
+     * @param filename name of the script file in the transformation folder
+     * @return path of the script file
+     */
+    protected String getScriptPath(String filename) {
+        return TransformationScriptWatcher.TRANSFORM_FOLDER + File.separator + filename;
+    }
+
+    private ScriptInstance borrow(final String filename) throws TransformationException {
+        ScriptPool pool = scriptPools.get(filename);
+        if (pool != null) {
+            ScriptInstance instance = pool.idle.poll();
+            if (instance != null) {
+                pool.idleCount.decrementAndGet();
+                logger.trace("Loading JavaScript {} from cache.", filename);
+                return instance;
+            }
+        }
+        return compile(filename);
+    }
+
+    private void release(ScriptInstance instance) {
+        ScriptPool pool = instance.pool;
+        // Instances of scripts removed from cache meanwhile are dropped
+        if (scriptPools.get(pool.filename) != pool) {
+            return;
+        }
+        if (pool.idleCount.incrementAndGet() > MAX_IDLE_INSTANCES) {
+            pool.idleCount.decrementAndGet();
+            return;
+        }
+        pool.idle.add(instance);
+    }
+
+    /**
+     * Evaluate the script with the given input. The script is compiled, if there is no compiled instance of it
+     * available.
+     *
+     * @param filename name of the JavaScript file
+     * @param input value of the <code>input</code> variable
+     * @return result of the evaluation
+     * @throws TransformationException if compile of JavaScript failed
+     * @throws ScriptException if evaluation of JavaScript failed
+     */
+    protected @Nullable Object eval(final String filename, final String input)
+            throws TransformationException, ScriptException {
+        ScriptInstance instance = borrow(filename);
+        long start = System.nanoTime();
+        try {
+            Bindings bindings = instance.script.getEngine().createBindings();
+            bindings.put("input", input);
+            return instance.script.eval(bindings);
+        } finally {
+            instance.pool.statistics.record(System.nanoTime() - start);
+            release(instance);
+        }
+    }
+
+    /**
+     * Get evaluation statistics of the scripts
+     *
+     * @return statistics by script file name
+     */
+    public Map<String, ScriptStatistics> getStatistics() {
+        return Collections.unmodifiableMap(scriptPools.entrySet().stream()
+                .collect(Collectors.toMap(Map.Entry::getKey, entry -> entry.getValue().statistics)));
     }
 
     /**
@@ -84,6 +273,9 @@ public class JavaScriptEngineManager {
      */
     protected void removeFromCache(String fileName) {
         logger.debug("Removing JavaScript {} from cache.", fileName);
-        compiledScriptMap.remove(fileName);
+        ScriptPool pool = scriptPools.remove(fileName);
+        if (pool != null) {
+            logger.debug("Statistics of removed JavaScript {}: {}", fileName, pool.statistics);
+        }
     }
 }
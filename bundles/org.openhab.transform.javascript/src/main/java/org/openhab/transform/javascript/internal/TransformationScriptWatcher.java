@@ -16,6 +16,7 @@ import static java.nio.file.StandardWatchEventKinds.*;
 
 import java.io.File;
 import java.nio.file.Path;
+import java.nio.file.Paths;
 import java.nio.file.WatchEvent;
 import java.nio.file.WatchEvent.Kind;
 
@@ -78,7 +79,13 @@ public class TransformationScriptWatcher extends AbstractWatchService {
         }
 
         final WatchEvent<Path> ev = (WatchEvent<Path>) event;
-        final Path filename = ev.context();
+        // scripts in subfolders are cached with their path relative to the transformation folder
+        Path filename;
+        try {
+            filename = Paths.get(TRANSFORM_FOLDER).relativize(path);
+        } catch (IllegalArgumentException e) {
+            filename = ev.context();
+        }
 
         logger.debug("Reloading javascript file {}.", filename);
 
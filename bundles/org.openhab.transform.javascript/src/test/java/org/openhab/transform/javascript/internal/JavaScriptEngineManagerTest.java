@@ -0,0 +1,91 @@
+/**
+ * Copyright (c) 2010-2020 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.transform.javascript.internal;
+
+import static org.junit.Assert.*;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Collections;
+
+import javax.script.ScriptException;
+
+import org.eclipse.smarthome.core.transform.TransformationException;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+/**
+ * Tests that evaluations of a cached script do not see each other's state, and that failed compiles are not cached.
+ *
+ * @author Thomas Kordelle - Initial contribution
+ */
+public class JavaScriptEngineManagerTest {
+
+    private static final String SCRIPT = "counter.js";
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private JavaScriptEngineManager manager;
+
+    @Before
+    public void setUp() throws IOException {
+        File script = folder.newFile(SCRIPT);
+        Files.write(script.toPath(),
+                ("var count = typeof count === 'undefined' ? 1 : count + 1;\n" //
+                        + "previous = typeof previous === 'undefined' ? 'none' : previous;\n" //
+                        + "var result = input + ':' + count + ':' + previous;\n" //
+                        + "previous = input;\n" //
+                        + "result").getBytes(StandardCharsets.UTF_8));
+        manager = new JavaScriptEngineManager() {
+            @Override
+            protected String getScriptPath(String filename) {
+                return new File(folder.getRoot(), filename).getPath();
+            }
+        };
+    }
+
+    @Test
+    public void testEvaluationsDoNotShareState() throws TransformationException, ScriptException {
+        assertEquals("a:1:none", manager.eval(SCRIPT, "a"));
+        assertEquals("b:1:none", manager.eval(SCRIPT, "b"));
+        // both evaluations used the same compiled instance
+        assertEquals(1, manager.getStatistics().get(SCRIPT).getInstances());
+    }
+
+    @Test
+    public void testScriptCompiledAgainWhenRemovedFromCache() throws TransformationException, ScriptException {
+        assertEquals("a:1:none", manager.eval(SCRIPT, "a"));
+        manager.removeFromCache(SCRIPT);
+        assertEquals("b:1:none", manager.eval(SCRIPT, "b"));
+        assertEquals(1, manager.getStatistics().get(SCRIPT).getInstances());
+        assertEquals(1, manager.getStatistics().get(SCRIPT).getEvaluations());
+    }
+
+    @Test
+    public void testMissingScriptNotCached() throws ScriptException {
+        for (int i = 0; i < 3; i++) {
+            try {
+                manager.eval("missing" + i + ".js", "a");
+                fail("Evaluation of missing script should fail");
+            } catch (TransformationException e) {
+                // expected
+            }
+        }
+        assertEquals(Collections.emptySet(), manager.getStatistics().keySet());
+    }
+}
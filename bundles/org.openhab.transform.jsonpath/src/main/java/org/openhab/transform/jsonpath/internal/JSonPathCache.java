@@ -0,0 +1,199 @@
+/**
+ * Copyright (c) 2010-2020 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.transform.jsonpath.internal;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+import org.eclipse.jdt.annotation.Nullable;
+
+import com.jayway.jsonpath.Configuration;
+import com.jayway.jsonpath.InvalidJsonException;
+import com.jayway.jsonpath.InvalidPathException;
+import com.jayway.jsonpath.JsonPath;
+
+/**
+ * Caches for the {@link JSonPathTransformationService}.
+ *
+ * Compiled {@link JsonPath} expressions are kept in a bounded LRU cache. Parsed JSON documents are kept only for a
+ * short while, so that several transformations applied to the same payload (e.g. one MQTT message mapped to many
+ * channels) share a single parse.
+ *
+ * @author Sebastian Janzen - Initial contribution
+ */
+@NonNullByDefault
+public class JSonPathCache {
+
+    /**
+     * Maximum number of compiled expressions to keep
+     */
+    public static final int DEFAULT_MAX_PATHS = 256;
+
+    /**
+     * Maximum number of parsed documents to keep
+     */
+    public static final int DEFAULT_MAX_DOCUMENTS = 8;
+
+    /**
+     * Time after which parsed documents are parsed again, in milliseconds
+     */
+    public static final long DEFAULT_DOCUMENT_TTL_MILLIS = 5000L;
+
+    private static class Document {
+        private final Object json;
+        private final long expiresMillis;
+
+        private Document(Object json, long expiresMillis) {
+            this.json = json;
+            this.expiresMillis = expiresMillis;
+        }
+    }
+
+    private static class LRUMap<K, V> extends LinkedHashMap<K, V> {
+        private static final long serialVersionUID = 1L;
+        private final int maxSize;
+
+        private LRUMap(int maxSize) {
+            super(16, 0.75f, true);
+            this.maxSize = maxSize;
+        }
+
+        @Override
+        protected boolean removeEldestEntry(Map.@Nullable Entry<K, V> eldest) {
+            return size() > maxSize;
+        }
+    }
+
+    private final Configuration configuration = Configuration.defaultConfiguration();
+    private final long documentTtlMillis;
+    private final LRUMap<String, JsonPath> paths;
+    private final LRUMap<String, Document> documents;
+
+    private final AtomicLong pathHits = new AtomicLong();
+    private final AtomicLong pathMisses = new AtomicLong();
+    private final AtomicLong documentHits = new AtomicLong();
+    private final AtomicLong documentMisses = new AtomicLong();
+
+    public JSonPathCache() {
+        this(DEFAULT_MAX_PATHS, DEFAULT_MAX_DOCUMENTS, DEFAULT_DOCUMENT_TTL_MILLIS);
+    }
+
+    /**
+     *
+     * @param maxPaths maximum number of compiled expressions to keep
+     * @param maxDocuments maximum number of parsed documents to keep, 0 to disable document caching
+     * @param documentTtlMillis time to keep parsed documents, in milliseconds
+     */
+    public JSonPathCache(int maxPaths, int maxDocuments, long documentTtlMillis) {
+        this.paths = new LRUMap<>(maxPaths);
+        this.documents = new LRUMap<>(maxDocuments);
+        this.documentTtlMillis = documentTtlMillis;
+    }
+
+    /**
+     * Get the compiled expression, compiling and caching it if necessary
+     *
+     * @param expression JsonPath expression
+     * @return compiled expression
+     * @throws InvalidPathException if the expression is invalid
+     */
+    public JsonPath getPath(String expression) {
+        synchronized (paths) {
+            JsonPath path = paths.get(expression);
+            if (path != null) {
+                pathHits.incrementAndGet();
+                return path;
+            }
+        }
+        pathMisses.incrementAndGet();
+        // compile outside the lock, invalid expressions are not cached
+        JsonPath path = JsonPath.compile(expression);
+        synchronized (paths) {
+            paths.put(expression, path);
+        }
+        return path;
+    }
+
+    /**
+     * Get the parsed document, parsing and caching it if necessary
+     *
+     * @param source JSON string
+     * @return parsed document, to be used read-only
+     * @throws InvalidJsonException if the source is not valid JSON
+     */
+    public Object getDocument(String source) {
+        long now = System.currentTimeMillis();
+        synchronized (documents) {
+            Document document = documents.get(source);
+            if (document != null && document.expiresMillis > now) {
+                documentHits.incrementAndGet();
+                return document.json;
+            }
+        }
+        documentMisses.incrementAndGet();
+        Object json = configuration.jsonProvider().parse(source);
+        synchronized (documents) {
+            documents.put(source, new Document(json, now + documentTtlMillis));
+        }
+        return json;
+    }
+
+    /**
+     * Evaluate the expression against the source, using the caches
+     *
+     * @param expression JsonPath expression
+     * @param source JSON string
+     * @return result of the evaluation
+     * @throws InvalidPathException if the expression is invalid
+     * @throws InvalidJsonException if the source is not valid JSON
+     */
+    public @Nullable Object read(String expression, String source) {
+        return getPath(expression).read(getDocument(source), configuration);
+    }
+
+    public long getPathHits() {
+        return pathHits.get();
+    }
+
+    public long getPathMisses() {
+        return pathMisses.get();
+    }
+
+    public long getDocumentHits() {
+        return documentHits.get();
+    }
+
+    public long getDocumentMisses() {
+        return documentMisses.get();
+    }
+
+    /**
+     * Drop all cached expressions and documents
+     */
+    public void clear() {
+        synchronized (paths) {
+            paths.clear();
+        }
+        synchronized (documents) {
+            documents.clear();
+        }
+    }
+
+    @Override
+    public String toString() {
+        return String.format("JSonPathCache(pathHits=%d, pathMisses=%d, documentHits=%d, documentMisses=%d)",
+                pathHits.get(), pathMisses.get(), documentHits.get(), documentMisses.get());
+    }
+}
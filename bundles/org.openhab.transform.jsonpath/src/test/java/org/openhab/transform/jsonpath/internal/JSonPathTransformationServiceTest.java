@@ -128,4 +128,41 @@ public class JSonPathTransformationServiceTest {
         String transformedResponse = processor.transform("$.data", json);
         assertEquals(list, transformedResponse);
     }
+
+    @Test
+    public void testDocumentParsedOnceForSeveralPaths() throws TransformationException {
+        assertEquals("bob", processor.transform("$[0].name", jsonArray));
+        assertEquals("alice", processor.transform("$[1].name", jsonArray));
+        assertEquals("bob", processor.transform("$[0].name", jsonArray));
+
+        JSonPathCache cache = processor.getCache();
+        assertEquals(1, cache.getDocumentMisses());
+        assertEquals(2, cache.getDocumentHits());
+        assertEquals(2, cache.getPathMisses());
+        assertEquals(1, cache.getPathHits());
+    }
+
+    @Test
+    public void testInvalidPathNotCached() {
+        for (int i = 0; i < 2; i++) {
+            try {
+                processor.transform("$$", jsonArray);
+                Assert.fail("expected exception");
+            } catch (TransformationException e) {
+                // expected
+            }
+        }
+        assertEquals(0, processor.getCache().getPathHits());
+        assertEquals(2, processor.getCache().getPathMisses());
+    }
+
+    @Test
+    public void testDocumentExpires() {
+        JSonPathCache cache = new JSonPathCache(4, 4, 0);
+        Object first = cache.getDocument(jsonArray);
+        Object second = cache.getDocument(jsonArray);
+        Assert.assertNotSame(first, second);
+        assertEquals(0, cache.getDocumentHits());
+        assertEquals(2, cache.getDocumentMisses());
+    }
 }
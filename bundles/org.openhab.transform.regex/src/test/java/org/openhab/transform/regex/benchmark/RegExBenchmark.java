@@ -0,0 +1,116 @@
+/**
+ * Copyright (c) 2010-2020 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.transform.regex.benchmark;
+
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import org.eclipse.smarthome.core.transform.TransformationException;
+import org.openhab.transform.regex.internal.RegExTransformationService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.CommandLineOptionException;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Benchmarks the REGEX transformation with typical channel payloads, comparing the cached patterns of
+ * {@link RegExTransformationService} against compiling the pattern for every value.
+ *
+ * @author Thomas.Eichstaedt-Engelen - Initial contribution
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class RegExBenchmark {
+
+    /**
+     * Payload and expression pairs
+     * <ul>
+     * <li>obis: smart meter telegram line read from a serial port</li>
+     * <li>mqtt: small JSON message</li>
+     * <li>substitution: decimal comma replaced with the substitution form</li>
+     * </ul>
+     */
+    @Param({ "obis", "mqtt", "substitution" })
+    public String payload;
+
+    private static final Pattern SUBSTR_PATTERN = Pattern.compile("^s/(.*?[^\\\\])/(.*?[^\\\\])/(.*)$");
+
+    private final RegExTransformationService service = new RegExTransformationService();
+    private String expression = "";
+    private String source = "";
+
+    @Setup
+    public void setUp() {
+        switch (payload) {
+            case "obis":
+                expression = "1-0:1\\.8\\.1\\(([0-9.]+)\\*kWh\\)";
+                source = "1-0:1.8.1(012345.678*kWh)";
+                break;
+            case "mqtt":
+                expression = ".*\"temperature\":\\s*([-0-9.]+).*";
+                source = "{\"battery\":97,\"humidity\":45.12,\"linkquality\":63,\"temperature\":21.37,\"voltage\":2995}";
+                break;
+            case "substitution":
+                expression = "s/,/./g";
+                source = "1234,56";
+                break;
+            default:
+                throw new IllegalArgumentException(payload);
+        }
+    }
+
+    @Benchmark
+    public String cached() throws TransformationException {
+        return service.transform(expression, source);
+    }
+
+    /**
+     * Compiles the pattern on every call, as the transformation did before patterns were cached
+     */
+    @Benchmark
+    public String uncompiled() {
+        Matcher substMatcher = SUBSTR_PATTERN.matcher(expression);
+        if (substMatcher.matches()) {
+            return source.trim().replaceAll(substMatcher.group(1), substMatcher.group(2));
+        }
+        Matcher matcher = Pattern.compile("^" + expression + "$", Pattern.DOTALL).matcher(source.trim());
+        return matcher.matches() ? matcher.group(1) : "";
+    }
+
+    public static void main(String[] args) throws RunnerException, CommandLineOptionException {
+        CommandLineOptions commandLineOptions = new CommandLineOptions(args);
+        OptionsBuilder builder = new OptionsBuilder();
+        if (commandLineOptions.getIncludes().isEmpty()) {
+            builder.include(RegExBenchmark.class.getName());
+        }
+        new Runner(builder.parent(commandLineOptions).addProfiler(GCProfiler.class).build()).run();
+    }
+}
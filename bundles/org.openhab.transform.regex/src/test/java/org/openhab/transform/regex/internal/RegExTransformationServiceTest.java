@@ -75,4 +75,14 @@ public class RegExTransformationServiceTest extends AbstractTransformationServic
         // Asserts
         assertEquals("varX=12 varY=54 ", transformedResponse);
     }
+
+    @Test
+    public void testRepeatedTransformations() throws TransformationException {
+        for (int i = 0; i < 3; i++) {
+            assertEquals("012345.678",
+                    processor.transform("1-0:1\\.8\\.1\\(([0-9.]+)\\*kWh\\)", "1-0:1.8.1(012345.678*kWh)"));
+            assertEquals("1.234.5", processor.transform("s/,/./g", " 1,234,5 "));
+            assertEquals("1.234,5", processor.transform("s/,/./", "1,234,5"));
+        }
+    }
 }
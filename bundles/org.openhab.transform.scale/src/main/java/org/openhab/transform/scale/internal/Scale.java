@@ -0,0 +1,227 @@
+/**
+ * Copyright (c) 2010-2020 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.transform.scale.internal;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Compiled form of a scale file.
+ *
+ * The ranges are kept in an index sorted by lower bound, which is searched with binary search. Ranges overlapping
+ * with an indexed range cannot be indexed, and are checked one by one instead. In both cases the range defined
+ * first in the file wins, as with a linear search in file order.
+ *
+ * The format is split into literal and placeholder segments once, so formatting is plain string concatenation.
+ *
+ * @author Gaël L'hopital - Initial contribution
+ */
+public class Scale {
+
+    private static final String FORMAT_VALUE = "%value%";
+    private static final String FORMAT_LABEL = "%label%";
+
+    private static class Entry {
+        private final Range range;
+        private final String label;
+        // position in the scale file
+        private final int position;
+
+        private Entry(Range range, String label, int position) {
+            this.range = range;
+            this.label = label;
+            this.position = position;
+        }
+    }
+
+    /**
+     * Orders ranges by lower bound, unbounded first, and inclusive before exclusive lower bound
+     */
+    private static final Comparator<Entry> LOWER_BOUND_ORDER = (a, b) -> {
+        if (a.range.min == null || b.range.min == null) {
+            return a.range.min == null ? (b.range.min == null ? 0 : -1) : 1;
+        }
+        int cmp = a.range.min.compareTo(b.range.min);
+        if (cmp != 0) {
+            return cmp;
+        }
+        return Boolean.compare(!a.range.minInclusive, !b.range.minInclusive);
+    };
+
+    /** Non-overlapping ranges, sorted by lower bound. Upper bounds are non-decreasing as well. */
+    private final Entry[] index;
+    /** Ranges overlapping with indexed ones, in file order */
+    private final Entry[] overlapping;
+    /** Literal format segments, and <code>null</code> in place of value and label placeholders */
+    private final String[] formatSegments;
+    private final boolean[] formatIsLabel;
+    private final String nonNumeric;
+
+    /**
+     *
+     * @param ranges ranges and their labels, in file order
+     * @param format format with <code>%value%</code> and <code>%label%</code> placeholders
+     * @param nonNumeric label for non-numeric input, or null if not defined
+     */
+    public Scale(Map<Range, String> ranges, String format, String nonNumeric) {
+        List<Entry> entries = new ArrayList<>(ranges.size());
+        int position = 0;
+        for (Map.Entry<Range, String> range : ranges.entrySet()) {
+            if (!isEmpty(range.getKey())) {
+                entries.add(new Entry(range.getKey(), range.getValue(), position));
+            }
+            position++;
+        }
+        entries.sort(LOWER_BOUND_ORDER);
+
+        List<Entry> indexed = new ArrayList<>(entries.size());
+        List<Entry> rest = new ArrayList<>();
+        for (Entry entry : entries) {
+            if (indexed.isEmpty() || !overlaps(indexed.get(indexed.size() - 1).range, entry.range)) {
+                indexed.add(entry);
+            } else {
+                rest.add(entry);
+            }
+        }
+        rest.sort(Comparator.comparingInt(entry -> entry.position));
+        this.index = indexed.toArray(new Entry[0]);
+        this.overlapping = rest.toArray(new Entry[0]);
+
+        List<String> segments = new ArrayList<>();
+        List<Boolean> isLabel = new ArrayList<>();
+        int start = 0;
+        while (start < format.length()) {
+            int valueAt = format.indexOf(FORMAT_VALUE, start);
+            int labelAt = format.indexOf(FORMAT_LABEL, start);
+            int next = valueAt < 0 ? labelAt : (labelAt < 0 ? valueAt : Math.min(valueAt, labelAt));
+            if (next < 0) {
+                segments.add(format.substring(start));
+                isLabel.add(false);
+                break;
+            }
+            if (next > start) {
+                segments.add(format.substring(start, next));
+                isLabel.add(false);
+            }
+            segments.add(null);
+            isLabel.add(next == labelAt);
+            start = next + (next == labelAt ? FORMAT_LABEL.length() : FORMAT_VALUE.length());
+        }
+        this.formatSegments = segments.toArray(new String[0]);
+        this.formatIsLabel = new boolean[isLabel.size()];
+        for (int i = 0; i < formatIsLabel.length; i++) {
+            formatIsLabel[i] = isLabel.get(i);
+        }
+        this.nonNumeric = nonNumeric;
+    }
+
+    /**
+     * Label to use with non-numeric input
+     *
+     * @return label, or null if not defined in the scale file
+     */
+    public String getNonNumeric() {
+        return nonNumeric;
+    }
+
+    /**
+     * Find the label of the first range containing the value
+     *
+     * @param value value to look up
+     * @return label, or null if no range contains the value
+     */
+    public String getLabel(final BigDecimal value) {
+        Entry match = null;
+        // last indexed range with lower bound at most the value
+        int low = 0;
+        int high = index.length - 1;
+        int candidate = -1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            BigDecimal min = index[mid].range.min;
+            if (min == null || min.compareTo(value) <= 0) {
+                candidate = mid;
+                low = mid + 1;
+            } else {
+                high = mid - 1;
+            }
+        }
+        // ranges starting at the value with exclusive bound do not contain it, try preceding ranges until their upper
+        // bound is below the value
+        for (int i = candidate; i >= 0; i--) {
+            Range range = index[i].range;
+            if (range.contains(value)) {
+                match = index[i];
+                break;
+            }
+            if (range.max != null && range.max.compareTo(value) < 0) {
+                break;
+            }
+        }
+        for (Entry entry : overlapping) {
+            if (match != null && entry.position > match.position) {
+                break;
+            }
+            if (entry.range.contains(value)) {
+                match = entry;
+                break;
+            }
+        }
+        return match == null ? null : match.label;
+    }
+
+    /**
+     * Format the result
+     *
+     * @param source the transformed input, replacing <code>%value%</code>
+     * @param label the label, replacing <code>%label%</code>
+     * @return formatted result
+     */
+    public String format(final String source, final String label) {
+        if (formatSegments.length == 1 && formatSegments[0] == null) {
+            return formatIsLabel[0] ? label : source;
+        }
+        StringBuilder builder = new StringBuilder();
+        for (int i = 0; i < formatSegments.length; i++) {
+            String segment = formatSegments[i];
+            if (segment != null) {
+                builder.append(segment);
+            } else {
+                builder.append(formatIsLabel[i] ? label : source);
+            }
+        }
+        return builder.toString();
+    }
+
+    private static boolean isEmpty(final Range range) {
+        if (range.min == null || range.max == null) {
+            return false;
+        }
+        int cmp = range.min.compareTo(range.max);
+        return cmp > 0 || (cmp == 0 && !(range.minInclusive && range.maxInclusive));
+    }
+
+    /**
+     * Whether the ranges overlap, given that <code>first</code> does not start after <code>second</code>
+     */
+    private static boolean overlaps(final Range first, final Range second) {
+        if (first.max == null || second.min == null) {
+            return true;
+        }
+        int cmp = first.max.compareTo(second.min);
+        return cmp > 0 || (cmp == 0 && first.maxInclusive && second.minInclusive);
+    }
+}
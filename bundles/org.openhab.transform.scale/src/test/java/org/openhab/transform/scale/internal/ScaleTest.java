@@ -0,0 +1,98 @@
+/**
+ * Copyright (c) 2010-2020 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.transform.scale.internal;
+
+import static org.junit.Assert.*;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import org.junit.Test;
+
+/**
+ * @author Gaël L'hopital - Initial contribution
+ */
+public class ScaleTest {
+
+    private static BigDecimal value(int value) {
+        return BigDecimal.valueOf(value);
+    }
+
+    @Test
+    public void testAdjacentBounds() {
+        Map<Range, String> ranges = new LinkedHashMap<>();
+        ranges.put(Range.closed(value(0), value(5)), "a");
+        ranges.put(Range.openClosed(value(5), value(10)), "b");
+        ranges.put(Range.greaterThan(value(10)), "c");
+        Scale scale = new Scale(ranges, "%label%", null);
+
+        assertNull(scale.getLabel(value(-1)));
+        assertEquals("a", scale.getLabel(value(5)));
+        assertEquals("b", scale.getLabel(new BigDecimal("5.01")));
+        assertEquals("b", scale.getLabel(value(10)));
+        assertEquals("c", scale.getLabel(value(11)));
+    }
+
+    @Test
+    public void testOverlappingRangesFirstInFileWins() {
+        Map<Range, String> ranges = new LinkedHashMap<>();
+        ranges.put(Range.closedOpen(value(10), value(20)), "middle");
+        ranges.put(Range.all(), "all");
+        ranges.put(Range.closedOpen(value(0), value(10)), "low");
+        Scale scale = new Scale(ranges, "%label%", null);
+
+        assertEquals("middle", scale.getLabel(value(15)));
+        assertEquals("all", scale.getLabel(value(5)));
+        assertEquals("all", scale.getLabel(value(25)));
+    }
+
+    @Test
+    public void testSameAsLinearSearch() {
+        Random random = new Random(1);
+        for (int round = 0; round < 1000; round++) {
+            Map<Range, String> ranges = new LinkedHashMap<>();
+            List<Range> ordered = new ArrayList<>();
+            int count = random.nextInt(8);
+            for (int i = 0; i < count; i++) {
+                BigDecimal lower = random.nextInt(5) == 0 ? null : value(random.nextInt(20));
+                BigDecimal upper = random.nextInt(5) == 0 ? null : value(random.nextInt(20));
+                Range range = Range.range(lower, random.nextBoolean(), upper, random.nextBoolean());
+                ranges.put(range, "label" + i);
+                ordered.add(range);
+            }
+            Scale scale = new Scale(ranges, "%label%", null);
+            for (int v = -2; v < 23; v++) {
+                String expected = null;
+                for (Range range : ordered) {
+                    if (range.contains(value(v))) {
+                        expected = ranges.get(range);
+                        break;
+                    }
+                }
+                assertEquals(expected, scale.getLabel(value(v)));
+            }
+        }
+    }
+
+    @Test
+    public void testFormat() {
+        Scale scale = new Scale(new LinkedHashMap<>(), "%label% (%value%) $1 %label%", null);
+        assertEquals("ok (12) $1 ok", scale.format("12", "ok"));
+        assertEquals("12", new Scale(new LinkedHashMap<>(), "%value%", null).format("12", "ok"));
+        assertEquals("", new Scale(new LinkedHashMap<>(), "", null).format("12", "ok"));
+    }
+}
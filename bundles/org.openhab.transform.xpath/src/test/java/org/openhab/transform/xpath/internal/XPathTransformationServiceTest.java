@@ -38,4 +38,27 @@ public class XPathTransformationServiceTest extends AbstractTransformationServic
         // Asserts
         assertEquals("8", transformedResponse);
     }
+
+    @Test
+    public void testRepeatedTransformations() throws TransformationException {
+        for (int i = 0; i < 3; i++) {
+            assertEquals("8", processor.transform("//current_conditions/temp_c/@data", source));
+            assertEquals("46", processor.transform("//current_conditions/temp_f/@data", source));
+        }
+    }
+
+    @Test(expected = TransformationException.class)
+    public void testInvalidXml() throws TransformationException {
+        processor.transform("//current_conditions/temp_c/@data", "<xml_api_reply");
+    }
+
+    @Test
+    public void testTransformAfterInvalidXml() throws TransformationException {
+        try {
+            processor.transform("//current_conditions/temp_c/@data", "<xml_api_reply");
+        } catch (TransformationException e) {
+            // expected, the document builder of the thread must be usable afterwards
+        }
+        assertEquals("8", processor.transform("//current_conditions/temp_c/@data", source));
+    }
 }
@@ -14,6 +14,8 @@ package org.openhab.transform.xslt.internal;
 
 import static org.junit.Assert.assertEquals;
 
+import java.util.Locale;
+
 import org.eclipse.smarthome.core.transform.TransformationException;
 import org.junit.Before;
 import org.junit.Test;
@@ -27,7 +29,12 @@ public class XsltTransformationServiceTest extends AbstractTransformationService
 
     @Before
     public void init() {
-        processor = new XsltTransformationService();
+        processor = new XsltTransformationService() {
+            @Override
+            protected Locale getLocale() {
+                return Locale.US;
+            }
+        };
     }
 
     @Test
@@ -38,4 +45,11 @@ public class XsltTransformationServiceTest extends AbstractTransformationService
         // Asserts
         assertEquals("8", transformedResponse);
     }
+
+    @Test
+    public void testCompiledStylesheetReused() throws TransformationException {
+        assertEquals("8", processor.transform("http/google_weather.xsl", source));
+        String changedSource = source.replace("<temp_c data=\"8\"/>", "<temp_c data=\"9\"/>");
+        assertEquals("9", processor.transform("http/google_weather.xsl", changedSource));
+    }
 }
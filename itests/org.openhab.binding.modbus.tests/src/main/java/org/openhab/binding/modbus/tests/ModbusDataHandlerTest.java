@@ -21,6 +21,7 @@ import static org.openhab.binding.modbus.internal.ModbusBindingConstantsInternal
 
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -225,6 +226,11 @@ public class ModbusDataHandlerTest extends AbstractModbusOSGiTest {
         return channelUID.toString().replace(':', '_') + "_item";
     }
 
+    private List<State> stateUpdates(String itemName) {
+        List<State> updates = getStateUpdates(itemName);
+        return updates == null ? Collections.emptyList() : updates;
+    }
+
     private void assertSingleStateUpdate(ModbusDataThingHandler handler, String channel, Matcher<State> matcher) {
         waitForAssert(() -> {
             ChannelUID channelUID = new ChannelUID(handler.getThing().getUID(), channel);
@@ -516,6 +522,51 @@ public class ModbusDataHandlerTest extends AbstractModbusOSGiTest {
         // no datetime, conversion not possible without transformation
     }
 
+    @SuppressWarnings({ "null" })
+    @Test
+    public void testOnRegistersUnchangedDataSkipped() {
+        ModbusSlaveEndpoint endpoint = new ModbusTCPSlaveEndpoint("thisishost", 502);
+
+        // Minimally mocked request
+        ModbusReadRequestBlueprint request = Mockito.mock(ModbusReadRequestBlueprint.class);
+        doReturn(3).when(request).getDataLength();
+        doReturn(ModbusReadFunctionCode.READ_MULTIPLE_REGISTERS).when(request).getFunctionCode();
+
+        PollTask task = Mockito.mock(PollTask.class);
+        doReturn(endpoint).when(task).getEndpoint();
+        doReturn(request).when(task).getRequest();
+
+        Bridge poller = createPollerMock("poller1", task);
+
+        Configuration dataConfig = new Configuration();
+        dataConfig.put("readStart", "1");
+        dataConfig.put("readTransform", "default");
+        dataConfig.put("readValueType", "int16");
+        dataConfig.put("updateUnchangedValuesEveryMillis", 60_000L);
+
+        ModbusDataThingHandler dataHandler = createDataHandler("read1", poller,
+                builder -> builder.withConfiguration(dataConfig));
+        assertThat(dataHandler.getThing().getStatus(), is(equalTo(ThingStatus.ONLINE)));
+        String numberItem = getItemName(new ChannelUID(dataHandler.getThing().getUID(), CHANNEL_NUMBER));
+        String lastReadSuccessItem = getItemName(
+                new ChannelUID(dataHandler.getThing().getUID(), CHANNEL_LAST_READ_SUCCESS));
+
+        dataHandler.onReadResult(new AsyncModbusReadResult(request, new ModbusRegisterArray(1, 5, 2)));
+        waitForAssert(
+                () -> assertThat(stateUpdates(numberItem), is(equalTo(Arrays.<State> asList(new DecimalType(5))))));
+
+        // Registers other than the one holding the value change, the value does not
+        dataHandler.onReadResult(new AsyncModbusReadResult(request, new ModbusRegisterArray(7, 5, 8)));
+        waitForAssert(() -> assertThat(stateUpdates(lastReadSuccessItem).size(), is(equalTo(2))));
+        assertThat(stateUpdates(numberItem), is(equalTo(Arrays.<State> asList(new DecimalType(5)))));
+
+        // Value changes
+        dataHandler.onReadResult(new AsyncModbusReadResult(request, new ModbusRegisterArray(7, 6, 8)));
+        waitForAssert(() -> assertThat(stateUpdates(numberItem),
+                is(equalTo(Arrays.<State> asList(new DecimalType(5), new DecimalType(6))))));
+        waitForAssert(() -> assertThat(stateUpdates(lastReadSuccessItem).size(), is(equalTo(3))));
+    }
+
     @Test
     public void testOnRegistersRealTransformation() {
         mockTransformation("MULTIPLY", new MultiplyTransformation());